@@ -0,0 +1,156 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of streaming a file body per megabyte: the okio file body of {@code
+ * RequestBody.create(File, MediaType)}, alone and behind {@link ProgressRequestBody}, a channel
+ * read through a 64 KB heap buffer, and {@link FileChannelRequestBody}, alone and reporting to the
+ * console callback. Each operation writes a 64 MB file to a sink that discards it, and counts as
+ * one operation per megabyte.
+ *
+ * <p>The file stays in the page cache and the sink does no I/O, so the time per operation is the
+ * CPU cost of the body, and the {@code gc.alloc.rate.norm} of the {@code gc} profiler its heap
+ * allocation. Multiplying both by 1024 gives the cost per GB uploaded.
+ *
+ * <p>{@code fileChannelSmallBodies} instead writes 256 bodies of 16 KB each, as the ranges of a
+ * delta upload, and counts one operation per body, so that it measures the fixed cost of a body
+ * next to the read itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileBodyBenchmark {
+
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    private static final int MEGABYTES = 64;
+    private static final int HEAP_BUFFER_SIZE = 64 * 1024;
+    private static final int SMALL_BODIES = 256;
+    private static final int SMALL_BODY_SIZE = 16 * 1024;
+
+    private File file;
+    private PrintStream console;
+
+    @Setup
+    public void createFile() throws IOException {
+        file = File.createTempFile("file-body", ".apk");
+        byte[] content = new byte[MEGABYTES * 1024 * 1024];
+        new Random(42).nextBytes(content);
+        Files.write(file.toPath(), content);
+
+        // The console callback renders to standard output, which would drown the results
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void deleteFile() {
+        System.setOut(console);
+        ProgressTracker.reset();
+        file.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEGABYTES)
+    public long okioFileBody() throws IOException {
+        return write(RequestBody.create(file, OCTET_STREAM));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEGABYTES)
+    public long okioFileBodyWithConsole() throws IOException {
+        return write(
+                new ProgressRequestBody(
+                        RequestBody.create(file, OCTET_STREAM),
+                        ProgressRequestBody.createConsoleCallback("Benchmark")));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEGABYTES)
+    public long heapBufferChannelBody() throws IOException {
+        return write(
+                new RequestBody() {
+                    @Override
+                    public MediaType contentType() {
+                        return OCTET_STREAM;
+                    }
+
+                    @Override
+                    public long contentLength() {
+                        return file.length();
+                    }
+
+                    @Override
+                    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+                        try (FileChannel channel =
+                                FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                            FileChannelRequestBody.transfer(
+                                    channel,
+                                    file,
+                                    0,
+                                    file.length(),
+                                    ByteBuffer.allocate(HEAP_BUFFER_SIZE),
+                                    sink,
+                                    null);
+                        }
+                    }
+                });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEGABYTES)
+    public long fileChannelBody() throws IOException {
+        return write(new FileChannelRequestBody(file, OCTET_STREAM, null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEGABYTES)
+    public long fileChannelBodyWithConsole() throws IOException {
+        return write(
+                new FileChannelRequestBody(
+                        file,
+                        OCTET_STREAM,
+                        ProgressRequestBody.createConsoleCallback("Benchmark")));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SMALL_BODIES)
+    public long fileChannelSmallBodies() throws IOException {
+        long written = 0;
+        for (int i = 0; i < SMALL_BODIES; i++) {
+            written +=
+                    write(new FileChannelRequestBody(file, 0, SMALL_BODY_SIZE, OCTET_STREAM, null));
+        }
+        return written;
+    }
+
+    private static long write(RequestBody body) throws IOException {
+        try (BufferedSink sink = Okio.buffer(Okio.blackhole())) {
+            body.writeTo(sink);
+        }
+        return body.contentLength();
+    }
+}
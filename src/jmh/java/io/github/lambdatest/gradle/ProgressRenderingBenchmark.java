@@ -0,0 +1,52 @@
+package io.github.lambdatest.gradle;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures rendering one progress update: {@link ProgressRequestBody#formatBytes(long)} for sizes
+ * in each unit, and a full {@link ProgressTracker#updateProgress(String, float, long, long)} line
+ * written to a discarded standard output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProgressRenderingBenchmark {
+
+    @Param({"512", "1536", "52428800", "3221225472"})
+    public long bytes;
+
+    private PrintStream console;
+
+    @Setup
+    public void discardConsole() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void restoreConsole() {
+        System.setOut(console);
+        ProgressTracker.reset();
+    }
+
+    @Benchmark
+    public String formatBytes() {
+        return ProgressRequestBody.formatBytes(bytes);
+    }
+
+    @Benchmark
+    public void updateProgress() {
+        ProgressTracker.updateProgress("App", 42.5f, bytes, bytes * 2);
+    }
+}
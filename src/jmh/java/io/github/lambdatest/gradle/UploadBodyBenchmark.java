@@ -0,0 +1,122 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures writing an upload body to a sink that discards it, so that only the cost of reading
+ * the file and of the body wrappers is left: a raw file body against {@link ProgressRequestBody}
+ * with no callback, a callback doing nothing and the console callback, and the multipart form of
+ * {@link UploaderUtil#multipartBody(File, String)}, streamed by {@link FileChannelRequestBody},
+ * with and without progress tracking, and the multipart form compressed by {@link
+ * GzipRequestBody} at its fastest level. The file is random, so the latter shows the worst case
+ * cost of compressing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UploadBodyBenchmark {
+
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    @Param({"65536", "1048576", "16777216"})
+    public int fileSize;
+
+    private File file;
+    private PrintStream console;
+
+    @Setup
+    public void createFile() throws IOException {
+        file = File.createTempFile("upload-body", ".apk");
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        Files.write(file.toPath(), content);
+
+        // The console callback renders to standard output, which would drown the results
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void deleteFile() {
+        System.setOut(console);
+        ProgressTracker.reset();
+        file.delete();
+    }
+
+    @Benchmark
+    public long rawFileBody() throws IOException {
+        return write(RequestBody.create(file, OCTET_STREAM));
+    }
+
+    @Benchmark
+    public long progressBodyWithoutCallback() throws IOException {
+        return write(new ProgressRequestBody(RequestBody.create(file, OCTET_STREAM), null));
+    }
+
+    @Benchmark
+    public long progressBodyWithCallback(Blackhole blackhole) throws IOException {
+        return write(
+                new ProgressRequestBody(
+                        RequestBody.create(file, OCTET_STREAM),
+                        (bytesWritten, totalBytes, percentage) -> blackhole.consume(bytesWritten)));
+    }
+
+    @Benchmark
+    public long progressBodyWithConsole() throws IOException {
+        return write(
+                new ProgressRequestBody(
+                        RequestBody.create(file, OCTET_STREAM),
+                        ProgressRequestBody.createConsoleCallback("Benchmark")));
+    }
+
+    @Benchmark
+    public long multipartBody() throws IOException {
+        return write(UploaderUtil.multipartBody(file, file.getPath()));
+    }
+
+    @Benchmark
+    public long multipartProgressBody() throws IOException {
+        return write(
+                new ProgressRequestBody(
+                        UploaderUtil.multipartBody(file, file.getPath()),
+                        ProgressRequestBody.createConsoleCallback("Benchmark")));
+    }
+
+    @Benchmark
+    public long compressedMultipartBody() throws IOException {
+        return write(
+                UploaderUtil.multipartBody(
+                        new GzipRequestBody(
+                                RequestBody.create(file, OCTET_STREAM),
+                                UploadOptions.DEFAULT_COMPRESSION_LEVEL),
+                        file.getPath(),
+                        GzipRequestBody.ENCODING));
+    }
+
+    private static long write(RequestBody body) throws IOException {
+        try (BufferedSink sink = Okio.buffer(Okio.blackhole())) {
+            body.writeTo(sink);
+        }
+        return body.contentLength();
+    }
+}
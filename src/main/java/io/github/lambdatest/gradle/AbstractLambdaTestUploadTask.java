@@ -0,0 +1,350 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Console;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Base class of the LambdaTest tasks uploading APKs, {@link LambdaTestTask} and {@link
+ * LambdaUploaderTask}. It holds the credentials, the APKs and the upload settings, whose
+ * conventions {@link LambdaTestPlugin} takes from {@link LambdaTestExtension}, and turns them into
+ * the {@link UploadOptions} of a run.
+ */
+public abstract class AbstractLambdaTestUploadTask extends DefaultTask {
+
+    private static final Logger logger = Logging.getLogger(AbstractLambdaTestUploadTask.class);
+
+    private final Property<String> username;
+    private final Property<String> accessKey;
+    private final RegularFileProperty appFile;
+    private final RegularFileProperty testSuiteFile;
+    private final Property<Boolean> showUploadProgress;
+    private final Property<Boolean> uploadCache;
+    private final Property<Integer> uploadCacheTtlDays;
+    private final Property<Integer> uploadCacheMaxEntries;
+    private final Property<Boolean> chunkedUpload;
+    private final Property<Integer> uploadChunkSizeMb;
+    private final Property<Integer> uploadParallelism;
+    private final Property<Integer> uploadStallTimeoutSeconds;
+    private final Property<Boolean> compressedUpload;
+    private final Property<Integer> uploadCompressionLevel;
+    private final Property<Boolean> deltaUpload;
+    private final Property<Boolean> validateApk;
+    private final DirectoryProperty gradleUserHomeDir;
+    private final ProgressRenderer.Style progressStyle;
+
+    /**
+     * Creates the upload properties, with the Gradle user home the upload cache is kept in and
+     * the style of the upload progress display resolved at configuration time so the action never
+     * touches the project.
+     */
+    protected AbstractLambdaTestUploadTask() {
+        ObjectFactory objects = getProject().getObjects();
+        username = objects.property(String.class);
+        accessKey = objects.property(String.class);
+        appFile = objects.fileProperty();
+        testSuiteFile = objects.fileProperty();
+        showUploadProgress = objects.property(Boolean.class);
+        uploadCache = objects.property(Boolean.class);
+        uploadCacheTtlDays = objects.property(Integer.class);
+        uploadCacheMaxEntries = objects.property(Integer.class);
+        chunkedUpload = objects.property(Boolean.class);
+        uploadChunkSizeMb = objects.property(Integer.class);
+        uploadParallelism = objects.property(Integer.class);
+        uploadStallTimeoutSeconds = objects.property(Integer.class);
+        compressedUpload = objects.property(Boolean.class);
+        uploadCompressionLevel = objects.property(Integer.class);
+        deltaUpload = objects.property(Boolean.class);
+        validateApk = objects.property(Boolean.class);
+        gradleUserHomeDir = objects.directoryProperty();
+        getGradleUserHomeDir().fileValue(getProject().getGradle().getGradleUserHomeDir());
+        progressStyle = ProgressRenderer.select(getProject().getGradle().getStartParameter());
+    }
+
+    /**
+     * The shared HTTP client service, set by {@link LambdaTestPlugin}. When absent the uploads use
+     * the plugin's default client.
+     *
+     * @return The property holding the {@link LambdaTestHttpService}
+     */
+    @Internal
+    public abstract Property<LambdaTestHttpService> getHttpService();
+
+    /** IDs are only valid for the account that uploaded them, so the username is an input. */
+    @Input
+    @Optional
+    public Property<String> getUsername() {
+        return username;
+    }
+
+    @Internal
+    public Property<String> getAccessKey() {
+        return accessKey;
+    }
+
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getAppFile() {
+        return appFile;
+    }
+
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getTestSuiteFile() {
+        return testSuiteFile;
+    }
+
+    @Console
+    public Property<Boolean> getShowUploadProgress() {
+        return showUploadProgress;
+    }
+
+    @Internal
+    public Property<Boolean> getUploadCache() {
+        return uploadCache;
+    }
+
+    @Internal
+    public Property<Integer> getUploadCacheTtlDays() {
+        return uploadCacheTtlDays;
+    }
+
+    @Internal
+    public Property<Integer> getUploadCacheMaxEntries() {
+        return uploadCacheMaxEntries;
+    }
+
+    @Internal
+    public Property<Boolean> getChunkedUpload() {
+        return chunkedUpload;
+    }
+
+    @Internal
+    public Property<Integer> getUploadChunkSizeMb() {
+        return uploadChunkSizeMb;
+    }
+
+    @Internal
+    public Property<Integer> getUploadParallelism() {
+        return uploadParallelism;
+    }
+
+    @Internal
+    public Property<Integer> getUploadStallTimeoutSeconds() {
+        return uploadStallTimeoutSeconds;
+    }
+
+    @Internal
+    public Property<Boolean> getCompressedUpload() {
+        return compressedUpload;
+    }
+
+    @Internal
+    public Property<Integer> getUploadCompressionLevel() {
+        return uploadCompressionLevel;
+    }
+
+    @Internal
+    public Property<Boolean> getDeltaUpload() {
+        return deltaUpload;
+    }
+
+    @Internal
+    public Property<Boolean> getValidateApk() {
+        return validateApk;
+    }
+
+    /** The Gradle user home directory holding the upload cache. */
+    @Internal
+    public DirectoryProperty getGradleUserHomeDir() {
+        return gradleUserHomeDir;
+    }
+
+    /**
+     * Returns whether upload progress is displayed in the console.
+     *
+     * @return {@code true} if {@code showUploadProgress} is set
+     */
+    protected boolean isProgressEnabled() {
+        return getShowUploadProgress().getOrElse(false);
+    }
+
+    /**
+     * Creates the progress display of a run.
+     *
+     * @return The tracker, or null if upload progress is not displayed
+     */
+    protected ProgressTracker createProgressTracker() {
+        return isProgressEnabled()
+                ? new ProgressTracker(ProgressRenderer.create(progressStyle))
+                : null;
+    }
+
+    /**
+     * Opens the upload cache in the Gradle user home.
+     *
+     * @return The cache, or null if {@code uploadCache} is not enabled
+     */
+    protected UploadCache createUploadCache() {
+        return getUploadCache().getOrElse(false)
+                ? UploadCache.inGradleUserHome(
+                        getGradleUserHomeDir().get().getAsFile(),
+                        getUploadCacheTtlDays().getOrNull(),
+                        getUploadCacheMaxEntries().getOrNull())
+                : null;
+    }
+
+    /**
+     * Builds the options of the uploads of a run from the upload settings of the task.
+     *
+     * @param cache The upload cache of the run, or null
+     * @param progressTracker The progress display of the run, or null
+     * @param endpoints The endpoints captured for the run
+     * @return The upload options
+     */
+    protected UploadOptions uploadOptions(
+            UploadCache cache, ProgressTracker progressTracker, Endpoints endpoints) {
+        LambdaTestHttpService service = getHttpService().getOrNull();
+        UploadOptions.Builder builder =
+                UploadOptions.builder()
+                        .showProgress(isProgressEnabled())
+                        .uploadCache(cache)
+                        .uploadRegistry(service != null ? service.getUploadRegistry() : null)
+                        .httpClient(service != null ? service.getClient() : null)
+                        .executor(service != null ? service.getUploadExecutor() : null)
+                        .retryPolicy(service != null ? service.getRetryPolicy() : null)
+                        .chunkedUpload(getChunkedUpload().getOrElse(false))
+                        .compressedUpload(getCompressedUpload().getOrElse(false))
+                        .deltaUpload(getDeltaUpload().getOrElse(false))
+                        .deltaBaseDir(
+                                new File(
+                                        getGradleUserHomeDir().get().getAsFile(),
+                                        DeltaBase.DEFAULT_BASE_DIR))
+                        .chunkJournalDir(getTemporaryDir())
+                        .endpoints(endpoints)
+                        .progressTracker(progressTracker);
+        if (getUploadChunkSizeMb().isPresent()) {
+            builder.chunkSize(getUploadChunkSizeMb().get() * 1024L * 1024L);
+        }
+        if (getUploadParallelism().isPresent()) {
+            builder.chunkParallelism(getUploadParallelism().get());
+        }
+        if (getUploadStallTimeoutSeconds().isPresent()) {
+            builder.stallTimeoutSeconds(getUploadStallTimeoutSeconds().get());
+        }
+        if (getUploadCompressionLevel().isPresent()) {
+            builder.compressionLevel(getUploadCompressionLevel().get());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Fails the task before any upload starts if an APK to upload is invalid. Does nothing unless
+     * {@code validateApk} is enabled.
+     *
+     * @param app The app APK to upload, or null
+     * @param testSuite The test APK to upload, or null
+     */
+    protected void validateApks(File app, File testSuite) {
+        if (!getValidateApk().getOrElse(false)) {
+            return;
+        }
+        try {
+            ApkValidator.validate(app, testSuite);
+        } catch (IOException e) {
+            logger.error("APK validation failed: {}", e.getMessage());
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the absolute path of a file property, as passed to the uploaders.
+     *
+     * @param file The file property, which must be present
+     * @return The absolute path of the file
+     */
+    protected static String filePath(RegularFileProperty file) {
+        return file.get().getAsFile().getAbsolutePath();
+    }
+
+    // Setter functions for the upload settings, kept for build scripts assigning plain values
+    public void setUsername(String username) {
+        getUsername().set(username);
+    }
+
+    public void setAccessKey(String accessKey) {
+        getAccessKey().set(accessKey);
+    }
+
+    public void setAppFilePath(String appFilePath) {
+        getAppFile().set(appFilePath != null ? getProject().file(appFilePath) : null);
+    }
+
+    public void setTestSuiteFilePath(String testSuiteFilePath) {
+        getTestSuiteFile()
+                .set(testSuiteFilePath != null ? getProject().file(testSuiteFilePath) : null);
+    }
+
+    public void setShowUploadProgress(Boolean showUploadProgress) {
+        getShowUploadProgress().set(showUploadProgress);
+    }
+
+    public void setUploadCache(Boolean uploadCache) {
+        getUploadCache().set(uploadCache);
+    }
+
+    public void setUploadCacheTtlDays(Integer uploadCacheTtlDays) {
+        getUploadCacheTtlDays().set(uploadCacheTtlDays);
+    }
+
+    public void setUploadCacheMaxEntries(Integer uploadCacheMaxEntries) {
+        getUploadCacheMaxEntries().set(uploadCacheMaxEntries);
+    }
+
+    public void setChunkedUpload(Boolean chunkedUpload) {
+        getChunkedUpload().set(chunkedUpload);
+    }
+
+    public void setUploadChunkSizeMb(Integer uploadChunkSizeMb) {
+        getUploadChunkSizeMb().set(uploadChunkSizeMb);
+    }
+
+    public void setUploadParallelism(Integer uploadParallelism) {
+        getUploadParallelism().set(uploadParallelism);
+    }
+
+    public void setUploadStallTimeoutSeconds(Integer uploadStallTimeoutSeconds) {
+        getUploadStallTimeoutSeconds().set(uploadStallTimeoutSeconds);
+    }
+
+    public void setCompressedUpload(Boolean compressedUpload) {
+        getCompressedUpload().set(compressedUpload);
+    }
+
+    public void setUploadCompressionLevel(Integer uploadCompressionLevel) {
+        getUploadCompressionLevel().set(uploadCompressionLevel);
+    }
+
+    public void setDeltaUpload(Boolean deltaUpload) {
+        getDeltaUpload().set(deltaUpload);
+    }
+
+    public void setValidateApk(Boolean validateApk) {
+        getValidateApk().set(validateApk);
+    }
+}
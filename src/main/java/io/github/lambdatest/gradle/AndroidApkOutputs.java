@@ -0,0 +1,181 @@
+package io.github.lambdatest.gradle;
+
+import com.android.build.api.artifact.Artifacts;
+import com.android.build.api.artifact.SingleArtifact;
+import com.android.build.api.variant.AndroidTest;
+import com.android.build.api.variant.ApplicationAndroidComponentsExtension;
+import com.android.build.api.variant.ApplicationVariant;
+import com.android.build.api.variant.BuiltArtifact;
+import com.android.build.api.variant.BuiltArtifacts;
+import com.android.build.api.variant.BuiltArtifactsLoader;
+import com.android.build.api.variant.FilterConfiguration;
+import com.android.build.api.variant.VariantOutputConfiguration;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.TaskProvider;
+
+/**
+ * Wires the APKs built by the Android Gradle Plugin into the LambdaTest upload tasks.
+ *
+ * <p>The APKs are taken from the variant API as lazy providers, which carry the dependency on the
+ * task packaging them. The app upload therefore only waits for the app APK and can run while the
+ * test APK is still being compiled and dexed. This class references Android Gradle Plugin types
+ * and is only loaded once the {@code com.android.application} plugin has been applied.
+ */
+final class AndroidApkOutputs {
+
+    /** Private constructor to prevent instantiation of this utility class. */
+    private AndroidApkOutputs() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Uses the APKs of the variant selected by {@link LambdaTestExtension#getVariant()} as the
+     * default files of the upload tasks, and feeds the IDs they upload to {@code runLambdaTest}.
+     *
+     * @param project The Android application project
+     * @param extension The {@code lambdatest} extension of the project
+     * @param uploadApp The task uploading the app APK
+     * @param uploadTestSuite The task uploading the test APK
+     * @param runTests The task running the tests
+     */
+    static void wire(
+            Project project,
+            LambdaTestExtension extension,
+            TaskProvider<LambdaUploaderTask> uploadApp,
+            TaskProvider<LambdaUploaderTask> uploadTestSuite,
+            TaskProvider<LambdaTestTask> runTests) {
+        ApplicationAndroidComponentsExtension components =
+                project.getExtensions().getByType(ApplicationAndroidComponentsExtension.class);
+        components.onVariants(
+                components.selector().all(),
+                variant -> {
+                    if (!variant.getName().equals(extension.getVariant().get())) {
+                        return;
+                    }
+                    wireVariant(variant, uploadApp, uploadTestSuite, runTests);
+                });
+    }
+
+    /**
+     * Uses the APKs of a variant as the default files of the upload tasks. {@code runLambdaTest}
+     * only reads the IDs uploaded by those tasks, and only depends on them, for an APK it was not
+     * given explicitly, so an {@code appFilePath} or {@code appId} set on it still wins.
+     *
+     * @param variant The selected variant
+     * @param uploadApp The task uploading the app APK
+     * @param uploadTestSuite The task uploading the test APK
+     * @param runTests The task running the tests
+     */
+    static void wireVariant(
+            ApplicationVariant variant,
+            TaskProvider<LambdaUploaderTask> uploadApp,
+            TaskProvider<LambdaUploaderTask> uploadTestSuite,
+            TaskProvider<LambdaTestTask> runTests) {
+        Provider<RegularFile> appApk =
+                mainApk(variant.getArtifacts());
+        uploadApp.configure(task -> task.getAppFile().convention(appApk));
+        runTests.configure(
+                task ->
+                        task.getUploadIdsFiles()
+                                .from(
+                                        uploadIdsUnlessExplicit(
+                                                task.getAppId(), task.getAppFile(), uploadApp)));
+
+        AndroidTest androidTest = variant.getAndroidTest();
+        if (androidTest == null) {
+            return;
+        }
+        Provider<RegularFile> testApk =
+                mainApk(androidTest.getArtifacts());
+        uploadTestSuite.configure(task -> task.getTestSuiteFile().convention(testApk));
+        runTests.configure(
+                task ->
+                        task.getUploadIdsFiles()
+                                .from(
+                                        uploadIdsUnlessExplicit(
+                                                task.getTestSuiteId(),
+                                                task.getTestSuiteFile(),
+                                                uploadTestSuite)));
+    }
+
+    /**
+     * Returns the IDs file written by an upload task, or no file when the ID or the APK was set
+     * explicitly. The provider only carries the dependency on the upload task in the former case.
+     *
+     * @param id The explicit ID of the APK
+     * @param apk The explicit APK file
+     * @param upload The task uploading the APK otherwise
+     * @return A provider of the file, or of an empty list
+     */
+    private static Provider<Object> uploadIdsUnlessExplicit(
+            Provider<String> id,
+            Provider<RegularFile> apk,
+            TaskProvider<LambdaUploaderTask> upload) {
+        return id.<Object>map(value -> Collections.emptyList())
+                .orElse(apk.map(value -> Collections.emptyList()))
+                .orElse(upload.flatMap(LambdaUploaderTask::getUploadIdsFile));
+    }
+
+    /**
+     * Maps the APK output directory of a variant to the APK to upload, read from the metadata the
+     * Android Gradle Plugin writes next to the APKs.
+     *
+     * @param artifacts The artifacts of the variant or of its android test
+     * @return A provider of the APK to upload
+     */
+    private static Provider<RegularFile> mainApk(Artifacts artifacts) {
+        BuiltArtifactsLoader loader = artifacts.getBuiltArtifactsLoader();
+        return artifacts
+                .get(SingleArtifact.APK.INSTANCE)
+                .map(
+                        directory ->
+                                directory.file(
+                                        selectApk(
+                                                loader.load(directory), directory.getAsFile())));
+    }
+
+    /**
+     * Selects the APK to upload among the APKs of a variant: its only APK, or the universal APK
+     * when it is split by ABI or density.
+     *
+     * @param builtArtifacts The APKs of the variant, or null if their metadata is missing
+     * @param directory The APK output directory, for the error message
+     * @return The path of the APK to upload
+     * @throws IllegalStateException if there is no APK or only split APKs without a universal one
+     */
+    static String selectApk(BuiltArtifacts builtArtifacts, File directory) {
+        if (builtArtifacts == null || builtArtifacts.getElements().isEmpty()) {
+            throw new IllegalStateException("Expected an APK and its metadata in " + directory);
+        }
+        Collection<BuiltArtifact> elements = builtArtifacts.getElements();
+        if (elements.size() == 1) {
+            return elements.iterator().next().getOutputFile();
+        }
+        List<String> splits = new ArrayList<>();
+        for (BuiltArtifact element : elements) {
+            if (element.getOutputType() == VariantOutputConfiguration.OutputType.UNIVERSAL) {
+                return element.getOutputFile();
+            }
+            List<String> filters = new ArrayList<>();
+            for (FilterConfiguration filter : element.getFilters()) {
+                filters.add(filter.getFilterType() + "=" + filter.getIdentifier());
+            }
+            splits.add(String.join(", ", filters));
+        }
+        throw new IllegalStateException(
+                "Variant "
+                        + builtArtifacts.getVariantName()
+                        + " is built as split APKs "
+                        + splits
+                        + " without a universal APK. Enable universalApk in the splits block of"
+                        + " the android configuration, or set appFilePath and testSuiteFilePath.");
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.lambdatest.gradle;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders each upload on its own fixed console line, redrawn in place with ANSI cursor movements.
+ * This keeps concurrent uploads from cluttering an interactive terminal, but is unreadable once
+ * the output is captured in a log.
+ */
+final class AnsiProgressRenderer implements ProgressRenderer {
+
+    private final Map<String, Integer> uploadLines = new HashMap<>();
+
+    /**
+     * Allocates a line for an upload the first time it is drawn.
+     *
+     * @param uploadId Unique identifier for the upload (e.g., "App", "Test Suite")
+     * @return The line number of this upload
+     */
+    private int registerUpload(String uploadId) {
+        return uploadLines.computeIfAbsent(
+                uploadId,
+                k -> {
+                    // Print a newline to reserve space for this upload
+                    System.out.println();
+                    System.out.flush();
+                    return uploadLines.size();
+                });
+    }
+
+    @Override
+    public void update(
+            String uploadId, float percentage, long bytesWritten, long totalBytes, String status) {
+        // Register upload if not already registered (reserves a line)
+        int lineNumber = registerUpload(uploadId);
+        int totalLines = uploadLines.size();
+
+        // Move cursor to the appropriate line
+        if (lineNumber < totalLines - 1) {
+            // Not the last line - need to move up
+            System.out.printf("\u001B[%dA", totalLines - lineNumber - 1);
+        }
+
+        // Clear the line and print progress
+        System.out.print("\r\u001B[K"); // Clear line
+        String progressBar = createProgressBar(percentage);
+        String formattedBytes = ProgressRequestBody.formatBytes(bytesWritten);
+        String formattedTotal = ProgressRequestBody.formatBytes(totalBytes);
+
+        System.out.printf(
+                "\u001B[33mUploading %-15s %s %.1f%% (%s / %s)\u001B[0m",
+                uploadId, progressBar, percentage, formattedBytes, formattedTotal);
+        if (status != null) {
+            System.out.printf("\u001B[33m %s\u001B[0m", status);
+        }
+
+        // Move cursor back to bottom
+        if (lineNumber < totalLines - 1) {
+            System.out.printf("\u001B[%dB", totalLines - lineNumber - 1);
+        }
+
+        System.out.flush();
+    }
+
+    /**
+     * Creates a visual progress bar.
+     *
+     * @param percentage The completion percentage (0-100)
+     * @return A string representing the progress bar
+     */
+    private static String createProgressBar(float percentage) {
+        int barLength = 10;
+        int filled = (int) (percentage / 100.0 * barLength);
+        StringBuilder bar = new StringBuilder("[");
+        for (int i = 0; i < barLength; i++) {
+            bar.append(i < filled ? "#" : "-");
+        }
+        bar.append("]");
+        return bar.toString();
+    }
+
+    @Override
+    public void complete(String uploadId) {
+        Integer lineNumber = uploadLines.get(uploadId);
+        if (lineNumber != null && lineNumber == uploadLines.size() - 1) {
+            // Only add newline if this is the last upload
+            System.out.println();
+            System.out.flush();
+        }
+    }
+
+    /** Clears all progress lines from the console and prints the summaries in their place. */
+    @Override
+    public void finish(List<String> summaries) {
+        int totalLines = uploadLines.size();
+        if (totalLines > 0) {
+            // Move to the first line
+            System.out.printf("\u001B[%dA", totalLines - 1);
+            // Clear all progress lines
+            for (int i = 0; i < totalLines; i++) {
+                System.out.print("\r\u001B[K"); // Clear current line
+                if (i < totalLines - 1) {
+                    System.out.println(); // Move to next line
+                }
+            }
+            // Move back to start position
+            System.out.printf("\u001B[%dA", totalLines - 1);
+            System.out.flush();
+        }
+        for (String summary : summaries) {
+            System.out.println(summary);
+        }
+        System.out.flush();
+        uploadLines.clear();
+    }
+}
@@ -0,0 +1,425 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Checks that APKs are complete, signed Android packages before they are uploaded, so that a
+ * truncated build output or a test APK built against another app fails the task at once instead of
+ * on the device after a full upload.
+ *
+ * <p>Only the ZIP end of central directory record, the central directory, the APK Signing Block
+ * footer and the compiled {@code AndroidManifest.xml} are read, each through a memory mapping of
+ * its region. The DEX files and resources making up the bulk of an APK are never touched, so
+ * validating even a large APK takes milliseconds. Signatures are not verified, only that the APK
+ * carries an APK Signing Block or a v1 JAR signature.
+ */
+public class ApkValidator {
+
+    private static final Logger logger = LogManager.getLogger(ApkValidator.class);
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final byte[] SIGNING_BLOCK_MAGIC =
+            "APK Sig Block 42".getBytes(StandardCharsets.US_ASCII);
+    private static final int SIGNING_BLOCK_FOOTER_SIZE = 24;
+
+    private static final String MANIFEST_ENTRY = "AndroidManifest.xml";
+    private static final String JAR_MANIFEST_ENTRY = "META-INF/MANIFEST.MF";
+    private static final Pattern DEX_ENTRY = Pattern.compile("classes\\d*\\.dex");
+    private static final Pattern JAR_SIGNATURE_ENTRY =
+            Pattern.compile("META-INF/[^/]+\\.(RSA|DSA|EC)");
+    private static final int MAX_MANIFEST_SIZE = 16 * 1024 * 1024;
+
+    // Chunk types and flags of the compiled binary XML format
+    private static final int RES_STRING_POOL_TYPE = 0x0001;
+    private static final int RES_XML_TYPE = 0x0003;
+    private static final int RES_XML_START_ELEMENT_TYPE = 0x0102;
+    private static final int RES_XML_RESOURCE_MAP_TYPE = 0x0180;
+    private static final int UTF8_FLAG = 1 << 8;
+    private static final int TYPE_STRING = 0x03;
+    private static final int ATTR_TARGET_PACKAGE = 0x01010021;
+
+    /** Private constructor to prevent instantiation of this utility class. */
+    private ApkValidator() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Validates the app and test suite APKs of a build, and that the test suite instruments the
+     * app.
+     *
+     * @param app The app APK, or null if no app is uploaded
+     * @param testSuite The test suite APK, or null if no test suite is uploaded
+     * @throws IOException describing the first problem found
+     */
+    public static void validate(File app, File testSuite) throws IOException {
+        Apk appApk = app != null ? validate(app) : null;
+        if (testSuite != null) {
+            checkInstrumentation(validate(testSuite), appApk);
+        }
+    }
+
+    /**
+     * Validates an APK: a ZIP archive whose central directory and entries are complete, which
+     * contains an {@code AndroidManifest.xml} and at least one {@code classes*.dex}, and which is
+     * signed.
+     *
+     * @param apk The APK file
+     * @return What was read from the APK
+     * @throws IOException describing the first problem found
+     */
+    public static Apk validate(File apk) throws IOException {
+        if (!apk.isFile()) {
+            throw new IOException("APK " + apk + " does not exist");
+        }
+        long start = System.nanoTime();
+        Apk result;
+        try (FileChannel channel = FileChannel.open(apk.toPath(), StandardOpenOption.READ)) {
+            result = read(apk, channel);
+        } catch (IOException e) {
+            throw new IOException("Invalid APK " + apk + ": " + e.getMessage(), e);
+        }
+        logger.info(
+                "Validated {} ({} entries) in {} ms",
+                apk,
+                result.getEntryCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    /**
+     * Checks that a test suite APK declares an instrumentation, targeting the app if given.
+     *
+     * @param testSuite The validated test suite APK
+     * @param app The validated app APK, or null if it is not known
+     * @throws IOException if the test suite cannot run against the app
+     */
+    static void checkInstrumentation(Apk testSuite, Apk app) throws IOException {
+        String target = testSuite.getInstrumentationTarget();
+        if (target == null) {
+            throw new IOException(
+                    "Test suite APK "
+                            + testSuite.getFile()
+                            + " declares no <instrumentation> in its AndroidManifest.xml");
+        }
+        if (app != null && !target.equals(app.getPackageName())) {
+            throw new IOException(
+                    "Test suite APK "
+                            + testSuite.getFile()
+                            + " instruments package "
+                            + target
+                            + ", but app APK "
+                            + app.getFile()
+                            + " has package "
+                            + app.getPackageName());
+        }
+    }
+
+    private static Apk read(File apk, FileChannel channel) throws IOException {
+        ZipCentralDirectory directory = ZipCentralDirectory.read(channel);
+        long cdOffset = directory.getOffset();
+
+        long entriesEnd = cdOffset;
+        boolean signingBlock = false;
+        if (cdOffset >= SIGNING_BLOCK_FOOTER_SIZE + 8) {
+            long footerOffset = cdOffset - SIGNING_BLOCK_FOOTER_SIZE;
+            ByteBuffer footer =
+                    ZipCentralDirectory.map(channel, footerOffset, SIGNING_BLOCK_FOOTER_SIZE);
+            if (hasSigningBlockMagic(footer)) {
+                long blockSize = footer.getLong(0);
+                long blockStart = cdOffset - blockSize - 8;
+                if (blockSize < SIGNING_BLOCK_FOOTER_SIZE || blockStart < 0) {
+                    throw new IOException("APK Signing Block has an invalid size of " + blockSize);
+                }
+                if (ZipCentralDirectory.map(channel, blockStart, 8).getLong(0) != blockSize) {
+                    throw new IOException(
+                            "APK Signing Block is corrupt, its header and footer sizes differ");
+                }
+                entriesEnd = blockStart;
+                signingBlock = true;
+            }
+        }
+
+        ZipCentralDirectory.Entry manifest = null;
+        int dexCount = 0;
+        boolean jarManifest = false;
+        boolean jarSignature = false;
+        for (ZipCentralDirectory.Entry entry : directory.getEntries()) {
+            // The local header repeats the name, so its data cannot end before this
+            int nameLength = entry.name.getBytes(StandardCharsets.UTF_8).length;
+            if (entry.localOffset
+                            + ZipCentralDirectory.LOCAL_HEADER_SIZE
+                            + nameLength
+                            + entry.compressedSize
+                    > entriesEnd) {
+                throw new IOException(
+                        "entry "
+                                + entry.name
+                                + " extends past the start of the central directory,"
+                                + " the file is truncated or corrupt");
+            }
+
+            if (entry.name.equals(MANIFEST_ENTRY)) {
+                manifest = entry;
+            } else if (DEX_ENTRY.matcher(entry.name).matches()) {
+                dexCount++;
+            } else if (entry.name.equals(JAR_MANIFEST_ENTRY)) {
+                jarManifest = true;
+            } else if (JAR_SIGNATURE_ENTRY.matcher(entry.name).matches()) {
+                jarSignature = true;
+            }
+        }
+
+        if (manifest == null) {
+            throw new IOException("it does not contain " + MANIFEST_ENTRY);
+        }
+        if (dexCount == 0) {
+            throw new IOException("it does not contain any classes.dex");
+        }
+        if (!signingBlock && !(jarManifest && jarSignature)) {
+            throw new IOException(
+                    "it is not signed, it has neither an APK Signing Block nor a JAR signature");
+        }
+
+        Apk result = parseManifest(apk, readEntry(channel, manifest, entriesEnd));
+        result.entryCount = directory.getEntries().size();
+        result.dexCount = dexCount;
+        result.signingBlock = signingBlock;
+        return result;
+    }
+
+    private static boolean hasSigningBlockMagic(ByteBuffer footer) {
+        for (int i = 0; i < SIGNING_BLOCK_MAGIC.length; i++) {
+            if (footer.get(8 + i) != SIGNING_BLOCK_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Reads and, if needed, inflates the content of an entry. */
+    private static byte[] readEntry(
+            FileChannel channel, ZipCentralDirectory.Entry entry, long entriesEnd)
+            throws IOException {
+        long dataOffset = ZipCentralDirectory.dataOffset(channel, entry);
+        if (dataOffset + entry.compressedSize > entriesEnd) {
+            throw new IOException("data of " + entry.name + " extends past the last entry");
+        }
+        if (entry.uncompressedSize > MAX_MANIFEST_SIZE) {
+            throw new IOException(
+                    entry.name + " of " + entry.uncompressedSize + " bytes is too large");
+        }
+        byte[] compressed = new byte[(int) entry.compressedSize];
+        ZipCentralDirectory.map(channel, dataOffset, entry.compressedSize).get(compressed);
+        if (entry.method == STORED) {
+            return compressed;
+        }
+        if (entry.method != DEFLATED) {
+            throw new IOException(
+                    entry.name + " uses unsupported compression method " + entry.method);
+        }
+
+        byte[] content = new byte[(int) entry.uncompressedSize];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < content.length && !inflater.finished()) {
+                int inflated = inflater.inflate(content, length, content.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != content.length) {
+                throw new IOException(entry.name + " is corrupt, its content is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(entry.name + " is corrupt: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+        return content;
+    }
+
+    /**
+     * Reads the package name and the instrumented package from a compiled {@code
+     * AndroidManifest.xml}. Only the string pool, the resource map and the attributes of start
+     * elements are decoded.
+     */
+    static Apk parseManifest(File apk, byte[] xml) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(xml).order(ByteOrder.LITTLE_ENDIAN);
+        Apk result = new Apk(apk);
+        try {
+            if ((buffer.getShort(0) & 0xFFFF) != RES_XML_TYPE) {
+                throw new IOException(MANIFEST_ENTRY + " is not a compiled binary XML file");
+            }
+            List<String> strings = new ArrayList<>();
+            int[] resourceIds = new int[0];
+            int position = buffer.getShort(2) & 0xFFFF;
+            while (position + 8 <= xml.length) {
+                int type = buffer.getShort(position) & 0xFFFF;
+                int headerSize = buffer.getShort(position + 2) & 0xFFFF;
+                int chunkSize = buffer.getInt(position + 4);
+                if (chunkSize < 8 || chunkSize > xml.length - position) {
+                    throw new IOException(MANIFEST_ENTRY + " is corrupt");
+                }
+                if (type == RES_STRING_POOL_TYPE) {
+                    strings = readStringPool(buffer, position);
+                } else if (type == RES_XML_RESOURCE_MAP_TYPE) {
+                    resourceIds = new int[(chunkSize - headerSize) / 4];
+                    for (int i = 0; i < resourceIds.length; i++) {
+                        resourceIds[i] = buffer.getInt(position + headerSize + i * 4);
+                    }
+                } else if (type == RES_XML_START_ELEMENT_TYPE) {
+                    readStartElement(buffer, position + headerSize, strings, resourceIds, result);
+                }
+                position += chunkSize;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException(MANIFEST_ENTRY + " is corrupt", e);
+        }
+        if (result.packageName == null) {
+            throw new IOException(MANIFEST_ENTRY + " declares no package name");
+        }
+        return result;
+    }
+
+    private static void readStartElement(
+            ByteBuffer buffer, int element, List<String> strings, int[] resourceIds, Apk result) {
+        String name = string(strings, buffer.getInt(element + 4));
+        boolean manifest = "manifest".equals(name);
+        boolean instrumentation =
+                "instrumentation".equals(name) && result.instrumentationTarget == null;
+        if (!manifest && !instrumentation) {
+            return;
+        }
+        int attributeStart = buffer.getShort(element + 8) & 0xFFFF;
+        int attributeSize = buffer.getShort(element + 10) & 0xFFFF;
+        int attributeCount = buffer.getShort(element + 12) & 0xFFFF;
+        for (int i = 0; i < attributeCount; i++) {
+            int attribute = element + attributeStart + i * attributeSize;
+            int nameIndex = buffer.getInt(attribute + 4);
+            String attributeName = string(strings, nameIndex);
+            if (manifest && "package".equals(attributeName)) {
+                result.packageName = attributeValue(buffer, attribute, strings);
+            } else if (instrumentation
+                    && ("targetPackage".equals(attributeName)
+                            || (nameIndex >= 0
+                                    && nameIndex < resourceIds.length
+                                    && resourceIds[nameIndex] == ATTR_TARGET_PACKAGE))) {
+                result.instrumentationTarget = attributeValue(buffer, attribute, strings);
+            }
+        }
+    }
+
+    private static String attributeValue(ByteBuffer buffer, int attribute, List<String> strings) {
+        int rawValue = buffer.getInt(attribute + 8);
+        if (rawValue >= 0) {
+            return string(strings, rawValue);
+        }
+        if ((buffer.get(attribute + 15) & 0xFF) == TYPE_STRING) {
+            return string(strings, buffer.getInt(attribute + 16));
+        }
+        return null;
+    }
+
+    private static String string(List<String> strings, int index) {
+        return index >= 0 && index < strings.size() ? strings.get(index) : null;
+    }
+
+    /** Decodes the strings of a string pool chunk, in UTF-8 or UTF-16. */
+    private static List<String> readStringPool(ByteBuffer buffer, int chunk) {
+        int headerSize = buffer.getShort(chunk + 2) & 0xFFFF;
+        int stringCount = buffer.getInt(chunk + 8);
+        boolean utf8 = (buffer.getInt(chunk + 16) & UTF8_FLAG) != 0;
+        int stringsStart = chunk + buffer.getInt(chunk + 20);
+        List<String> strings = new ArrayList<>(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            int position = stringsStart + buffer.getInt(chunk + headerSize + i * 4);
+            if (utf8) {
+                // Length in UTF-16 units, then in bytes, each on one or two bytes
+                position += (buffer.get(position) & 0x80) != 0 ? 2 : 1;
+                int length = buffer.get(position) & 0xFF;
+                if ((length & 0x80) != 0) {
+                    length = ((length & 0x7F) << 8) | (buffer.get(position + 1) & 0xFF);
+                    position++;
+                }
+                strings.add(ZipCentralDirectory.readString(buffer, position + 1, length));
+            } else {
+                int length = buffer.getShort(position) & 0xFFFF;
+                position += 2;
+                if ((length & 0x8000) != 0) {
+                    length = ((length & 0x7FFF) << 16) | (buffer.getShort(position) & 0xFFFF);
+                    position += 2;
+                }
+                char[] chars = new char[length];
+                for (int j = 0; j < length; j++) {
+                    chars[j] = buffer.getChar(position + j * 2);
+                }
+                strings.add(new String(chars));
+            }
+        }
+        return strings;
+    }
+
+    /** What the validation read from an APK. */
+    public static final class Apk {
+        private final File file;
+        private String packageName;
+        private String instrumentationTarget;
+        private int entryCount;
+        private int dexCount;
+        private boolean signingBlock;
+
+        private Apk(File file) {
+            this.file = file;
+        }
+
+        /** Returns the APK file. */
+        public File getFile() {
+            return file;
+        }
+
+        /** Returns the package name declared by the manifest. */
+        public String getPackageName() {
+            return packageName;
+        }
+
+        /** Returns the package the APK instruments, or null without an instrumentation. */
+        public String getInstrumentationTarget() {
+            return instrumentationTarget;
+        }
+
+        /** Returns the number of entries of the APK. */
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        /** Returns the number of {@code classes*.dex} entries of the APK. */
+        public int getDexCount() {
+            return dexCount;
+        }
+
+        /** Returns whether the APK has an APK Signing Block, rather than only a JAR signature. */
+        public boolean hasSigningBlock() {
+            return signingBlock;
+        }
+    }
+}
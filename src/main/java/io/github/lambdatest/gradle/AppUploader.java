@@ -10,7 +10,7 @@ import org.apache.logging.log4j.Logger;
  * manages the upload process and returns the application ID for test execution.
  *
  * <p>Uses {@link UploaderUtil#uploadAndGetId(String, String, String)} for the actual file upload
- * process.
+ * process, skipping it when an optional {@link UploadCache} already knows the file.
  */
 public class AppUploader {
 
@@ -19,7 +19,7 @@ public class AppUploader {
     private String username;
     private String accessKey;
     private String appFilePath;
-    private boolean showProgress;
+    private UploadOptions options;
 
     /**
      * Creates a new AppUploader instance with the specified credentials and file path.
@@ -43,6 +43,24 @@ public class AppUploader {
      */
     public AppUploader(
             String username, String accessKey, String appFilePath, boolean showProgress) {
+        this(
+                username,
+                accessKey,
+                appFilePath,
+                UploadOptions.builder().showProgress(showProgress).build());
+    }
+
+    /**
+     * Creates a new AppUploader instance with the specified credentials, file path and {@link
+     * UploadOptions}.
+     *
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param appFilePath The path to the application file to be uploaded
+     * @param options Options controlling progress display, caching and the HTTP client
+     */
+    public AppUploader(
+            String username, String accessKey, String appFilePath, UploadOptions options) {
         if (username == null) throw new IllegalArgumentException("Username cannot be null");
         if (accessKey == null) throw new IllegalArgumentException("Access Key cannot be null");
         if (appFilePath == null) throw new IllegalArgumentException("App File Path cannot be null");
@@ -53,14 +71,15 @@ public class AppUploader {
         this.username = username;
         this.accessKey = accessKey;
         this.appFilePath = appFilePath;
-        this.showProgress = showProgress;
+        this.options = options != null ? options : UploadOptions.defaults();
     }
 
     /**
      * Uploads the application file asynchronously to LambdaTest.
      *
-     * @implNote Uses CompletableFuture to perform the upload asynchronously, allowing parallel
-     *     processing of other tasks.
+     * @implNote Uses CompletableFuture to perform the upload asynchronously on the executor of the
+     *     {@link UploadOptions}, allowing parallel processing of other tasks without blocking the
+     *     common fork-join pool.
      * @return A CompletableFuture that resolves to the uploaded application's ID
      */
     public CompletableFuture<String> uploadAppAsync() {
@@ -69,13 +88,14 @@ public class AppUploader {
                     try {
                         String appId =
                                 UploaderUtil.uploadAndGetId(
-                                        username, accessKey, appFilePath, showProgress, "App");
+                                        username, accessKey, appFilePath, "App", options);
                         logger.info("Uploaded app ID: {}", appId);
                         return appId;
                     } catch (IOException e) {
                         logger.error("Error uploading app: {}", e.getMessage());
                         throw new RuntimeException(e);
                     }
-                });
+                },
+                options.getExecutor());
     }
 }
@@ -0,0 +1,504 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Credentials;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Follows a LambdaTest build from submission to its final result.
+ *
+ * <p>Status requests are sent asynchronously and the next one is scheduled on a shared {@link
+ * ScheduledExecutorService}, so a single scheduler thread watches any number of builds without
+ * blocking a thread per build. The polling interval adapts to the build state: short while the
+ * build is queued, growing while it runs, and no further request once it reached a terminal state.
+ *
+ * <p>When push is enabled the watcher first subscribes to status updates over a WebSocket at
+ * {@code {build_status_url}/{build_id}/stream}, and falls back to polling if the channel cannot be
+ * opened or closes before the build finished.
+ */
+public class BuildStatusWatcher {
+
+    private static final Logger logger = LogManager.getLogger(BuildStatusWatcher.class);
+
+    public static final Duration DEFAULT_QUEUED_INTERVAL = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(30);
+
+    /** Number of consecutive failed status requests after which watching a build fails. */
+    public static final int MAX_CONSECUTIVE_ERRORS = 5;
+
+    private final OkHttpClient client;
+    private final ScheduledExecutorService scheduler;
+    private final String username;
+    private final String accessKey;
+    private final boolean push;
+    private final Duration queuedInterval;
+    private final Duration maxInterval;
+    private final Endpoints endpoints;
+
+    /** Coarse state of a build, derived from the status string reported by LambdaTest. */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        PASSED,
+        FAILED,
+        UNKNOWN;
+
+        /** Returns whether the build has finished and its status will not change anymore. */
+        public boolean isTerminal() {
+            return this == PASSED || this == FAILED;
+        }
+
+        /**
+         * Maps a status reported by LambdaTest to a build state.
+         *
+         * @param status The reported status, e.g. "running" or "completed"
+         * @return The build state, {@link #UNKNOWN} for unrecognized or missing statuses
+         */
+        public static Status of(String status) {
+            if (status == null) {
+                return UNKNOWN;
+            }
+            switch (status.trim().toLowerCase(Locale.ROOT)) {
+                case "initiated":
+                case "created":
+                case "queued":
+                case "pending":
+                case "starting":
+                    return QUEUED;
+                case "running":
+                case "in progress":
+                    return RUNNING;
+                case "completed":
+                case "passed":
+                case "success":
+                    return PASSED;
+                case "failed":
+                case "error":
+                case "lambda error":
+                case "timeout":
+                case "idle timeout":
+                case "queue timeout":
+                case "stopped":
+                case "cancelled":
+                case "aborted":
+                    return FAILED;
+                default:
+                    return UNKNOWN;
+            }
+        }
+    }
+
+    /** Final result of a watched build. */
+    public static final class Result {
+        private final String buildId;
+        private final Status status;
+        private final String rawStatus;
+        private final Duration runningTime;
+
+        Result(String buildId, Status status, String rawStatus, Duration runningTime) {
+            this.buildId = buildId;
+            this.status = status;
+            this.rawStatus = rawStatus;
+            this.runningTime = runningTime;
+        }
+
+        public String getBuildId() {
+            return buildId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /** Returns the status exactly as reported by LambdaTest. */
+        public String getRawStatus() {
+            return rawStatus;
+        }
+
+        public boolean isPassed() {
+            return status == Status.PASSED;
+        }
+
+        /**
+         * Returns how long the build was observed running, from the first non-queued status to
+         * the terminal one. The precision is bounded by the polling interval.
+         */
+        public Duration getRunningTime() {
+            return runningTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Build " + buildId + " " + rawStatus;
+        }
+    }
+
+    /**
+     * Creates a new BuildStatusWatcher with the default polling intervals.
+     *
+     * @param client The HTTP client used for status requests
+     * @param scheduler The scheduler running the status requests of all watched builds
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param push Whether to try the push channel before polling
+     */
+    public BuildStatusWatcher(
+            OkHttpClient client,
+            ScheduledExecutorService scheduler,
+            String username,
+            String accessKey,
+            boolean push) {
+        this(builder(client, scheduler, username, accessKey).push(push));
+    }
+
+    private BuildStatusWatcher(Builder builder) {
+        this.client = builder.client;
+        this.scheduler = builder.scheduler;
+        this.username = builder.username;
+        this.accessKey = builder.accessKey;
+        this.push = builder.push;
+        this.queuedInterval = builder.queuedInterval;
+        this.maxInterval = builder.maxInterval;
+        this.endpoints = builder.endpoints;
+    }
+
+    /**
+     * Creates a builder for a watcher with the given client and credentials, polling at the
+     * default intervals without push.
+     *
+     * @param client The HTTP client used for status requests
+     * @param scheduler The scheduler running the status requests of all watched builds
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @return A new builder
+     */
+    public static Builder builder(
+            OkHttpClient client,
+            ScheduledExecutorService scheduler,
+            String username,
+            String accessKey) {
+        return new Builder(client, scheduler, username, accessKey);
+    }
+
+    /**
+     * Starts following a build. The returned future completes with the final result once the
+     * build reached a terminal state, and exceptionally if the status cannot be retrieved or the
+     * timeout elapses. Cancelling the future stops watching the build.
+     *
+     * @param buildId The ID of the build returned by {@link TestExecutor#submitBuild}
+     * @param timeout How long to wait for the final result, or null to wait indefinitely
+     * @return A future of the build's final result
+     */
+    public CompletableFuture<Result> watch(String buildId, Duration timeout) {
+        Watch watch = new Watch(buildId);
+        if (timeout != null) {
+            ScheduledFuture<?> deadline =
+                    scheduler.schedule(
+                            () ->
+                                    watch.future.completeExceptionally(
+                                            new TimeoutException(
+                                                    "Build "
+                                                            + buildId
+                                                            + " did not finish within "
+                                                            + timeout)),
+                            timeout.toMillis(),
+                            TimeUnit.MILLISECONDS);
+            watch.future.whenComplete((result, error) -> deadline.cancel(false));
+        }
+        if (push) {
+            watch.openPushChannel();
+        } else {
+            watch.startPolling();
+        }
+        return watch.future;
+    }
+
+    /**
+     * Computes the delay before the next status request.
+     *
+     * @param status The last known state of the build
+     * @param previous The previous delay
+     * @param queuedInterval The interval used while the build is queued
+     * @param maxInterval The largest interval
+     * @return The delay before the next request, zero for terminal states
+     */
+    static Duration nextDelay(
+            Status status, Duration previous, Duration queuedInterval, Duration maxInterval) {
+        switch (status) {
+            case PASSED:
+            case FAILED:
+                return Duration.ZERO;
+            case QUEUED:
+                return queuedInterval;
+            default:
+                Duration base = previous.compareTo(queuedInterval) < 0 ? queuedInterval : previous;
+                Duration next = base.multipliedBy(2);
+                return next.compareTo(maxInterval) > 0 ? maxInterval : next;
+        }
+    }
+
+    /**
+     * Extracts the build status from a status response or push message. The status is looked up
+     * as {@code status_ind} or {@code status}, either at the top level or inside {@code data}.
+     *
+     * @param body The JSON body
+     * @return The reported status, or null if the body holds none
+     */
+    static String extractStatus(String body) {
+        try {
+            JsonElement element = JsonParser.parseString(body);
+            if (!element.isJsonObject()) {
+                return null;
+            }
+            JsonObject json = element.getAsJsonObject();
+            if (json.has("data") && json.get("data").isJsonObject()) {
+                json = json.getAsJsonObject("data");
+            }
+            for (String key : new String[] {"status_ind", "status"}) {
+                JsonElement status = json.get(key);
+                if (status != null && status.isJsonPrimitive()) {
+                    return status.getAsString();
+                }
+            }
+            return null;
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private String buildStatusUrl() {
+        return (endpoints != null ? endpoints : Constants.endpoints()).getBuildStatusUrl();
+    }
+
+    private Request.Builder authorized(String url) {
+        return new Request.Builder()
+                .url(url)
+                .addHeader("Authorization", Credentials.basic(username, accessKey));
+    }
+
+    /** State of one watched build. Callbacks of a build never run concurrently with each other. */
+    private final class Watch {
+        private final String buildId;
+        private final CompletableFuture<Result> future = new CompletableFuture<>();
+        private final AtomicBoolean polling = new AtomicBoolean();
+        private volatile Duration delay = Duration.ZERO;
+        private volatile Status lastStatus;
+        private final long startedAt = System.nanoTime();
+        private volatile long runningSince;
+        private volatile int consecutiveErrors;
+        private volatile ScheduledFuture<?> pending;
+        private volatile Call call;
+        private volatile WebSocket socket;
+
+        Watch(String buildId) {
+            this.buildId = buildId;
+            future.whenComplete((result, error) -> stop());
+        }
+
+        void openPushChannel() {
+            Request request =
+                    authorized(buildStatusUrl() + "/" + buildId + "/stream").build();
+            socket =
+                    client.newWebSocket(
+                            request,
+                            new WebSocketListener() {
+                                @Override
+                                public void onMessage(
+                                        @NotNull WebSocket webSocket, @NotNull String text) {
+                                    onStatus(extractStatus(text), false);
+                                }
+
+                                @Override
+                                public void onClosed(
+                                        @NotNull WebSocket webSocket,
+                                        int code,
+                                        @NotNull String reason) {
+                                    startPolling();
+                                }
+
+                                @Override
+                                public void onFailure(
+                                        @NotNull WebSocket webSocket,
+                                        @NotNull Throwable t,
+                                        Response response) {
+                                    logger.info(
+                                            "Status push unavailable for build {}, polling: {}",
+                                            buildId,
+                                            t.getMessage());
+                                    startPolling();
+                                }
+                            });
+            if (future.isDone()) {
+                stop();
+            }
+        }
+
+        void startPolling() {
+            if (!future.isDone() && polling.compareAndSet(false, true)) {
+                schedulePoll(Duration.ZERO);
+            }
+        }
+
+        private void schedulePoll(Duration after) {
+            if (!future.isDone()) {
+                pending = scheduler.schedule(this::poll, after.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void poll() {
+            if (future.isDone()) {
+                return;
+            }
+            Request request = authorized(buildStatusUrl() + "/" + buildId).build();
+            call = client.newCall(request);
+            call.enqueue(
+                    new Callback() {
+                        @Override
+                        public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                            onError(e);
+                        }
+
+                        @Override
+                        public void onResponse(@NotNull Call call, @NotNull Response response) {
+                            try (Response r = response) {
+                                int code = r.code();
+                                if (code == 401 || code == 403) {
+                                    future.completeExceptionally(
+                                            new IOException(
+                                                    "Not authorized to read build " + buildId));
+                                } else if (!r.isSuccessful()) {
+                                    onError(new IOException("Unexpected code " + r));
+                                } else {
+                                    onStatus(extractStatus(r.body().string()), true);
+                                }
+                            } catch (IOException e) {
+                                onError(e);
+                            }
+                        }
+                    });
+        }
+
+        private void onStatus(String rawStatus, boolean polled) {
+            consecutiveErrors = 0;
+            Status status = Status.of(rawStatus);
+            long now = System.nanoTime();
+            if (runningSince == 0 && !status.isTerminal() && status != Status.QUEUED) {
+                runningSince = now;
+            }
+            if (status != lastStatus) {
+                logger.info("Build {} is {}", buildId, rawStatus);
+                JfrEvents.BuildStatus.record(buildId, lastStatus, rawStatus, !polled);
+                lastStatus = status;
+            }
+            if (status.isTerminal()) {
+                long since = runningSince != 0 ? runningSince : startedAt;
+                Duration runningTime = Duration.ofNanos(now - since);
+                future.complete(new Result(buildId, status, rawStatus, runningTime));
+            } else if (polled) {
+                delay = nextDelay(status, delay, queuedInterval, maxInterval);
+                schedulePoll(delay);
+            }
+        }
+
+        private void onError(IOException e) {
+            if (++consecutiveErrors >= MAX_CONSECUTIVE_ERRORS) {
+                future.completeExceptionally(
+                        new IOException("Failed to read the status of build " + buildId, e));
+                return;
+            }
+            logger.warn("Status request for build {} failed: {}", buildId, e.getMessage());
+            delay = nextDelay(Status.RUNNING, delay, queuedInterval, maxInterval);
+            schedulePoll(delay);
+        }
+
+        private void stop() {
+            ScheduledFuture<?> scheduled = pending;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            Call inFlight = call;
+            if (inFlight != null) {
+                inFlight.cancel();
+            }
+            WebSocket channel = socket;
+            if (channel != null) {
+                channel.close(1000, null);
+            }
+        }
+    }
+
+    /** Builder for {@link BuildStatusWatcher}. */
+    public static final class Builder {
+        private final OkHttpClient client;
+        private final ScheduledExecutorService scheduler;
+        private final String username;
+        private final String accessKey;
+        private boolean push;
+        private Duration queuedInterval = DEFAULT_QUEUED_INTERVAL;
+        private Duration maxInterval = DEFAULT_MAX_INTERVAL;
+        private Endpoints endpoints;
+
+        private Builder(
+                OkHttpClient client,
+                ScheduledExecutorService scheduler,
+                String username,
+                String accessKey) {
+            this.client = client;
+            this.scheduler = scheduler;
+            this.username = username;
+            this.accessKey = accessKey;
+        }
+
+        /** Sets whether to try the push channel before polling. */
+        public Builder push(boolean push) {
+            this.push = push;
+            return this;
+        }
+
+        /** Sets the polling interval while a build is queued, which is also the smallest one. */
+        public Builder queuedInterval(Duration queuedInterval) {
+            this.queuedInterval = queuedInterval;
+            return this;
+        }
+
+        /** Sets the largest polling interval while a build runs. */
+        public Builder maxInterval(Duration maxInterval) {
+            this.maxInterval = maxInterval;
+            return this;
+        }
+
+        /**
+         * Sets the endpoints to read the status from, typically captured by the task when it
+         * starts, or null for those of {@link Constants}.
+         */
+        public Builder endpoints(Endpoints endpoints) {
+            this.endpoints = endpoints;
+            return this;
+        }
+
+        public BuildStatusWatcher build() {
+            return new BuildStatusWatcher(this);
+        }
+    }
+}
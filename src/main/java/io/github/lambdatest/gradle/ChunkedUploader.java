@@ -0,0 +1,363 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.Credentials;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Uploads a file to LambdaTest in fixed size chunks that are sent concurrently over pooled
+ * connections. Acknowledged chunks are recorded in an {@link UploadJournal}, so an upload
+ * interrupted by a failure resumes with the missing chunks only.
+ *
+ * <p>The chunk protocol uses three calls against {@link Endpoints#getChunkedUploadUrl()}: a POST to
+ * {@code /init} returning an {@code upload_id}, a PUT of each chunk to {@code
+ * /{upload_id}/chunks/{index}} with a {@code Content-Range} header, and a POST to {@code
+ * /{upload_id}/complete} returning the {@code app_id}.
+ */
+public class ChunkedUploader {
+
+    private static final Logger logger = LogManager.getLogger(ChunkedUploader.class);
+
+    private static final long CHUNK_TIMEOUT_SECONDS = 120;
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    private static final Gson gson = new Gson();
+
+    private final String username;
+    private final String accessKey;
+    private final File file;
+    private final UploadOptions options;
+    private final ProgressRequestBody.ProgressCallback progressCallback;
+    private final OkHttpClient client;
+    private final String chunkedUploadUrl;
+
+    /** Thrown when LambdaTest no longer knows the upload a journal refers to. */
+    private static class UnknownUploadException extends IOException {
+        UnknownUploadException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Creates a new ChunkedUploader for the given file.
+     *
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param file The file to upload
+     * @param options The upload options, providing chunk size, parallelism and HTTP client
+     * @param progressCallback Callback receiving progress across all chunks, may be null
+     */
+    public ChunkedUploader(
+            String username,
+            String accessKey,
+            File file,
+            UploadOptions options,
+            ProgressRequestBody.ProgressCallback progressCallback) {
+        this.username = username;
+        this.accessKey = accessKey;
+        this.file = file;
+        this.options = options;
+        this.progressCallback = progressCallback;
+        this.chunkedUploadUrl = options.getEndpoints().getChunkedUploadUrl();
+        // Bounded timeouts so a dead connection fails its chunk instead of hanging the upload
+        long stallTimeoutSeconds = options.getStallTimeoutSeconds();
+        this.client =
+                options.getHttpClient()
+                        .newBuilder()
+                        .readTimeout(CHUNK_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .writeTimeout(
+                                stallTimeoutSeconds > 0
+                                        ? Math.min(stallTimeoutSeconds, CHUNK_TIMEOUT_SECONDS)
+                                        : CHUNK_TIMEOUT_SECONDS,
+                                TimeUnit.SECONDS)
+                        .build();
+    }
+
+    /**
+     * Uploads the file, resuming a previous attempt if its journal is still present.
+     *
+     * @return The ID of the uploaded file, or null if LambdaTest does not accept chunked uploads
+     *     and the file has to be uploaded in a single request
+     * @throws IOException if the upload fails, in which case acknowledged chunks stay journaled
+     */
+    public String upload() throws IOException {
+        return upload(FileDigest.digest(file));
+    }
+
+    /**
+     * Uploads the file whose digest the caller already computed, resuming a previous attempt if
+     * its journal is still present.
+     *
+     * @param digest The {@link FileDigest} of the file, identifying its journal and checked by
+     *     LambdaTest against the completed upload
+     * @return The ID of the uploaded file, or null if LambdaTest does not accept chunked uploads
+     *     and the file has to be uploaded in a single request
+     * @throws IOException if the upload fails, in which case acknowledged chunks stay journaled
+     */
+    public String upload(String digest) throws IOException {
+        long chunkSize = options.getChunkSize();
+        File journalFile = new File(options.getChunkJournalDir(), digest + ".json");
+        UploadJournal journal = UploadJournal.load(journalFile, digest, file.length(), chunkSize);
+
+        try {
+            return upload(journal, digest);
+        } catch (UnknownUploadException e) {
+            logger.info("Upload {} expired on the server, restarting", journal.getUploadId());
+            journal.reset();
+            return upload(journal, digest);
+        }
+    }
+
+    private String upload(UploadJournal journal, String digest) throws IOException {
+        long fileSize = file.length();
+        long chunkSize = options.getChunkSize();
+        int chunkCount = (int) ((fileSize + chunkSize - 1) / chunkSize);
+
+        if (journal.getUploadId() == null) {
+            String uploadId = init(digest, fileSize, chunkSize);
+            if (uploadId == null) {
+                return null;
+            }
+            journal.start(uploadId);
+        } else {
+            logger.info("Resuming upload {} of {}", journal.getUploadId(), file);
+        }
+        String uploadId = journal.getUploadId();
+
+        AtomicLong sent = new AtomicLong();
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            if (journal.isAcknowledged(i)) {
+                sent.addAndGet(chunkLength(i, fileSize, chunkSize));
+            } else {
+                missing.add(i);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            sendChunks(journal, missing, fileSize, chunkSize, sent);
+        }
+
+        String id = complete(uploadId, digest);
+        journal.delete();
+        return id;
+    }
+
+    /**
+     * Sends the missing chunks on at most {@link UploadOptions#getChunkParallelism()} workers. The
+     * helpers run on the upload executor, so their chunks count towards {@code
+     * lambdatest.maxConcurrentUploads}, and the calling thread works through the chunks as well
+     * rather than waiting for them, so the upload still completes when the executor has no free
+     * slot. Chunks keep being sent after a failure, so they are journaled for the resumed upload.
+     */
+    private void sendChunks(
+            UploadJournal journal,
+            List<Integer> missing,
+            long fileSize,
+            long chunkSize,
+            AtomicLong sent)
+            throws IOException {
+        String uploadId = journal.getUploadId();
+        Queue<Integer> pending = new ConcurrentLinkedQueue<>(missing);
+        CountDownLatch finished = new CountDownLatch(missing.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Runnable worker =
+                () -> {
+                    Integer index;
+                    while (!cancelled.get() && (index = pending.poll()) != null) {
+                        try {
+                            sendChunk(uploadId, index, fileSize, chunkSize, sent);
+                            journal.acknowledge(index);
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            finished.countDown();
+                        }
+                    }
+                };
+
+        int helpers = Math.min(options.getChunkParallelism(), missing.size()) - 1;
+        try {
+            for (int i = 0; i < helpers; i++) {
+                options.getExecutor().execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            logger.debug("Upload executor rejected chunk workers, sending chunks serially");
+        }
+        worker.run();
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while uploading " + file, e);
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error != null) {
+            throw new IOException("Chunked upload of " + file + " failed", error);
+        }
+    }
+
+    private String init(String digest, long fileSize, long chunkSize) throws IOException {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("fileName", file.getName());
+        payload.put("fileSize", fileSize);
+        payload.put("chunkSize", chunkSize);
+        payload.put("digest", digest);
+        payload.put("type", "espresso-android");
+
+        Request request =
+                authorized(chunkedUploadUrl + "/init")
+                        .post(RequestBody.create(gson.toJson(payload), JSON))
+                        .build();
+        try (Response response = options.getRetryPolicy().execute(client, request, true)) {
+            if (isUnsupported(response.code())) {
+                logger.warn(
+                        "LambdaTest does not accept chunked uploads at {} ({}), uploading {} in a"
+                                + " single request",
+                        chunkedUploadUrl,
+                        response.code(),
+                        file);
+                return null;
+            }
+            if (!response.isSuccessful()) throw new IOException("Unexpected code " + response);
+            return parse(response).get("upload_id").getAsString();
+        }
+    }
+
+    /**
+     * Sends a single chunk through the {@link RetryPolicy}, which resends it after transient
+     * failures and honours the circuit breaker shared with the other calls.
+     */
+    private void sendChunk(
+            String uploadId, int index, long fileSize, long chunkSize, AtomicLong sent)
+            throws IOException {
+        long offset = index * chunkSize;
+        long length = chunkLength(index, fileSize, chunkSize);
+        // Reports each attempt from zero, which replaces the bytes of a failed attempt
+        ChunkProgress progress = new ChunkProgress(sent, fileSize);
+        RequestBody body =
+                new FileChunkRequestBody(
+                        file,
+                        offset,
+                        length,
+                        OCTET_STREAM,
+                        progressCallback != null ? progress : null);
+
+        Request request =
+                authorized(chunkedUploadUrl + "/" + uploadId + "/chunks/" + index)
+                        .header(
+                                "Content-Range",
+                                "bytes " + offset + "-" + (offset + length - 1) + "/" + fileSize)
+                        .put(body)
+                        .build();
+        try (Response response = options.getRetryPolicy().execute(client, request, true)) {
+            if (response.code() == 404) {
+                throw new UnknownUploadException("Unknown upload " + uploadId);
+            }
+            if (!response.isSuccessful()) {
+                throw new IOException("Chunk " + index + " failed: unexpected code " + response);
+            }
+        } catch (IOException e) {
+            progress.rollback();
+            throw e;
+        }
+        if (progressCallback == null) {
+            progress.onProgress(length, length, 100f);
+        }
+    }
+
+    private String complete(String uploadId, String digest) throws IOException {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("digest", digest);
+
+        Request request =
+                authorized(chunkedUploadUrl + "/" + uploadId + "/complete")
+                        .post(RequestBody.create(gson.toJson(payload), JSON))
+                        .build();
+        try (Response response = options.getRetryPolicy().execute(client, request, true)) {
+            if (response.code() == 404) {
+                throw new UnknownUploadException("Unknown upload " + uploadId);
+            }
+            if (!response.isSuccessful()) throw new IOException("Unexpected code " + response);
+            return parse(response).get("app_id").getAsString();
+        }
+    }
+
+    private Request.Builder authorized(String url) {
+        return new Request.Builder()
+                .url(url)
+                .addHeader("Authorization", Credentials.basic(username, accessKey));
+    }
+
+    private static JsonObject parse(Response response) throws IOException {
+        return JsonParser.parseString(response.body().string()).getAsJsonObject();
+    }
+
+    /** Returns whether LambdaTest answered that it does not offer the chunk protocol. */
+    private static boolean isUnsupported(int code) {
+        return code == 404 || code == 405 || code == 501;
+    }
+
+    private static long chunkLength(int index, long fileSize, long chunkSize) {
+        return Math.min(chunkSize, fileSize - index * chunkSize);
+    }
+
+    /**
+     * Folds the progress of a single chunk into the progress of the whole file, so the display
+     * stays accurate while chunks are sent concurrently or retried.
+     */
+    private class ChunkProgress implements ProgressRequestBody.ProgressCallback {
+        private final AtomicLong sent;
+        private final long fileSize;
+        private long reported;
+
+        ChunkProgress(AtomicLong sent, long fileSize) {
+            this.sent = sent;
+            this.fileSize = fileSize;
+        }
+
+        @Override
+        public void onProgress(long bytesWritten, long totalBytes, float percentage) {
+            long total = sent.addAndGet(bytesWritten - reported);
+            reported = bytesWritten;
+            if (progressCallback != null) {
+                progressCallback.onProgress(
+                        total, fileSize, fileSize > 0 ? (total * 100.0f) / fileSize : 100f);
+            }
+        }
+
+        /** Removes the bytes of a failed chunk from the overall progress. */
+        void rollback() {
+            sent.addAndGet(-reported);
+            reported = 0;
+        }
+    }
+}
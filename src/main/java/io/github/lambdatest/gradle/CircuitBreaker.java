@@ -0,0 +1,113 @@
+package io.github.lambdatest.gradle;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Stops requests to LambdaTest after repeated transient failures, so that an outage fails the
+ * remaining uploads and builds quickly instead of each of them retrying on its own.
+ *
+ * <p>The breaker opens after {@code failureThreshold} consecutive failures. While open, requests
+ * are refused until {@code openDuration} has passed; then a single trial request is let through.
+ * A success closes the breaker again, a failure reopens it for another {@code openDuration}.
+ * Any response that is not a transient failure, including client errors such as 401, counts as a
+ * success since it shows the service is reachable. A request that failed for a local reason, such
+ * as an unreadable upload, counts as neither.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private int consecutiveFailures;
+    private boolean open;
+    private boolean trialInFlight;
+    private long openedAt;
+
+    /** Creates a new CircuitBreaker with the default threshold and open duration. */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * Creates a new CircuitBreaker.
+     *
+     * @param failureThreshold The number of consecutive failures that opens the breaker
+     * @param openDuration How long the breaker refuses requests before letting a trial through
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns whether a request may be sent. Once the open duration has passed, exactly one
+     * caller is allowed through until its outcome is recorded.
+     *
+     * @return true if the request may be sent
+     */
+    public synchronized boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        if (!trialInFlight && nanoClock.getAsLong() - openedAt >= openNanos) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** Records a request that reached LambdaTest and was not a transient failure. */
+    public synchronized void recordSuccess() {
+        if (open) {
+            logger.info("LambdaTest API reachable again, closing circuit breaker");
+        }
+        consecutiveFailures = 0;
+        open = false;
+        trialInFlight = false;
+    }
+
+    /** Records a connection failure or a transient error response. */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (trialInFlight || (!open && consecutiveFailures >= failureThreshold)) {
+            if (!trialInFlight) {
+                logger.warn(
+                        "Opening circuit breaker after {} consecutive LambdaTest API failures",
+                        consecutiveFailures);
+            }
+            open = true;
+            trialInFlight = false;
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+
+    /**
+     * Records a request whose outcome says nothing about LambdaTest, such as a failure to read the
+     * file being uploaded or an unexpected exception. The state of the breaker is unchanged, but a
+     * trial request ending this way lets the next request through as the new trial.
+     */
+    public synchronized void recordInconclusive() {
+        trialInFlight = false;
+    }
+
+    public synchronized boolean isOpen() {
+        return open;
+    }
+}
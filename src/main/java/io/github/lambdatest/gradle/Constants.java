@@ -11,45 +11,75 @@ public class Constants {
                 "This is a utility class and cannot be instantiated");
     }
 
-    private static final String DEFAULT_API_URL =
-            "https://manual-api.lambdatest.com/app/uploadFramework";
-    private static final String DEFAULT_BUILD_URL =
-            "https://mobile-api.lambdatest.com/framework/v1/espresso/build";
-    private static final String DEFAULT_FLUTTER_BUILD_URL =
-            "https://mobile-api.lambdatest.com/framework/v1/flutter/build";
-
     // For testing purposes - allows URL override
-    private static String testApiUrl = null;
-    private static String testBuildUrl = null;
-    private static String testFlutterBuildUrl = null;
+    private static volatile Endpoints endpoints = Endpoints.defaults();
+
+    /**
+     * Returns the endpoints in effect. Tasks and uploaders capture them once, so an override only
+     * applies to uploads and builds started after it.
+     *
+     * @return The default endpoints, or those overridden for testing
+     */
+    public static Endpoints endpoints() {
+        return endpoints;
+    }
 
     public static String getApiUrl() {
-        return testApiUrl != null ? testApiUrl : DEFAULT_API_URL;
+        return endpoints.getApiUrl();
     }
 
     public static String getBuildUrl() {
-        return testBuildUrl != null ? testBuildUrl : DEFAULT_BUILD_URL;
+        return endpoints.getBuildUrl();
     }
 
     public static String getFlutterBuildUrl() {
-        return testFlutterBuildUrl != null ? testFlutterBuildUrl : DEFAULT_FLUTTER_BUILD_URL;
+        return endpoints.getFlutterBuildUrl();
+    }
+
+    public static String getChunkedUploadUrl() {
+        return endpoints.getChunkedUploadUrl();
+    }
+
+    public static String getDeltaUploadUrl() {
+        return endpoints.getDeltaUploadUrl();
+    }
+
+    public static String getBuildStatusUrl() {
+        return endpoints.getBuildStatusUrl();
     }
 
     // Public methods for testing
-    public static void setTestUrls(String apiUrl, String buildUrl, String flutterBuildUrl) {
-        testApiUrl = apiUrl;
-        testBuildUrl = buildUrl;
-        testFlutterBuildUrl = flutterBuildUrl;
+    public static synchronized void setTestUrls(
+            String apiUrl, String buildUrl, String flutterBuildUrl) {
+        endpoints =
+                endpoints
+                        .toBuilder()
+                        .apiUrl(apiUrl)
+                        .buildUrl(buildUrl)
+                        .flutterBuildUrl(flutterBuildUrl)
+                        .build();
+    }
+
+    public static synchronized void setTestChunkedUploadUrl(String chunkedUploadUrl) {
+        endpoints = endpoints.toBuilder().chunkedUploadUrl(chunkedUploadUrl).build();
+    }
+
+    public static synchronized void setTestDeltaUploadUrl(String deltaUploadUrl) {
+        endpoints = endpoints.toBuilder().deltaUploadUrl(deltaUploadUrl).build();
+    }
+
+    public static synchronized void setTestBuildStatusUrl(String buildStatusUrl) {
+        endpoints = endpoints.toBuilder().buildStatusUrl(buildStatusUrl).build();
     }
 
     public static void resetUrls() {
-        testApiUrl = null;
-        testBuildUrl = null;
-        testFlutterBuildUrl = null;
+        endpoints = Endpoints.defaults();
     }
 
     // Backward compatibility - deprecated
-    @Deprecated public static final String API_URL = DEFAULT_API_URL;
-    @Deprecated public static final String BUILD_URL = DEFAULT_BUILD_URL;
-    @Deprecated public static final String FLUTTER_BUILD_URL = DEFAULT_FLUTTER_BUILD_URL;
+    @Deprecated public static final String API_URL = Endpoints.DEFAULT_API_URL;
+    @Deprecated public static final String BUILD_URL = Endpoints.DEFAULT_BUILD_URL;
+
+    @Deprecated
+    public static final String FLUTTER_BUILD_URL = Endpoints.DEFAULT_FLUTTER_BUILD_URL;
 }
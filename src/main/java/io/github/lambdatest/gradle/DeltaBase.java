@@ -0,0 +1,198 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Small on-disk record of the last upload of an APK: the ID LambdaTest returned for it, its
+ * {@link FileDigest} and the position, size and CRC-32 of each of its ZIP entries. {@link
+ * DeltaUploader} compares the next build of the same APK against it to send only the entries that
+ * changed.
+ *
+ * <p>A base is kept per LambdaTest username, upload endpoint and APK path, since an uploaded ID is
+ * only valid for the account and server that returned it.
+ */
+public class DeltaBase {
+
+    private static final Logger logger = LogManager.getLogger(DeltaBase.class);
+
+    /** Location of the recorded bases relative to the Gradle user home directory. */
+    public static final String DEFAULT_BASE_DIR = "caches/lambdatest/delta-bases";
+
+    private static final Gson gson = new Gson();
+
+    private final transient Path baseFile;
+    private String username;
+    private String apiUrl;
+    private String path;
+    private String appId;
+    private String digest;
+    private long fileSize;
+    private List<Entry> entries = new ArrayList<>();
+
+    /** An entry of the uploaded APK. */
+    static final class Entry {
+        String name;
+        int method;
+        long crc;
+        long compressedSize;
+        long uncompressedSize;
+        long dataOffset;
+
+        Entry(
+                String name,
+                int method,
+                long crc,
+                long compressedSize,
+                long uncompressedSize,
+                long dataOffset) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.uncompressedSize = uncompressedSize;
+            this.dataOffset = dataOffset;
+        }
+
+        /** Returns whether the given entry has the same name and content as this one. */
+        boolean sameContent(Entry other) {
+            return name.equals(other.name)
+                    && method == other.method
+                    && crc == other.crc
+                    && compressedSize == other.compressedSize
+                    && uncompressedSize == other.uncompressedSize;
+        }
+    }
+
+    private DeltaBase(Path baseFile, String username, String apiUrl, String path) {
+        this.baseFile = baseFile;
+        this.username = username;
+        this.apiUrl = apiUrl;
+        this.path = path;
+    }
+
+    /**
+     * Loads the base of an APK, or creates an empty one if none was recorded.
+     *
+     * @param baseDir The directory bases are persisted in
+     * @param username The LambdaTest account username
+     * @param apiUrl The URL the APK is uploaded to
+     * @param apk The APK file
+     * @return The base, empty if {@link #getAppId()} is null
+     */
+    public static DeltaBase load(File baseDir, String username, String apiUrl, File apk) {
+        String path = apk.getAbsolutePath();
+        Path baseFile = new File(baseDir, key(username, apiUrl, path) + ".json").toPath();
+        DeltaBase fresh = new DeltaBase(baseFile, username, apiUrl, path);
+        if (!Files.isRegularFile(baseFile)) {
+            return fresh;
+        }
+        try (Reader reader = Files.newBufferedReader(baseFile, StandardCharsets.UTF_8)) {
+            DeltaBase stored = gson.fromJson(reader, DeltaBase.class);
+            if (stored == null
+                    || stored.appId == null
+                    || stored.digest == null
+                    || stored.entries == null
+                    || !username.equals(stored.username)
+                    || !apiUrl.equals(stored.apiUrl)
+                    || !path.equals(stored.path)) {
+                return fresh;
+            }
+            fresh.appId = stored.appId;
+            fresh.digest = stored.digest;
+            fresh.fileSize = stored.fileSize;
+            fresh.entries = stored.entries;
+            return fresh;
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Ignoring unreadable delta base {}: {}", baseFile, e.getMessage());
+            return fresh;
+        }
+    }
+
+    /** Returns the ID of the last upload, or null if none was recorded. */
+    public String getAppId() {
+        return appId;
+    }
+
+    /** Returns the {@link FileDigest} of the last uploaded content. */
+    public String getDigest() {
+        return digest;
+    }
+
+    /** Returns the size of the last uploaded content. */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Records a completed upload as the base of the next one.
+     *
+     * @param appId The ID LambdaTest returned for the upload
+     * @param digest The {@link FileDigest} of the uploaded content
+     * @param fileSize The size of the uploaded content
+     * @param entries The entries of the uploaded APK
+     * @throws IOException if the base cannot be written
+     */
+    void update(String appId, String digest, long fileSize, List<Entry> entries)
+            throws IOException {
+        this.appId = appId;
+        this.digest = digest;
+        this.fileSize = fileSize;
+        this.entries = entries;
+        save();
+    }
+
+    /** Forgets the base, for example after LambdaTest rejected it. */
+    public void delete() {
+        appId = null;
+        digest = null;
+        entries = new ArrayList<>();
+        try {
+            Files.deleteIfExists(baseFile);
+        } catch (IOException e) {
+            logger.warn("Failed to delete delta base {}: {}", baseFile, e.getMessage());
+        }
+    }
+
+    private void save() throws IOException {
+        Files.createDirectories(baseFile.getParent());
+        Path temp = Files.createTempFile(baseFile.getParent(), "delta-base", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        }
+        try {
+            Files.move(
+                    temp,
+                    baseFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, baseFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String key(String username, String apiUrl, String path) {
+        MessageDigest sha256 = FileDigest.sha256();
+        sha256.update(
+                (username + '\n' + apiUrl + '\n' + path).getBytes(StandardCharsets.UTF_8));
+        return FileDigest.toHex(sha256.digest());
+    }
+}
@@ -0,0 +1,386 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.Credentials;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Uploads a new build of an APK as a delta against its previous upload, recorded in a {@link
+ * DeltaBase}. Entries whose name, compression method, sizes and CRC-32 are unchanged in the ZIP
+ * central directory are not sent; LambdaTest copies their data from the previous upload instead.
+ * Successive debug builds usually differ only in their DEX files, so the delta is a fraction of
+ * the APK.
+ *
+ * <p>The delta is a single multipart POST to {@link Endpoints#getDeltaUploadUrl()} carrying the
+ * {@code base} upload ID and its {@code baseDigest}, the {@link FileDigest} of the new APK as
+ * {@code digest}, a {@code recipe} and the {@code data} it refers to. The recipe lists the ranges
+ * making up the new APK in order: a {@code "base"} range is copied from the previous upload at its
+ * {@code offset}, a {@code "data"} range is taken from the data part at its {@code offset}.
+ * LambdaTest rebuilds the APK, checks it against {@code digest} and returns its {@code app_id}.
+ *
+ * <p>{@link #upload()} returns null whenever the APK has to be uploaded in full instead: when no
+ * base was recorded, when the file is not a ZIP archive, when the delta would not be much smaller
+ * than the APK, or when LambdaTest no longer has the base.
+ */
+public class DeltaUploader {
+
+    private static final Logger logger = LogManager.getLogger(DeltaUploader.class);
+
+    /** Largest share of the APK a delta may send, above which a full upload is cheaper. */
+    public static final double MAX_DELTA_RATIO = 0.8;
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    private static final Gson gson = new Gson();
+
+    private final String username;
+    private final String accessKey;
+    private final File file;
+    private final String filePath;
+    private final UploadOptions options;
+    private final ProgressRequestBody.ProgressCallback progressCallback;
+    private final DeltaBase base;
+    private List<DeltaBase.Entry> entries;
+    private String digest;
+
+    /** A range of the new APK, copied from the previous upload or taken from the data part. */
+    static final class Range {
+        static final String BASE = "base";
+        static final String DATA = "data";
+
+        final String source;
+        final long offset;
+        final long length;
+        // Position of the range in the new APK, only needed to build the data part
+        final transient long fileOffset;
+
+        Range(String source, long offset, long length, long fileOffset) {
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+            this.fileOffset = fileOffset;
+        }
+    }
+
+    /**
+     * Creates a new DeltaUploader for the given file.
+     *
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param filePath The path of the file as given by the user, sent as its file name
+     * @param options The upload options, providing the base directory and HTTP client
+     * @param progressCallback Callback receiving the progress of the delta, may be null
+     */
+    public DeltaUploader(
+            String username,
+            String accessKey,
+            String filePath,
+            UploadOptions options,
+            ProgressRequestBody.ProgressCallback progressCallback) {
+        this.username = username;
+        this.accessKey = accessKey;
+        this.file = new File(filePath);
+        this.filePath = filePath;
+        this.options = options;
+        this.progressCallback = progressCallback;
+        this.base =
+                DeltaBase.load(
+                        options.getDeltaBaseDir(),
+                        username,
+                        options.getEndpoints().getApiUrl(),
+                        file);
+    }
+
+    /**
+     * Uploads the file as a delta against its previous upload.
+     *
+     * @return The ID of the uploaded file, or null if it has to be uploaded in full
+     * @throws IOException if the delta upload fails for another reason than a rejected base
+     */
+    public String upload() throws IOException {
+        return upload(null);
+    }
+
+    /**
+     * Uploads the file as a delta against its previous upload, reusing its digest if the caller
+     * already computed it.
+     *
+     * @param knownDigest The {@link FileDigest} of the file, or null to compute it if a delta is
+     *     sent
+     * @return The ID of the uploaded file, or null if it has to be uploaded in full
+     * @throws IOException if the delta upload fails for another reason than a rejected base
+     */
+    public String upload(String knownDigest) throws IOException {
+        if (knownDigest != null) {
+            digest = knownDigest;
+        }
+        entries = readEntries(file);
+        if (entries == null) {
+            return null;
+        }
+        if (base.getAppId() == null) {
+            logger.info("Uploading {} in full, no previous upload to compare with", filePath);
+            return null;
+        }
+        long fileSize = file.length();
+        List<Range> recipe = recipe(base.getEntries(), entries, fileSize);
+        long dataSize = dataSize(recipe);
+        if (dataSize > fileSize * MAX_DELTA_RATIO) {
+            logger.info(
+                    "Uploading {} in full, a delta against {} would send {} of {}",
+                    filePath,
+                    base.getAppId(),
+                    ProgressRequestBody.formatBytes(dataSize),
+                    ProgressRequestBody.formatBytes(fileSize));
+            return null;
+        }
+        if (digest == null) {
+            digest = FileDigest.digest(file);
+        }
+
+        RequestBody dataBody = new RangesRequestBody(file, recipe, dataSize, progressCallback);
+        RequestBody body =
+                new MultipartBody.Builder()
+                        .setType(MultipartBody.FORM)
+                        .addFormDataPart("base", base.getAppId())
+                        .addFormDataPart("baseDigest", base.getDigest())
+                        .addFormDataPart("digest", digest)
+                        .addFormDataPart(
+                                "recipe", null, RequestBody.create(gson.toJson(recipe), JSON))
+                        .addFormDataPart("data", filePath, dataBody)
+                        .addFormDataPart("type", "espresso-android")
+                        .build();
+        Request request =
+                new Request.Builder()
+                        .url(options.getEndpoints().getDeltaUploadUrl())
+                        .addHeader("Authorization", Credentials.basic(username, accessKey))
+                        .post(body)
+                        .build();
+
+        OkHttpClient client =
+                UploaderUtil.forUpload(options.getHttpClient(), options.getStallTimeoutSeconds());
+        try (Response response = options.getRetryPolicy().execute(client, request, true)) {
+            if (isBaseRejected(response.code())) {
+                logger.warn(
+                        "LambdaTest rejected {} as the base of {} ({}), uploading it in full",
+                        base.getAppId(),
+                        filePath,
+                        response.code());
+                base.delete();
+                return null;
+            }
+            if (!response.isSuccessful()) throw new IOException("Unexpected code " + response);
+
+            String id =
+                    JsonParser.parseString(response.body().string())
+                            .getAsJsonObject()
+                            .get("app_id")
+                            .getAsString();
+            logger.info(
+                    "Uploaded {} as a delta against {}, sent {} of {}",
+                    filePath,
+                    base.getAppId(),
+                    ProgressRequestBody.formatBytes(dataSize),
+                    ProgressRequestBody.formatBytes(fileSize));
+            return id;
+        }
+    }
+
+    /**
+     * Records a completed upload of the file, delta or full, as the base of its next upload. Does
+     * nothing if the file is not a ZIP archive.
+     *
+     * @param id The ID LambdaTest returned for the upload
+     * @param uploadedDigest The {@link FileDigest} of the uploaded content if the caller knows it,
+     *     else null to use the digest of the delta or read the file again
+     */
+    public void remember(String id, String uploadedDigest) {
+        try {
+            if (entries == null) {
+                entries = readEntries(file);
+            }
+            if (entries == null) {
+                return;
+            }
+            if (uploadedDigest != null) {
+                digest = uploadedDigest;
+            } else if (digest == null) {
+                digest = FileDigest.digest(file);
+            }
+            base.update(id, digest, file.length(), entries);
+        } catch (IOException e) {
+            // The next upload is then merely sent in full
+            logger.warn("Failed to record delta base of {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the ranges making up the new APK, copying from the base every entry whose content is
+     * unchanged and taking everything else, including local headers, the APK Signing Block and
+     * the central directory, from the data part.
+     *
+     * @param baseEntries The entries of the previous upload
+     * @param entries The entries of the new APK, by position
+     * @param fileSize The size of the new APK
+     * @return The ranges in the order they make up the new APK
+     */
+    static List<Range> recipe(
+            List<DeltaBase.Entry> baseEntries, List<DeltaBase.Entry> entries, long fileSize) {
+        Map<String, DeltaBase.Entry> baseByName = new HashMap<>();
+        for (DeltaBase.Entry entry : baseEntries) {
+            baseByName.put(entry.name, entry);
+        }
+        List<Range> recipe = new ArrayList<>();
+        long position = 0;
+        long dataOffset = 0;
+        for (DeltaBase.Entry entry : entries) {
+            DeltaBase.Entry previous = baseByName.get(entry.name);
+            if (previous == null
+                    || !previous.sameContent(entry)
+                    || entry.compressedSize == 0
+                    || entry.dataOffset < position) {
+                continue;
+            }
+            if (entry.dataOffset > position) {
+                long length = entry.dataOffset - position;
+                recipe.add(new Range(Range.DATA, dataOffset, length, position));
+                dataOffset += length;
+            }
+            recipe.add(
+                    new Range(
+                            Range.BASE,
+                            previous.dataOffset,
+                            entry.compressedSize,
+                            entry.dataOffset));
+            position = entry.dataOffset + entry.compressedSize;
+        }
+        if (position < fileSize) {
+            recipe.add(new Range(Range.DATA, dataOffset, fileSize - position, position));
+        }
+        return recipe;
+    }
+
+    static long dataSize(List<Range> recipe) {
+        long size = 0;
+        for (Range range : recipe) {
+            if (Range.DATA.equals(range.source)) {
+                size += range.length;
+            }
+        }
+        return size;
+    }
+
+    /** Returns whether LambdaTest answered that it does not have the base anymore. */
+    private static boolean isBaseRejected(int code) {
+        return code == 404 || code == 409 || code == 410 || code == 422;
+    }
+
+    /**
+     * Reads the entries of an APK from its central directory.
+     *
+     * @return The entries by position, or null if the file is not a readable ZIP archive
+     */
+    static List<DeltaBase.Entry> readEntries(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ZipCentralDirectory directory;
+            try {
+                directory = ZipCentralDirectory.read(channel);
+            } catch (IOException e) {
+                logger.info(
+                        "Uploading {} in full, it is not a ZIP archive: {}", file, e.getMessage());
+                return null;
+            }
+            List<DeltaBase.Entry> entries = new ArrayList<>(directory.getEntries().size());
+            for (ZipCentralDirectory.Entry entry : directory.getEntries()) {
+                entries.add(
+                        new DeltaBase.Entry(
+                                entry.name,
+                                entry.method,
+                                entry.crc,
+                                entry.compressedSize,
+                                entry.uncompressedSize,
+                                ZipCentralDirectory.dataOffset(channel, entry)));
+            }
+            entries.sort(Comparator.comparingLong(entry -> entry.dataOffset));
+            return entries;
+        }
+    }
+
+    /**
+     * A RequestBody streaming the data ranges of a recipe from the new APK, back to back, and
+     * reporting their progress.
+     */
+    private static final class RangesRequestBody extends RequestBody {
+
+        private final File file;
+        private final List<Range> recipe;
+        private final long length;
+        private final ProgressRequestBody.ProgressCallback progressCallback;
+
+        RangesRequestBody(
+                File file,
+                List<Range> recipe,
+                long length,
+                ProgressRequestBody.ProgressCallback progressCallback) {
+            this.file = file;
+            this.recipe = recipe;
+            this.length = length;
+            this.progressCallback = progressCallback;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return OCTET_STREAM;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            ProgressRequestBody.Reporter reporter =
+                    progressCallback != null
+                            ? new ProgressRequestBody.Reporter(length, progressCallback)
+                            : null;
+            ByteBuffer buffer = FileChannelRequestBody.borrowBuffer();
+            try (FileChannel channel = FileChannelRequestBody.open(file)) {
+                for (Range range : recipe) {
+                    if (Range.DATA.equals(range.source)) {
+                        FileChannelRequestBody.transfer(
+                                channel,
+                                file,
+                                range.fileOffset,
+                                range.length,
+                                buffer,
+                                sink,
+                                reporter);
+                    }
+                }
+            } finally {
+                FileChannelRequestBody.releaseBuffer(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lists the test classes contained in a test APK by reading the class definitions of its {@code
+ * classes*.dex} files. Only the DEX header, string, type and class definition tables and the
+ * annotations of classes and methods are read; method bytecode is never parsed.
+ *
+ * <p>A class is considered a test class when it is a concrete top-level class whose simple name
+ * ends with {@code Test}, {@code Tests} or {@code TestCase}, and which JUnit would run: it or one
+ * of its superclasses in the same DEX file is annotated with {@code @RunWith} or has a method
+ * annotated with {@code @Test}, or it extends the JUnit 3 {@code TestCase}. Helpers and page
+ * objects named like tests are left out, so that no shard is handed a class without tests.
+ */
+public class DexTestClassScanner {
+
+    private static final Pattern DEX_ENTRY = Pattern.compile("classes\\d*\\.dex");
+    private static final int ACC_INTERFACE = 0x200;
+    private static final int ACC_ABSTRACT = 0x400;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int CLASS_DEF_SIZE = 32;
+    private static final int NO_INDEX = -1;
+    private static final int MAX_SUPERCLASS_DEPTH = 32;
+
+    /** Annotations marking a class, or one of its methods, as run by JUnit. */
+    private static final Set<String> TEST_ANNOTATIONS =
+            new HashSet<>(Arrays.asList("Lorg/junit/Test;", "Lorg/junit/runner/RunWith;"));
+
+    private static final String JUNIT3_TEST_CASE = "Ljunit/framework/TestCase;";
+
+    /** Private constructor to prevent instantiation of this utility class. */
+    private DexTestClassScanner() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Returns the fully qualified names of the test classes in an APK.
+     *
+     * @param apk The test APK
+     * @return The sorted test class names
+     * @throws IOException if the file is not a readable APK or contains a malformed DEX file
+     */
+    public static List<String> findTestClasses(File apk) throws IOException {
+        TreeSet<String> classes = new TreeSet<>();
+        try (ZipFile zip = new ZipFile(apk)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (DEX_ENTRY.matcher(entry.getName()).matches()) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        classes.addAll(findTestClasses(in.readAllBytes()));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(classes);
+    }
+
+    /**
+     * Returns the fully qualified names of the test classes defined in a DEX file.
+     *
+     * @param dex The content of the DEX file
+     * @return The test class names, in definition order
+     * @throws IOException if the content is not a well-formed DEX file
+     */
+    static List<String> findTestClasses(byte[] dex) throws IOException {
+        if (dex.length < 0x70 || dex[0] != 'd' || dex[1] != 'e' || dex[2] != 'x') {
+            throw new IOException("Not a DEX file");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(dex).order(ByteOrder.LITTLE_ENDIAN);
+        int stringIdsOff = buffer.getInt(0x3C);
+        int typeIdsOff = buffer.getInt(0x44);
+        int classDefsSize = buffer.getInt(0x60);
+        int classDefsOff = buffer.getInt(0x64);
+
+        List<String> result = new ArrayList<>();
+        try {
+            // The superclass of each class, and the classes JUnit runs by themselves
+            Map<Integer, Integer> superclasses = new HashMap<>();
+            Set<Integer> runnable = new HashSet<>();
+            for (int i = 0; i < classDefsSize; i++) {
+                int classDef = classDefsOff + i * CLASS_DEF_SIZE;
+                int typeIdx = buffer.getInt(classDef);
+                int superclassIdx = buffer.getInt(classDef + 8);
+                int annotationsOff = buffer.getInt(classDef + 20);
+                superclasses.put(typeIdx, superclassIdx);
+                String superclass =
+                        superclassIdx != NO_INDEX
+                                ? descriptor(buffer, stringIdsOff, typeIdsOff, superclassIdx)
+                                : null;
+                if (JUNIT3_TEST_CASE.equals(superclass)
+                        || (annotationsOff != 0
+                                && hasTestAnnotation(
+                                        buffer, annotationsOff, stringIdsOff, typeIdsOff))) {
+                    runnable.add(typeIdx);
+                }
+            }
+
+            for (int i = 0; i < classDefsSize; i++) {
+                int classDef = classDefsOff + i * CLASS_DEF_SIZE;
+                int typeIdx = buffer.getInt(classDef);
+                int accessFlags = buffer.getInt(classDef + 4);
+                if ((accessFlags & (ACC_INTERFACE | ACC_ABSTRACT | ACC_ANNOTATION)) != 0) {
+                    continue;
+                }
+                String name = toClassName(descriptor(buffer, stringIdsOff, typeIdsOff, typeIdx));
+                if (name != null
+                        && isTestClass(name)
+                        && runsTests(typeIdx, superclasses, runnable)) {
+                    result.add(name);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Malformed DEX file", e);
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether JUnit runs a class, because it or a superclass defined in the same DEX file
+     * carries a test annotation or directly extends the JUnit 3 {@code TestCase}.
+     */
+    private static boolean runsTests(
+            int typeIdx, Map<Integer, Integer> superclasses, Set<Integer> runnable) {
+        Integer current = typeIdx;
+        // Superclasses defined in another DEX file or outside the APK end the walk
+        for (int depth = 0; depth < MAX_SUPERCLASS_DEPTH && current != null; depth++) {
+            if (runnable.contains(current)) {
+                return true;
+            }
+            current = superclasses.get(current);
+        }
+        return false;
+    }
+
+    /**
+     * Reads an {@code annotations_directory_item} and returns whether the class itself or one of
+     * its methods carries one of the {@link #TEST_ANNOTATIONS}.
+     */
+    private static boolean hasTestAnnotation(
+            ByteBuffer buffer, int directoryOff, int stringIdsOff, int typeIdsOff) {
+        int classAnnotationsOff = buffer.getInt(directoryOff);
+        int fieldsSize = buffer.getInt(directoryOff + 4);
+        int methodsSize = buffer.getInt(directoryOff + 8);
+        if (classAnnotationsOff != 0
+                && containsTestAnnotation(buffer, classAnnotationsOff, stringIdsOff, typeIdsOff)) {
+            return true;
+        }
+        int methodAnnotations = directoryOff + 16 + fieldsSize * 8;
+        for (int i = 0; i < methodsSize; i++) {
+            int setOff = buffer.getInt(methodAnnotations + i * 8 + 4);
+            if (setOff != 0 && containsTestAnnotation(buffer, setOff, stringIdsOff, typeIdsOff)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns whether an {@code annotation_set_item} holds one of {@link #TEST_ANNOTATIONS}. */
+    private static boolean containsTestAnnotation(
+            ByteBuffer buffer, int setOff, int stringIdsOff, int typeIdsOff) {
+        int size = buffer.getInt(setOff);
+        for (int i = 0; i < size; i++) {
+            int annotationOff = buffer.getInt(setOff + 4 + i * 4);
+            // An annotation_item is a visibility byte followed by the ULEB128 type index
+            int typeIdx = readUleb128(buffer, annotationOff + 1);
+            if (TEST_ANNOTATIONS.contains(descriptor(buffer, stringIdsOff, typeIdsOff, typeIdx))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the descriptor of a type, such as {@code Lcom/example/FooTest;}. */
+    private static String descriptor(
+            ByteBuffer buffer, int stringIdsOff, int typeIdsOff, int typeIdx) {
+        int descriptorIdx = buffer.getInt(typeIdsOff + typeIdx * 4);
+        return readString(buffer, buffer.getInt(stringIdsOff + descriptorIdx * 4));
+    }
+
+    /** Reads an unsigned LEB128 value of at most five bytes. */
+    private static int readUleb128(ByteBuffer buffer, int offset) {
+        int result = 0;
+        for (int i = 0; i < 5; i++) {
+            int b = buffer.get(offset + i) & 0xFF;
+            result |= (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    static boolean isTestClass(String className) {
+        if (className.indexOf('$') >= 0) {
+            return false;
+        }
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        return simpleName.endsWith("Test")
+                || simpleName.endsWith("Tests")
+                || simpleName.endsWith("TestCase");
+    }
+
+    /** Converts a type descriptor such as {@code Lcom/example/FooTest;} to a class name. */
+    private static String toClassName(String descriptor) {
+        if (descriptor.length() < 3
+                || descriptor.charAt(0) != 'L'
+                || descriptor.charAt(descriptor.length() - 1) != ';') {
+            return null;
+        }
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    /**
+     * Reads a {@code string_data_item}: a ULEB128 length in UTF-16 units followed by a
+     * null-terminated MUTF-8 string. Descriptors of class types are plain ASCII in practice.
+     */
+    private static String readString(ByteBuffer buffer, int offset) {
+        int position = offset;
+        while ((buffer.get(position) & 0x80) != 0) {
+            position++;
+        }
+        position++;
+        int end = position;
+        while (buffer.get(end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end - position];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.lambdatest.gradle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A RequestBody wrapper that computes the {@link FileDigest} of the wrapped body while it is
+ * written, so that an APK is digested from the bytes sent to LambdaTest instead of by a second
+ * read of the file.
+ *
+ * <p>Headers are sent before the body, so the digest cannot be sent in one. {@link #trailer()}
+ * returns a body writing the digest, to be placed after this one in a multipart form: the parts of
+ * a form are written in order, so the digest is complete by the time the trailer is written.
+ */
+public class DigestingRequestBody extends RequestBody {
+
+    /** Name of the form part carrying the digest of the upload. */
+    public static final String DIGEST_PART = "digest";
+
+    private static final MediaType TEXT = MediaType.parse("text/plain; charset=utf-8");
+    // Length of a hexadecimal SHA-256
+    private static final int DIGEST_LENGTH = 64;
+
+    private final RequestBody delegate;
+    private volatile String digest;
+
+    /**
+     * Creates a new DigestingRequestBody digesting the given RequestBody.
+     *
+     * @param delegate The original RequestBody to digest
+     */
+    public DigestingRequestBody(RequestBody delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        digest = null;
+        FileDigest.Streaming streaming = new FileDigest.Streaming();
+        BufferedSink digestingSink = Okio.buffer(new DigestingSink(sink, streaming));
+        delegate.writeTo(digestingSink);
+        digestingSink.flush();
+        digest = streaming.finish();
+    }
+
+    /** Returns the digest of the bytes of the last complete write, null before. */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Returns a body writing the digest of this body, to be sent after it.
+     *
+     * @return The trailer body
+     */
+    public RequestBody trailer() {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return TEXT;
+            }
+
+            @Override
+            public long contentLength() {
+                return DIGEST_LENGTH;
+            }
+
+            @Override
+            public void writeTo(@NotNull BufferedSink sink) throws IOException {
+                String value = digest;
+                if (value == null) {
+                    throw new IOException("Digest trailer written before the digested body");
+                }
+                sink.writeUtf8(value);
+            }
+        };
+    }
+
+    /**
+     * Checks the digest LambdaTest computed of what it received against the digest of what was
+     * sent.
+     *
+     * @param echoed The digest echoed by LambdaTest, or null if it did not echo one
+     * @param description What was uploaded, for the error message
+     * @throws IOException if the digests differ, meaning the content was altered in transit
+     */
+    public void verify(String echoed, String description) throws IOException {
+        String sent = digest;
+        if (echoed != null && sent != null && !echoed.equalsIgnoreCase(sent)) {
+            throw new IOException(
+                    "Upload of "
+                            + description
+                            + " was corrupted: LambdaTest received content with digest "
+                            + echoed
+                            + " but "
+                            + sent
+                            + " was sent");
+        }
+    }
+
+    /** A Sink passing every byte written to a {@link FileDigest.Streaming} on its way. */
+    private static class DigestingSink extends ForwardingSink {
+        private final OutputStream digestStream;
+
+        DigestingSink(Sink delegate, FileDigest.Streaming streaming) {
+            super(delegate);
+            this.digestStream =
+                    new OutputStream() {
+                        @Override
+                        public void write(int b) {
+                            streaming.update(new byte[] {(byte) b}, 0, 1);
+                        }
+
+                        @Override
+                        public void write(byte[] bytes, int offset, int length) {
+                            streaming.update(bytes, offset, length);
+                        }
+                    };
+        }
+
+        @Override
+        public void write(@NotNull Buffer source, long byteCount) throws IOException {
+            source.copyTo(digestStream, 0, byteCount);
+            super.write(source, byteCount);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.lambdatest.gradle;
+
+/**
+ * The LambdaTest API endpoints used by one upload or build. Instances are immutable, so a task
+ * captures them once and is not affected by another task changing the endpoints of {@link
+ * Constants} while it runs.
+ */
+public final class Endpoints {
+
+    static final String DEFAULT_API_URL = "https://manual-api.lambdatest.com/app/uploadFramework";
+    static final String DEFAULT_BUILD_URL =
+            "https://mobile-api.lambdatest.com/framework/v1/espresso/build";
+    static final String DEFAULT_FLUTTER_BUILD_URL =
+            "https://mobile-api.lambdatest.com/framework/v1/flutter/build";
+    static final String DEFAULT_CHUNKED_UPLOAD_URL =
+            "https://manual-api.lambdatest.com/app/upload/chunked";
+    static final String DEFAULT_DELTA_UPLOAD_URL =
+            "https://manual-api.lambdatest.com/app/upload/delta";
+    static final String DEFAULT_BUILD_STATUS_URL =
+            "https://mobile-api.lambdatest.com/mobile-automation/api/v1/builds";
+
+    private static final Endpoints DEFAULTS = builder().build();
+
+    private final String apiUrl;
+    private final String buildUrl;
+    private final String flutterBuildUrl;
+    private final String chunkedUploadUrl;
+    private final String deltaUploadUrl;
+    private final String buildStatusUrl;
+
+    private Endpoints(Builder builder) {
+        this.apiUrl = builder.apiUrl;
+        this.buildUrl = builder.buildUrl;
+        this.flutterBuildUrl = builder.flutterBuildUrl;
+        this.chunkedUploadUrl = builder.chunkedUploadUrl;
+        this.deltaUploadUrl = builder.deltaUploadUrl;
+        this.buildStatusUrl = builder.buildStatusUrl;
+    }
+
+    /**
+     * Returns the production endpoints of LambdaTest.
+     *
+     * @return The default endpoints
+     */
+    public static Endpoints defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Creates a builder starting from the default endpoints.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a builder starting from these endpoints.
+     *
+     * @return A new builder
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .apiUrl(apiUrl)
+                .buildUrl(buildUrl)
+                .flutterBuildUrl(flutterBuildUrl)
+                .chunkedUploadUrl(chunkedUploadUrl)
+                .deltaUploadUrl(deltaUploadUrl)
+                .buildStatusUrl(buildStatusUrl);
+    }
+
+    /** Returns the URL APKs are uploaded to in a single request. */
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    /** Returns the URL Espresso builds are submitted to. */
+    public String getBuildUrl() {
+        return buildUrl;
+    }
+
+    /** Returns the URL Flutter builds are submitted to. */
+    public String getFlutterBuildUrl() {
+        return flutterBuildUrl;
+    }
+
+    /**
+     * Returns the base URL of the chunked upload protocol. Uploads fall back to a single request
+     * if LambdaTest answers its {@code /init} call with a 404, 405 or 501.
+     */
+    public String getChunkedUploadUrl() {
+        return chunkedUploadUrl;
+    }
+
+    /** Returns the URL APKs are uploaded to as a delta against their previous upload. */
+    public String getDeltaUploadUrl() {
+        return deltaUploadUrl;
+    }
+
+    /** Returns the base URL the status of submitted builds is read from. */
+    public String getBuildStatusUrl() {
+        return buildStatusUrl;
+    }
+
+    /** Builder for {@link Endpoints}. */
+    public static final class Builder {
+        private String apiUrl = DEFAULT_API_URL;
+        private String buildUrl = DEFAULT_BUILD_URL;
+        private String flutterBuildUrl = DEFAULT_FLUTTER_BUILD_URL;
+        private String chunkedUploadUrl = DEFAULT_CHUNKED_UPLOAD_URL;
+        private String deltaUploadUrl = DEFAULT_DELTA_UPLOAD_URL;
+        private String buildStatusUrl = DEFAULT_BUILD_STATUS_URL;
+
+        private Builder() {}
+
+        /** Sets the upload URL, null for the default one. */
+        public Builder apiUrl(String apiUrl) {
+            this.apiUrl = apiUrl != null ? apiUrl : DEFAULT_API_URL;
+            return this;
+        }
+
+        /** Sets the Espresso build URL, null for the default one. */
+        public Builder buildUrl(String buildUrl) {
+            this.buildUrl = buildUrl != null ? buildUrl : DEFAULT_BUILD_URL;
+            return this;
+        }
+
+        /** Sets the Flutter build URL, null for the default one. */
+        public Builder flutterBuildUrl(String flutterBuildUrl) {
+            this.flutterBuildUrl =
+                    flutterBuildUrl != null ? flutterBuildUrl : DEFAULT_FLUTTER_BUILD_URL;
+            return this;
+        }
+
+        /** Sets the chunked upload URL, null for the default one. */
+        public Builder chunkedUploadUrl(String chunkedUploadUrl) {
+            this.chunkedUploadUrl =
+                    chunkedUploadUrl != null ? chunkedUploadUrl : DEFAULT_CHUNKED_UPLOAD_URL;
+            return this;
+        }
+
+        /** Sets the delta upload URL, null for the default one. */
+        public Builder deltaUploadUrl(String deltaUploadUrl) {
+            this.deltaUploadUrl =
+                    deltaUploadUrl != null ? deltaUploadUrl : DEFAULT_DELTA_UPLOAD_URL;
+            return this;
+        }
+
+        /** Sets the build status URL, null for the default one. */
+        public Builder buildStatusUrl(String buildStatusUrl) {
+            this.buildStatusUrl =
+                    buildStatusUrl != null ? buildStatusUrl : DEFAULT_BUILD_STATUS_URL;
+            return this;
+        }
+
+        public Endpoints build() {
+            return new Endpoints(this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.lambdatest.gradle;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Options of {@link TestExecutor} that control how builds are submitted to LambdaTest. Instances
+ * are immutable and created through {@link #builder()}.
+ */
+public final class ExecutionOptions {
+
+    private final UploadCache uploadCache;
+    private final OkHttpClient httpClient;
+    private final RetryPolicy retryPolicy;
+    private final Endpoints endpoints;
+
+    private ExecutionOptions(Builder builder) {
+        this.uploadCache = builder.uploadCache;
+        this.httpClient = builder.httpClient;
+        this.retryPolicy = builder.retryPolicy;
+        this.endpoints = builder.endpoints;
+    }
+
+    /**
+     * Returns the default options: no cache, the default HTTP client and retry policy and the
+     * endpoints of {@link Constants}.
+     *
+     * @return The default execution options
+     */
+    public static ExecutionOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a builder for execution options.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Returns the cache the app and test suite IDs may have been served from, or null. */
+    public UploadCache getUploadCache() {
+        return uploadCache;
+    }
+
+    /** Returns the HTTP client to submit with, falling back to the plugin's default client. */
+    public OkHttpClient getHttpClient() {
+        return httpClient != null ? httpClient : UploaderUtil.defaultHttpClient();
+    }
+
+    /** Returns the policy retrying a submission, falling back to the plugin's default policy. */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy != null ? retryPolicy : UploaderUtil.defaultRetryPolicy();
+    }
+
+    /** Returns the endpoints to submit to, falling back to those of {@link Constants}. */
+    public Endpoints getEndpoints() {
+        return endpoints != null ? endpoints : Constants.endpoints();
+    }
+
+    /** Builder for {@link ExecutionOptions}. */
+    public static final class Builder {
+        private UploadCache uploadCache;
+        private OkHttpClient httpClient;
+        private RetryPolicy retryPolicy;
+        private Endpoints endpoints;
+
+        private Builder() {}
+
+        /**
+         * Sets the cache the app and test suite IDs may have been served from, so that IDs
+         * LambdaTest rejects are dropped from it.
+         */
+        public Builder uploadCache(UploadCache uploadCache) {
+            this.uploadCache = uploadCache;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP client used for the build request, typically the one owned by {@link
+         * LambdaTestHttpService}.
+         */
+        public Builder httpClient(OkHttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Sets the policy retrying a throttled submission, typically the one owned by {@link
+         * LambdaTestHttpService}. Since a build submission is not idempotent, it is only retried
+         * when LambdaTest cannot have started the build, see {@link RetryPolicy}.
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the endpoints to submit to, typically captured by the task when it starts so that
+         * its uploads, builds and status requests use the same ones.
+         */
+        public Builder endpoints(Endpoints endpoints) {
+            this.endpoints = endpoints;
+            return this;
+        }
+
+        public ExecutionOptions build() {
+            return new ExecutionOptions(this);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A RequestBody streaming a file, or a byte range of it, from a {@link FileChannel} and reporting
+ * its own progress.
+ *
+ * <p>{@code RequestBody.create(File, MediaType)} reads the file through an {@code InputStream} in
+ * 8 KB reads, each copied by the JDK from a native buffer into an okio segment, and {@link
+ * ProgressRequestBody} adds a buffered layer on top. This body reads 1 MB at a time into a direct
+ * buffer, which the kernel fills without the JDK's intermediate copy, and writes it straight into
+ * the sink, so each read brings in a megabyte and each byte is copied once into okio. Buffers are
+ * borrowed from a small pool for the duration of a write and then returned, since allocating and
+ * zeroing a megabyte of native memory per request costs more than reading a small range.
+ *
+ * @implNote {@link FileChannel#transferTo} only avoids copies towards another file or a socket
+ *     channel. OkHttp writes to its own okio sink, possibly through TLS, so a transfer to it falls
+ *     back to 8 KB reads through a temporary buffer and is not used.
+ */
+public class FileChannelRequestBody extends RequestBody {
+
+    /** Size of the direct buffer the file is read into. */
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    /** Maximum number of idle buffers kept for reuse. */
+    static final int MAX_POOLED_BUFFERS = UploadExecutor.DEFAULT_MAX_CONCURRENT_UPLOADS;
+
+    /**
+     * Idle direct buffers. Bodies written at the same time each allocate their own buffer when
+     * the pool is empty, and buffers returned to a full pool are left to the garbage collector,
+     * so idle buffers never hold more than {@link #MAX_POOLED_BUFFERS} megabytes of native memory.
+     */
+    private static final BlockingQueue<ByteBuffer> BUFFERS =
+            new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    private final File file;
+    private final long offset;
+    private final long length;
+    private final MediaType mediaType;
+    private final ProgressRequestBody.ProgressCallback progressCallback;
+
+    /**
+     * Creates a new FileChannelRequestBody for a whole file.
+     *
+     * @param file The file to read from
+     * @param mediaType The media type of the body
+     * @param progressCallback Callback to receive progress updates, or null
+     */
+    public FileChannelRequestBody(
+            File file, MediaType mediaType, ProgressRequestBody.ProgressCallback progressCallback) {
+        this(file, 0, file.length(), mediaType, progressCallback);
+    }
+
+    /**
+     * Creates a new FileChannelRequestBody for the given range of a file.
+     *
+     * @param file The file to read from
+     * @param offset The position of the first byte of the range
+     * @param length The number of bytes in the range
+     * @param mediaType The media type of the body
+     * @param progressCallback Callback to receive progress updates, or null
+     */
+    public FileChannelRequestBody(
+            File file,
+            long offset,
+            long length,
+            MediaType mediaType,
+            ProgressRequestBody.ProgressCallback progressCallback) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid range of " + file + ": " + length + " bytes at " + offset);
+        }
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.mediaType = mediaType;
+        this.progressCallback = progressCallback;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        ProgressRequestBody.Reporter reporter =
+                progressCallback != null
+                        ? new ProgressRequestBody.Reporter(length, progressCallback)
+                        : null;
+        ByteBuffer buffer = borrowBuffer();
+        try (FileChannel channel = open(file)) {
+            transfer(channel, file, offset, length, buffer, sink, reporter);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Opens a file to write it into a request body.
+     *
+     * @param file The file to read from
+     * @return The channel to read the file with
+     * @throws UploadSourceException if the file cannot be opened
+     */
+    static FileChannel open(File file) throws UploadSourceException {
+        try {
+            return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UploadSourceException(file, "Cannot open " + file + ": " + e, e);
+        }
+    }
+
+    /**
+     * Borrows a direct buffer to read a file with, which must be returned with {@link
+     * #releaseBuffer} once the body is written.
+     *
+     * @return A pooled or newly allocated buffer of {@link #BUFFER_SIZE} bytes
+     */
+    static ByteBuffer borrowBuffer() {
+        ByteBuffer buffer = BUFFERS.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #borrowBuffer} to the pool, or drops it if the pool is
+     * full.
+     *
+     * @param buffer The buffer, no longer used by the caller
+     */
+    static void releaseBuffer(ByteBuffer buffer) {
+        BUFFERS.offer(buffer);
+    }
+
+    /**
+     * Writes a range of a file to a sink through the given buffer.
+     *
+     * @param channel The channel to read from, whose position is left untouched
+     * @param file The file of the channel, for the error message
+     * @param offset The position of the first byte of the range
+     * @param length The number of bytes in the range
+     * @param buffer The buffer to read through, preferably direct
+     * @param sink The sink to write to
+     * @param reporter The reporter to record the bytes written with, or null
+     * @throws UploadSourceException if the file cannot be read or is shorter than the range
+     * @throws IOException if the sink cannot be written to
+     */
+    static void transfer(
+            FileChannel channel,
+            File file,
+            long offset,
+            long length,
+            ByteBuffer buffer,
+            BufferedSink sink,
+            ProgressRequestBody.Reporter reporter)
+            throws IOException {
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read;
+            try {
+                read = channel.read(buffer, position);
+            } catch (IOException e) {
+                throw new UploadSourceException(file, "Cannot read " + file + ": " + e, e);
+            }
+            if (read < 0) {
+                throw new UploadSourceException(
+                        file, "Unexpected end of file " + file + " at " + position, null);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                sink.write(buffer);
+            }
+            position += read;
+            if (reporter != null) {
+                reporter.add(read);
+            }
+        }
+    }
+}
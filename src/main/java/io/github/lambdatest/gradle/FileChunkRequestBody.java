@@ -0,0 +1,42 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import okhttp3.MediaType;
+
+/**
+ * A RequestBody that streams a byte range of a file. Used by {@link ChunkedUploader} to send each
+ * chunk of a file without reading the rest of it.
+ */
+public class FileChunkRequestBody extends FileChannelRequestBody {
+
+    /**
+     * Creates a new FileChunkRequestBody for the given range of a file.
+     *
+     * @param file The file to read from
+     * @param offset The position of the first byte of the range
+     * @param length The number of bytes in the range
+     * @param mediaType The media type of the body
+     */
+    public FileChunkRequestBody(File file, long offset, long length, MediaType mediaType) {
+        this(file, offset, length, mediaType, null);
+    }
+
+    /**
+     * Creates a new FileChunkRequestBody for the given range of a file, reporting the progress of
+     * the range.
+     *
+     * @param file The file to read from
+     * @param offset The position of the first byte of the range
+     * @param length The number of bytes in the range
+     * @param mediaType The media type of the body
+     * @param progressCallback Callback to receive progress updates, or null
+     */
+    public FileChunkRequestBody(
+            File file,
+            long offset,
+            long length,
+            MediaType mediaType,
+            ProgressRequestBody.ProgressCallback progressCallback) {
+        super(file, offset, length, mediaType, progressCallback);
+    }
+}
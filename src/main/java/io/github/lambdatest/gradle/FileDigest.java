@@ -0,0 +1,183 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class computing content digests of files for the LambdaTest Gradle plugin. Digests are
+ * used as keys by {@link UploadCache} to recognise files that have already been uploaded.
+ *
+ * <p>The file is split into fixed size chunks which are hashed in parallel, and the resulting
+ * digest is the SHA-256 of the file length followed by the SHA-256 of every chunk. The value is
+ * therefore stable for identical content but is not the plain SHA-256 of the file.
+ */
+public final class FileDigest {
+    /** Private constructor to prevent instantiation of this utility class. */
+    private FileDigest() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Computes the chunked content digest of a file.
+     *
+     * @implNote Files larger than a single chunk are hashed on a short-lived pool sized to the
+     *     number of available processors, each worker reading its own range with positional {@link
+     *     FileChannel} reads so no locking is needed.
+     * @param file The file to digest
+     * @return The lowercase hexadecimal digest
+     * @throws IOException if the file cannot be read
+     */
+    public static String digest(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            int threads = Math.min(chunks, Runtime.getRuntime().availableProcessors());
+
+            byte[][] chunkDigests = new byte[chunks][];
+            if (threads <= 1) {
+                for (int i = 0; i < chunks; i++) {
+                    chunkDigests[i] = digestChunk(channel, i, size);
+                }
+            } else {
+                ExecutorService pool =
+                        Executors.newFixedThreadPool(
+                                threads, UploadExecutor.daemonThreadFactory("lambdatest-digest-"));
+                try {
+                    List<Future<byte[]>> futures = new ArrayList<>(chunks);
+                    for (int i = 0; i < chunks; i++) {
+                        int index = i;
+                        futures.add(pool.submit(() -> digestChunk(channel, index, size)));
+                    }
+                    for (int i = 0; i < chunks; i++) {
+                        chunkDigests[i] = futures.get(i).get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while digesting " + file, e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof UncheckedIOException) {
+                        throw ((UncheckedIOException) cause).getCause();
+                    }
+                    throw new IOException("Failed to digest " + file, cause);
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+
+            MessageDigest root = sha256();
+            root.update(ByteBuffer.allocate(Long.BYTES).putLong(0, size));
+            for (byte[] chunkDigest : chunkDigests) {
+                root.update(chunkDigest);
+            }
+            return toHex(root.digest());
+        }
+    }
+
+    private static byte[] digestChunk(FileChannel channel, int index, long size) {
+        MessageDigest digest = sha256();
+        long position = (long) index * CHUNK_SIZE;
+        long end = Math.min(size, position + CHUNK_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Computes the same chunked digest as {@link #digest(File)} over content passed in order, for
+     * example while it is written to a socket, so that it costs no further read of the file.
+     */
+    static final class Streaming {
+        private final List<byte[]> chunkDigests = new ArrayList<>();
+        private final MessageDigest chunk = sha256();
+        private long chunkBytes;
+        private long size;
+
+        /** Adds the next bytes of the content. */
+        void update(byte[] bytes, int offset, int length) {
+            while (length > 0) {
+                int count = (int) Math.min(length, CHUNK_SIZE - chunkBytes);
+                chunk.update(bytes, offset, count);
+                chunkBytes += count;
+                size += count;
+                offset += count;
+                length -= count;
+                if (chunkBytes == CHUNK_SIZE) {
+                    chunkDigests.add(chunk.digest());
+                    chunkBytes = 0;
+                }
+            }
+        }
+
+        /** Returns the number of bytes added so far. */
+        long size() {
+            return size;
+        }
+
+        /**
+         * Completes the digest of the bytes added so far.
+         *
+         * @return The lowercase hexadecimal digest
+         */
+        String finish() {
+            if (chunkBytes > 0 || chunkDigests.isEmpty()) {
+                chunkDigests.add(chunk.digest());
+                chunkBytes = 0;
+            }
+            MessageDigest root = sha256();
+            root.update(ByteBuffer.allocate(Long.BYTES).putLong(0, size));
+            for (byte[] chunkDigest : chunkDigests) {
+                root.update(chunkDigest);
+            }
+            return toHex(root.digest());
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.lambdatest.gradle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A RequestBody wrapper that compresses the wrapped body with gzip while it is written, so that an
+ * APK is compressed on the fly without a temporary file. The compressed length is only known once
+ * the body has been written, so it is sent with chunked transfer encoding.
+ *
+ * <p>Modern APKs keep native libraries and {@code resources.arsc} uncompressed so that they can
+ * be mapped in place, which makes them compress well, while DEX files and images are already
+ * compressed and only cost CPU time. Compressing therefore only shortens uploads limited by
+ * bandwidth rather than by CPU.
+ */
+public class GzipRequestBody extends RequestBody {
+
+    /** The {@code Content-Encoding} of the compressed body. */
+    public static final String ENCODING = "gzip";
+
+    // Size of the gzip header and trailer around the deflated data
+    private static final int GZIP_OVERHEAD = 18;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RequestBody delegate;
+    private final int level;
+    private volatile long uncompressedBytes;
+    private volatile long compressedBytes;
+
+    /**
+     * Creates a new GzipRequestBody compressing the given RequestBody.
+     *
+     * @param delegate The original RequestBody to compress
+     * @param level The compression level, from 1 for the fastest to 9 for the smallest output
+     */
+    public GzipRequestBody(RequestBody delegate, int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9");
+        }
+        this.delegate = delegate;
+        this.level = level;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        LevelGzipOutputStream gzip = new LevelGzipOutputStream(sink.outputStream(), level);
+        try {
+            BufferedSink uncompressed = Okio.buffer(Okio.sink(gzip));
+            delegate.writeTo(uncompressed);
+            uncompressed.flush();
+            gzip.finish();
+            uncompressedBytes = gzip.bytesRead();
+            compressedBytes = gzip.bytesWritten() + GZIP_OVERHEAD;
+        } finally {
+            // Not closed, as that would close the sink of the request
+            gzip.end();
+        }
+    }
+
+    /** Returns the number of bytes compressed by the last complete write, 0 before. */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /** Returns the number of bytes sent by the last complete write, 0 before. */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Describes how much the last complete write saved, for example {@code "compressed 10.0 MB to
+     * 6.5 MB (65.0%)"}.
+     *
+     * @return The description, or null if the body has not been written completely
+     */
+    public String summary() {
+        long uncompressed = uncompressedBytes;
+        long compressed = compressedBytes;
+        if (compressed == 0) {
+            return null;
+        }
+        return String.format(
+                "compressed %s to %s (%.1f%%)",
+                ProgressRequestBody.formatBytes(uncompressed),
+                ProgressRequestBody.formatBytes(compressed),
+                uncompressed > 0 ? compressed * 100.0 / uncompressed : 100.0);
+    }
+
+    /** A gzip stream compressing at a given level and exposing its deflater's counts. */
+    private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+
+        long bytesRead() {
+            return def.getBytesRead();
+        }
+
+        long bytesWritten() {
+            return def.getBytesWritten();
+        }
+
+        void end() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by the plugin, so that a recording of the Gradle daemon shows
+ * the LambdaTest uploads, build submissions and status changes on the same timeline as the rest of
+ * the build. The events appear under the {@code LambdaTest} category.
+ *
+ * @implNote Events are only filled in and committed when {@link Event#shouldCommit()} is true.
+ *     Without a recording the JIT reduces an event to a disabled check and removes the allocation,
+ *     so the emitting code costs next to nothing.
+ */
+final class JfrEvents {
+
+    private static final String CATEGORY = "LambdaTest";
+
+    /** Private constructor to prevent instantiation of this utility class. */
+    private JfrEvents() {
+        throw new UnsupportedOperationException(
+                "This is a utility class and cannot be instantiated");
+    }
+
+    /** Upload of an app or test suite, from the first byte read to the returned ID. */
+    @Name("io.github.lambdatest.Upload")
+    @Label("LambdaTest Upload")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Upload extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Kind")
+        @Description("App or Test Suite")
+        String kind;
+
+        @Label("Size")
+        @DataAmount
+        long size;
+
+        @Label("Throughput")
+        @DataAmount
+        @Frequency
+        long throughput;
+
+        @Label("Chunked")
+        boolean chunked;
+
+        @Label("Upload ID")
+        @Description("ID returned by LambdaTest, null if the upload failed")
+        String uploadId;
+
+        /** Start of the upload, to compute the throughput. Not recorded. */
+        private transient long startNanos;
+
+        /** Begins timing the event. */
+        void start() {
+            startNanos = System.nanoTime();
+            begin();
+        }
+
+        /**
+         * Ends the event and commits it if it is recorded.
+         *
+         * @param uploaded The uploaded file
+         * @param kind The kind of upload, or null
+         * @param chunked Whether the chunked protocol was used
+         * @param id The returned ID, or null if the upload failed
+         */
+        void finish(File uploaded, String kind, boolean chunked, String id) {
+            end();
+            if (shouldCommit()) {
+                this.file = uploaded.getPath();
+                this.kind = kind;
+                this.size = uploaded.length();
+                long nanos = System.nanoTime() - startNanos;
+                this.throughput = nanos > 0 ? Math.round(size * 1e9 / nanos) : 0;
+                this.chunked = chunked;
+                this.uploadId = id;
+                commit();
+            }
+        }
+    }
+
+    /** Progress sample of an upload, taken at the same points the console progress updates. */
+    @Name("io.github.lambdatest.UploadProgress")
+    @Label("LambdaTest Upload Progress")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class UploadProgress extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Bytes Written")
+        @DataAmount
+        long bytesWritten;
+
+        @Label("Total Bytes")
+        @DataAmount
+        long totalBytes;
+
+        @Label("Progress")
+        @Percentage
+        double progress;
+
+        /**
+         * Returns whether progress samples are being recorded.
+         *
+         * @return true if a recording has the event enabled
+         */
+        static boolean enabled() {
+            return new UploadProgress().isEnabled();
+        }
+    }
+
+    /** Submission of a build, from sending the capabilities to the returned build ID. */
+    @Name("io.github.lambdatest.BuildSubmitted")
+    @Label("LambdaTest Build Submitted")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class BuildSubmitted extends Event {
+        @Label("Build ID")
+        @Description("ID returned by LambdaTest, null if the build was rejected")
+        String buildId;
+
+        @Label("Status Code")
+        int statusCode;
+
+        @Label("Capabilities Size")
+        @DataAmount
+        long capabilitiesSize;
+
+        @Label("Devices")
+        int devices;
+
+        @Label("Test Classes")
+        @Description("Number of test classes of a shard, 0 for the whole test suite")
+        int testClasses;
+
+        /**
+         * Ends the event and commits it if it is recorded.
+         *
+         * @param statusCode The status code of the response, 0 if none was received
+         * @param buildId The returned build ID, or null
+         * @param capabilities The JSON capabilities sent
+         * @param devices The number of devices the build runs on
+         * @param testClasses The number of test classes, 0 for the whole test suite
+         */
+        void finish(
+                int statusCode, String buildId, String capabilities, int devices, int testClasses) {
+            end();
+            if (shouldCommit()) {
+                this.statusCode = statusCode;
+                this.buildId = buildId;
+                this.capabilitiesSize = capabilities.getBytes(StandardCharsets.UTF_8).length;
+                this.devices = devices;
+                this.testClasses = testClasses;
+                commit();
+            }
+        }
+    }
+
+    /** Change of the state of a watched build. */
+    @Name("io.github.lambdatest.BuildStatus")
+    @Label("LambdaTest Build Status")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class BuildStatus extends Event {
+        @Label("Build ID")
+        String buildId;
+
+        @Label("Previous Status")
+        String previous;
+
+        @Label("Status")
+        @Description("Status as reported by LambdaTest")
+        String status;
+
+        @Label("Pushed")
+        @Description("Whether the status was pushed over the WebSocket rather than polled")
+        boolean pushed;
+
+        /**
+         * Records a status change if the event is enabled.
+         *
+         * @param buildId The ID of the build
+         * @param previous The previous state, or null for the first status
+         * @param status The status as reported by LambdaTest
+         * @param pushed Whether the status was pushed rather than polled
+         */
+        static void record(
+                String buildId,
+                BuildStatusWatcher.Status previous,
+                String status,
+                boolean pushed) {
+            BuildStatus event = new BuildStatus();
+            if (event.shouldCommit()) {
+                event.buildId = buildId;
+                event.previous = previous != null ? previous.name() : null;
+                event.status = status;
+                event.pushed = pushed;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.lambdatest.gradle;
+
+import org.gradle.api.provider.Property;
+
+/**
+ * The {@code lambdatest} extension holding the settings shared by all LambdaTest tasks of a
+ * project. {@link LambdaTestPlugin} wires each value as the convention of the matching task
+ * property, so a value set on a task itself still takes precedence.
+ *
+ * <pre>
+ * lambdatest {
+ *     username = 'yourUsername'
+ *     accessKey = 'yourAccessKey'
+ *     uploadCache = true
+ * }
+ * </pre>
+ */
+public abstract class LambdaTestExtension {
+
+    /** Name of the extension in the build script. */
+    public static final String NAME = "lambdatest";
+
+    public abstract Property<String> getUsername();
+
+    public abstract Property<String> getAccessKey();
+
+    public abstract Property<Boolean> getShowUploadProgress();
+
+    public abstract Property<Boolean> getUploadCache();
+
+    public abstract Property<Integer> getUploadCacheTtlDays();
+
+    public abstract Property<Integer> getUploadCacheMaxEntries();
+
+    public abstract Property<Boolean> getChunkedUpload();
+
+    public abstract Property<Integer> getUploadChunkSizeMb();
+
+    public abstract Property<Integer> getUploadParallelism();
+
+    public abstract Property<Integer> getUploadStallTimeoutSeconds();
+
+    public abstract Property<Boolean> getCompressedUpload();
+
+    public abstract Property<Integer> getUploadCompressionLevel();
+
+    public abstract Property<Boolean> getDeltaUpload();
+
+    public abstract Property<Boolean> getValidateApk();
+
+    /**
+     * The Android build variant whose APKs are uploaded when the Android Gradle Plugin is applied.
+     *
+     * @return The variant name property, {@code debug} by default
+     */
+    public abstract Property<String> getVariant();
+}
@@ -0,0 +1,367 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build service owning the HTTP client shared by every LambdaTest task in a build. Uploaders and
+ * the test executor reuse its connection pool, so DNS lookups, TLS handshakes and thread pools are
+ * paid once per build instead of once per request. The service also owns the {@link
+ * UploadExecutor} bounding how many uploads run concurrently across the build, the {@link
+ * RetryPolicy} and circuit breaker applied to every request, the single scheduler thread on which
+ * {@link BuildStatusWatcher} follows every submitted build, and the {@link UploadRegistry} through
+ * which tasks uploading the same file share one upload.
+ *
+ * <p>With HTTP/2 enabled, concurrent uploads and build submissions are multiplexed as streams of
+ * one connection, so only the first request pays for the TLS handshake and the congestion window
+ * grown by one upload is used by the next.
+ *
+ * <p>The service is registered by {@link LambdaTestPlugin} and closed by Gradle when the build
+ * finishes, which releases pooled connections and dispatcher threads and writes the {@link
+ * NetworkTimings} of all calls made during the build.
+ */
+public abstract class LambdaTestHttpService
+        implements BuildService<LambdaTestHttpService.Params>, AutoCloseable {
+
+    /** Name under which the service is registered with Gradle. */
+    public static final String NAME = "lambdatestHttp";
+
+    private static final Logger logger = LogManager.getLogger(LambdaTestHttpService.class);
+
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final long DEFAULT_KEEP_ALIVE_SECONDS = 300;
+    public static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 60;
+    public static final long DEFAULT_READ_TIMEOUT_SECONDS = 60;
+    public static final long DEFAULT_WRITE_TIMEOUT_SECONDS = 0;
+
+    /** HTTP/2 mode negotiating HTTP/2 through ALPN, falling back to HTTP/1.1. */
+    public static final String HTTP2_ENABLED = "true";
+
+    /** HTTP/2 mode restricting the client to HTTP/1.1. */
+    public static final String HTTP2_DISABLED = "false";
+
+    /** HTTP/2 mode speaking cleartext HTTP/2 without negotiation, for local stand-in servers. */
+    public static final String HTTP2_CLEARTEXT = "h2c";
+
+    private volatile OkHttpClient client;
+    private volatile UploadExecutor uploadExecutor;
+    private volatile ScheduledExecutorService statusScheduler;
+    private volatile RetryPolicy retryPolicy;
+    private volatile NetworkTimings networkTimings;
+    private final UploadRegistry uploadRegistry = new UploadRegistry();
+
+    /**
+     * Settings of the shared HTTP client. Timeouts of zero mean no timeout. Uploads lift the read
+     * timeout, as LambdaTest only answers them once it has processed the uploaded file.
+     */
+    public interface Params extends BuildServiceParameters {
+        Property<Integer> getMaxIdleConnections();
+
+        Property<Long> getKeepAliveSeconds();
+
+        Property<Long> getConnectTimeoutSeconds();
+
+        Property<Long> getReadTimeoutSeconds();
+
+        Property<Long> getWriteTimeoutSeconds();
+
+        /** Protocol names as understood by {@link Protocol#get(String)}, e.g. "http/1.1". */
+        ListProperty<String> getProtocols();
+
+        /**
+         * Whether to use HTTP/2: {@value #HTTP2_ENABLED}, {@value #HTTP2_DISABLED} or {@value
+         * #HTTP2_CLEARTEXT}. Unset keeps the protocols of {@link #getProtocols()}.
+         */
+        Property<String> getHttp2();
+
+        /** Maximum number of uploads running at the same time across the build. */
+        Property<Integer> getMaxConcurrentUploads();
+
+        /** Total number of attempts of a request that failed for a transient reason. */
+        Property<Integer> getMaxAttempts();
+
+        /** File the phase timings of all calls are written to, unset to not record them. */
+        RegularFileProperty getTimingReportFile();
+    }
+
+    /**
+     * Returns the shared HTTP client, creating it on first use.
+     *
+     * @return The shared HTTP client
+     */
+    public OkHttpClient getClient() {
+        OkHttpClient result = client;
+        if (result == null) {
+            synchronized (this) {
+                result = client;
+                if (result == null) {
+                    Params params = getParameters();
+                    result =
+                            createClient(
+                                    params.getMaxIdleConnections()
+                                            .getOrElse(DEFAULT_MAX_IDLE_CONNECTIONS),
+                                    params.getKeepAliveSeconds()
+                                            .getOrElse(DEFAULT_KEEP_ALIVE_SECONDS),
+                                    params.getConnectTimeoutSeconds()
+                                            .getOrElse(DEFAULT_CONNECT_TIMEOUT_SECONDS),
+                                    params.getReadTimeoutSeconds()
+                                            .getOrElse(DEFAULT_READ_TIMEOUT_SECONDS),
+                                    params.getWriteTimeoutSeconds()
+                                            .getOrElse(DEFAULT_WRITE_TIMEOUT_SECONDS),
+                                    params.getProtocols().getOrElse(new ArrayList<>()),
+                                    params.getHttp2().getOrNull());
+                    if (params.getTimingReportFile().isPresent()) {
+                        networkTimings = new NetworkTimings();
+                        result = result.newBuilder().eventListenerFactory(networkTimings).build();
+                    }
+                    client = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the shared upload executor, creating it on first use.
+     *
+     * @return The shared upload executor
+     */
+    public UploadExecutor getUploadExecutor() {
+        UploadExecutor result = uploadExecutor;
+        if (result == null) {
+            synchronized (this) {
+                result = uploadExecutor;
+                if (result == null) {
+                    int maxConcurrentUploads =
+                            getParameters()
+                                    .getMaxConcurrentUploads()
+                                    .getOrElse(UploadExecutor.DEFAULT_MAX_CONCURRENT_UPLOADS);
+                    result = new UploadExecutor(maxConcurrentUploads);
+                    uploadExecutor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the registry of the uploads of this build, through which tasks uploading the same
+     * file share one upload.
+     *
+     * @return The shared upload registry
+     */
+    public UploadRegistry getUploadRegistry() {
+        return uploadRegistry;
+    }
+
+    /**
+     * Returns the retry policy shared by all uploads and build submissions, creating it on first
+     * use. Its circuit breaker is shared too, so an outage stops every task of the build quickly.
+     *
+     * @return The shared retry policy
+     */
+    public RetryPolicy getRetryPolicy() {
+        RetryPolicy result = retryPolicy;
+        if (result == null) {
+            synchronized (this) {
+                result = retryPolicy;
+                if (result == null) {
+                    result =
+                            RetryPolicy.builder()
+                                    .maxAttempts(
+                                            getParameters()
+                                                    .getMaxAttempts()
+                                                    .getOrElse(RetryPolicy.DEFAULT_MAX_ATTEMPTS))
+                                    .build();
+                    retryPolicy = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the scheduler shared by all build status watchers, creating it on first use.
+     *
+     * @return The single threaded status scheduler
+     */
+    public ScheduledExecutorService getStatusScheduler() {
+        ScheduledExecutorService result = statusScheduler;
+        if (result == null) {
+            synchronized (this) {
+                result = statusScheduler;
+                if (result == null) {
+                    result =
+                            Executors.newSingleThreadScheduledExecutor(
+                                    UploadExecutor.daemonThreadFactory("lambdatest-build-status-"));
+                    statusScheduler = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates an HTTP client with the given connection pool, timeout and protocol settings.
+     *
+     * @param maxIdleConnections Maximum number of idle connections kept in the pool
+     * @param keepAliveSeconds How long an idle connection is kept in the pool
+     * @param connectTimeoutSeconds Connect timeout, 0 for none
+     * @param readTimeoutSeconds Read timeout, 0 for none
+     * @param writeTimeoutSeconds Write timeout, 0 for none
+     * @param protocols Protocol names to negotiate, or an empty list for the OkHttp defaults
+     * @return The configured HTTP client
+     */
+    public static OkHttpClient createClient(
+            int maxIdleConnections,
+            long keepAliveSeconds,
+            long connectTimeoutSeconds,
+            long readTimeoutSeconds,
+            long writeTimeoutSeconds,
+            List<String> protocols) {
+        return createClient(
+                maxIdleConnections,
+                keepAliveSeconds,
+                connectTimeoutSeconds,
+                readTimeoutSeconds,
+                writeTimeoutSeconds,
+                protocols,
+                null);
+    }
+
+    /**
+     * Creates an HTTP client with the given connection pool, timeout and protocol settings.
+     *
+     * @implNote When an HTTP/2 mode other than {@value #HTTP2_DISABLED} is given, the client holds
+     *     back concurrent requests to an origin until the first of them has connected, see {@link
+     *     MultiplexedConnectionGate}. HTTP/2 flow-control windows are not configurable in OkHttp;
+     *     the window for uploads is the one advertised by the server.
+     * @param maxIdleConnections Maximum number of idle connections kept in the pool
+     * @param keepAliveSeconds How long an idle connection is kept in the pool
+     * @param connectTimeoutSeconds Connect timeout, 0 for none
+     * @param readTimeoutSeconds Read timeout, 0 for none
+     * @param writeTimeoutSeconds Write timeout, 0 for none
+     * @param protocols Protocol names to negotiate, or an empty list for the HTTP/2 mode's
+     *     protocols
+     * @param http2 The HTTP/2 mode, or null for the OkHttp defaults
+     * @return The configured HTTP client
+     */
+    public static OkHttpClient createClient(
+            int maxIdleConnections,
+            long keepAliveSeconds,
+            long connectTimeoutSeconds,
+            long readTimeoutSeconds,
+            long writeTimeoutSeconds,
+            List<String> protocols,
+            String http2) {
+        OkHttpClient.Builder builder =
+                new OkHttpClient.Builder()
+                        .connectionPool(
+                                new ConnectionPool(
+                                        maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                        .connectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS)
+                        .readTimeout(readTimeoutSeconds, TimeUnit.SECONDS)
+                        .writeTimeout(writeTimeoutSeconds, TimeUnit.SECONDS);
+
+        if (protocols != null && !protocols.isEmpty()) {
+            List<Protocol> parsed = new ArrayList<>();
+            for (String protocol : protocols) {
+                try {
+                    parsed.add(Protocol.get(protocol));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Unknown HTTP protocol: " + protocol, e);
+                }
+            }
+            builder.protocols(parsed);
+        } else if (http2 != null) {
+            builder.protocols(http2Protocols(http2));
+        }
+        if (http2 != null && !HTTP2_DISABLED.equals(http2)) {
+            MultiplexedConnectionGate gate =
+                    new MultiplexedConnectionGate(
+                            TimeUnit.SECONDS.toMillis(connectTimeoutSeconds));
+            builder.addInterceptor(gate.applicationInterceptor())
+                    .addNetworkInterceptor(gate.networkInterceptor());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the protocols to negotiate in an HTTP/2 mode.
+     *
+     * @param http2 The HTTP/2 mode
+     * @return The protocols, in order of preference
+     * @throws IllegalArgumentException if the mode is unknown
+     */
+    static List<Protocol> http2Protocols(String http2) {
+        switch (http2) {
+            case HTTP2_ENABLED:
+                return Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1);
+            case HTTP2_DISABLED:
+                return Collections.singletonList(Protocol.HTTP_1_1);
+            case HTTP2_CLEARTEXT:
+                return Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE);
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown HTTP/2 mode: "
+                                + http2
+                                + ", expected "
+                                + HTTP2_ENABLED
+                                + ", "
+                                + HTTP2_DISABLED
+                                + " or "
+                                + HTTP2_CLEARTEXT);
+        }
+    }
+
+    /**
+     * Releases pooled connections and dispatcher threads of the shared client and stops the upload
+     * executor and status scheduler.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService scheduler = statusScheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            statusScheduler = null;
+        }
+        UploadExecutor executor = uploadExecutor;
+        if (executor != null) {
+            executor.close();
+            uploadExecutor = null;
+        }
+        OkHttpClient result = client;
+        if (result != null) {
+            result.dispatcher().executorService().shutdown();
+            result.connectionPool().evictAll();
+            client = null;
+        }
+        NetworkTimings timings = networkTimings;
+        if (timings != null) {
+            File report = getParameters().getTimingReportFile().get().getAsFile();
+            try {
+                timings.writeReport(report);
+            } catch (IOException e) {
+                logger.warn("Failed to write network timings {}: {}", report, e.getMessage());
+            }
+            networkTimings = null;
+        }
+    }
+}
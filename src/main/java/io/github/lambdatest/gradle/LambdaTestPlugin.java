@@ -1,25 +1,157 @@
 package io.github.lambdatest.gradle;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.TaskProvider;
 
 /**
  * The main plugin class that integrates LambdaTest functionality into the Gradle build system. This
  * plugin adds the 'runLambdaTest' and 'uploadApkToLambdaTest' tasks to the project's task
- * container.
+ * container, along with 'uploadAppToLambdaTest' and 'uploadTestSuiteToLambdaTest' which upload a
+ * single APK each. In an Android application project those two take the APKs of the selected
+ * variant and their IDs are consumed by 'runLambdaTest', see {@link AndroidApkOutputs}.
+ *
+ * <p>All LambdaTest tasks of a build share one {@link LambdaTestHttpService}. Its client can be
+ * tuned with the {@code lambdatest.http.*} Gradle properties. Settings shared by the tasks of a
+ * project, such as the credentials, are taken from the {@code lambdatest} extension, see {@link
+ * LambdaTestExtension}.
  */
 public class LambdaTestPlugin implements Plugin<Project> {
 
+    private static final String HTTP_PROPERTY_PREFIX = "lambdatest.http.";
+    private static final String MAX_CONCURRENT_UPLOADS_PROPERTY = "lambdatest.maxConcurrentUploads";
+    private static final String DEFAULT_VARIANT = "debug";
+    private static final String TIMING_REPORT_PATH = "reports/lambdatest/network-timings.json";
+
     /**
-     * Applies the plugin to the specified Gradle project, registering the LambdaTest and
-     * uploadApkToLambdaTest task.
+     * Applies the plugin to the specified Gradle project, creating the {@code lambdatest}
+     * extension and registering the LambdaTest and upload tasks.
      *
      * @param project The Gradle project to which this plugin is being applied
      */
     @Override
     public void apply(Project project) {
-        // Register a new task named "runLambdaTest" and associate it with the LambdaTestTask class
-        project.getTasks().create("runLambdaTest", LambdaTestTask.class);
-        project.getTasks().create("uploadApkToLambdaTest", LambdaUploaderTask.class);
+        Provider<LambdaTestHttpService> httpService = registerHttpService(project);
+        LambdaTestExtension extension =
+                project.getExtensions().create(LambdaTestExtension.NAME, LambdaTestExtension.class);
+        project.getTasks()
+                .withType(AbstractLambdaTestUploadTask.class)
+                .configureEach(task -> configureUploadConventions(task, extension, httpService));
+
+        extension.getVariant().convention(DEFAULT_VARIANT);
+
+        // Register the tasks lazily so they are only created when the build needs them
+        TaskProvider<LambdaTestTask> runTests =
+                project.getTasks().register("runLambdaTest", LambdaTestTask.class);
+        project.getTasks().register("uploadApkToLambdaTest", LambdaUploaderTask.class);
+        TaskProvider<LambdaUploaderTask> uploadApp =
+                project.getTasks().register("uploadAppToLambdaTest", LambdaUploaderTask.class);
+        TaskProvider<LambdaUploaderTask> uploadTestSuite =
+                project.getTasks()
+                        .register("uploadTestSuiteToLambdaTest", LambdaUploaderTask.class);
+
+        project.getPluginManager()
+                .withPlugin(
+                        "com.android.application",
+                        android ->
+                                AndroidApkOutputs.wire(
+                                        project, extension, uploadApp, uploadTestSuite, runTests));
+    }
+
+    /**
+     * Gives an upload task the shared HTTP service and the settings of the {@code lambdatest}
+     * extension as conventions, which the task's own settings override.
+     *
+     * @param task The task to configure
+     * @param extension The extension of the project
+     * @param httpService The shared HTTP service
+     */
+    private static void configureUploadConventions(
+            AbstractLambdaTestUploadTask task,
+            LambdaTestExtension extension,
+            Provider<LambdaTestHttpService> httpService) {
+        task.getHttpService().set(httpService);
+        task.usesService(httpService);
+        task.getUsername().convention(extension.getUsername());
+        task.getAccessKey().convention(extension.getAccessKey());
+        task.getShowUploadProgress().convention(extension.getShowUploadProgress());
+        task.getUploadCache().convention(extension.getUploadCache());
+        task.getUploadCacheTtlDays().convention(extension.getUploadCacheTtlDays());
+        task.getUploadCacheMaxEntries().convention(extension.getUploadCacheMaxEntries());
+        task.getChunkedUpload().convention(extension.getChunkedUpload());
+        task.getUploadChunkSizeMb().convention(extension.getUploadChunkSizeMb());
+        task.getUploadParallelism().convention(extension.getUploadParallelism());
+        task.getUploadStallTimeoutSeconds().convention(extension.getUploadStallTimeoutSeconds());
+        task.getCompressedUpload().convention(extension.getCompressedUpload());
+        task.getUploadCompressionLevel().convention(extension.getUploadCompressionLevel());
+        task.getDeltaUpload().convention(extension.getDeltaUpload());
+        task.getValidateApk().convention(extension.getValidateApk());
+    }
+
+    /**
+     * Registers the build-wide {@link LambdaTestHttpService}, or returns the one registered by
+     * another project of the same build.
+     *
+     * @param project The project applying the plugin
+     * @return A provider of the shared HTTP service
+     */
+    private Provider<LambdaTestHttpService> registerHttpService(Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(
+                        LambdaTestHttpService.NAME,
+                        LambdaTestHttpService.class,
+                        spec -> configureHttpService(spec.getParameters(), project));
+    }
+
+    private static void configureHttpService(LambdaTestHttpService.Params params, Project project) {
+        params.getMaxIdleConnections().set(intProperty(project, "maxIdleConnections"));
+        params.getKeepAliveSeconds().set(longProperty(project, "keepAliveSeconds"));
+        params.getConnectTimeoutSeconds().set(longProperty(project, "connectTimeoutSeconds"));
+        params.getReadTimeoutSeconds().set(longProperty(project, "readTimeoutSeconds"));
+        params.getWriteTimeoutSeconds().set(longProperty(project, "writeTimeoutSeconds"));
+        params.getProtocols().set(listProperty(project, "protocols"));
+        params.getHttp2().set(httpProperty(project, "http2"));
+        params.getMaxAttempts().set(intProperty(project, "maxAttempts"));
+        if (!"false".equals(httpProperty(project, "timingReport").getOrNull())) {
+            params.getTimingReportFile()
+                    .set(
+                            project.getRootProject()
+                                    .getLayout()
+                                    .getBuildDirectory()
+                                    .file(TIMING_REPORT_PATH));
+        }
+        Provider<String> maxConcurrentUploads =
+                project.getProviders().gradleProperty(MAX_CONCURRENT_UPLOADS_PROPERTY);
+        params.getMaxConcurrentUploads().set(maxConcurrentUploads.map(Integer::valueOf));
+    }
+
+    private static Provider<String> httpProperty(Project project, String name) {
+        return project.getProviders().gradleProperty(HTTP_PROPERTY_PREFIX + name);
+    }
+
+    private static Provider<Integer> intProperty(Project project, String name) {
+        return httpProperty(project, name).map(Integer::valueOf);
+    }
+
+    private static Provider<Long> longProperty(Project project, String name) {
+        return httpProperty(project, name).map(Long::valueOf);
+    }
+
+    private static Provider<List<String>> listProperty(Project project, String name) {
+        return httpProperty(project, name).map(LambdaTestPlugin::splitList);
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> result = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                result.add(item.trim());
+            }
+        }
+        return result;
     }
 }
@@ -1,14 +1,33 @@
 package io.github.lambdatest.gradle;
 
+import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 
 /**
@@ -17,35 +36,255 @@ import org.gradle.api.tasks.TaskAction;
  * execution with specified configurations.
  *
  * <p>This task coordinates between {@link AppUploader}, {@link TestSuiteUploader}, and {@link
- * TestExecutor} to manage the complete test execution lifecycle.
+ * TestExecutor} to manage the complete test execution lifecycle. With {@code waitForBuild} enabled
+ * the task follows the submitted build with {@link BuildStatusWatcher} and fails unless the build
+ * passed. With {@code deviceShards} or {@code shardVariants} the device list is split into several
+ * concurrently running builds through {@link ShardedBuildRunner}, and {@code shardTestsByDuration}
+ * balances the test classes of the suite across those builds using {@link TestDurationHistory}.
+ *
+ * <p>All settings are lazy properties, the shared ones defaulting to the values of {@link
+ * LambdaTestExtension}, and the action never reads the project, so the task is compatible with
+ * the configuration cache.
  */
-public class LambdaTestTask extends DefaultTask {
+public abstract class LambdaTestTask extends AbstractLambdaTestUploadTask {
 
     private static final Logger logger = LogManager.getLogger(LambdaTestTask.class);
 
-    private String username;
-    private String accessKey;
-    private String appFilePath;
-    private String testSuiteFilePath;
-    private List<String> device;
-    private String build;
-    private Boolean deviceLog;
-    private Integer idleTimeout;
-    private Boolean video;
-    private Boolean network;
-    private Boolean tunnel;
-    private String tunnelName;
-    private String geoLocation;
-    private Boolean disableAnimation;
-    private Boolean clearPackageData;
-    private Boolean singleRunnerInvocation;
-    private Boolean globalHttpProxy;
-    private String fixedIp;
-    private Boolean isFlutter;
-    private String appId;
-    private String testSuiteId;
-    private Integer queueTimeout;
-    private Boolean showUploadProgress;
+    private final ConfigurableFileCollection uploadIdsFiles;
+    private final ListProperty<String> device;
+    private final Property<String> build;
+    private final Property<Boolean> deviceLog;
+    private final Property<Integer> idleTimeout;
+    private final Property<Boolean> video;
+    private final Property<Boolean> network;
+    private final Property<Boolean> tunnel;
+    private final Property<String> tunnelName;
+    private final Property<String> geoLocation;
+    private final Property<Boolean> disableAnimation;
+    private final Property<Boolean> clearPackageData;
+    private final Property<Boolean> singleRunnerInvocation;
+    private final Property<Boolean> globalHttpProxy;
+    private final Property<String> fixedIp;
+    private final Property<Boolean> isFlutter;
+    private final Property<String> appId;
+    private final Property<String> testSuiteId;
+    private final Property<Integer> queueTimeout;
+    private final Property<Boolean> waitForBuild;
+    private final Property<Integer> buildTimeoutMinutes;
+    private final Property<Boolean> buildStatusPush;
+    private final Property<Integer> deviceShards;
+    private final MapProperty<String, List<String>> shardVariants;
+    private final Property<Integer> maxConcurrentBuilds;
+    private final Property<Boolean> shardTestsByDuration;
+    private final RegularFileProperty testDurationHistoryFile;
+
+    /**
+     * Creates the task with its default test duration history file, resolved at configuration
+     * time so the action never touches the project.
+     */
+    @SuppressWarnings("unchecked")
+    public LambdaTestTask() {
+        ObjectFactory objects = getProject().getObjects();
+        uploadIdsFiles = objects.fileCollection();
+        device = objects.listProperty(String.class);
+        build = objects.property(String.class);
+        deviceLog = objects.property(Boolean.class);
+        idleTimeout = objects.property(Integer.class);
+        video = objects.property(Boolean.class);
+        network = objects.property(Boolean.class);
+        tunnel = objects.property(Boolean.class);
+        tunnelName = objects.property(String.class);
+        geoLocation = objects.property(String.class);
+        disableAnimation = objects.property(Boolean.class);
+        clearPackageData = objects.property(Boolean.class);
+        singleRunnerInvocation = objects.property(Boolean.class);
+        globalHttpProxy = objects.property(Boolean.class);
+        fixedIp = objects.property(String.class);
+        isFlutter = objects.property(Boolean.class);
+        appId = objects.property(String.class);
+        testSuiteId = objects.property(String.class);
+        queueTimeout = objects.property(Integer.class);
+        waitForBuild = objects.property(Boolean.class);
+        buildTimeoutMinutes = objects.property(Integer.class);
+        buildStatusPush = objects.property(Boolean.class);
+        deviceShards = objects.property(Integer.class);
+        shardVariants =
+                objects.mapProperty(String.class, (Class<List<String>>) (Class<?>) List.class);
+        maxConcurrentBuilds = objects.property(Integer.class);
+        shardTestsByDuration = objects.property(Boolean.class);
+        testDurationHistoryFile = objects.fileProperty();
+        getTestDurationHistoryFile()
+                .convention(
+                        getProject()
+                                .getLayout()
+                                .getProjectDirectory()
+                                .file(TestDurationHistory.DEFAULT_HISTORY_PATH));
+    }
+
+    /**
+     * Files written by {@link LambdaUploaderTask} holding the IDs of APKs uploaded by other tasks.
+     * An ID found in these files is used instead of uploading {@code appFilePath} or {@code
+     * testSuiteFilePath}, but not instead of an explicit {@code appId} or {@code testSuiteId}.
+     *
+     * @return The collection of upload IDs files
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public ConfigurableFileCollection getUploadIdsFiles() {
+        return uploadIdsFiles;
+    }
+
+    @Input
+    @Optional
+    public ListProperty<String> getDevice() {
+        return device;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getBuild() {
+        return build;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getDeviceLog() {
+        return deviceLog;
+    }
+
+    @Input
+    @Optional
+    public Property<Integer> getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getVideo() {
+        return video;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getNetwork() {
+        return network;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getTunnel() {
+        return tunnel;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getTunnelName() {
+        return tunnelName;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getGeoLocation() {
+        return geoLocation;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getDisableAnimation() {
+        return disableAnimation;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getClearPackageData() {
+        return clearPackageData;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getSingleRunnerInvocation() {
+        return singleRunnerInvocation;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getGlobalHttpProxy() {
+        return globalHttpProxy;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getFixedIp() {
+        return fixedIp;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getIsFlutter() {
+        return isFlutter;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getAppId() {
+        return appId;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getTestSuiteId() {
+        return testSuiteId;
+    }
+
+    @Input
+    @Optional
+    public Property<Integer> getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    @Internal
+    public Property<Boolean> getWaitForBuild() {
+        return waitForBuild;
+    }
+
+    @Internal
+    public Property<Integer> getBuildTimeoutMinutes() {
+        return buildTimeoutMinutes;
+    }
+
+    @Internal
+    public Property<Boolean> getBuildStatusPush() {
+        return buildStatusPush;
+    }
+
+    @Input
+    @Optional
+    public Property<Integer> getDeviceShards() {
+        return deviceShards;
+    }
+
+    @Input
+    @Optional
+    public MapProperty<String, List<String>> getShardVariants() {
+        return shardVariants;
+    }
+
+    @Internal
+    public Property<Integer> getMaxConcurrentBuilds() {
+        return maxConcurrentBuilds;
+    }
+
+    @Input
+    @Optional
+    public Property<Boolean> getShardTestsByDuration() {
+        return shardTestsByDuration;
+    }
+
+    /** The file test class durations are recorded in, read and rewritten by every sharded run. */
+    @Internal
+    public RegularFileProperty getTestDurationHistoryFile() {
+        return testDurationHistoryFile;
+    }
 
     /**
      * Executes the LambdaTest task, which includes uploading the application and test suite,
@@ -54,36 +293,69 @@ public class LambdaTestTask extends DefaultTask {
      * @implNote This method handles the task execution in three main phases: 1. Asynchronous upload
      *     of the application using {@link AppUploader#uploadAppAsync()} 2. Asynchronous upload of
      *     the test suite using {@link TestSuiteUploader#uploadTestSuiteAsync()} 3. Test execution
-     *     with {@link TestExecutor#executeTests(Map)}
+     *     with {@link TestExecutor#submitBuild(Map)}
      * @throws RuntimeException if any upload or test execution fails
      */
     @TaskAction
     public void runLambdaTest() {
-        boolean progressEnabled = showUploadProgress != null && showUploadProgress;
+        String username = getUsername().getOrNull();
+        String accessKey = getAccessKey().getOrNull();
+        boolean progressEnabled = isProgressEnabled();
+        // Captured once, so that uploads, builds and status requests of this run agree
+        Endpoints endpoints = Constants.endpoints();
+        ProgressTracker progressTracker = createProgressTracker();
+        UploadCache cache = createUploadCache();
+        LambdaTestHttpService service = getHttpService().getOrNull();
+        UploadOptions uploadOptions = uploadOptions(cache, progressTracker, endpoints);
+        ExecutionOptions executionOptions =
+                ExecutionOptions.builder()
+                        .uploadCache(cache)
+                        .httpClient(service != null ? service.getClient() : null)
+                        .retryPolicy(service != null ? service.getRetryPolicy() : null)
+                        .endpoints(endpoints)
+                        .build();
 
         if (!progressEnabled) {
             logger.info("Starting LambdaTest task...");
         }
 
         // Upload app
+        String appId = getAppId().getOrNull();
+        String testSuiteId = getTestSuiteId().getOrNull();
+        for (File file : getUploadIdsFiles()) {
+            UploadIds uploaded = readUploadIds(file);
+            if (appId == null) {
+                appId = uploaded.getAppId();
+            }
+            if (testSuiteId == null) {
+                testSuiteId = uploaded.getTestSuiteId();
+            }
+        }
         CompletableFuture<String> appIdFuture = null;
         CompletableFuture<String> testSuiteIdFuture = null;
 
-        if (appId == null && appFilePath != null) {
+        validateApks(
+                appId == null && getAppFile().isPresent() ? getAppFile().get().getAsFile() : null,
+                testSuiteId == null && getTestSuiteFile().isPresent()
+                        ? getTestSuiteFile().get().getAsFile()
+                        : null);
+
+        if (appId == null && getAppFile().isPresent()) {
             if (!progressEnabled) {
                 logger.info("Uploading app...");
             }
             AppUploader appUploader =
-                    new AppUploader(username, accessKey, appFilePath, progressEnabled);
+                    new AppUploader(username, accessKey, filePath(getAppFile()), uploadOptions);
             appIdFuture = appUploader.uploadAppAsync();
         }
 
-        if (testSuiteId == null && testSuiteFilePath != null) {
+        if (testSuiteId == null && getTestSuiteFile().isPresent()) {
             if (!progressEnabled) {
                 logger.info("Uploading test suite...");
             }
             TestSuiteUploader testSuiteUploader =
-                    new TestSuiteUploader(username, accessKey, testSuiteFilePath, progressEnabled);
+                    new TestSuiteUploader(
+                            username, accessKey, filePath(getTestSuiteFile()), uploadOptions);
             testSuiteIdFuture = testSuiteUploader.uploadTestSuiteAsync();
         }
 
@@ -99,7 +371,7 @@ public class LambdaTestTask extends DefaultTask {
 
             // Clear progress display if enabled, then show success messages
             if (progressEnabled) {
-                ProgressTracker.cleanup();
+                progressTracker.finish();
             }
 
             // Show success messages (unified flow for both progress and non-progress cases)
@@ -112,7 +384,7 @@ public class LambdaTestTask extends DefaultTask {
         } catch (CompletionException e) {
             // Cleanup progress display on error
             if (progressEnabled) {
-                ProgressTracker.cleanup();
+                progressTracker.finish();
             }
             logger.error("Failed to execute tasks: {}", e);
             throw new RuntimeException(e);
@@ -121,129 +393,362 @@ public class LambdaTestTask extends DefaultTask {
         // Execute tests
         logger.info("Executing tests...");
         TestExecutor testExecutor =
-                new TestExecutor(username, accessKey, appId, testSuiteId, device, isFlutter);
+                new TestExecutor(
+                        username,
+                        accessKey,
+                        appId,
+                        testSuiteId,
+                        getDevice().getOrNull(),
+                        getIsFlutter().getOrElse(false),
+                        executionOptions);
         Map<String, String> params = new HashMap<>();
 
-        if (build != null) params.put("build", build);
-        if (deviceLog != null) params.put("deviceLog", deviceLog.toString());
-        if (idleTimeout != null) params.put("IdleTimeout", idleTimeout.toString());
-        if (video != null) params.put("video", video.toString());
-        if (network != null) params.put("network", network.toString());
-        if (tunnel != null) params.put("tunnel", tunnel.toString());
-        if (tunnelName != null) params.put("tunnelName", tunnelName);
-        if (geoLocation != null) params.put("geoLocation", geoLocation);
-        if (disableAnimation != null) params.put("disableAnimation", disableAnimation.toString());
-        if (clearPackageData != null) params.put("clearPackageData", clearPackageData.toString());
-        if (singleRunnerInvocation != null)
-            params.put("singleRunnerInvocation", singleRunnerInvocation.toString());
-        if (globalHttpProxy != null) params.put("globalHttpProxy", globalHttpProxy.toString());
-        if (fixedIp != null) params.put("fixedIp", fixedIp);
-        if (queueTimeout != null) params.put("queueTimeout", queueTimeout.toString());
+        putIfPresent(params, "build", getBuild());
+        putIfPresent(params, "deviceLog", getDeviceLog());
+        putIfPresent(params, "IdleTimeout", getIdleTimeout());
+        putIfPresent(params, "video", getVideo());
+        putIfPresent(params, "network", getNetwork());
+        putIfPresent(params, "tunnel", getTunnel());
+        putIfPresent(params, "tunnelName", getTunnelName());
+        putIfPresent(params, "geoLocation", getGeoLocation());
+        putIfPresent(params, "disableAnimation", getDisableAnimation());
+        putIfPresent(params, "clearPackageData", getClearPackageData());
+        putIfPresent(params, "singleRunnerInvocation", getSingleRunnerInvocation());
+        putIfPresent(params, "globalHttpProxy", getGlobalHttpProxy());
+        putIfPresent(params, "fixedIp", getFixedIp());
+        putIfPresent(params, "queueTimeout", getQueueTimeout());
+
+        boolean sharded =
+                getDeviceShards().getOrElse(1) > 1
+                        || !getShardVariants().getOrElse(Collections.emptyMap()).isEmpty()
+                        || isShardingTestsByDuration();
+        if (sharded) {
+            runShards(params, appId, testSuiteId, service, executionOptions);
+            logger.info("LambdaTest task completed.");
+            return;
+        }
 
+        String buildId;
         try {
-            testExecutor.executeTests(params);
+            buildId = testExecutor.submitBuild(params);
         } catch (IOException e) {
             logger.error("Failed to execute tests: {}", e);
             throw new RuntimeException(e);
         }
+        if (getWaitForBuild().getOrElse(false)) {
+            awaitBuild(buildId, service, executionOptions);
+        }
         logger.info("LambdaTest task completed.");
     }
 
-    // setter methods for the properties
+    private static void putIfPresent(
+            Map<String, String> params, String name, Provider<?> value) {
+        if (value.isPresent()) {
+            params.put(name, value.get().toString());
+        }
+    }
+
+    private static UploadIds readUploadIds(File file) {
+        try {
+            return UploadIds.read(file);
+        } catch (IOException e) {
+            logger.error("Failed to read upload IDs: {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Waits for the submitted build to finish and fails the task unless it passed.
+     *
+     * @param buildId The ID of the submitted build, or null if LambdaTest returned none
+     * @param service The shared HTTP service, or null when running without the plugin
+     * @param options The options the build was submitted with
+     */
+    private void awaitBuild(
+            String buildId, LambdaTestHttpService service, ExecutionOptions options) {
+        if (buildId == null) {
+            throw new RuntimeException("LambdaTest did not return a build ID to wait for");
+        }
+        ScheduledExecutorService scheduler = statusScheduler(service);
+        BuildStatusWatcher watcher = createWatcher(scheduler, options);
+
+        logger.info("Waiting for build {} to finish...", buildId);
+        BuildStatusWatcher.Result result;
+        try {
+            result = watcher.watch(buildId, buildTimeout()).join();
+        } catch (CompletionException e) {
+            logger.error("Failed to follow build {}: {}", buildId, e.getCause().getMessage());
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (service == null) {
+                scheduler.shutdownNow();
+            }
+        }
+        if (!result.isPassed()) {
+            throw new RuntimeException(
+                    "LambdaTest build "
+                            + buildId
+                            + " finished with status "
+                            + result.getRawStatus());
+        }
+        logger.info("LambdaTest build {} passed", buildId);
+    }
+
+    /**
+     * Submits the device shards as concurrent builds and fails the task unless all of them
+     * succeeded.
+     *
+     * @param params The build parameters shared by all shards
+     * @param appId The ID of the uploaded app
+     * @param testSuiteId The ID of the uploaded test suite
+     * @param service The shared HTTP service, or null when running without the plugin
+     * @param options The options to submit the builds with
+     */
+    private void runShards(
+            Map<String, String> params,
+            String appId,
+            String testSuiteId,
+            LambdaTestHttpService service,
+            ExecutionOptions options) {
+        List<String> device = getDevice().getOrNull();
+        int shardCount = getDeviceShards().getOrElse(1);
+        TestDurationHistory history = null;
+        List<List<String>> testClassGroups = null;
+        if (isShardingTestsByDuration()) {
+            if (!getDeviceShards().isPresent() && device != null) {
+                shardCount = device.size();
+            }
+            List<String> testClasses = findTestClasses();
+            if (!testClasses.isEmpty()) {
+                history =
+                        new TestDurationHistory(getTestDurationHistoryFile().get().getAsFile());
+                shardCount =
+                        Math.min(
+                                ShardedBuildRunner.deviceGroupCount(device, shardCount),
+                                testClasses.size());
+                testClassGroups = history.partition(testClasses, shardCount);
+                logger.info(
+                        "Balanced {} test classes across {} shards using {} recorded durations",
+                        testClasses.size(),
+                        shardCount,
+                        history.size());
+            }
+        }
+        List<ShardedBuildRunner.Shard> shards =
+                ShardedBuildRunner.plan(
+                        device, shardCount, getShardVariants().getOrNull(), testClassGroups);
+        boolean wait = getWaitForBuild().getOrElse(false);
+        String username = getUsername().getOrNull();
+        String accessKey = getAccessKey().getOrNull();
+        boolean isFlutter = getIsFlutter().getOrElse(false);
+        ScheduledExecutorService scheduler = wait ? statusScheduler(service) : null;
+        Executor executor =
+                service != null
+                        ? service.getUploadExecutor()
+                        : UploaderUtil.defaultUploadExecutor();
+        ShardedBuildRunner runner =
+                new ShardedBuildRunner(
+                        shard ->
+                                new TestExecutor(
+                                                username,
+                                                accessKey,
+                                                appId,
+                                                testSuiteId,
+                                                shard.getDevices(),
+                                                isFlutter,
+                                                options)
+                                        .submitBuild(
+                                                shard.applyTo(params), shard.getTestClasses()),
+                        wait ? createWatcher(scheduler, options) : null,
+                        buildTimeout(),
+                        getMaxConcurrentBuilds().getOrElse(shards.size()),
+                        executor);
+
+        logger.info("Running {} sharded builds...", shards.size());
+        List<ShardedBuildRunner.Outcome> outcomes;
+        try {
+            outcomes = runner.run(shards).join();
+        } finally {
+            if (service == null && scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+        if (history != null) {
+            for (ShardedBuildRunner.Outcome outcome : outcomes) {
+                if (outcome.getResult() != null) {
+                    history.record(
+                            outcome.getShard().getTestClasses(),
+                            outcome.getResult().getRunningTime());
+                }
+            }
+            history.save();
+        }
+        long failed = outcomes.stream().filter(outcome -> !outcome.isSuccessful()).count();
+        if (failed > 0) {
+            throw new RuntimeException(
+                    failed + " of " + outcomes.size() + " sharded LambdaTest builds failed");
+        }
+        logger.info("All {} sharded builds succeeded", outcomes.size());
+    }
+
+    private boolean isShardingTestsByDuration() {
+        return getShardTestsByDuration().getOrElse(false);
+    }
 
-    public void setUsername(String username) {
-        this.username = username;
+    /**
+     * Lists the test classes of the test suite APK, or returns an empty list if they cannot be
+     * determined, in which case every shard runs the whole suite.
+     */
+    private List<String> findTestClasses() {
+        if (!getTestSuiteFile().isPresent()) {
+            logger.warn("Test sharding by duration needs testSuiteFilePath, running whole suite");
+            return new ArrayList<>();
+        }
+        try {
+            return DexTestClassScanner.findTestClasses(getTestSuiteFile().get().getAsFile());
+        } catch (IOException e) {
+            logger.warn(
+                    "Cannot list test classes of {}, running whole suite: {}",
+                    getTestSuiteFile().get().getAsFile(),
+                    e.getMessage());
+            return new ArrayList<>();
+        }
     }
 
-    public void setAccessKey(String accessKey) {
-        this.accessKey = accessKey;
+    private ScheduledExecutorService statusScheduler(LambdaTestHttpService service) {
+        return service != null
+                ? service.getStatusScheduler()
+                : Executors.newSingleThreadScheduledExecutor(
+                        UploadExecutor.daemonThreadFactory("lambdatest-build-status-"));
     }
 
-    public void setAppFilePath(String appFilePath) {
-        this.appFilePath = appFilePath;
+    private BuildStatusWatcher createWatcher(
+            ScheduledExecutorService scheduler, ExecutionOptions options) {
+        return BuildStatusWatcher.builder(
+                        options.getHttpClient(),
+                        scheduler,
+                        getUsername().getOrNull(),
+                        getAccessKey().getOrNull())
+                .push(getBuildStatusPush().getOrElse(false))
+                .endpoints(options.getEndpoints())
+                .build();
     }
 
-    public void setTestSuiteFilePath(String testSuiteFilePath) {
-        this.testSuiteFilePath = testSuiteFilePath;
+    private Duration buildTimeout() {
+        return getBuildTimeoutMinutes().map(Duration::ofMinutes).getOrNull();
     }
 
+    // setter methods for the properties, kept for build scripts assigning plain values
+
     public void setDevice(List<String> device) {
-        this.device = device;
+        getDevice().set(device);
     }
 
     public void setBuild(String build) {
-        this.build = build;
+        getBuild().set(build);
     }
 
     public void setDeviceLog(Boolean deviceLog) {
-        this.deviceLog = deviceLog;
+        getDeviceLog().set(deviceLog);
     }
 
     public void setIdleTimeout(Integer idleTimeout) {
-        this.idleTimeout = idleTimeout;
+        getIdleTimeout().set(idleTimeout);
     }
 
     public void setVideo(Boolean video) {
-        this.video = video;
+        getVideo().set(video);
     }
 
     public void setNetwork(Boolean network) {
-        this.network = network;
+        getNetwork().set(network);
     }
 
     public void setTunnel(Boolean tunnel) {
-        this.tunnel = tunnel;
+        getTunnel().set(tunnel);
     }
 
     public void setTunnelName(String tunnelName) {
-        this.tunnelName = tunnelName;
+        getTunnelName().set(tunnelName);
     }
 
     public void setGeoLocation(String geoLocation) {
-        this.geoLocation = geoLocation;
+        getGeoLocation().set(geoLocation);
     }
 
     public void setDisableAnimation(Boolean disableAnimation) {
-        this.disableAnimation = disableAnimation;
+        getDisableAnimation().set(disableAnimation);
     }
 
     public void setClearPackageData(Boolean clearPackageData) {
-        this.clearPackageData = clearPackageData;
+        getClearPackageData().set(clearPackageData);
     }
 
     public void setSingleRunnerInvocation(Boolean singleRunnerInvocation) {
-        this.singleRunnerInvocation = singleRunnerInvocation;
+        getSingleRunnerInvocation().set(singleRunnerInvocation);
     }
 
     public void setGlobalHttpProxy(Boolean globalHttpProxy) {
-        this.globalHttpProxy = globalHttpProxy;
+        getGlobalHttpProxy().set(globalHttpProxy);
     }
 
     public void setFixedIp(String fixedIp) {
-        this.fixedIp = fixedIp;
+        getFixedIp().set(fixedIp);
     }
 
     public void setQueueTimeout(Integer queueTimeout) {
-        this.queueTimeout = queueTimeout;
+        getQueueTimeout().set(queueTimeout);
     }
 
     public void setIsFlutter(Boolean isFlutter) {
-        this.isFlutter = (isFlutter != null && isFlutter);
+        getIsFlutter().set(isFlutter != null && isFlutter);
     }
 
     public void setAppId(String appId) {
         if (appId != null && !appId.trim().isEmpty()) {
-            this.appId = appId;
+            getAppId().set(appId);
         }
     }
 
     public void setTestSuiteId(String testSuiteId) {
         if (testSuiteId != null && !testSuiteId.trim().isEmpty()) {
-            this.testSuiteId = testSuiteId;
+            getTestSuiteId().set(testSuiteId);
         }
     }
 
-    public void setShowUploadProgress(Boolean showUploadProgress) {
-        this.showUploadProgress = showUploadProgress;
+    public void setWaitForBuild(Boolean waitForBuild) {
+        getWaitForBuild().set(waitForBuild);
+    }
+
+    public void setBuildTimeoutMinutes(Integer buildTimeoutMinutes) {
+        getBuildTimeoutMinutes().set(buildTimeoutMinutes);
+    }
+
+    public void setBuildStatusPush(Boolean buildStatusPush) {
+        getBuildStatusPush().set(buildStatusPush);
+    }
+
+    public void setDeviceShards(Integer deviceShards) {
+        getDeviceShards().set(deviceShards);
+    }
+
+    public void setShardVariants(Map<String, List<String>> shardVariants) {
+        getShardVariants().set(shardVariants);
+    }
+
+    public void setMaxConcurrentBuilds(Integer maxConcurrentBuilds) {
+        getMaxConcurrentBuilds().set(maxConcurrentBuilds);
+    }
+
+    public void setShardTestsByDuration(Boolean shardTestsByDuration) {
+        getShardTestsByDuration().set(shardTestsByDuration);
+    }
+
+    public void setTestDurationHistoryFile(String testDurationHistoryFile) {
+        getTestDurationHistoryFile()
+                .set(
+                        testDurationHistoryFile != null
+                                ? getProject().file(testDurationHistoryFile)
+                                : null);
     }
 }
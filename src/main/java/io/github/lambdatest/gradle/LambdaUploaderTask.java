@@ -1,10 +1,16 @@
 package io.github.lambdatest.gradle;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 
 /**
@@ -13,15 +19,66 @@ import org.gradle.api.tasks.TaskAction;
  *
  * <p>This task coordinates between {@link AppUploader} and {@link TestSuiteUploader}, to upload the
  * apps to Lmabdatest.
+ *
+ * <p>The APKs are declared as inputs by content and the returned IDs are written to {@link
+ * #getUploadIdsFile()}, so the task is up to date while the APKs are unchanged and its output can
+ * be restored from the build cache on another machine instead of uploading again. All settings
+ * are lazy properties, defaulting to the shared values of {@link LambdaTestExtension}, and the
+ * action never reads the project, so the task is compatible with the configuration cache.
  */
-public class LambdaUploaderTask extends DefaultTask {
+@CacheableTask
+public abstract class LambdaUploaderTask extends AbstractLambdaTestUploadTask {
 
     private static final Logger logger = Logging.getLogger(LambdaUploaderTask.class);
-    private String username;
-    private String accessKey;
-    private String appFilePath;
-    private String testSuiteFilePath;
-    private Boolean showUploadProgress;
+
+    private final RegularFileProperty uploadIdsFile;
+
+    /** Creates the task with its default upload IDs file, resolved at configuration time. */
+    public LambdaUploaderTask() {
+        uploadIdsFile = getProject().getObjects().fileProperty();
+        getUploadIdsFile()
+                .convention(
+                        getProject()
+                                .getLayout()
+                                .getBuildDirectory()
+                                .file("lambdatest/" + getName() + "/upload-ids.json"));
+    }
+
+    /**
+     * Returns the number of the time window the uploaded IDs belong to. The window changes every
+     * {@code uploadCacheTtlDays} days, which makes the task out of date and keeps the build cache
+     * from serving IDs LambdaTest may have expired.
+     *
+     * @return The number of the current validity window
+     */
+    @Input
+    public long getUploadIdValidityWindow() {
+        long ttlDays = getUploadCacheTtlDays().getOrElse((int) UploadCache.DEFAULT_TTL.toDays());
+        return LocalDate.now().toEpochDay() / Math.max(1, ttlDays);
+    }
+
+    /**
+     * Returns the URL the APKs are uploaded to. The uploaded IDs are only valid at this endpoint,
+     * so a change of endpoint makes the task out of date and keeps the build cache from serving
+     * IDs uploaded to another environment.
+     *
+     * @return The single request upload URL of the current endpoints
+     */
+    @Input
+    public String getUploadUrl() {
+        return Constants.endpoints().getApiUrl();
+    }
+
+    /**
+     * The file the uploaded IDs are written to, see {@link UploadIds}.
+     *
+     * @return The output file property, by default {@code
+     *     build/lambdatest/<task name>/upload-ids.json}
+     */
+    @OutputFile
+    public RegularFileProperty getUploadIdsFile() {
+        return uploadIdsFile;
+    }
 
     @TaskAction
     public void uploadApkToLambdaTest() {
@@ -31,28 +88,38 @@ public class LambdaUploaderTask extends DefaultTask {
         CompletableFuture<String> appIdFuture = null;
         CompletableFuture<String> testSuiteIdFuture = null;
 
-        boolean progressEnabled = showUploadProgress != null && showUploadProgress;
+        String username = getUsername().getOrNull();
+        String accessKey = getAccessKey().getOrNull();
+        boolean progressEnabled = isProgressEnabled();
+        ProgressTracker progressTracker = createProgressTracker();
+        UploadOptions uploadOptions =
+                uploadOptions(createUploadCache(), progressTracker, Constants.endpoints());
 
         // Only log to lifecycle if progress is disabled
         if (!progressEnabled) {
             logger.lifecycle("Starting LambdaTest APK Uploader task...");
         }
 
-        if (appFilePath != null) {
+        validateApks(
+                getAppFile().isPresent() ? getAppFile().get().getAsFile() : null,
+                getTestSuiteFile().isPresent() ? getTestSuiteFile().get().getAsFile() : null);
+
+        if (getAppFile().isPresent()) {
             if (!progressEnabled) {
                 logger.lifecycle("Uploading app ...");
             }
             AppUploader appUploader =
-                    new AppUploader(username, accessKey, appFilePath, progressEnabled);
+                    new AppUploader(username, accessKey, filePath(getAppFile()), uploadOptions);
             appIdFuture = appUploader.uploadAppAsync();
         }
 
-        if (testSuiteFilePath != null) {
+        if (getTestSuiteFile().isPresent()) {
             if (!progressEnabled) {
                 logger.lifecycle("Uploading test suite ...");
             }
             TestSuiteUploader testSuiteUploader =
-                    new TestSuiteUploader(username, accessKey, testSuiteFilePath, progressEnabled);
+                    new TestSuiteUploader(
+                            username, accessKey, filePath(getTestSuiteFile()), uploadOptions);
             testSuiteIdFuture = testSuiteUploader.uploadTestSuiteAsync();
         }
 
@@ -67,7 +134,7 @@ public class LambdaUploaderTask extends DefaultTask {
 
             // Clear progress display if enabled, then show success messages
             if (progressEnabled) {
-                ProgressTracker.cleanup();
+                progressTracker.finish();
             }
 
             // Show success messages (unified flow for both progress and non-progress cases)
@@ -82,35 +149,25 @@ public class LambdaUploaderTask extends DefaultTask {
         } catch (CompletionException e) {
             // Cleanup progress display on error
             if (progressEnabled) {
-                ProgressTracker.cleanup();
+                progressTracker.finish();
             }
             logger.error("Failed to execute LambdaTest APK Uploader task : {}", e);
             throw new RuntimeException(e);
         }
 
+        try {
+            new UploadIds(appId, testSuiteId).write(getUploadIdsFile().get().getAsFile());
+        } catch (IOException e) {
+            logger.error("Failed to write upload IDs: {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+
         if (!progressEnabled) {
             logger.lifecycle("Completed LambdaTest APK Uploader task ...");
         }
     }
 
-    // Setter functions for the task
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-    public void setAccessKey(String accessKey) {
-        this.accessKey = accessKey;
-    }
-
-    public void setAppFilePath(String appFilePath) {
-        this.appFilePath = appFilePath;
-    }
-
-    public void setTestSuiteFilePath(String testSuiteFilePath) {
-        this.testSuiteFilePath = testSuiteFilePath;
-    }
-
-    public void setShowUploadProgress(Boolean showUploadProgress) {
-        this.showUploadProgress = showUploadProgress;
+    public void setUploadIdsFile(File uploadIdsFile) {
+        getUploadIdsFile().set(uploadIdsFile);
     }
 }
@@ -0,0 +1,103 @@
+package io.github.lambdatest.gradle;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Lets concurrent requests to an origin share the first HTTP/2 connection instead of each opening
+ * its own.
+ *
+ * <p>When the app and test suite uploads start at the same moment, OkHttp finds no pooled
+ * connection for either call and connects twice. With HTTP/2 it keeps only one of the connections
+ * afterwards, but both TLS handshakes have been paid and both connections started with a cold
+ * congestion window. The gate holds back the requests that arrive while the first request to an
+ * origin is still connecting; once that connection is established they proceed and are multiplexed
+ * onto it. If the server only speaks HTTP/1.1 the waiting requests open their own connections as
+ * before, at the cost of waiting for one connect.
+ *
+ * <p>The gate is installed through {@link #applicationInterceptor()} and {@link
+ * #networkInterceptor()}, which must both be added to the same client.
+ */
+final class MultiplexedConnectionGate {
+
+    /** Origins whose first request is still connecting, with the latch released after it. */
+    private final Map<String, CountDownLatch> pending = new ConcurrentHashMap<>();
+
+    private final Set<String> connected = ConcurrentHashMap.newKeySet();
+    private final long maxWaitMillis;
+
+    /**
+     * Creates a new MultiplexedConnectionGate.
+     *
+     * @param maxWaitMillis How long a request waits for the first connection, 0 for no limit
+     */
+    MultiplexedConnectionGate(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /** Returns the interceptor holding back requests while an origin is being connected to. */
+    Interceptor applicationInterceptor() {
+        return this::gate;
+    }
+
+    /** Returns the interceptor releasing the held back requests once a connection exists. */
+    Interceptor networkInterceptor() {
+        return this::release;
+    }
+
+    private Response gate(Interceptor.Chain chain) throws IOException {
+        String origin = origin(chain.request().url());
+        if (connected.contains(origin)) {
+            return chain.proceed(chain.request());
+        }
+        CountDownLatch own = new CountDownLatch(1);
+        CountDownLatch first = pending.putIfAbsent(origin, own);
+        if (first == null) {
+            try {
+                return chain.proceed(chain.request());
+            } finally {
+                // Releases the waiting requests if this one failed before connecting
+                pending.remove(origin, own);
+                own.countDown();
+            }
+        }
+        await(first);
+        return chain.proceed(chain.request());
+    }
+
+    private Response release(Interceptor.Chain chain) throws IOException {
+        String origin = origin(chain.request().url());
+        if (connected.add(origin)) {
+            CountDownLatch first = pending.remove(origin);
+            if (first != null) {
+                first.countDown();
+            }
+        }
+        return chain.proceed(chain.request());
+    }
+
+    private void await(CountDownLatch latch) throws IOException {
+        try {
+            if (maxWaitMillis > 0) {
+                latch.await(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } else {
+                latch.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection");
+        }
+    }
+
+    private static String origin(HttpUrl url) {
+        return url.scheme() + "://" + url.host() + ":" + url.port();
+    }
+}
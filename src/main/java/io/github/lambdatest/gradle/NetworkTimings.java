@@ -0,0 +1,307 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records how long each phase of the HTTP calls to LambdaTest took, so that a slow upload can be
+ * attributed to DNS, connecting, TLS, sending the body, the server or the response.
+ *
+ * <p>Installed as the {@link EventListener.Factory} of the shared client, it keeps one {@link
+ * CallTiming} per finished call. {@link LambdaTestHttpService} writes them with {@link
+ * #writeReport(File)} when the build finishes, by default to {@code
+ * build/reports/lambdatest/network-timings.json} of the root project. Each attempt made by {@link
+ * RetryPolicy} is a call of its own.
+ */
+public final class NetworkTimings implements EventListener.Factory {
+
+    private static final Logger logger = LogManager.getLogger(NetworkTimings.class);
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Queue<CallTiming> calls = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public EventListener create(Call call) {
+        return new Listener();
+    }
+
+    /**
+     * Returns the timings of the calls finished so far, in the order they finished.
+     *
+     * @return A copy of the recorded timings
+     */
+    public List<CallTiming> getCalls() {
+        return new ArrayList<>(calls);
+    }
+
+    /**
+     * Writes the recorded timings and their totals as JSON.
+     *
+     * @param file The report file, replaced if it exists
+     * @throws IOException if the report cannot be written
+     */
+    public void writeReport(File file) throws IOException {
+        Report report = new Report(getCalls());
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(report, writer);
+        }
+    }
+
+    /** Phase timings of a single call. Durations are in milliseconds, null if not reached. */
+    public static final class CallTiming {
+        String method;
+        String host;
+        String path;
+        String protocol;
+        int status;
+        String error;
+        String startedAt;
+        boolean connectionReused;
+        Double dnsMs;
+        Double connectMs;
+        Double tlsMs;
+        Double requestHeadersMs;
+        Double requestBodyMs;
+        Double timeToFirstByteMs;
+        Double responseBodyMs;
+        double totalMs;
+        long bytesSent;
+        long bytesReceived;
+        Long uploadBytesPerSecond;
+        long effectiveBytesPerSecond;
+
+        public String getPath() {
+            return path;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        public double getTotalMs() {
+            return totalMs;
+        }
+    }
+
+    /** Content of the JSON report. */
+    private static final class Report {
+        final int calls;
+        final int failedCalls;
+        final int connectionsOpened;
+        final long bytesSent;
+        final long bytesReceived;
+        final List<CallTiming> timings;
+
+        Report(List<CallTiming> timings) {
+            int failed = 0;
+            int opened = 0;
+            long sent = 0;
+            long received = 0;
+            for (CallTiming timing : timings) {
+                failed += timing.error != null ? 1 : 0;
+                opened += timing.connectMs != null ? 1 : 0;
+                sent += timing.bytesSent;
+                received += timing.bytesReceived;
+            }
+            this.calls = timings.size();
+            this.failedCalls = failed;
+            this.connectionsOpened = opened;
+            this.bytesSent = sent;
+            this.bytesReceived = received;
+            this.timings = timings;
+        }
+    }
+
+    /** Listener of a single call. OkHttp notifies it from one thread at a time. */
+    private final class Listener extends EventListener {
+        private final CallTiming timing = new CallTiming();
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestHeadersStart;
+        private long requestBodyStart;
+        private long requestEnd;
+        private long responseBodyStart;
+        private boolean secure;
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+            timing.startedAt = Instant.now().toString();
+            Request request = call.request();
+            timing.method = request.method();
+            timing.host = request.url().host();
+            timing.path = request.url().encodedPath();
+            timing.connectionReused = true;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            timing.dnsMs = add(timing.dnsMs, dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+            secure = false;
+            timing.connectionReused = false;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+            secure = true;
+            timing.connectMs = add(timing.connectMs, connectStart);
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            timing.tlsMs = add(timing.tlsMs, secureConnectStart);
+        }
+
+        @Override
+        public void connectEnd(
+                Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            if (!secure) {
+                timing.connectMs = add(timing.connectMs, connectStart);
+            }
+        }
+
+        @Override
+        public void connectFailed(
+                Call call,
+                InetSocketAddress address,
+                Proxy proxy,
+                Protocol protocol,
+                IOException e) {
+            connectEnd(call, address, proxy, protocol);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            timing.protocol = connection.protocol().toString();
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestHeadersStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            timing.requestHeadersMs = add(timing.requestHeadersMs, requestHeadersStart);
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyStart(Call call) {
+            requestBodyStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestEnd = System.nanoTime();
+            timing.requestBodyMs = add(timing.requestBodyMs, requestBodyStart);
+            timing.bytesSent += byteCount;
+            if (requestEnd > requestBodyStart) {
+                timing.uploadBytesPerSecond = perSecond(byteCount, requestEnd - requestBodyStart);
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            if (timing.timeToFirstByteMs == null) {
+                timing.timeToFirstByteMs = add(null, requestEnd);
+            }
+            timing.status = response.code();
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            responseBodyStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            timing.responseBodyMs = add(timing.responseBodyMs, responseBodyStart);
+            timing.bytesReceived += byteCount;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            finish();
+        }
+
+        @Override
+        public void callFailed(Call call, IOException e) {
+            timing.error = e.toString();
+            finish();
+        }
+
+        private void finish() {
+            long elapsed = System.nanoTime() - callStart;
+            timing.totalMs = millis(elapsed);
+            timing.effectiveBytesPerSecond = elapsed > 0 ? perSecond(timing.bytesSent, elapsed) : 0;
+            calls.add(timing);
+            logger.debug(
+                    "{} {} {} in {} ms: dns={} connect={} tls={} body={} ttfb={} sent={} bytes",
+                    timing.method,
+                    timing.path,
+                    timing.error != null ? timing.error : timing.status,
+                    timing.totalMs,
+                    timing.dnsMs,
+                    timing.connectMs,
+                    timing.tlsMs,
+                    timing.requestBodyMs,
+                    timing.timeToFirstByteMs,
+                    timing.bytesSent);
+        }
+
+        /** Adds the time since {@code start} to a phase that may occur more than once. */
+        private Double add(Double total, long start) {
+            double elapsed = millis(System.nanoTime() - start);
+            return total == null ? elapsed : total + elapsed;
+        }
+    }
+
+    private static long perSecond(long bytes, long nanos) {
+        return Math.round(bytes * 1e9 / nanos);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.lambdatest.gradle;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Logs the progress of each upload as plain lines through Gradle's logger, for consoles that
+ * cannot redraw a line such as CI logs. An upload is logged when it starts, at most every {@link
+ * #LOG_INTERVAL_NANOS} after that and once complete, so a long upload adds a handful of lines
+ * instead of one per redraw.
+ */
+final class PlainProgressRenderer implements ProgressRenderer {
+
+    private static final Logger logger = Logging.getLogger(PlainProgressRenderer.class);
+
+    /** Minimum time between two progress lines of the same upload. */
+    static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final LongSupplier clock;
+    private final Map<String, Long> loggedNanos = new HashMap<>();
+
+    /** Creates a renderer logging at the pace of the system clock. */
+    PlainProgressRenderer() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates a renderer reading the time from the given clock.
+     *
+     * @param clock Source of the current time in nanoseconds
+     */
+    PlainProgressRenderer(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void update(
+            String uploadId, float percentage, long bytesWritten, long totalBytes, String status) {
+        if (isDue(uploadId, bytesWritten, totalBytes)) {
+            logger.lifecycle(format(uploadId, percentage, bytesWritten, totalBytes, status));
+        }
+    }
+
+    /**
+     * Returns whether a progress line of the upload is due, and if so notes that it is logged now.
+     *
+     * @param uploadId The unique identifier for the upload
+     * @param bytesWritten Bytes uploaded so far
+     * @param totalBytes Total bytes to upload
+     * @return true for the first update, the completion and updates after the log interval
+     */
+    boolean isDue(String uploadId, long bytesWritten, long totalBytes) {
+        long now = clock.getAsLong();
+        Long previous = loggedNanos.get(uploadId);
+        boolean done = totalBytes > 0 && bytesWritten >= totalBytes;
+        if (previous != null && now - previous < LOG_INTERVAL_NANOS && !done) {
+            return false;
+        }
+        loggedNanos.put(uploadId, now);
+        return true;
+    }
+
+    /**
+     * Formats a progress line.
+     *
+     * @param uploadId The unique identifier for the upload
+     * @param percentage The upload percentage (0-100)
+     * @param bytesWritten Bytes uploaded so far
+     * @param totalBytes Total bytes to upload
+     * @param status The throughput and remaining time of the upload, or null
+     * @return The line to log
+     */
+    static String format(
+            String uploadId, float percentage, long bytesWritten, long totalBytes, String status) {
+        String line =
+                String.format(
+                        "Uploading %s: %.1f%% (%s / %s)",
+                        uploadId,
+                        percentage,
+                        ProgressRequestBody.formatBytes(bytesWritten),
+                        ProgressRequestBody.formatBytes(totalBytes));
+        return status != null ? line + ", " + status : line;
+    }
+
+    @Override
+    public void finish(List<String> summaries) {
+        for (String summary : summaries) {
+            logger.lifecycle(summary);
+        }
+        loggedNanos.clear();
+    }
+}
@@ -0,0 +1,252 @@
+package io.github.lambdatest.gradle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Progress of one upload shown on the console. The uploading thread only updates the counters,
+ * which takes no lock and allocates nothing; {@link ProgressTracker} samples them from its
+ * renderer thread and draws the progress line. A slow console therefore delays the display but
+ * never the upload.
+ *
+ * <p>When passed to {@link ProgressRequestBody} directly, the body adds every write to the counter.
+ * Used as a plain {@link ProgressRequestBody.ProgressCallback}, for example behind the chunk
+ * progress of {@link ChunkedUploader}, each update replaces the counters.
+ *
+ * <p>Each sample also feeds an exponentially weighted moving average of the throughput, from which
+ * the remaining time is estimated, and notes when bytes last moved so that a stalled upload is
+ * shown as such instead of sitting at the same percentage. The average and peak throughput are
+ * summarized once the upload is complete.
+ *
+ * @implNote The weight of a sample is {@code 1 - exp(-dt / tau)} for the time {@code dt} since the
+ *     previous one, so the average forgets at the same pace however irregularly the renderer runs.
+ */
+final class ProgressCounter implements ProgressRequestBody.ProgressCallback {
+
+    /** Time constant of the throughput average: older samples weigh 1/e less per period. */
+    static final long RATE_TIME_CONSTANT_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    /** Time without any byte sent after which the progress line shows the upload as stalled. */
+    static final long STALL_WARNING_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final String uploadId;
+    private final LongSupplier clock;
+    private final long startedNanos;
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    // Accessed while holding the console lock of ProgressTracker only
+    private long renderedBytes;
+    private long renderedStallSeconds;
+    private boolean completed;
+    private long sampledNanos;
+    private long sampledBytes;
+    private long movedNanos;
+    private double bytesPerSecond = Double.NaN;
+    private double peakBytesPerSecond;
+    private long completedNanos;
+
+    /**
+     * Creates a new ProgressCounter.
+     *
+     * @param uploadId The unique identifier for the upload (e.g., "App", "Test Suite")
+     */
+    ProgressCounter(String uploadId) {
+        this(uploadId, System::nanoTime);
+    }
+
+    /**
+     * Creates a new ProgressCounter reading the time from the given clock.
+     *
+     * @param uploadId The unique identifier for the upload
+     * @param clock Source of the current time in nanoseconds
+     */
+    ProgressCounter(String uploadId, LongSupplier clock) {
+        this.uploadId = uploadId;
+        this.clock = clock;
+        this.startedNanos = clock.getAsLong();
+        this.sampledNanos = startedNanos;
+        this.movedNanos = startedNanos;
+    }
+
+    /**
+     * Starts counting a new attempt to write the body from the beginning.
+     *
+     * @param total The size of the body
+     */
+    void restart(long total) {
+        totalBytes.set(total);
+        bytesWritten.set(0);
+    }
+
+    /**
+     * Adds bytes written to the body.
+     *
+     * @param byteCount The number of bytes written
+     */
+    void add(long byteCount) {
+        bytesWritten.addAndGet(byteCount);
+    }
+
+    @Override
+    public void onProgress(long written, long total, float percentage) {
+        totalBytes.set(total);
+        bytesWritten.set(written);
+    }
+
+    long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * Samples the counters and updates the throughput average. Called while holding the console
+     * lock.
+     *
+     * @return The bytes written at the time of the sample
+     */
+    long sample() {
+        long now = clock.getAsLong();
+        long written = bytesWritten.get();
+        long elapsed = now - sampledNanos;
+        if (written != sampledBytes) {
+            movedNanos = now;
+        }
+        if (elapsed > 0) {
+            // A retried body starts again from 0, which is no progress rather than negative one
+            long sent = Math.max(0, written - sampledBytes);
+            double rate = sent * 1e9 / elapsed;
+            if (Double.isNaN(bytesPerSecond)) {
+                bytesPerSecond = rate;
+            } else {
+                double weight = 1 - Math.exp(-(double) elapsed / RATE_TIME_CONSTANT_NANOS);
+                bytesPerSecond += weight * (rate - bytesPerSecond);
+            }
+            peakBytesPerSecond = Math.max(peakBytesPerSecond, bytesPerSecond);
+            sampledNanos = now;
+        }
+        sampledBytes = written;
+        return written;
+    }
+
+    /** Returns the smoothed throughput in bytes per second, 0 before the first sample. */
+    double getBytesPerSecond() {
+        return Double.isNaN(bytesPerSecond) ? 0 : bytesPerSecond;
+    }
+
+    /** Returns the highest smoothed throughput seen, in bytes per second. */
+    double getPeakBytesPerSecond() {
+        return peakBytesPerSecond;
+    }
+
+    /** Returns the estimated seconds until the upload completes, or -1 if it cannot be told. */
+    long getEtaSeconds() {
+        long remaining = totalBytes.get() - sampledBytes;
+        double rate = getBytesPerSecond();
+        if (remaining <= 0) {
+            return 0;
+        }
+        return rate > 0 ? (long) Math.ceil(remaining / rate) : -1;
+    }
+
+    /**
+     * Returns for how long no byte has been sent, once that is past {@link #STALL_WARNING_NANOS}.
+     *
+     * @return The seconds since bytes last moved, or 0 if the upload is not stalled
+     */
+    long getStalledSeconds() {
+        long stalled = sampledNanos - movedNanos;
+        return stalled >= STALL_WARNING_NANOS ? TimeUnit.NANOSECONDS.toSeconds(stalled) : 0;
+    }
+
+    /**
+     * Draws the progress line if the counters changed since the last call or the upload has
+     * stalled, and ends the line once the upload is complete. Called by the renderer thread while
+     * holding the console lock.
+     *
+     * @param renderer The renderer drawing the progress of the tracker
+     */
+    void render(ProgressRenderer renderer) {
+        if (completed) {
+            return;
+        }
+        long written = sample();
+        long total = totalBytes.get();
+        long stalledSeconds = getStalledSeconds();
+        if (written == renderedBytes && stalledSeconds == renderedStallSeconds) {
+            return;
+        }
+        renderedBytes = written;
+        renderedStallSeconds = stalledSeconds;
+        float percentage = total > 0 ? (written * 100.0f) / total : 0f;
+        renderer.update(uploadId, percentage, written, total, status());
+        if (total > 0 && written >= total) {
+            completed = true;
+            completedNanos = sampledNanos;
+            renderer.complete(uploadId);
+        }
+    }
+
+    /**
+     * Describes the throughput and remaining time, or how long the upload has been stalled.
+     *
+     * @return The status shown after the bytes on the progress line
+     */
+    String status() {
+        long stalledSeconds = getStalledSeconds();
+        if (stalledSeconds > 0) {
+            return "stalled for " + formatDuration(stalledSeconds);
+        }
+        String rate = ProgressRequestBody.formatBytes(Math.round(getBytesPerSecond())) + "/s";
+        long eta = getEtaSeconds();
+        return eta > 0 ? rate + ", " + formatDuration(eta) + " left" : rate;
+    }
+
+    /**
+     * Summarizes the completed upload with its average and peak throughput.
+     *
+     * @return The summary, or null if the upload did not complete
+     */
+    String summary() {
+        if (!completed) {
+            long written = sample();
+            long total = totalBytes.get();
+            if (total <= 0 || written < total) {
+                return null;
+            }
+            completed = true;
+            completedNanos = sampledNanos;
+        }
+        long total = totalBytes.get();
+        long elapsed = completedNanos - startedNanos;
+        long average = elapsed > 0 ? Math.round(total * 1e9 / elapsed) : 0;
+        return String.format(
+                "Uploaded %s: %s in %s, average %s/s, peak %s/s",
+                uploadId,
+                ProgressRequestBody.formatBytes(total),
+                formatDuration(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(elapsed))),
+                ProgressRequestBody.formatBytes(average),
+                ProgressRequestBody.formatBytes(
+                        Math.round(Math.max(peakBytesPerSecond, average))));
+    }
+
+    /**
+     * Formats a duration for the progress line, e.g. {@code 42s}, {@code 3m 05s} or {@code 1h 02m}.
+     *
+     * @param seconds The duration in seconds
+     * @return The formatted duration
+     */
+    static String formatDuration(long seconds) {
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        if (seconds < 3600) {
+            return String.format("%dm %02ds", seconds / 60, seconds % 60);
+        }
+        return String.format("%dh %02dm", seconds / 3600, (seconds % 3600) / 60);
+    }
+}
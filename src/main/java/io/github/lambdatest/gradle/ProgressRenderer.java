@@ -0,0 +1,127 @@
+package io.github.lambdatest.gradle;
+
+import java.util.List;
+import org.gradle.StartParameter;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.configuration.ConsoleOutput;
+
+/**
+ * Draws the upload progress sampled by {@link ProgressTracker}. All methods are called while
+ * holding the tracker's console lock, so implementations need no synchronization of their own.
+ *
+ * <p>The tasks pick an implementation from the Gradle console the build runs with, see {@link
+ * #select(StartParameter)}: fixed progress lines redrawn in place
+ * for an interactive console, a few plain log lines for CI logs and nothing at all for quiet
+ * builds.
+ */
+interface ProgressRenderer {
+
+    /** The kinds of progress display. */
+    enum Style {
+        /** Progress lines redrawn in place with ANSI escape codes. */
+        RICH,
+        /** Rate-limited progress lines logged through Gradle's logger. */
+        PLAIN,
+        /** No progress display. */
+        SILENT
+    }
+
+    /** Renderer that shows nothing. */
+    ProgressRenderer SILENT = new ProgressRenderer() {};
+
+    /**
+     * Shows the progress of an upload.
+     *
+     * @param uploadId The unique identifier for the upload
+     * @param percentage The upload percentage (0-100)
+     * @param bytesWritten Bytes uploaded so far
+     * @param totalBytes Total bytes to upload
+     * @param status The throughput and remaining time of the upload, or null
+     */
+    default void update(
+            String uploadId, float percentage, long bytesWritten, long totalBytes, String status) {}
+
+    /**
+     * Shows that an upload has completed.
+     *
+     * @param uploadId The unique identifier for the upload
+     */
+    default void complete(String uploadId) {}
+
+    /**
+     * Ends the progress display once all uploads are done.
+     *
+     * @param summaries The throughput summary of each completed upload
+     */
+    default void finish(List<String> summaries) {}
+
+    /**
+     * Creates a renderer of the given style.
+     *
+     * @param style The kind of progress display
+     * @return A new renderer
+     */
+    static ProgressRenderer create(Style style) {
+        switch (style) {
+            case RICH:
+                return new AnsiProgressRenderer();
+            case PLAIN:
+                return new PlainProgressRenderer();
+            default:
+                return SILENT;
+        }
+    }
+
+    /**
+     * Chooses how to display progress for the build started with the given parameters.
+     *
+     * @param startParameter The parameters of the build
+     * @return The style of progress display
+     */
+    static Style select(StartParameter startParameter) {
+        return select(
+                startParameter.getConsoleOutput(),
+                startParameter.getLogLevel(),
+                startParameter.isParallelProjectExecutionEnabled(),
+                System.getenv("CI"),
+                System.getenv("TERM"));
+    }
+
+    /**
+     * Chooses how to display progress for a build.
+     *
+     * @param consoleOutput The console output requested with {@code --console}
+     * @param logLevel The log level of the build
+     * @param parallel Whether projects are executed in parallel, where several tasks may redraw
+     *     their lines at once
+     * @param ci The value of the {@code CI} environment variable, or null
+     * @param term The value of the {@code TERM} environment variable, or null
+     * @return The style of progress display
+     */
+    static Style select(
+            ConsoleOutput consoleOutput,
+            LogLevel logLevel,
+            boolean parallel,
+            String ci,
+            String term) {
+        if (logLevel.compareTo(LogLevel.LIFECYCLE) > 0) {
+            return Style.SILENT;
+        }
+        if (parallel) {
+            // Tasks redrawing their own lines at once would overwrite each other on any console
+            return Style.PLAIN;
+        }
+        switch (consoleOutput) {
+            case Rich:
+            case Verbose:
+                return Style.RICH;
+            case Auto:
+                boolean ciBuild = ci != null && !ci.isEmpty() && !"false".equalsIgnoreCase(ci);
+                boolean dumbTerminal = "dumb".equals(term);
+                return ciBuild || dumbTerminal ? Style.PLAIN : Style.RICH;
+            default:
+                // Plain, and colored plain output on newer Gradle versions
+                return Style.PLAIN;
+        }
+    }
+}
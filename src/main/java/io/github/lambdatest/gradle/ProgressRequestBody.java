@@ -13,6 +13,10 @@ import org.jetbrains.annotations.NotNull;
 /**
  * A RequestBody wrapper that tracks upload progress and displays it in the console. This class uses
  * OkHttp's native Sink and BufferedSink APIs to monitor the upload progress.
+ *
+ * <p>With the callback of {@link #createConsoleCallback(String)}, each write only adds to an atomic
+ * counter and the console is drawn by the renderer thread of {@link ProgressTracker}. Other
+ * callbacks are invoked on the uploading thread at every percent or every 250 ms.
  */
 public class ProgressRequestBody extends RequestBody {
 
@@ -59,21 +63,62 @@ public class ProgressRequestBody extends RequestBody {
      * Custom Sink implementation that tracks progress while forwarding data to the original sink.
      */
     private static class ProgressSink extends ForwardingSink {
+        private final Reporter reporter;
+
+        public ProgressSink(Sink delegate, long totalBytes, ProgressCallback progressCallback) {
+            super(delegate);
+            this.reporter = new Reporter(totalBytes, progressCallback);
+        }
+
+        @Override
+        public void write(@NotNull Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            reporter.add(byteCount);
+        }
+    }
+
+    /**
+     * Reports the progress of one write of a body to a callback, for bodies counting the bytes
+     * they write themselves, such as {@link FileChannelRequestBody}.
+     */
+    static final class Reporter {
         private final long totalBytes;
         private final ProgressCallback progressCallback;
+        private final ProgressCounter counter;
         private long bytesWritten = 0L;
         private long lastLoggedPercentage = -1L;
         private long lastUpdateTime = System.currentTimeMillis();
 
-        public ProgressSink(Sink delegate, long totalBytes, ProgressCallback progressCallback) {
-            super(delegate);
+        /**
+         * Creates a Reporter for a write of the given number of bytes, restarting the callback if
+         * it is a {@link ProgressCounter}.
+         *
+         * @param totalBytes The number of bytes the write will report
+         * @param progressCallback Callback to receive progress updates, or null
+         */
+        Reporter(long totalBytes, ProgressCallback progressCallback) {
             this.totalBytes = totalBytes;
             this.progressCallback = progressCallback;
+            this.counter =
+                    progressCallback instanceof ProgressCounter
+                            ? (ProgressCounter) progressCallback
+                            : null;
+            if (counter != null) {
+                counter.restart(totalBytes);
+            }
         }
 
-        @Override
-        public void write(@NotNull Buffer source, long byteCount) throws IOException {
-            super.write(source, byteCount);
+        /**
+         * Records bytes written, invoking the callback at every percent or every 250 ms.
+         *
+         * @param byteCount The number of bytes just written
+         */
+        void add(long byteCount) {
+            if (counter != null) {
+                // Sampled by the renderer thread, nothing else to do on the I/O path
+                counter.add(byteCount);
+                return;
+            }
             bytesWritten += byteCount;
 
             if (progressCallback != null) {
@@ -95,17 +140,37 @@ public class ProgressRequestBody extends RequestBody {
 
     /**
      * Creates a console-based progress callback that displays upload progress using the
-     * ProgressTracker for clean, fixed-line output.
+     * shared ProgressTracker for clean, fixed-line output. The callback only records the progress;
+     * the ProgressTracker's renderer thread draws it.
      *
      * @param uploadId The unique identifier for this upload (e.g., "App", "Test Suite")
      * @return A ProgressCallback that logs to console
      */
     public static ProgressCallback createConsoleCallback(String uploadId) {
-        return (bytesWritten, totalBytes, percentage) -> {
-            ProgressTracker.updateProgress(uploadId, percentage, bytesWritten, totalBytes);
+        return ProgressTracker.shared().register(uploadId);
+    }
 
-            if (percentage >= 100.0f) {
-                ProgressTracker.completeUpload(uploadId);
+    /**
+     * Creates a progress callback that records each update as a {@link JfrEvents.UploadProgress}
+     * Flight Recorder event before passing it on.
+     *
+     * @param uploadId The unique identifier for this upload (e.g., "App", "Test Suite")
+     * @param delegate The callback to pass updates on to, or null
+     * @return A ProgressCallback emitting Flight Recorder events
+     */
+    public static ProgressCallback createRecordingCallback(
+            String uploadId, ProgressCallback delegate) {
+        return (bytesWritten, totalBytes, percentage) -> {
+            JfrEvents.UploadProgress event = new JfrEvents.UploadProgress();
+            if (event.shouldCommit()) {
+                event.kind = uploadId;
+                event.bytesWritten = bytesWritten;
+                event.totalBytes = totalBytes;
+                event.progress = percentage / 100.0;
+                event.commit();
+            }
+            if (delegate != null) {
+                delegate.onProgress(bytesWritten, totalBytes, percentage);
             }
         };
     }
@@ -1,92 +1,137 @@
 package io.github.lambdatest.gradle;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Manages progress tracking for multiple concurrent uploads with clean, fixed-line console output.
- * This class ensures that concurrent uploads don't clutter the terminal by maintaining fixed
- * positions for each upload's progress line.
+ * Manages progress tracking for multiple concurrent uploads. How the progress is shown is up to a
+ * {@link ProgressRenderer}: by default each upload gets a fixed console line so that concurrent
+ * uploads don't clutter the terminal, while the tasks switch to plain log lines or no display at
+ * all depending on the Gradle console.
+ *
+ * <p>Uploads report their progress through a {@link ProgressCounter} obtained from {@link
+ * #register(String)}. A single renderer thread samples the counters every {@link
+ * #RENDER_INTERVAL_MILLIS} ms and draws the lines, so formatting and writing to the console never
+ * happen on an upload thread. Besides the percentage, each line shows the smoothed throughput and
+ * remaining time of the upload, or for how long it has stalled.
+ *
+ * <p>Each task execution creates its own tracker and passes it on through {@link UploadOptions},
+ * so that tasks running in parallel neither share nor reset each other's uploads. The static
+ * methods act on a shared tracker drawing fixed console lines, used when no tracker is given.
  */
 public class ProgressTracker {
-    private static final Map<String, Integer> uploadLines = new ConcurrentHashMap<>();
-    private static final AtomicInteger nextLineNumber = new AtomicInteger(0);
-    private static final Object consoleLock = new Object();
+
+    /** Interval at which the renderer thread redraws the progress lines. */
+    public static final long RENDER_INTERVAL_MILLIS = 250;
+
+    private static final ProgressTracker shared = new ProgressTracker(new AnsiProgressRenderer());
+
+    private final Object consoleLock = new Object();
+
+    // Guarded by consoleLock
+    private final Map<String, ProgressCounter> counters = new LinkedHashMap<>();
+    private ScheduledExecutorService renderScheduler;
+    private ProgressRenderer progressRenderer;
 
     /**
-     * Registers a new upload and allocates a line number for its progress display.
+     * Creates a tracker drawing its uploads with the given renderer.
      *
-     * @param uploadId Unique identifier for the upload (e.g., "App", "Test Suite")
-     * @return The allocated line number for this upload
+     * @param progressRenderer The renderer drawing the progress
      */
-    private static int registerUpload(String uploadId) {
-        return uploadLines.computeIfAbsent(
-                uploadId,
-                k -> {
-                    int lineNum = nextLineNumber.getAndIncrement();
-                    // Print a newline to reserve space for this upload
-                    System.out.println();
-                    System.out.flush();
-                    return lineNum;
-                });
+    ProgressTracker(ProgressRenderer progressRenderer) {
+        this.progressRenderer = progressRenderer;
     }
 
     /**
-     * Updates the progress display for a specific upload.
+     * Returns the tracker used when none is given through {@link UploadOptions}.
      *
-     * @param uploadId The unique identifier for the upload
-     * @param percentage The upload percentage (0-100)
-     * @param bytesWritten Bytes uploaded so far
-     * @param totalBytes Total bytes to upload
+     * @return The shared tracker drawing fixed console lines
      */
-    public static void updateProgress(
-            String uploadId, float percentage, long bytesWritten, long totalBytes) {
+    static ProgressTracker shared() {
+        return shared;
+    }
+
+    /**
+     * Registers an upload whose progress is drawn by the renderer thread, starting the thread if
+     * needed.
+     *
+     * @param uploadId Unique identifier for the upload (e.g., "App", "Test Suite")
+     * @return The counter the upload reports its progress to
+     */
+    ProgressCounter register(String uploadId) {
         synchronized (consoleLock) {
-            // Register upload if not already registered (reserves a line)
-            int lineNumber = registerUpload(uploadId);
-            int totalLines = uploadLines.size();
-
-            // Move cursor to the appropriate line
-            if (lineNumber < totalLines - 1) {
-                // Not the last line - need to move up
-                System.out.printf("\u001B[%dA", totalLines - lineNumber - 1);
+            ProgressCounter counter = new ProgressCounter(uploadId);
+            counters.put(uploadId, counter);
+            if (renderScheduler == null) {
+                renderScheduler =
+                        Executors.newSingleThreadScheduledExecutor(
+                                UploadExecutor.daemonThreadFactory("lambdatest-progress-"));
+                renderScheduler.scheduleAtFixedRate(
+                        this::render,
+                        RENDER_INTERVAL_MILLIS,
+                        RENDER_INTERVAL_MILLIS,
+                        TimeUnit.MILLISECONDS);
             }
+            return counter;
+        }
+    }
 
-            // Clear the line and print progress
-            System.out.print("\r\u001B[K"); // Clear line
-            String progressBar = createProgressBar(percentage);
-            String formattedBytes = ProgressRequestBody.formatBytes(bytesWritten);
-            String formattedTotal = ProgressRequestBody.formatBytes(totalBytes);
-
-            System.out.printf(
-                    "\u001B[33mUploading %-15s %s %.1f%% (%s / %s)\u001B[0m",
-                    uploadId, progressBar, percentage, formattedBytes, formattedTotal);
+    /** Draws the registered uploads whose progress changed. Runs on the renderer thread. */
+    void render() {
+        synchronized (consoleLock) {
+            for (ProgressCounter counter : counters.values()) {
+                counter.render(progressRenderer);
+            }
+        }
+    }
 
-            // Move cursor back to bottom
-            if (lineNumber < totalLines - 1) {
-                System.out.printf("\u001B[%dB", totalLines - lineNumber - 1);
+    /**
+     * Ends the progress display of this tracker: clears the progress lines, prints a summary of
+     * the throughput of each completed upload and stops the renderer thread.
+     */
+    void finish() {
+        synchronized (consoleLock) {
+            List<String> summaries = new ArrayList<>();
+            for (ProgressCounter counter : counters.values()) {
+                String summary = counter.summary();
+                if (summary != null) {
+                    summaries.add(summary);
+                }
             }
+            progressRenderer.finish(summaries);
+            clear();
+        }
+    }
 
-            System.out.flush();
+    /** Stops the renderer thread and forgets the registered uploads. */
+    private void clear() {
+        synchronized (consoleLock) {
+            if (renderScheduler != null) {
+                renderScheduler.shutdownNow();
+                renderScheduler = null;
+            }
+            counters.clear();
         }
     }
 
     /**
-     * Creates a visual progress bar.
+     * Updates the progress display for a specific upload.
      *
-     * @param percentage The completion percentage (0-100)
-     * @return A string representing the progress bar
+     * @param uploadId The unique identifier for the upload
+     * @param percentage The upload percentage (0-100)
+     * @param bytesWritten Bytes uploaded so far
+     * @param totalBytes Total bytes to upload
      */
-    private static String createProgressBar(float percentage) {
-        int barLength = 10;
-        int filled = (int) (percentage / 100.0 * barLength);
-        StringBuilder bar = new StringBuilder("[");
-        for (int i = 0; i < barLength; i++) {
-            bar.append(i < filled ? "#" : "-");
+    public static void updateProgress(
+            String uploadId, float percentage, long bytesWritten, long totalBytes) {
+        synchronized (shared.consoleLock) {
+            shared.progressRenderer.update(uploadId, percentage, bytesWritten, totalBytes, null);
         }
-        bar.append("]");
-        return bar.toString();
     }
 
     /**
@@ -95,46 +140,28 @@ public class ProgressTracker {
      * @param uploadId The unique identifier for the upload
      */
     public static void completeUpload(String uploadId) {
-        synchronized (consoleLock) {
-            Integer lineNumber = uploadLines.get(uploadId);
-            if (lineNumber != null && lineNumber == uploadLines.size() - 1) {
-                // Only add newline if this is the last upload
-                System.out.println();
-                System.out.flush();
-            }
+        synchronized (shared.consoleLock) {
+            shared.progressRenderer.complete(uploadId);
         }
     }
 
     /**
-     * Cleans up all progress lines from the console and resets the tracker. This should be called
-     * after all uploads are complete to clear the progress display.
+     * Cleans up all progress lines of the shared tracker from the console, prints a summary of the
+     * throughput of each completed upload and resets the tracker. This should be called after all
+     * uploads are complete to clear the progress display.
      */
     public static void cleanup() {
-        synchronized (consoleLock) {
-            int totalLines = uploadLines.size();
-            if (totalLines > 0) {
-                // Move to the first line
-                System.out.printf("\u001B[%dA", totalLines - 1);
-                // Clear all progress lines
-                for (int i = 0; i < totalLines; i++) {
-                    System.out.print("\r\u001B[K"); // Clear current line
-                    if (i < totalLines - 1) {
-                        System.out.println(); // Move to next line
-                    }
-                }
-                // Move back to start position
-                System.out.printf("\u001B[%dA", totalLines - 1);
-                System.out.flush();
-            }
-            reset();
-        }
+        shared.finish();
     }
 
-    /** Resets the progress tracker. Should be called when starting a new set of uploads. */
+    /**
+     * Resets the shared progress tracker and stops its renderer thread. Should be called when
+     * starting a new set of uploads.
+     */
     public static void reset() {
-        synchronized (consoleLock) {
-            uploadLines.clear();
-            nextLineNumber.set(0);
+        synchronized (shared.consoleLock) {
+            shared.clear();
+            shared.progressRenderer = new AnsiProgressRenderer();
         }
     }
 }
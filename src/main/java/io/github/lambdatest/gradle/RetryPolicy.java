@@ -0,0 +1,319 @@
+package io.github.lambdatest.gradle;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Retries requests to LambdaTest that failed for transient reasons: connection failures and the
+ * status codes 408, 429, 500, 502, 503 and 504. Instances are immutable and created through
+ * {@link #builder()}.
+ *
+ * <p>Retries wait with exponential backoff and full jitter, a random delay between zero and
+ * {@code initialBackoff * 2^(attempt - 1)} capped at {@code maxBackoff}, so that many CI jobs
+ * throttled at the same moment do not retry in lockstep. A {@code Retry-After} header on a 429 or
+ * 503 response replaces the computed delay; if it asks for more than {@link #MAX_RETRY_AFTER} the
+ * response is returned instead of waiting.
+ *
+ * <p>Every attempt of a request carries the same {@value #IDEMPOTENCY_KEY_HEADER} header. A
+ * request that is not idempotent, such as a build submission, is only retried when the server
+ * cannot have processed it: when the connection could not be established or the response was 408,
+ * 429 or 503. All attempts go through the shared {@link CircuitBreaker}, which only counts
+ * failures to reach LambdaTest and transient error responses: an {@link UploadSourceException}
+ * thrown while writing the body is a local failure and is neither retried nor counted.
+ */
+public final class RetryPolicy {
+
+    private static final Logger logger = LogManager.getLogger(RetryPolicy.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    /** Longest {@code Retry-After} the policy waits for. */
+    public static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(2);
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final CircuitBreaker circuitBreaker;
+    private final Sleeper sleeper;
+
+    /** Waits between attempts, replaced in tests. */
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.circuitBreaker =
+                builder.circuitBreaker != null ? builder.circuitBreaker : new CircuitBreaker();
+        this.sleeper = builder.sleeper;
+    }
+
+    /**
+     * Returns a policy with the default attempts and backoff and its own circuit breaker.
+     *
+     * @return The default retry policy
+     */
+    public static RetryPolicy defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a builder for retry policies.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Executes a request, retrying transient failures.
+     *
+     * @param client The HTTP client to execute the request with
+     * @param request The request; its body must be repeatable
+     * @param idempotent Whether the request may be resent after the server may have processed it
+     * @return The response of the last attempt, which the caller must close; it is either
+     *     successful, a non-transient error, or a transient error that may not be retried
+     * @throws IOException if the last attempt failed to connect or the circuit breaker is open
+     * @throws UploadSourceException if the body could not be read, which is not retried
+     */
+    public Response execute(OkHttpClient client, Request request, boolean idempotent)
+            throws IOException {
+        Request keyed =
+                request.header(IDEMPOTENCY_KEY_HEADER) != null
+                        ? request
+                        : request.newBuilder()
+                                .header(IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                                .build();
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.allowRequest()) {
+                throw new IOException(
+                        "Not sending request to "
+                                + request.url().encodedPath()
+                                + ", circuit breaker is open after repeated failures");
+            }
+            Response response;
+            IOException failure = null;
+            boolean recorded = false;
+            try {
+                response = client.newCall(keyed).execute();
+                if (isTransient(response.code())) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    circuitBreaker.recordSuccess();
+                }
+                recorded = true;
+            } catch (UploadSourceException e) {
+                // The uploaded file could not be read, LambdaTest is not to blame
+                throw e;
+            } catch (IOException e) {
+                circuitBreaker.recordFailure();
+                recorded = true;
+                response = null;
+                failure = e;
+            } finally {
+                // Also releases a trial request that ended in an unexpected exception
+                if (!recorded) {
+                    circuitBreaker.recordInconclusive();
+                }
+            }
+
+            if (failure != null) {
+                if (attempt >= maxAttempts || !(idempotent || isConnectFailure(failure))) {
+                    throw failure;
+                }
+                long delay = backoffMillis(attempt);
+                logger.warn(
+                        "Request to {} failed ({}), retrying in {} ms",
+                        request.url().encodedPath(),
+                        failure.getMessage(),
+                        delay);
+                sleep(delay);
+                continue;
+            }
+
+            int code = response.code();
+            if (!isTransient(code)) {
+                return response;
+            }
+            if (attempt >= maxAttempts || !(idempotent || isRejectedUnprocessed(code))) {
+                return response;
+            }
+            Duration retryAfter = parseRetryAfter(response.header("Retry-After"), Instant.now());
+            if (retryAfter != null && retryAfter.compareTo(MAX_RETRY_AFTER) > 0) {
+                logger.warn(
+                        "LambdaTest asked to retry {} after {} s, not waiting",
+                        request.url().encodedPath(),
+                        retryAfter.getSeconds());
+                return response;
+            }
+            long delay = retryAfter != null ? retryAfter.toMillis() : backoffMillis(attempt);
+            response.close();
+            logger.warn(
+                    "Request to {} returned {}, retrying in {} ms (attempt {} of {})",
+                    request.url().encodedPath(),
+                    code,
+                    delay,
+                    attempt + 1,
+                    maxAttempts);
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Returns the delay before the next attempt: a random value between zero and the exponential
+     * backoff of the attempt.
+     *
+     * @param attempt The number of the attempt that failed, starting at 1
+     * @return The delay in milliseconds
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = initialBackoff.toMillis() << Math.min(attempt - 1, 30);
+        if (ceiling < 0 || ceiling > maxBackoff.toMillis()) {
+            ceiling = maxBackoff.toMillis();
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    static boolean isTransient(int code) {
+        return code == 408
+                || code == 429
+                || code == 500
+                || code == 502
+                || code == 503
+                || code == 504;
+    }
+
+    /** Returns whether a status code shows the server refused the request without acting on it. */
+    static boolean isRejectedUnprocessed(int code) {
+        return code == 408 || code == 429 || code == 503;
+    }
+
+    /** Returns whether the request failed before it could reach the server. */
+    static boolean isConnectFailure(IOException e) {
+        return e instanceof ConnectException
+                || e instanceof UnknownHostException
+                || e instanceof NoRouteToHostException;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, given either as a number of seconds or as an HTTP
+     * date.
+     *
+     * @param value The header value, or null
+     * @param now The current time, to convert a date into a delay
+     * @return The delay, zero for a date in the past, or null if the header is absent or invalid
+     */
+    static Duration parseRetryAfter(String value, Instant now) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds >= 0 ? Duration.ofSeconds(seconds) : null;
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, try an HTTP date
+        }
+        try {
+            Instant at =
+                    ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Duration delay = Duration.between(now, at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void sleep(long millis) throws IOException {
+        try {
+            sleeper.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /** Builder for {@link RetryPolicy}. */
+    public static final class Builder {
+        private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+        private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+        private CircuitBreaker circuitBreaker;
+        private Sleeper sleeper = Thread::sleep;
+
+        private Builder() {}
+
+        /** Sets the total number of attempts per request, 1 to disable retries. */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("Maximum attempts must be positive");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialBackoff(Duration initialBackoff) {
+            if (initialBackoff.isNegative()) {
+                throw new IllegalArgumentException("Initial backoff cannot be negative");
+            }
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        public Builder maxBackoff(Duration maxBackoff) {
+            if (maxBackoff.isNegative()) {
+                throw new IllegalArgumentException("Maximum backoff cannot be negative");
+            }
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Sets the circuit breaker shared with other policies, typically the one owned by {@link
+         * LambdaTestHttpService}. Without one the policy gets its own.
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        Builder sleeper(Sleeper sleeper) {
+            this.sleeper = sleeper;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
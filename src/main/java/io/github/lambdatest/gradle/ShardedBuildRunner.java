@@ -0,0 +1,354 @@
+package io.github.lambdatest.gradle;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Fans a device list out into several LambdaTest builds that run concurrently, and aggregates
+ * their outcomes.
+ *
+ * <p>{@link #plan(List, int, Map)} splits the devices into shards, optionally multiplied by
+ * capability variants such as several geolocations, and optionally pairs each device group with
+ * its own group of test classes. {@link #run(List)} submits the shards while
+ * keeping at most {@code maxConcurrentBuilds} of them in flight. With a {@link BuildStatusWatcher}
+ * a shard stays in flight until its build finished, so the cap matches the account's parallel
+ * limit; without one it only bounds concurrent submissions.
+ */
+public class ShardedBuildRunner {
+
+    private static final Logger logger = LogManager.getLogger(ShardedBuildRunner.class);
+
+    private final ShardSubmitter submitter;
+    private final BuildStatusWatcher watcher;
+    private final Duration buildTimeout;
+    private final int maxConcurrentBuilds;
+    private final Executor executor;
+
+    /** Submits the build of one shard. */
+    @FunctionalInterface
+    public interface ShardSubmitter {
+        /**
+         * Submits a shard as a LambdaTest build.
+         *
+         * @param shard The shard to submit
+         * @return The ID of the submitted build, or null if LambdaTest returned none
+         * @throws IOException if the build could not be submitted
+         */
+        String submit(Shard shard) throws IOException;
+    }
+
+    /**
+     * A subset of the devices, with the capabilities overriding the task's for this build and the
+     * test classes it runs.
+     */
+    public static final class Shard {
+        private final int index;
+        private final int count;
+        private final List<String> devices;
+        private final Map<String, String> capabilities;
+        private final List<String> testClasses;
+
+        Shard(
+                int index,
+                int count,
+                List<String> devices,
+                Map<String, String> capabilities,
+                List<String> testClasses) {
+            this.index = index;
+            this.count = count;
+            this.devices = Collections.unmodifiableList(devices);
+            this.capabilities = Collections.unmodifiableMap(capabilities);
+            this.testClasses = Collections.unmodifiableList(testClasses);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<String> getDevices() {
+            return devices;
+        }
+
+        public Map<String, String> getCapabilities() {
+            return capabilities;
+        }
+
+        /** Returns the test classes this shard runs, empty to run the whole test suite. */
+        public List<String> getTestClasses() {
+            return testClasses;
+        }
+
+        /**
+         * Returns the build parameters of this shard: the given parameters with the shard's
+         * capabilities applied and the shard number appended to the build name.
+         *
+         * @param params The parameters shared by all shards
+         * @return The parameters of this shard
+         */
+        public Map<String, String> applyTo(Map<String, String> params) {
+            Map<String, String> result = new HashMap<>(params);
+            result.putAll(capabilities);
+            if (result.containsKey("build")) {
+                result.put("build", result.get("build") + " [" + this + "]");
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "shard " + (index + 1) + "/" + count;
+        }
+    }
+
+    /** Outcome of one shard. */
+    public static final class Outcome {
+        private final Shard shard;
+        private final String buildId;
+        private final BuildStatusWatcher.Result result;
+        private final String error;
+
+        Outcome(Shard shard, String buildId, BuildStatusWatcher.Result result, String error) {
+            this.shard = shard;
+            this.buildId = buildId;
+            this.result = result;
+            this.error = error;
+        }
+
+        public Shard getShard() {
+            return shard;
+        }
+
+        /** Returns the build ID, or null if the shard failed or LambdaTest returned none. */
+        public String getBuildId() {
+            return buildId;
+        }
+
+        /** Returns the final build result, or null if the build was not watched. */
+        public BuildStatusWatcher.Result getResult() {
+            return result;
+        }
+
+        /**
+         * Returns whether the shard succeeded: its build was accepted and, if it was watched,
+         * passed.
+         */
+        public boolean isSuccessful() {
+            return error == null && buildId != null && (result == null || result.isPassed());
+        }
+
+        @Override
+        public String toString() {
+            String outcome;
+            if (error != null) {
+                outcome = "failed: " + error;
+            } else if (buildId == null) {
+                outcome = "submitted without a build ID";
+            } else if (result != null) {
+                outcome = "build " + buildId + " " + result.getRawStatus();
+            } else {
+                outcome = "build " + buildId + " submitted";
+            }
+            return shard
+                    + " "
+                    + shard.getDevices()
+                    + " "
+                    + shard.getCapabilities()
+                    + ": "
+                    + outcome;
+        }
+    }
+
+    /**
+     * Creates a new ShardedBuildRunner.
+     *
+     * @param submitter Submits the build of a shard
+     * @param watcher Follows each submitted build to its final result, or null to only submit
+     * @param buildTimeout How long to wait for each build, or null to wait indefinitely
+     * @param maxConcurrentBuilds The maximum number of shards in flight at the same time
+     * @param executor The executor running the blocking build submissions
+     */
+    public ShardedBuildRunner(
+            ShardSubmitter submitter,
+            BuildStatusWatcher watcher,
+            Duration buildTimeout,
+            int maxConcurrentBuilds,
+            Executor executor) {
+        if (maxConcurrentBuilds <= 0) {
+            throw new IllegalArgumentException("Maximum concurrent builds must be positive");
+        }
+        this.submitter = submitter;
+        this.watcher = watcher;
+        this.buildTimeout = buildTimeout;
+        this.maxConcurrentBuilds = maxConcurrentBuilds;
+        this.executor = executor;
+    }
+
+    /**
+     * Splits the devices into shards of near equal size, one per combination of variants.
+     *
+     * @param devices The devices to test on
+     * @param shardCount The number of device shards, capped at the number of devices
+     * @param variants Capability values to fan out over, e.g. {@code geoLocation -> [FR, US]}, or
+     *     null
+     * @return The shards, {@code shardCount} times the number of variant combinations
+     */
+    public static List<Shard> plan(
+            List<String> devices, int shardCount, Map<String, List<String>> variants) {
+        return plan(devices, shardCount, variants, null);
+    }
+
+    /**
+     * Splits the devices into shards of near equal size, one per combination of variants, where
+     * the i-th device group runs the i-th group of test classes.
+     *
+     * @param devices The devices to test on
+     * @param shardCount The number of device shards, capped at the number of devices
+     * @param variants Capability values to fan out over, or null
+     * @param testClassGroups One group of test classes per device group, see {@link
+     *     #deviceGroupCount(List, int)}, or null to run the whole test suite on every shard
+     * @return The shards
+     */
+    public static List<Shard> plan(
+            List<String> devices,
+            int shardCount,
+            Map<String, List<String>> variants,
+            List<List<String>> testClassGroups) {
+        List<String> allDevices = devices != null ? devices : new ArrayList<>();
+        int groups = deviceGroupCount(allDevices, shardCount);
+        if (testClassGroups != null && testClassGroups.size() != groups) {
+            throw new IllegalArgumentException(
+                    "Expected " + groups + " test class groups but got " + testClassGroups.size());
+        }
+        List<List<String>> deviceGroups = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < groups; i++) {
+            int size = allDevices.size() / groups + (i < allDevices.size() % groups ? 1 : 0);
+            deviceGroups.add(new ArrayList<>(allDevices.subList(start, start + size)));
+            start += size;
+        }
+
+        List<Map<String, String>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        if (variants != null) {
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                if (variant.getValue() == null || variant.getValue().isEmpty()) {
+                    continue;
+                }
+                List<Map<String, String>> expanded = new ArrayList<>();
+                for (Map<String, String> combination : combinations) {
+                    for (String value : variant.getValue()) {
+                        Map<String, String> next = new LinkedHashMap<>(combination);
+                        next.put(variant.getKey(), value);
+                        expanded.add(next);
+                    }
+                }
+                combinations = expanded;
+            }
+        }
+
+        int count = deviceGroups.size() * combinations.size();
+        List<Shard> shards = new ArrayList<>();
+        for (Map<String, String> combination : combinations) {
+            for (int i = 0; i < groups; i++) {
+                List<String> testClasses =
+                        testClassGroups != null ? testClassGroups.get(i) : new ArrayList<>();
+                List<String> group = deviceGroups.get(i);
+                shards.add(new Shard(shards.size(), count, group, combination, testClasses));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Returns the number of device groups {@link #plan} creates.
+     *
+     * @param devices The devices to test on
+     * @param shardCount The requested number of device shards
+     * @return The number of device groups, at least 1 and at most the number of devices
+     */
+    public static int deviceGroupCount(List<String> devices, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Device shards must be positive");
+        }
+        int deviceCount = devices != null ? devices.size() : 0;
+        return Math.max(1, Math.min(shardCount, deviceCount));
+    }
+
+    /**
+     * Runs the shards, keeping at most {@code maxConcurrentBuilds} in flight. A failing shard
+     * does not stop the others.
+     *
+     * @param shards The shards to run
+     * @return A future of the outcomes, in shard order
+     */
+    public CompletableFuture<List<Outcome>> run(List<Shard> shards) {
+        List<CompletableFuture<Outcome>> outcomes = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            outcomes.add(new CompletableFuture<>());
+        }
+        AtomicInteger next = new AtomicInteger();
+        for (int i = 0; i < Math.min(maxConcurrentBuilds, shards.size()); i++) {
+            startNext(shards, outcomes, next);
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0]))
+                .thenApply(
+                        done -> {
+                            List<Outcome> result = new ArrayList<>();
+                            for (CompletableFuture<Outcome> outcome : outcomes) {
+                                result.add(outcome.join());
+                            }
+                            return result;
+                        });
+    }
+
+    private void startNext(
+            List<Shard> shards, List<CompletableFuture<Outcome>> outcomes, AtomicInteger next) {
+        int index = next.getAndIncrement();
+        if (index >= shards.size()) {
+            return;
+        }
+        Shard shard = shards.get(index);
+        CompletableFuture.supplyAsync(() -> submit(shard), executor)
+                .thenCompose(buildId -> follow(shard, buildId))
+                .exceptionally(
+                        e -> {
+                            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                            return new Outcome(shard, null, null, String.valueOf(cause));
+                        })
+                .thenAccept(
+                        outcome -> {
+                            logger.info("{}", outcome);
+                            outcomes.get(index).complete(outcome);
+                            startNext(shards, outcomes, next);
+                        });
+    }
+
+    private String submit(Shard shard) {
+        try {
+            logger.info("Submitting {} on {}", shard, shard.getDevices());
+            return submitter.submit(shard);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private CompletableFuture<Outcome> follow(Shard shard, String buildId) {
+        if (buildId == null || watcher == null) {
+            return CompletableFuture.completedFuture(new Outcome(shard, buildId, null, null));
+        }
+        return watcher.watch(buildId, buildTimeout)
+                .thenApply(result -> new Outcome(shard, buildId, result, null));
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Local history of how long each test class takes, used to balance test classes across sharded
+ * builds so that all shards finish at about the same time.
+ *
+ * <p>LambdaTest reports the running time of a build, not of its classes. After a sharded build
+ * finished, its running time is split across the shard's classes in proportion to their current
+ * estimates and merged into a running average, so estimates converge as builds with different
+ * class mixes complete. Classes without history are estimated with the mean of the known ones.
+ * Entries not updated for {@link #DEFAULT_RETENTION} are dropped, so removed tests disappear.
+ */
+public class TestDurationHistory {
+
+    private static final Logger logger = LogManager.getLogger(TestDurationHistory.class);
+
+    /** Location of the history file relative to the project directory. */
+    public static final String DEFAULT_HISTORY_PATH = ".gradle/lambdatest/test-durations.json";
+
+    /** Estimate of every class when there is no history at all. */
+    public static final Duration DEFAULT_ESTIMATE = Duration.ofSeconds(30);
+
+    public static final Duration DEFAULT_RETENTION = Duration.ofDays(30);
+
+    /** Number of samples after which new samples keep a fixed weight in the running average. */
+    private static final int MAX_SAMPLES = 5;
+
+    private static final Gson gson = new Gson();
+    private static final Type ENTRIES_TYPE = new TypeToken<TreeMap<String, Entry>>() {}.getType();
+
+    private final Path historyFile;
+    private final TreeMap<String, Entry> entries;
+
+    /** Recorded duration of one test class, with short field names to keep the file compact. */
+    private static class Entry {
+        @SerializedName("ms")
+        long millis;
+
+        @SerializedName("n")
+        int samples;
+
+        @SerializedName("day")
+        long lastUpdatedDay;
+    }
+
+    /**
+     * Creates a new TestDurationHistory backed by the given file, loading any existing entries.
+     *
+     * @param historyFile The JSON file the history is persisted to
+     */
+    public TestDurationHistory(File historyFile) {
+        if (historyFile == null) throw new IllegalArgumentException("History file cannot be null");
+        this.historyFile = historyFile.toPath();
+        this.entries = load(this.historyFile);
+    }
+
+    /**
+     * Returns the estimated duration of a test class.
+     *
+     * @param className The fully qualified class name
+     * @return The recorded average, or the mean of all recorded classes if the class is new
+     */
+    public synchronized long estimateMillis(String className) {
+        Entry entry = entries.get(className);
+        if (entry != null) {
+            return entry.millis;
+        }
+        if (entries.isEmpty()) {
+            return DEFAULT_ESTIMATE.toMillis();
+        }
+        long total = 0;
+        for (Entry known : entries.values()) {
+            total += known.millis;
+        }
+        return Math.max(1, total / entries.size());
+    }
+
+    /**
+     * Partitions test classes into groups with balanced estimated durations, assigning the longest
+     * classes first to the currently shortest group (longest processing time first).
+     *
+     * @param classes The test classes to partition
+     * @param groups The number of groups
+     * @return The groups, each sorted by class name; some may be empty if there are fewer classes
+     */
+    public synchronized List<List<String>> partition(List<String> classes, int groups) {
+        if (groups <= 0) {
+            throw new IllegalArgumentException("Number of groups must be positive");
+        }
+        Map<String, Long> estimates = new TreeMap<>();
+        for (String className : classes) {
+            estimates.put(className, estimateMillis(className));
+        }
+        List<String> byDuration = new ArrayList<>(estimates.keySet());
+        byDuration.sort(
+                Comparator.<String>comparingLong(estimates::get)
+                        .reversed()
+                        .thenComparing(Comparator.naturalOrder()));
+
+        List<List<String>> result = new ArrayList<>();
+        long[] loads = new long[groups];
+        PriorityQueue<Integer> shortest =
+                new PriorityQueue<>(
+                        Comparator.<Integer>comparingLong(i -> loads[i])
+                                .thenComparingInt(i -> i));
+        for (int i = 0; i < groups; i++) {
+            result.add(new ArrayList<>());
+            shortest.add(i);
+        }
+        for (String className : byDuration) {
+            int group = shortest.poll();
+            result.get(group).add(className);
+            loads[group] += estimates.get(className);
+            shortest.add(group);
+        }
+        for (List<String> group : result) {
+            group.sort(Comparator.naturalOrder());
+        }
+        return result;
+    }
+
+    /**
+     * Records the running time of a build that ran the given classes, splitting it across the
+     * classes in proportion to their estimates.
+     *
+     * @param classes The test classes the build ran
+     * @param runningTime How long the build ran
+     */
+    public synchronized void record(List<String> classes, Duration runningTime) {
+        if (classes.isEmpty() || runningTime.isNegative() || runningTime.isZero()) {
+            return;
+        }
+        Map<String, Long> estimates = new TreeMap<>();
+        long estimatedTotal = 0;
+        for (String className : classes) {
+            long estimate = estimateMillis(className);
+            estimates.put(className, estimate);
+            estimatedTotal += estimate;
+        }
+        long today = LocalDate.now().toEpochDay();
+        for (Map.Entry<String, Long> estimate : estimates.entrySet()) {
+            long sample = runningTime.toMillis() * estimate.getValue() / estimatedTotal;
+            Entry entry = entries.computeIfAbsent(estimate.getKey(), name -> new Entry());
+            entry.samples = Math.min(entry.samples + 1, MAX_SAMPLES);
+            entry.millis += (sample - entry.millis) / entry.samples;
+            entry.lastUpdatedDay = today;
+        }
+    }
+
+    /**
+     * Returns the number of classes with recorded durations.
+     *
+     * @return The number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops outdated entries and persists the history. Failures are logged rather than thrown
+     * since a missing history only costs balance.
+     */
+    public synchronized void save() {
+        long oldestDay = LocalDate.now().minusDays(DEFAULT_RETENTION.toDays()).toEpochDay();
+        entries.values().removeIf(entry -> entry.lastUpdatedDay < oldestDay);
+        try {
+            Files.createDirectories(historyFile.getParent());
+            Path temp = Files.createTempFile(historyFile.getParent(), "test-durations", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(entries, ENTRIES_TYPE, writer);
+            }
+            try {
+                Files.move(
+                        temp,
+                        historyFile,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, historyFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn(
+                    "Failed to write test duration history {}: {}", historyFile, e.getMessage());
+        }
+    }
+
+    private static TreeMap<String, Entry> load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new TreeMap<>();
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            TreeMap<String, Entry> loaded = gson.fromJson(reader, ENTRIES_TYPE);
+            return loaded != null ? loaded : new TreeMap<>();
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Ignoring unreadable test duration history {}: {}", file, e.getMessage());
+            return new TreeMap<>();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package io.github.lambdatest.gradle;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import okhttp3.*;
 import org.apache.logging.log4j.LogManager;
@@ -13,7 +18,8 @@ import org.apache.logging.log4j.Logger;
  * Manages the execution of tests on the LambdaTest platform. This class handles the test execution
  * configuration and communication with the LambdaTest API.
  *
- * <p>Uses endpoints defined in {@link Constants} for API communication.
+ * <p>Uses the {@link Endpoints} of its {@link ExecutionOptions}, or those defined in {@link
+ * Constants}, for API communication.
  */
 public class TestExecutor {
     private static final Logger logger = LogManager.getLogger(TestExecutor.class);
@@ -24,6 +30,7 @@ public class TestExecutor {
     private String testSuiteId;
     private List<String> device;
     private Boolean isFlutter;
+    private ExecutionOptions options;
 
     /**
      * Creates a new TestExecutor with the specified configuration.
@@ -42,12 +49,36 @@ public class TestExecutor {
             String testSuiteId,
             List<String> device,
             Boolean isFlutter) {
+        this(username, accessKey, appId, testSuiteId, device, isFlutter, null);
+    }
+
+    /**
+     * Creates a new TestExecutor submitting the build with the given {@link ExecutionOptions}.
+     *
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param appId The ID of the uploaded application
+     * @param testSuiteId The ID of the uploaded test suite
+     * @param device List of target devices for test execution
+     * @param isFlutter Boolean indicating if this is a Flutter application
+     * @param options Options providing the upload cache, HTTP client, retry policy and endpoints,
+     *     or null for the defaults
+     */
+    public TestExecutor(
+            String username,
+            String accessKey,
+            String appId,
+            String testSuiteId,
+            List<String> device,
+            Boolean isFlutter,
+            ExecutionOptions options) {
         this.username = username;
         this.accessKey = accessKey;
         this.appId = appId;
         this.testSuiteId = testSuiteId;
         this.device = device;
         this.isFlutter = isFlutter;
+        this.options = options != null ? options : ExecutionOptions.defaults();
     }
 
     /**
@@ -58,10 +89,40 @@ public class TestExecutor {
      *     Flutter or standard application.
      * @param params Map of additional test execution parameters
      * @throws IOException if there's an error in communication with the LambdaTest API
+     * @throws RuntimeException if LambdaTest rejects the build
      */
     public void executeTests(Map<String, String> params) throws IOException {
+        submitBuild(params, null);
+    }
+
+    /**
+     * Submits a build running the tests on LambdaTest and returns its ID, to be followed with
+     * {@link BuildStatusWatcher}.
+     *
+     * @param params Map of additional test execution parameters
+     * @return The ID of the submitted build, or null if the response did not contain an ID
+     * @throws IOException if there's an error in communication with the LambdaTest API
+     * @throws RuntimeException if LambdaTest rejects the build
+     */
+    public String submitBuild(Map<String, String> params) throws IOException {
+        return submitBuild(params, null);
+    }
+
+    /**
+     * Submits a build running the given test classes on LambdaTest and returns its ID.
+     *
+     * @param params Map of additional test execution parameters
+     * @param testClasses Fully qualified names of the test classes to run, or null or empty to run
+     *     the whole test suite
+     * @return The ID of the submitted build, or null if the response did not contain an ID
+     * @throws IOException if there's an error in communication with the LambdaTest API
+     * @throws RuntimeException if LambdaTest rejects the build
+     */
+    public String submitBuild(Map<String, String> params, List<String> testClasses)
+            throws IOException {
         try {
-            OkHttpClient client = new OkHttpClient();
+            OkHttpClient client = options.getHttpClient();
+            RetryPolicy policy = options.getRetryPolicy();
             Gson gson = new Gson();
 
             MediaType mediaType = MediaType.parse("application/json");
@@ -71,14 +132,19 @@ public class TestExecutor {
             capabilities.put("testSuite", testSuiteId);
             capabilities.put("device", device);
             capabilities.putAll(params);
+            if (testClasses != null && !testClasses.isEmpty()) {
+                capabilities.put("class", testClasses);
+            }
 
             logger.info("Capabilities: {}", capabilities);
 
+            Endpoints target = options.getEndpoints();
             String url =
                     (isFlutter == null || !isFlutter)
-                            ? Constants.getBuildUrl()
-                            : Constants.getFlutterBuildUrl();
-            RequestBody body = RequestBody.create(gson.toJson(capabilities), mediaType);
+                            ? target.getBuildUrl()
+                            : target.getFlutterBuildUrl();
+            String json = gson.toJson(capabilities);
+            RequestBody body = RequestBody.create(json, mediaType);
 
             Request request =
                     new Request.Builder()
@@ -87,13 +153,110 @@ public class TestExecutor {
                             .addHeader("Content-Type", "application/json")
                             .post(body)
                             .build();
-            Response response = client.newCall(request).execute();
-
-            logger.info("Running Tests");
-            logger.info(response.body().string());
+            JfrEvents.BuildSubmitted event = new JfrEvents.BuildSubmitted();
+            event.begin();
+            int code = 0;
+            String buildId = null;
+            try (Response response = policy.execute(client, request, false)) {
+                code = response.code();
+                String responseBody = response.body().string();
+                if (!response.isSuccessful()) {
+                    logger.error("Build was rejected: {}", response);
+                    invalidateCachedIds(response.code(), responseBody);
+                    logger.info(responseBody);
+                    throw new RuntimeException(
+                            "LambdaTest rejected the build with HTTP status " + code);
+                }
+                logger.info("Running Tests");
+                logger.info(responseBody);
+                buildId = extractBuildId(responseBody);
+                return buildId;
+            } finally {
+                event.finish(
+                        code,
+                        buildId,
+                        json,
+                        device != null ? device.size() : 0,
+                        testClasses != null ? testClasses.size() : 0);
+            }
         } catch (IOException e) {
             logger.error("Error executing tests: {}", e.getMessage());
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Extracts the build ID from a build response. LambdaTest reports it as {@code build_id} or
+     * {@code buildId}, either as a string or as a single element array.
+     *
+     * @param responseBody The body of the build response
+     * @return The build ID, or null if the body holds none
+     */
+    static String extractBuildId(String responseBody) {
+        try {
+            JsonElement element = JsonParser.parseString(responseBody);
+            if (!element.isJsonObject()) {
+                return null;
+            }
+            JsonObject json = element.getAsJsonObject();
+            JsonElement id = json.has("build_id") ? json.get("build_id") : json.get("buildId");
+            if (id != null && id.isJsonArray() && id.getAsJsonArray().size() > 0) {
+                id = id.getAsJsonArray().get(0);
+            }
+            return id != null && id.isJsonPrimitive() ? id.getAsString() : null;
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drops the app or test suite ID from the upload cache when the build was rejected as a bad
+     * request naming that ID, since a cached ID may have expired on the LambdaTest side. Only IDs
+     * this run took from the cache are dropped, never IDs given explicitly. Authentication and
+     * rate limit errors say nothing about the IDs and leave the cache untouched.
+     *
+     * @param code The HTTP status code of the rejected build request
+     * @param responseBody The body of the rejection
+     */
+    private void invalidateCachedIds(int code, String responseBody) {
+        UploadCache uploadCache = options.getUploadCache();
+        if (uploadCache == null || code < 400 || code >= 500) {
+            return;
+        }
+        if (code == 401 || code == 403 || code == 429) {
+            return;
+        }
+        if (uploadCache.isServed(appId) && namesId(responseBody, appId, "appid")) {
+            uploadCache.invalidate(appId);
+        }
+        if (uploadCache.isServed(testSuiteId)
+                && namesId(responseBody, testSuiteId, "testsuiteid", "testsuite")) {
+            uploadCache.invalidate(testSuiteId);
+        }
+    }
+
+    /**
+     * Returns whether a rejection identifies the given ID as the invalid one, either by quoting it
+     * or by naming its field, such as "Invalid app ID" or {@code {"testSuite": "not found"}}.
+     *
+     * @param responseBody The body of the rejection, or null
+     * @param id The ID
+     * @param fields The names of the ID's field, lower case and without separators
+     * @return true if the rejection is about the ID
+     */
+    static boolean namesId(String responseBody, String id, String... fields) {
+        if (responseBody == null || id == null) {
+            return false;
+        }
+        if (responseBody.contains(id)) {
+            return true;
+        }
+        String normalized = responseBody.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        for (String field : fields) {
+            if (normalized.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
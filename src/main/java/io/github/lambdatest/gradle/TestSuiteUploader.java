@@ -16,7 +16,7 @@ public class TestSuiteUploader {
     private String username;
     private String accessKey;
     private String testSuiteFilePath;
-    private boolean showProgress;
+    private UploadOptions options;
 
     /**
      * Creates a new TestSuiteUploader instance with the specified credentials and file path.
@@ -40,6 +40,24 @@ public class TestSuiteUploader {
      */
     public TestSuiteUploader(
             String username, String accessKey, String testSuiteFilePath, boolean showProgress) {
+        this(
+                username,
+                accessKey,
+                testSuiteFilePath,
+                UploadOptions.builder().showProgress(showProgress).build());
+    }
+
+    /**
+     * Creates a new TestSuiteUploader instance with the specified credentials, file path and
+     * {@link UploadOptions}.
+     *
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param testSuiteFilePath The path to the test suite file to be uploaded
+     * @param options Options controlling progress display, caching and the HTTP client
+     */
+    public TestSuiteUploader(
+            String username, String accessKey, String testSuiteFilePath, UploadOptions options) {
         if (username == null) throw new IllegalArgumentException("Username cannot be null");
         if (accessKey == null) throw new IllegalArgumentException("Access Key cannot be null");
         if (testSuiteFilePath == null)
@@ -51,14 +69,15 @@ public class TestSuiteUploader {
         this.username = username;
         this.accessKey = accessKey;
         this.testSuiteFilePath = testSuiteFilePath;
-        this.showProgress = showProgress;
+        this.options = options != null ? options : UploadOptions.defaults();
     }
 
     /**
      * Uploads the test suite file asynchronously to LambdaTest.
      *
-     * @implNote Uses CompletableFuture to perform the upload asynchronously, allowing parallel
-     *     processing of other tasks.
+     * @implNote Uses CompletableFuture to perform the upload asynchronously on the executor of the
+     *     {@link UploadOptions}, allowing parallel processing of other tasks without blocking the
+     *     common fork-join pool.
      * @return A CompletableFuture that resolves to the uploaded test suite's ID
      */
     public CompletableFuture<String> uploadTestSuiteAsync() {
@@ -70,14 +89,15 @@ public class TestSuiteUploader {
                                         username,
                                         accessKey,
                                         testSuiteFilePath,
-                                        showProgress,
-                                        "Test Suite");
+                                        "Test Suite",
+                                        options);
                         logger.info("Uploaded test suite ID: {}", testSuiteId);
                         return testSuiteId;
                     } catch (IOException e) {
                         logger.error("Error uploading test suite app: {}", e.getMessage());
                         throw new RuntimeException(e);
                     }
-                });
+                },
+                options.getExecutor());
     }
 }
@@ -0,0 +1,330 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Persistent, content-addressed cache of uploaded files. Maps the {@link FileDigest} of an APK to
+ * the ID returned by LambdaTest when it was uploaded, so unchanged files are never sent twice.
+ *
+ * <p>Entries are scoped to the LambdaTest username and upload endpoint since uploaded IDs are only
+ * valid for the account and the environment that received them. Entries expire after a fixed time
+ * to live, the least recently used entries are evicted once the cache grows beyond its maximum
+ * size, and entries are invalidated when the server rejects a cached ID.
+ *
+ * <p>The cache file is shared by every build using the same Gradle user home. It is only rewritten
+ * when an entry is added or removed, or when the recorded last use of an entry is more than {@link
+ * #LAST_USED_RESOLUTION} old, and each write merges the changes of this instance into the file as
+ * it is on disk, so that concurrent builds do not drop each other's entries.
+ */
+public class UploadCache {
+
+    private static final Logger logger = LogManager.getLogger(UploadCache.class);
+
+    /** Location of the cache file relative to the Gradle user home directory. */
+    public static final String DEFAULT_CACHE_PATH = "caches/lambdatest/upload-cache.json";
+
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+    public static final int DEFAULT_MAX_ENTRIES = 200;
+
+    /** How stale the recorded last use of an entry may get before a hit rewrites the file. */
+    static final Duration LAST_USED_RESOLUTION = Duration.ofHours(1);
+
+    /** Serializes the writes of every cache of this JVM, which a {@link FileLock} does not. */
+    private static final Object SAVE_LOCK = new Object();
+
+    private static final Gson gson = new Gson();
+    private static final Type ENTRIES_TYPE = new TypeToken<Map<String, Entry>>() {}.getType();
+
+    private final Path cacheFile;
+    private final Duration ttl;
+    private final int maxEntries;
+    private Map<String, Entry> entries;
+
+    /** Keys of the entries put since the cache was last written. */
+    private final Set<String> putKeys = new HashSet<>();
+
+    /** IDs invalidated since the cache was last written. */
+    private final Set<String> invalidatedIds = new HashSet<>();
+
+    /** IDs returned by {@link #lookup} of this instance. */
+    private final Set<String> servedIds = new HashSet<>();
+
+    /** A single cached upload. */
+    private static class Entry {
+        String username;
+        String endpoint;
+        String digest;
+        String id;
+        long size;
+        long createdAt;
+        long lastUsedAt;
+    }
+
+    /**
+     * Creates a new UploadCache backed by the given file, loading any existing entries.
+     *
+     * @param cacheFile The JSON file the cache is persisted to
+     * @param ttl How long an uploaded ID is reused before the file is uploaded again
+     * @param maxEntries The maximum number of entries kept in the cache
+     */
+    public UploadCache(File cacheFile, Duration ttl, int maxEntries) {
+        if (cacheFile == null) throw new IllegalArgumentException("Cache file cannot be null");
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive");
+        }
+        if (maxEntries <= 0) throw new IllegalArgumentException("Cache size must be positive");
+
+        this.cacheFile = cacheFile.toPath();
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.entries = load(this.cacheFile);
+        evict(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates an UploadCache stored under the Gradle user home, applying defaults for any
+     * unspecified setting.
+     *
+     * @param gradleUserHomeDir The Gradle user home directory
+     * @param ttlDays Time to live of cached IDs in days, or null for {@link #DEFAULT_TTL}
+     * @param maxEntries Maximum number of cached IDs, or null for {@link #DEFAULT_MAX_ENTRIES}
+     * @return The upload cache
+     */
+    public static UploadCache inGradleUserHome(
+            File gradleUserHomeDir, Integer ttlDays, Integer maxEntries) {
+        return new UploadCache(
+                new File(gradleUserHomeDir, DEFAULT_CACHE_PATH),
+                ttlDays != null ? Duration.ofDays(ttlDays) : DEFAULT_TTL,
+                maxEntries != null ? maxEntries : DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Looks up the ID of a previously uploaded file.
+     *
+     * @param username The LambdaTest account username
+     * @param endpoint The API URL of the LambdaTest environment the file was uploaded to
+     * @param digest The {@link FileDigest} of the file
+     * @return The cached ID, or null if the file has not been uploaded or the entry has expired
+     */
+    public synchronized String lookup(String username, String endpoint, String digest) {
+        long now = System.currentTimeMillis();
+        String key = key(username, endpoint, digest);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, now)) {
+            // Dropped from the file by the next write, or ignored by the next load
+            entries.remove(key);
+            return null;
+        }
+        boolean stale = now - entry.lastUsedAt >= LAST_USED_RESOLUTION.toMillis();
+        entry.lastUsedAt = now;
+        if (stale) {
+            save();
+        }
+        servedIds.add(entry.id);
+        return entry.id;
+    }
+
+    /**
+     * Returns whether a lookup of this instance served the given ID, as opposed to an ID that was
+     * just uploaded or given explicitly by the user.
+     *
+     * @param id The ID to check
+     * @return true if the ID was taken from the cache
+     */
+    public synchronized boolean isServed(String id) {
+        return id != null && servedIds.contains(id);
+    }
+
+    /**
+     * Records the ID returned for an uploaded file.
+     *
+     * @param username The LambdaTest account username
+     * @param endpoint The API URL of the LambdaTest environment the file was uploaded to
+     * @param digest The {@link FileDigest} of the file
+     * @param size The size of the file in bytes
+     * @param id The ID returned by LambdaTest
+     */
+    public synchronized void put(
+            String username, String endpoint, String digest, long size, String id) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry();
+        entry.username = username;
+        entry.endpoint = endpoint;
+        entry.digest = digest;
+        entry.id = id;
+        entry.size = size;
+        entry.createdAt = now;
+        entry.lastUsedAt = now;
+        String key = key(username, endpoint, digest);
+        entries.put(key, entry);
+        putKeys.add(key);
+        evict(now);
+        save();
+    }
+
+    /**
+     * Removes every entry pointing to the given ID. Called when LambdaTest rejects an ID that was
+     * served from the cache, so the next run uploads the file again.
+     *
+     * @param id The rejected ID
+     * @return true if an entry was removed
+     */
+    public synchronized boolean invalidate(String id) {
+        if (id == null) {
+            return false;
+        }
+        boolean removed = entries.values().removeIf(entry -> id.equals(entry.id));
+        if (removed) {
+            logger.info("Invalidated cached upload ID: {}", id);
+            invalidatedIds.add(id);
+            save();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the number of entries currently held in the cache.
+     *
+     * @return The number of cached IDs
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt >= ttl.toMillis();
+    }
+
+    private void evict(long now) {
+        evict(entries, now);
+    }
+
+    private void evict(Map<String, Entry> cached, long now) {
+        cached.values().removeIf(entry -> isExpired(entry, now));
+        if (cached.size() > maxEntries) {
+            List<Map.Entry<String, Entry>> byLastUse = new ArrayList<>(cached.entrySet());
+            byLastUse.sort(Comparator.comparingLong(e -> e.getValue().lastUsedAt));
+            for (int i = 0; i < byLastUse.size() - maxEntries; i++) {
+                cached.remove(byLastUse.get(i).getKey());
+            }
+        }
+    }
+
+    private static String key(String username, String endpoint, String digest) {
+        return username + '\n' + endpoint + '\n' + digest;
+    }
+
+    /**
+     * Merges the entries of this instance into those currently on disk. Entries put by this
+     * instance win, the last use of an entry is the latest one recorded by either side, and
+     * entries another build invalidated or evicted stay removed unless this instance put them.
+     *
+     * @param onDisk The entries read from the cache file
+     * @return The merged entries
+     */
+    private Map<String, Entry> merge(Map<String, Entry> onDisk) {
+        Map<String, Entry> merged = new LinkedHashMap<>(onDisk);
+        merged.values().removeIf(entry -> invalidatedIds.contains(entry.id));
+        for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+            String key = cached.getKey();
+            Entry entry = cached.getValue();
+            Entry stored = merged.get(key);
+            if (putKeys.contains(key)) {
+                merged.put(key, entry);
+            } else if (stored != null && entry.id.equals(stored.id)) {
+                stored.lastUsedAt = Math.max(stored.lastUsedAt, entry.lastUsedAt);
+            }
+        }
+        return merged;
+    }
+
+    private static Map<String, Entry> load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new LinkedHashMap<>();
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, Entry> loaded = gson.fromJson(reader, ENTRIES_TYPE);
+            return loaded != null ? new LinkedHashMap<>(loaded) : new LinkedHashMap<>();
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Ignoring unreadable upload cache {}: {}", file, e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Persists the cache, merged with the entries other builds wrote since it was loaded. Failures
+     * are logged rather than thrown since a missing cache only costs an extra upload.
+     *
+     * @implNote The file is read, merged and written while holding a {@link FileLock} on a
+     *     sibling lock file, so that concurrent builds apply their changes one after the other. The
+     *     cache is written to a temporary file and atomically moved into place so that readers
+     *     never observe a partially written file.
+     */
+    private void save() {
+        Path lockFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".lock");
+        synchronized (SAVE_LOCK) {
+            try {
+                Files.createDirectories(cacheFile.getParent());
+                try (FileChannel channel =
+                                FileChannel.open(
+                                        lockFile,
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE);
+                        FileLock lock = channel.lock()) {
+                    Map<String, Entry> merged = merge(load(cacheFile));
+                    evict(merged, System.currentTimeMillis());
+                    write(merged);
+                    entries = merged;
+                    putKeys.clear();
+                    invalidatedIds.clear();
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to write upload cache {}: {}", cacheFile, e.getMessage());
+            }
+        }
+    }
+
+    private void write(Map<String, Entry> merged) throws IOException {
+        Path temp = Files.createTempFile(cacheFile.getParent(), "upload-cache", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            gson.toJson(merged, ENTRIES_TYPE, writer);
+        }
+        try {
+            Files.move(
+                    temp,
+                    cacheFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
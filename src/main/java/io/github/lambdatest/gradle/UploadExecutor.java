@@ -0,0 +1,147 @@
+package io.github.lambdatest.gradle;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor running the plugin's blocking network I/O, so uploads never occupy {@code
+ * ForkJoinPool.commonPool()}, which is shared with Gradle internals and sized for CPU work.
+ *
+ * <p>On JDK 21 and later each task runs on its own virtual thread and a semaphore bounds how many
+ * uploads run at once. On older JDKs a bounded pool of daemon platform threads is used instead.
+ */
+public final class UploadExecutor implements Executor, AutoCloseable {
+
+    public static final int DEFAULT_MAX_CONCURRENT_UPLOADS = 4;
+
+    private static final String THREAD_NAME = "lambdatest-upload-";
+
+    private final int maxConcurrentUploads;
+    private final ThreadFactory virtualThreadFactory;
+    private final Semaphore permits;
+    private final ThreadPoolExecutor platformPool;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new UploadExecutor, using virtual threads when the running JDK supports them.
+     *
+     * @param maxConcurrentUploads The maximum number of tasks running at the same time
+     */
+    public UploadExecutor(int maxConcurrentUploads) {
+        this(maxConcurrentUploads, true);
+    }
+
+    /**
+     * Creates a new UploadExecutor.
+     *
+     * @param maxConcurrentUploads The maximum number of tasks running at the same time
+     * @param preferVirtualThreads Whether to use virtual threads when the JDK supports them
+     */
+    UploadExecutor(int maxConcurrentUploads, boolean preferVirtualThreads) {
+        if (maxConcurrentUploads <= 0) {
+            throw new IllegalArgumentException("Maximum concurrent uploads must be positive");
+        }
+        this.maxConcurrentUploads = maxConcurrentUploads;
+        this.virtualThreadFactory = preferVirtualThreads ? virtualThreadFactory(THREAD_NAME) : null;
+        if (virtualThreadFactory != null) {
+            this.permits = new Semaphore(maxConcurrentUploads);
+            this.platformPool = null;
+        } else {
+            this.permits = null;
+            this.platformPool =
+                    new ThreadPoolExecutor(
+                            maxConcurrentUploads,
+                            maxConcurrentUploads,
+                            60L,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(),
+                            daemonThreadFactory(THREAD_NAME));
+            this.platformPool.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    public int getMaxConcurrentUploads() {
+        return maxConcurrentUploads;
+    }
+
+    /** Returns whether tasks run on virtual threads rather than a platform thread pool. */
+    public boolean usesVirtualThreads() {
+        return virtualThreadFactory != null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (closed) {
+            throw new RejectedExecutionException("Upload executor has been closed");
+        }
+        if (platformPool != null) {
+            platformPool.execute(command);
+            return;
+        }
+        virtualThreadFactory
+                .newThread(
+                        () -> {
+                            permits.acquireUninterruptibly();
+                            try {
+                                command.run();
+                            } finally {
+                                permits.release();
+                            }
+                        })
+                .start();
+    }
+
+    /** Stops accepting new tasks. Tasks already submitted run to completion. */
+    @Override
+    public void close() {
+        closed = true;
+        if (platformPool != null) {
+            platformPool.shutdown();
+        }
+    }
+
+    /**
+     * Returns a thread factory creating numbered daemon platform threads, so plugin threads never
+     * keep the Gradle daemon alive.
+     *
+     * @param namePrefix Prefix of the created threads' names
+     * @return The thread factory
+     */
+    static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, namePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates a virtual thread factory through reflection, since the plugin is compiled for JDKs
+     * that predate virtual threads.
+     *
+     * @param namePrefix Prefix of the created threads' names
+     * @return The virtual thread factory, or null if the running JDK has no virtual threads
+     */
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Method name = builderType.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
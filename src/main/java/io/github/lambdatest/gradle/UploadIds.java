@@ -0,0 +1,75 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * The IDs returned by LambdaTest for an uploaded app and test suite, as written to the output file
+ * of {@link LambdaUploaderTask}. Keeping them in a task output lets Gradle restore them from the
+ * build cache instead of uploading an unchanged APK again.
+ */
+public class UploadIds {
+
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private String appId;
+    private String testSuiteId;
+
+    /**
+     * Creates a new UploadIds.
+     *
+     * @param appId The ID of the uploaded app, or null if no app was uploaded
+     * @param testSuiteId The ID of the uploaded test suite, or null if no test suite was uploaded
+     */
+    public UploadIds(String appId, String testSuiteId) {
+        this.appId = appId;
+        this.testSuiteId = testSuiteId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public String getTestSuiteId() {
+        return testSuiteId;
+    }
+
+    /**
+     * Reads the IDs from a file written by {@link #write(File)}.
+     *
+     * @param file The file to read
+     * @return The IDs
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static UploadIds read(File file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            UploadIds ids = gson.fromJson(reader, UploadIds.class);
+            if (ids == null) {
+                throw new IOException("Empty upload IDs file " + file);
+            }
+            return ids;
+        } catch (JsonParseException e) {
+            throw new IOException("Malformed upload IDs file " + file, e);
+        }
+    }
+
+    /**
+     * Writes the IDs to a file, creating its parent directories.
+     *
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.lambdatest.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.TreeSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Small on-disk record of a chunked upload in progress. It remembers the server-side upload ID and
+ * which chunks LambdaTest has acknowledged, so {@link ChunkedUploader} can resume an interrupted
+ * upload by sending only the missing chunks.
+ *
+ * <p>A journal only applies to the exact file content and chunk size it was created for. Loading
+ * it for a different digest, size or chunk size starts a fresh upload.
+ */
+public class UploadJournal {
+
+    private static final Logger logger = LogManager.getLogger(UploadJournal.class);
+
+    private static final Gson gson = new Gson();
+
+    private final transient Path journalFile;
+    private String uploadId;
+    private String digest;
+    private long fileSize;
+    private long chunkSize;
+    private TreeSet<Integer> acknowledged = new TreeSet<>();
+
+    private UploadJournal(Path journalFile, String digest, long fileSize, long chunkSize) {
+        this.journalFile = journalFile;
+        this.digest = digest;
+        this.fileSize = fileSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads the journal for a file, or creates an empty one if there is no matching journal.
+     *
+     * @param journalFile The file the journal is persisted to
+     * @param digest The {@link FileDigest} of the file being uploaded
+     * @param fileSize The size of the file being uploaded
+     * @param chunkSize The chunk size of the upload
+     * @return The journal
+     */
+    public static UploadJournal load(
+            File journalFile, String digest, long fileSize, long chunkSize) {
+        Path path = journalFile.toPath();
+        UploadJournal fresh = new UploadJournal(path, digest, fileSize, chunkSize);
+        if (!Files.isRegularFile(path)) {
+            return fresh;
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            UploadJournal stored = gson.fromJson(reader, UploadJournal.class);
+            if (stored == null
+                    || stored.uploadId == null
+                    || !digest.equals(stored.digest)
+                    || stored.fileSize != fileSize
+                    || stored.chunkSize != chunkSize) {
+                return fresh;
+            }
+            fresh.uploadId = stored.uploadId;
+            if (stored.acknowledged != null) {
+                fresh.acknowledged.addAll(stored.acknowledged);
+            }
+            return fresh;
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Ignoring unreadable upload journal {}: {}", path, e.getMessage());
+            return fresh;
+        }
+    }
+
+    /** Returns the server-side upload ID, or null if the upload has not been started. */
+    public synchronized String getUploadId() {
+        return uploadId;
+    }
+
+    /**
+     * Records the server-side upload ID of a newly started upload.
+     *
+     * @param uploadId The upload ID returned by LambdaTest
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void start(String uploadId) throws IOException {
+        this.uploadId = uploadId;
+        this.acknowledged.clear();
+        save();
+    }
+
+    /**
+     * Returns whether LambdaTest has acknowledged a chunk.
+     *
+     * @param index The chunk index
+     * @return true if the chunk does not need to be sent again
+     */
+    public synchronized boolean isAcknowledged(int index) {
+        return acknowledged.contains(index);
+    }
+
+    /**
+     * Records that LambdaTest has acknowledged a chunk.
+     *
+     * @param index The chunk index
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void acknowledge(int index) throws IOException {
+        if (acknowledged.add(index)) {
+            save();
+        }
+    }
+
+    /** Forgets the upload, so the next attempt starts from scratch. */
+    public synchronized void reset() {
+        uploadId = null;
+        acknowledged.clear();
+        delete();
+    }
+
+    /** Deletes the journal file once the upload has completed. */
+    public synchronized void delete() {
+        try {
+            Files.deleteIfExists(journalFile);
+        } catch (IOException e) {
+            logger.warn("Failed to delete upload journal {}: {}", journalFile, e.getMessage());
+        }
+    }
+
+    private void save() throws IOException {
+        Files.createDirectories(journalFile.getParent());
+        Path temp = Files.createTempFile(journalFile.getParent(), "upload-journal", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        }
+        try {
+            Files.move(
+                    temp,
+                    journalFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, journalFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import okhttp3.OkHttpClient;
+
+/**
+ * Options shared by {@link AppUploader} and {@link TestSuiteUploader} that control how files are
+ * sent to LambdaTest. Instances are immutable and created through {@link #builder()}.
+ */
+public final class UploadOptions {
+
+    public static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    public static final int DEFAULT_CHUNK_PARALLELISM = 4;
+    public static final long DEFAULT_STALL_TIMEOUT_SECONDS = 120;
+    public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+    private final boolean showProgress;
+    private final UploadCache uploadCache;
+    private final UploadRegistry uploadRegistry;
+    private final OkHttpClient httpClient;
+    private final Executor executor;
+    private final boolean chunkedUpload;
+    private final long chunkSize;
+    private final int chunkParallelism;
+    private final File chunkJournalDir;
+    private final RetryPolicy retryPolicy;
+    private final long stallTimeoutSeconds;
+    private final boolean compressedUpload;
+    private final int compressionLevel;
+    private final boolean deltaUpload;
+    private final File deltaBaseDir;
+    private final Endpoints endpoints;
+    private final ProgressTracker progressTracker;
+
+    private UploadOptions(Builder builder) {
+        this.showProgress = builder.showProgress;
+        this.uploadCache = builder.uploadCache;
+        this.uploadRegistry = builder.uploadRegistry;
+        this.httpClient = builder.httpClient;
+        this.executor = builder.executor;
+        this.chunkedUpload = builder.chunkedUpload;
+        this.chunkSize = builder.chunkSize;
+        this.chunkParallelism = builder.chunkParallelism;
+        this.chunkJournalDir = builder.chunkJournalDir;
+        this.retryPolicy = builder.retryPolicy;
+        this.stallTimeoutSeconds = builder.stallTimeoutSeconds;
+        this.compressedUpload = builder.compressedUpload;
+        this.compressionLevel = builder.compressionLevel;
+        this.deltaUpload = builder.deltaUpload;
+        this.deltaBaseDir = builder.deltaBaseDir;
+        this.endpoints = builder.endpoints;
+        this.progressTracker = builder.progressTracker;
+    }
+
+    /**
+     * Returns the default options: no progress display, no cache and the default HTTP client.
+     *
+     * @return The default upload options
+     */
+    public static UploadOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a builder for upload options.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isShowProgress() {
+        return showProgress;
+    }
+
+    /** Returns the cache of previously uploaded files, or null to always upload. */
+    public UploadCache getUploadCache() {
+        return uploadCache;
+    }
+
+    /** Returns the registry sharing uploads of the same content, or null to always upload. */
+    public UploadRegistry getUploadRegistry() {
+        return uploadRegistry;
+    }
+
+    /** Returns the HTTP client to upload with, falling back to the plugin's default client. */
+    public OkHttpClient getHttpClient() {
+        return httpClient != null ? httpClient : UploaderUtil.defaultHttpClient();
+    }
+
+    /** Returns the executor running uploads, falling back to the plugin's default executor. */
+    public Executor getExecutor() {
+        return executor != null ? executor : UploaderUtil.defaultUploadExecutor();
+    }
+
+    /** Returns whether files are uploaded in resumable chunks by {@link ChunkedUploader}. */
+    public boolean isChunkedUpload() {
+        return chunkedUpload;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkParallelism() {
+        return chunkParallelism;
+    }
+
+    /** Returns the directory holding the journals of interrupted chunked uploads. */
+    public File getChunkJournalDir() {
+        return chunkJournalDir != null
+                ? chunkJournalDir
+                : new File(System.getProperty("java.io.tmpdir"), "lambdatest-uploads");
+    }
+
+    /** Returns the policy retrying failed requests, falling back to the plugin's default policy. */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy != null ? retryPolicy : UploaderUtil.defaultRetryPolicy();
+    }
+
+    /** Returns the seconds without any byte sent after which an upload is aborted, 0 for never. */
+    public long getStallTimeoutSeconds() {
+        return stallTimeoutSeconds;
+    }
+
+    /** Returns whether single-request uploads compress the APK with {@link GzipRequestBody}. */
+    public boolean isCompressedUpload() {
+        return compressedUpload;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /** Returns whether APKs are uploaded as a delta against their previous upload. */
+    public boolean isDeltaUpload() {
+        return deltaUpload;
+    }
+
+    /** Returns the directory recording the previous upload of each APK for delta uploads. */
+    public File getDeltaBaseDir() {
+        return deltaBaseDir != null
+                ? deltaBaseDir
+                : new File(System.getProperty("java.io.tmpdir"), "lambdatest-delta-bases");
+    }
+
+    /** Returns the endpoints to upload to, falling back to those of {@link Constants}. */
+    public Endpoints getEndpoints() {
+        return endpoints != null ? endpoints : Constants.endpoints();
+    }
+
+    /** Returns the tracker showing the upload progress, falling back to the shared tracker. */
+    ProgressTracker getProgressTracker() {
+        return progressTracker != null ? progressTracker : ProgressTracker.shared();
+    }
+
+    /** Builder for {@link UploadOptions}. */
+    public static final class Builder {
+        private boolean showProgress;
+        private UploadCache uploadCache;
+        private UploadRegistry uploadRegistry;
+        private OkHttpClient httpClient;
+        private Executor executor;
+        private boolean chunkedUpload;
+        private long chunkSize = DEFAULT_CHUNK_SIZE;
+        private int chunkParallelism = DEFAULT_CHUNK_PARALLELISM;
+        private File chunkJournalDir;
+        private RetryPolicy retryPolicy;
+        private long stallTimeoutSeconds = DEFAULT_STALL_TIMEOUT_SECONDS;
+        private boolean compressedUpload;
+        private int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+        private boolean deltaUpload;
+        private File deltaBaseDir;
+        private Endpoints endpoints;
+        private ProgressTracker progressTracker;
+
+        private Builder() {}
+
+        public Builder showProgress(boolean showProgress) {
+            this.showProgress = showProgress;
+            return this;
+        }
+
+        public Builder uploadCache(UploadCache uploadCache) {
+            this.uploadCache = uploadCache;
+            return this;
+        }
+
+        /**
+         * Sets the registry of the uploads of the build, typically the one owned by {@link
+         * LambdaTestHttpService}, so that uploads of the same content by several tasks are sent
+         * only once.
+         */
+        public Builder uploadRegistry(UploadRegistry uploadRegistry) {
+            this.uploadRegistry = uploadRegistry;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP client used for uploads, typically the one owned by {@link
+         * LambdaTestHttpService}.
+         */
+        public Builder httpClient(OkHttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Sets the executor running uploads, typically the {@link UploadExecutor} owned by {@link
+         * LambdaTestHttpService}.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder chunkedUpload(boolean chunkedUpload) {
+            this.chunkedUpload = chunkedUpload;
+            return this;
+        }
+
+        public Builder chunkSize(long chunkSize) {
+            if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        public Builder chunkParallelism(int chunkParallelism) {
+            if (chunkParallelism <= 0) {
+                throw new IllegalArgumentException("Chunk parallelism must be positive");
+            }
+            this.chunkParallelism = chunkParallelism;
+            return this;
+        }
+
+        /**
+         * Sets the directory where chunked uploads record acknowledged chunks, so an interrupted
+         * upload can resume with the missing chunks only.
+         */
+        public Builder chunkJournalDir(File chunkJournalDir) {
+            this.chunkJournalDir = chunkJournalDir;
+            return this;
+        }
+
+        /**
+         * Sets the policy retrying failed requests, typically the one owned by {@link
+         * LambdaTestHttpService} so that all uploads share its circuit breaker.
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets how long an upload may go without sending a single byte before it is aborted and,
+         * as uploads are idempotent, retried. 0 lets a stalled upload hang until the HTTP client's
+         * own write timeout, if any.
+         */
+        public Builder stallTimeoutSeconds(long stallTimeoutSeconds) {
+            if (stallTimeoutSeconds < 0) {
+                throw new IllegalArgumentException("Stall timeout must not be negative");
+            }
+            this.stallTimeoutSeconds = stallTimeoutSeconds;
+            return this;
+        }
+
+        /**
+         * Sets whether the APK is compressed with gzip while it is uploaded. This only shortens
+         * uploads limited by bandwidth rather than CPU, and does not apply to chunked uploads.
+         */
+        public Builder compressedUpload(boolean compressedUpload) {
+            this.compressedUpload = compressedUpload;
+            return this;
+        }
+
+        /**
+         * Sets the gzip level of compressed uploads, from 1 for the fastest, the default, to 9 for
+         * the smallest output.
+         */
+        public Builder compressionLevel(int compressionLevel) {
+            if (compressionLevel < Deflater.BEST_SPEED
+                    || compressionLevel > Deflater.BEST_COMPRESSION) {
+                throw new IllegalArgumentException("Compression level must be between 1 and 9");
+            }
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        /**
+         * Sets whether an APK is uploaded as a delta against its previous upload, sending only the
+         * ZIP entries that changed, with a full upload whenever no usable previous upload exists.
+         */
+        public Builder deltaUpload(boolean deltaUpload) {
+            this.deltaUpload = deltaUpload;
+            return this;
+        }
+
+        /** Sets the directory where the previous upload of each APK is recorded for deltas. */
+        public Builder deltaBaseDir(File deltaBaseDir) {
+            this.deltaBaseDir = deltaBaseDir;
+            return this;
+        }
+
+        /**
+         * Sets the endpoints to upload to, typically captured by the task when it starts so that
+         * all of its uploads use the same ones.
+         */
+        public Builder endpoints(Endpoints endpoints) {
+            this.endpoints = endpoints;
+            return this;
+        }
+
+        /**
+         * Sets the tracker showing the upload progress, created by each task execution so that
+         * tasks running in parallel keep their progress apart.
+         */
+        Builder progressTracker(ProgressTracker progressTracker) {
+            this.progressTracker = progressTracker;
+            return this;
+        }
+
+        public UploadOptions build() {
+            return new UploadOptions(this);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Registry of the uploads of one build, keyed by account, endpoint and file, so that tasks
+ * uploading the same APK share a single upload. The first request for a file runs the upload;
+ * requests arriving while it is in flight wait for it, and later ones get its ID straight away.
+ *
+ * <p>A file is identified by its canonical path, size and modification time rather than by its
+ * content, so that joining an upload costs no read of the file. A file rebuilt in between gets a
+ * new identity and is uploaded again.
+ *
+ * <p>A failed upload is reported to every request that waited for it and then forgotten, so the
+ * next request starts a new upload. Unlike {@link UploadCache}, nothing outlives the registry,
+ * which {@link LambdaTestHttpService} keeps for the duration of the build.
+ */
+public final class UploadRegistry {
+
+    private static final Logger logger = LogManager.getLogger(UploadRegistry.class);
+
+    /** An upload returning the ID of the uploaded file. */
+    interface Upload {
+        String run() throws IOException;
+    }
+
+    private final ConcurrentMap<String, CompletableFuture<String>> uploads =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Builds the key identifying uploads of the same file.
+     *
+     * @param username The LambdaTest account username, as IDs are only valid for their account
+     * @param url The URL the file is uploaded to
+     * @param identity The {@link #identity(File)} of the file
+     * @return The registry key
+     */
+    static String key(String username, String url, String identity) {
+        return username + '\n' + url + '\n' + identity;
+    }
+
+    /**
+     * Identifies a file by its canonical path, size and modification time.
+     *
+     * @param file The file to upload
+     * @return The identity of the file in its current state
+     * @throws IOException if the canonical path of the file cannot be resolved
+     */
+    static String identity(File file) throws IOException {
+        return file.getCanonicalPath() + '\n' + file.length() + '\n' + file.lastModified();
+    }
+
+    /**
+     * Returns the ID of the upload registered under the key, running the upload if there is none.
+     *
+     * @param key The key of the uploaded file, see {@link #key(String, String, String)}
+     * @param filePath The path of the file, for logging
+     * @param upload The upload to run if no upload of the file is registered
+     * @return The ID of the uploaded file
+     * @throws IOException if the upload, or the upload waited for, failed
+     */
+    String upload(String key, String filePath, Upload upload) throws IOException {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = uploads.putIfAbsent(key, future);
+        if (existing != null) {
+            if (!existing.isDone()) {
+                logger.info("Waiting for the upload of {} started by another task", filePath);
+            }
+            String id = await(existing);
+            logger.info("Sharing the upload of {} with ID: {}", filePath, id);
+            return id;
+        }
+
+        try {
+            String id = upload.run();
+            future.complete(id);
+            return id;
+        } catch (IOException | RuntimeException | Error e) {
+            uploads.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of uploads in flight or completed.
+     *
+     * @return The number of registered uploads
+     */
+    public int size() {
+        return uploads.size();
+    }
+
+    private static String await(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.lambdatest.gradle;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Signals that the file being uploaded could not be read while a request body was written, for
+ * example because it was deleted or truncated by a concurrent build. The failure is local and says
+ * nothing about the reachability of LambdaTest, so {@link RetryPolicy} neither retries it nor
+ * counts it towards its {@link CircuitBreaker}.
+ */
+public class UploadSourceException extends IOException {
+
+    private final File file;
+
+    /**
+     * Creates a new UploadSourceException.
+     *
+     * @param file The file that could not be read
+     * @param message The detail message
+     * @param cause The underlying read failure, or null
+     */
+    public UploadSourceException(File file, String message, Throwable cause) {
+        super(message, cause);
+        this.file = file;
+    }
+
+    /** Returns the file that could not be read. */
+    public File getFile() {
+        return file;
+    }
+}
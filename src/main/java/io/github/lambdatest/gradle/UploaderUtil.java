@@ -1,17 +1,21 @@
 package io.github.lambdatest.gradle;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 import okhttp3.Credentials;
+import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Utility class providing common upload functionality for the LambdaTest Gradle plugin. This class
@@ -21,6 +25,10 @@ import okhttp3.Response;
  * uploads to the LambdaTest platform.
  */
 public final class UploaderUtil {
+
+    private static final Logger logger = LogManager.getLogger(UploaderUtil.class);
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
     /** Private constructor to prevent instantiation of this utility class. */
     private UploaderUtil() {
         throw new UnsupportedOperationException(
@@ -47,8 +55,8 @@ public final class UploaderUtil {
      * Uploads a file to LambdaTest and returns its ID with optional progress tracking.
      *
      * @implNote This method sends the file to {@link Constants#API_URL} and handles the multipart
-     *     form data construction and response parsing. When showProgress is true, it uses {@link
-     *     ProgressRequestBody} to track and display upload progress.
+     *     form data construction and response parsing. When showProgress is true, the {@link
+     *     FileChannelRequestBody} streaming the file tracks and displays upload progress.
      * @param username The LambdaTest account username
      * @param accessKey The LambdaTest account access key
      * @param filePath The path to the file to be uploaded
@@ -67,8 +75,8 @@ public final class UploaderUtil {
      * prefix.
      *
      * @implNote This method sends the file to {@link Constants#API_URL} and handles the multipart
-     *     form data construction and response parsing. When showProgress is true, it uses {@link
-     *     ProgressRequestBody} to track and display upload progress.
+     *     form data construction and response parsing. When showProgress is true, the {@link
+     *     FileChannelRequestBody} streaming the file tracks and displays upload progress.
      * @param username The LambdaTest account username
      * @param accessKey The LambdaTest account access key
      * @param filePath The path to the file to be uploaded
@@ -84,46 +92,367 @@ public final class UploaderUtil {
             boolean showProgress,
             String progressPrefix)
             throws IOException {
-        OkHttpClient client =
-                new OkHttpClient.Builder()
-                        .connectTimeout(1, TimeUnit.MINUTES) // Increase connection timeout
-                        .readTimeout(0, TimeUnit.MILLISECONDS) // Increase read timeout
-                        .writeTimeout(0, TimeUnit.MILLISECONDS) // Increase write timeout
-                        .build();
+        return uploadAndGetId(
+                username,
+                accessKey,
+                filePath,
+                progressPrefix,
+                UploadOptions.builder().showProgress(showProgress).build());
+    }
+
+    /**
+     * Uploads a file to LambdaTest with the given {@link UploadOptions} and returns its ID.
+     *
+     * @implNote When the options carry an {@link UploadCache}, the file's {@link FileDigest} is
+     *     looked up before any bytes are sent. On a miss the file is uploaded with the options'
+     *     HTTP client and the returned ID is recorded under that digest. When they carry an {@link
+     *     UploadRegistry}, a request for a file another task of the build is already uploading
+     *     waits for that upload and returns its ID. The registry identifies the file without
+     *     reading it, so the file is only digested ahead of the upload when a cache is configured.
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param filePath The path to the file to be uploaded
+     * @param progressPrefix Optional prefix for progress display (e.g., "App", "Test Suite")
+     * @param options The upload options
+     * @return The ID of the uploaded file
+     * @throws IOException if there's an error during file upload or response parsing
+     */
+    public static String uploadAndGetId(
+            String username,
+            String accessKey,
+            String filePath,
+            String progressPrefix,
+            UploadOptions options)
+            throws IOException {
+        UploadRegistry uploadRegistry = options.getUploadRegistry();
+        if (uploadRegistry == null) {
+            return uploadOrReuse(username, accessKey, filePath, progressPrefix, options);
+        }
+        String key =
+                UploadRegistry.key(
+                        username,
+                        options.getEndpoints().getApiUrl(),
+                        UploadRegistry.identity(new File(filePath)));
+        return uploadRegistry.upload(
+                key,
+                filePath,
+                () -> uploadOrReuse(username, accessKey, filePath, progressPrefix, options));
+    }
+
+    /**
+     * Uploads a file unless the {@link UploadCache} of the options, if any, knows its content.
+     *
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param filePath The path to the file to be uploaded
+     * @param progressPrefix Optional prefix for progress display (e.g., "App", "Test Suite")
+     * @param options The upload options
+     * @return The ID of the uploaded file
+     * @throws IOException if there's an error during file upload or response parsing
+     */
+    private static String uploadOrReuse(
+            String username,
+            String accessKey,
+            String filePath,
+            String progressPrefix,
+            UploadOptions options)
+            throws IOException {
+        UploadCache uploadCache = options.getUploadCache();
+        if (uploadCache == null) {
+            return upload(username, accessKey, filePath, progressPrefix, options, null).id;
+        }
 
         File file = new File(filePath);
-        MediaType mediaType = MediaType.parse("application/octet-stream");
-        RequestBody fileRequestBody = RequestBody.create(file, mediaType);
+        String digest = FileDigest.digest(file);
+        String endpoint = options.getEndpoints().getApiUrl();
+        String cachedId = uploadCache.lookup(username, endpoint, digest);
+        if (cachedId != null) {
+            logger.info("Reusing previous upload of {} with ID: {}", filePath, cachedId);
+            return cachedId;
+        }
 
-        RequestBody body =
-                new MultipartBody.Builder()
-                        .setType(MultipartBody.FORM)
-                        .addFormDataPart("appFile", filePath, fileRequestBody)
-                        .addFormDataPart("type", "espresso-android")
-                        .build();
+        Uploaded uploaded = upload(username, accessKey, filePath, progressPrefix, options, digest);
+        // Cache the ID under the content actually sent, even if the file changed in between
+        String uploadedDigest = uploaded.digest != null ? uploaded.digest : digest;
+        if (!uploadedDigest.equals(digest)) {
+            logger.warn("{} changed while it was being uploaded", filePath);
+        }
+        uploadCache.put(username, endpoint, uploadedDigest, file.length(), uploaded.id);
+        return uploaded.id;
+    }
+
+    /**
+     * Returns the HTTP client used when no client is supplied through {@link UploadOptions}, for
+     * example when the uploaders are used outside of the plugin's tasks.
+     *
+     * @return The lazily created default HTTP client
+     */
+    static OkHttpClient defaultHttpClient() {
+        return DefaultHttpClientHolder.CLIENT;
+    }
+
+    /**
+     * Returns the executor used when no executor is supplied through {@link UploadOptions}.
+     *
+     * @return The lazily created default upload executor
+     */
+    static UploadExecutor defaultUploadExecutor() {
+        return DefaultUploadExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Returns the retry policy used when none is supplied through {@link UploadOptions} or to
+     * {@link TestExecutor}.
+     *
+     * @return The lazily created default retry policy
+     */
+    static RetryPolicy defaultRetryPolicy() {
+        return DefaultRetryPolicyHolder.POLICY;
+    }
+
+    /** Lazily initialised holder of the default retry policy. */
+    private static final class DefaultRetryPolicyHolder {
+        static final RetryPolicy POLICY = RetryPolicy.defaults();
+    }
 
-        // Wrap the entire multipart body with progress tracking if requested
-        if (showProgress) {
-            String uploadId = progressPrefix != null ? progressPrefix : "Upload";
-            ProgressRequestBody.ProgressCallback callback =
-                    ProgressRequestBody.createConsoleCallback(uploadId);
-            body = new ProgressRequestBody(body, callback);
+    /** Lazily initialised holder of the default upload executor. */
+    private static final class DefaultUploadExecutorHolder {
+        static final UploadExecutor EXECUTOR =
+                new UploadExecutor(UploadExecutor.DEFAULT_MAX_CONCURRENT_UPLOADS);
+    }
+
+    /** Lazily initialised holder of the default HTTP client. */
+    private static final class DefaultHttpClientHolder {
+        static final OkHttpClient CLIENT =
+                LambdaTestHttpService.createClient(
+                        LambdaTestHttpService.DEFAULT_MAX_IDLE_CONNECTIONS,
+                        LambdaTestHttpService.DEFAULT_KEEP_ALIVE_SECONDS,
+                        LambdaTestHttpService.DEFAULT_CONNECT_TIMEOUT_SECONDS,
+                        LambdaTestHttpService.DEFAULT_READ_TIMEOUT_SECONDS,
+                        LambdaTestHttpService.DEFAULT_WRITE_TIMEOUT_SECONDS,
+                        null);
+    }
+
+    /** The ID of a completed upload and, if it was computed while sending, its digest. */
+    private static final class Uploaded {
+        final String id;
+        final String digest;
+
+        Uploaded(String id, String digest) {
+            this.id = id;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * Uploads a file the way the options ask for, as a delta, in chunks or in a single request.
+     *
+     * @param username The LambdaTest account username
+     * @param accessKey The LambdaTest account access key
+     * @param filePath The path to the file to be uploaded
+     * @param progressPrefix Optional prefix for progress display (e.g., "App", "Test Suite")
+     * @param options The upload options
+     * @param digest The {@link FileDigest} of the file if the caller already computed it, else
+     *     null; the delta and chunked uploads then reuse it instead of reading the file again
+     * @return The ID of the uploaded file and the digest computed while sending, if any
+     * @throws IOException if there's an error during file upload or response parsing
+     */
+    private static Uploaded upload(
+            String username,
+            String accessKey,
+            String filePath,
+            String progressPrefix,
+            UploadOptions options,
+            String digest)
+            throws IOException {
+        File file = new File(filePath);
+        String uploadId = progressPrefix != null ? progressPrefix : "Upload";
+        ProgressRequestBody.ProgressCallback callback = null;
+        if (options.isShowProgress()) {
+            callback = options.getProgressTracker().register(uploadId);
+        }
+        if (JfrEvents.UploadProgress.enabled()) {
+            callback = ProgressRequestBody.createRecordingCallback(uploadId, callback);
+        }
+
+        JfrEvents.Upload event = new JfrEvents.Upload();
+        event.start();
+        String id = null;
+        String sentDigest = null;
+        boolean chunked = false;
+        try {
+            DeltaUploader delta = null;
+            if (options.isDeltaUpload()) {
+                delta = new DeltaUploader(username, accessKey, filePath, options, callback);
+                id = delta.upload(digest);
+            }
+            if (id == null && options.isChunkedUpload()) {
+                if (digest == null) {
+                    digest = FileDigest.digest(file);
+                }
+                chunked = true;
+                id =
+                        new ChunkedUploader(username, accessKey, file, options, callback)
+                                .upload(digest);
+                // LambdaTest does not accept chunked uploads, the file is sent in one request
+                chunked = id != null;
+            }
+            if (id == null) {
+                // The file body reports the progress of the APK bytes, whether compressed or not
+                DigestingRequestBody fileBody =
+                        new DigestingRequestBody(
+                                new FileChannelRequestBody(file, OCTET_STREAM, callback));
+                id = uploadMultipart(username, accessKey, filePath, fileBody, options);
+                sentDigest = fileBody.getDigest();
+                logger.info("Uploaded {} with digest {} as {}", filePath, sentDigest, id);
+            }
+            if (delta != null) {
+                delta.remember(id, sentDigest != null ? sentDigest : digest);
+            }
+            return new Uploaded(id, sentDigest);
+        } finally {
+            event.finish(file, progressPrefix, chunked, id);
+        }
+    }
+
+    private static String uploadMultipart(
+            String username,
+            String accessKey,
+            String filePath,
+            DigestingRequestBody fileBody,
+            UploadOptions options)
+            throws IOException {
+        OkHttpClient client =
+                forUpload(options.getHttpClient(), options.getStallTimeoutSeconds());
+        RequestBody body;
+        GzipRequestBody gzipBody = null;
+        if (options.isCompressedUpload()) {
+            gzipBody = new GzipRequestBody(fileBody, options.getCompressionLevel());
+            body =
+                    multipartBody(
+                            gzipBody, filePath, GzipRequestBody.ENCODING, fileBody.trailer());
+        } else {
+            body = multipartBody(fileBody, filePath, null, fileBody.trailer());
         }
         Request request =
                 new Request.Builder()
-                        .url(Constants.getApiUrl())
+                        .url(options.getEndpoints().getApiUrl())
                         .addHeader("Authorization", Credentials.basic(username, accessKey))
                         .post(body)
                         .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = options.getRetryPolicy().execute(client, request, true)) {
             if (!response.isSuccessful()) throw new IOException("Unexpected code " + response);
 
+            if (gzipBody != null) {
+                logger.info("Uploaded {}, {}", filePath, gzipBody.summary());
+            }
             String responseBody = response.body().string();
             JsonObject jsonObject = JsonParser.parseString(responseBody).getAsJsonObject();
-            String id = jsonObject.get("app_id").getAsString();
+            JsonElement echoed = jsonObject.get(DigestingRequestBody.DIGEST_PART);
+            fileBody.verify(
+                    echoed != null && !echoed.isJsonNull() ? echoed.getAsString() : null, filePath);
+            return jsonObject.get("app_id").getAsString();
+        }
+    }
+
+    /**
+     * Returns the client an upload is sent with. LambdaTest only answers an upload once it has
+     * processed the whole file, which can take longer than the read timeout of the shared client,
+     * so the derived client has no read timeout. Its write timeout is no longer than the stall
+     * timeout instead: OkHttp applies the write timeout to each write to the socket, so it fails an
+     * upload that has not sent a single byte for that long rather than one that is merely slow.
+     *
+     * @param client The shared client
+     * @param stallTimeoutSeconds The stall timeout, 0 to keep the client's write timeout
+     * @return The client itself if it already has no read timeout and a short enough write
+     *     timeout, else a derived one sharing its connection pool
+     */
+    static OkHttpClient forUpload(OkHttpClient client, long stallTimeoutSeconds) {
+        long stallTimeoutMillis = TimeUnit.SECONDS.toMillis(stallTimeoutSeconds);
+        int writeTimeoutMillis = client.writeTimeoutMillis();
+        boolean keepWriteTimeout =
+                stallTimeoutMillis == 0
+                        || (writeTimeoutMillis > 0 && writeTimeoutMillis <= stallTimeoutMillis);
+        if (keepWriteTimeout && client.readTimeoutMillis() == 0) {
+            return client;
+        }
+        OkHttpClient.Builder builder = client.newBuilder().readTimeout(0, TimeUnit.SECONDS);
+        if (!keepWriteTimeout) {
+            builder.writeTimeout(stallTimeoutSeconds, TimeUnit.SECONDS);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds the multipart form an APK is uploaded with.
+     *
+     * @param file The APK to upload
+     * @param filePath The path of the APK as given by the user, sent as its file name
+     * @return The multipart request body
+     */
+    static RequestBody multipartBody(File file, String filePath) {
+        RequestBody fileRequestBody = new FileChannelRequestBody(file, OCTET_STREAM, null);
+        return new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("appFile", filePath, fileRequestBody)
+                .addFormDataPart("type", "espresso-android")
+                .build();
+    }
+
+    /**
+     * Builds the multipart form an APK is uploaded with, its part sent with the given {@code
+     * Content-Encoding}.
+     *
+     * @param fileBody The encoded body of the APK
+     * @param filePath The path of the APK as given by the user, sent as its file name
+     * @param contentEncoding The encoding of the body, for example {@link GzipRequestBody#ENCODING}
+     * @return The multipart request body
+     */
+    static RequestBody multipartBody(
+            RequestBody fileBody, String filePath, String contentEncoding) {
+        return multipartBody(fileBody, filePath, contentEncoding, null);
+    }
 
-            return id;
+    /**
+     * Builds the multipart form an APK is uploaded with, followed by a trailing part, typically
+     * the {@link DigestingRequestBody#trailer()} of the APK body.
+     *
+     * @param fileBody The body of the APK, possibly encoded
+     * @param filePath The path of the APK as given by the user, sent as its file name
+     * @param contentEncoding The encoding of the body, or null if it is not encoded
+     * @param digestTrailer The body of the {@link DigestingRequestBody#DIGEST_PART} part sent after
+     *     the APK, or null for none
+     * @return The multipart request body
+     */
+    static RequestBody multipartBody(
+            RequestBody fileBody,
+            String filePath,
+            String contentEncoding,
+            RequestBody digestTrailer) {
+        Headers.Builder headers =
+                new Headers.Builder()
+                        .addUnsafeNonAscii(
+                                "Content-Disposition",
+                                "form-data; name=\"appFile\"; filename=" + quoted(filePath));
+        if (contentEncoding != null) {
+            headers.add("Content-Encoding", contentEncoding);
         }
+        MultipartBody.Builder multipart =
+                new MultipartBody.Builder()
+                        .setType(MultipartBody.FORM)
+                        .addPart(headers.build(), fileBody)
+                        .addFormDataPart("type", "espresso-android");
+        if (digestTrailer != null) {
+            multipart.addFormDataPart(DigestingRequestBody.DIGEST_PART, null, digestTrailer);
+        }
+        return multipart.build();
+    }
+
+    /** Quotes a file name of a multipart part the way OkHttp does for form data parts. */
+    private static String quoted(String value) {
+        return '"'
+                + value.replace("\n", "%0A").replace("\r", "%0D").replace("\"", "%22")
+                + '"';
     }
 }
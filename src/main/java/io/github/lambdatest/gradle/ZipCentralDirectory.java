@@ -0,0 +1,209 @@
+package io.github.lambdatest.gradle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The central directory of a ZIP archive such as an APK, read through memory mappings of the end
+ * of central directory record and of the central directory only. The entries themselves are not
+ * read, except for the local header of an entry whose data is looked up.
+ *
+ * <p>ZIP64 archives and archives spanning several disks are rejected, as Android does not install
+ * them.
+ */
+final class ZipCentralDirectory {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    static final int LOCAL_HEADER_SIZE = 30;
+
+    private final long offset;
+    private final long size;
+    private final List<Entry> entries;
+
+    private ZipCentralDirectory(long offset, long size, List<Entry> entries) {
+        this.offset = offset;
+        this.size = size;
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Reads the central directory of an archive.
+     *
+     * @param channel The channel of the archive
+     * @return The central directory
+     * @throws IOException if the archive is truncated, corrupt or not a ZIP archive
+     */
+    static ZipCentralDirectory read(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < EOCD_SIZE) {
+            throw new IOException("file of " + fileSize + " bytes is too small for a ZIP archive");
+        }
+
+        // The end of central directory record is followed only by a comment of up to 64 KB
+        int tailSize = (int) Math.min(fileSize, EOCD_SIZE + MAX_COMMENT_SIZE);
+        long tailOffset = fileSize - tailSize;
+        ByteBuffer tail = map(channel, tailOffset, tailSize);
+        int eocd = findEndOfCentralDirectory(tail);
+        if (eocd < 0) {
+            throw new IOException(
+                    "no ZIP end of central directory record, the file is truncated"
+                            + " or not a ZIP archive");
+        }
+        long eocdOffset = tailOffset + eocd;
+        int diskEntries = tail.getShort(eocd + 8) & 0xFFFF;
+        int entryCount = tail.getShort(eocd + 10) & 0xFFFF;
+        long cdSize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+        long cdOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+        if (eocd >= ZIP64_LOCATOR_SIZE
+                && tail.getInt(eocd - ZIP64_LOCATOR_SIZE) == ZIP64_LOCATOR_SIGNATURE) {
+            throw new IOException("ZIP64 archives are not supported for APKs");
+        }
+        if (diskEntries != entryCount) {
+            throw new IOException("archive spans several ZIP disks");
+        }
+        if (cdOffset + cdSize > eocdOffset) {
+            throw new IOException(
+                    "central directory at offset "
+                            + cdOffset
+                            + " ("
+                            + cdSize
+                            + " bytes) overlaps the end of central directory record at offset "
+                            + eocdOffset
+                            + ", the file is truncated or corrupt");
+        }
+
+        ByteBuffer cd = map(channel, cdOffset, cdSize);
+        List<Entry> entries = new ArrayList<>(entryCount);
+        int position = 0;
+        for (int i = 0; i < entryCount; i++) {
+            if (position + CENTRAL_HEADER_SIZE > cdSize
+                    || cd.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException(
+                        "central directory entry " + (i + 1) + " of " + entryCount + " is corrupt");
+            }
+            int nameLength = cd.getShort(position + 28) & 0xFFFF;
+            int extraLength = cd.getShort(position + 30) & 0xFFFF;
+            int commentLength = cd.getShort(position + 32) & 0xFFFF;
+            if (position + CENTRAL_HEADER_SIZE + nameLength > cdSize) {
+                throw new IOException(
+                        "central directory entry " + (i + 1) + " of " + entryCount + " is corrupt");
+            }
+            entries.add(
+                    new Entry(
+                            readString(cd, position + CENTRAL_HEADER_SIZE, nameLength),
+                            cd.getShort(position + 10) & 0xFFFF,
+                            cd.getInt(position + 16) & 0xFFFFFFFFL,
+                            cd.getInt(position + 20) & 0xFFFFFFFFL,
+                            cd.getInt(position + 24) & 0xFFFFFFFFL,
+                            cd.getInt(position + 42) & 0xFFFFFFFFL));
+            position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        return new ZipCentralDirectory(cdOffset, cdSize, entries);
+    }
+
+    /** Returns the position of the central directory in the archive. */
+    long getOffset() {
+        return offset;
+    }
+
+    /** Returns the size of the central directory in bytes. */
+    long getSize() {
+        return size;
+    }
+
+    /** Returns the entries, in the order of the central directory. */
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the position of the data of an entry, which follows its local header.
+     *
+     * @param channel The channel of the archive
+     * @param entry An entry of the archive
+     * @return The position of the first byte of the entry's data
+     * @throws IOException if the local header of the entry is corrupt
+     */
+    static long dataOffset(FileChannel channel, Entry entry) throws IOException {
+        ByteBuffer local = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (local.hasRemaining()) {
+            if (channel.read(local, entry.localOffset + local.position()) < 0) {
+                break;
+            }
+        }
+        if (local.hasRemaining() || local.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("local header of " + entry.name + " is corrupt");
+        }
+        return entry.localOffset
+                + LOCAL_HEADER_SIZE
+                + (local.getShort(26) & 0xFFFF)
+                + (local.getShort(28) & 0xFFFF);
+    }
+
+    /** Returns the position of the end of central directory record, searching backwards. */
+    private static int findEndOfCentralDirectory(ByteBuffer tail) {
+        for (int position = tail.limit() - EOCD_SIZE; position >= 0; position--) {
+            if (tail.getInt(position) == EOCD_SIGNATURE
+                    && position + EOCD_SIZE + (tail.getShort(position + 20) & 0xFFFF)
+                            <= tail.limit()) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    static String readString(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(
+                    "region of " + size + " bytes at offset " + position + " is too large");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** An entry of the central directory. */
+    static final class Entry {
+        final String name;
+        final int method;
+        final long crc;
+        final long compressedSize;
+        final long uncompressedSize;
+        final long localOffset;
+
+        Entry(
+                String name,
+                int method,
+                long crc,
+                long compressedSize,
+                long uncompressedSize,
+                long localOffset) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.uncompressedSize = uncompressedSize;
+            this.localOffset = localOffset;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.android.build.api.artifact.Artifacts;
+import com.android.build.api.artifact.SingleArtifact;
+import com.android.build.api.variant.ApplicationVariant;
+import com.android.build.api.variant.BuiltArtifact;
+import com.android.build.api.variant.BuiltArtifacts;
+import com.android.build.api.variant.FilterConfiguration;
+import com.android.build.api.variant.VariantOutputConfiguration;
+import java.io.File;
+import java.util.Arrays;
+import org.gradle.api.Project;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link AndroidApkOutputs} class. */
+class AndroidApkOutputsTest {
+
+    private Project project;
+    private TaskProvider<LambdaTestTask> runTests;
+    private TaskProvider<LambdaUploaderTask> uploadApp;
+    private TaskProvider<LambdaUploaderTask> uploadTestSuite;
+    private ApplicationVariant variant;
+
+    @BeforeEach
+    void setUp() {
+        project = ProjectBuilder.builder().build();
+        new LambdaTestPlugin().apply(project);
+        runTests = project.getTasks().named("runLambdaTest", LambdaTestTask.class);
+        uploadApp = project.getTasks().named("uploadAppToLambdaTest", LambdaUploaderTask.class);
+        uploadTestSuite =
+                project.getTasks().named("uploadTestSuiteToLambdaTest", LambdaUploaderTask.class);
+
+        Artifacts artifacts = mock(Artifacts.class);
+        when(artifacts.get(SingleArtifact.APK.INSTANCE))
+                .thenReturn(project.getLayout().getBuildDirectory().dir("outputs/apk/debug"));
+        variant = mock(ApplicationVariant.class);
+        when(variant.getArtifacts()).thenReturn(artifacts);
+    }
+
+    @Test
+    void wireVariant_ShouldFeedUploadedAppIdToRunLambdaTest() {
+        // When
+        AndroidApkOutputs.wireVariant(variant, uploadApp, uploadTestSuite, runTests);
+
+        // Then
+        LambdaTestTask task = runTests.get();
+        assertThat(task.getUploadIdsFiles().getFiles())
+                .containsExactly(uploadApp.get().getUploadIdsFile().get().getAsFile());
+        assertThat(task.getTaskDependencies().getDependencies(task)).contains(uploadApp.get());
+    }
+
+    @Test
+    void wireVariant_ShouldKeepExplicitAppFilePath() {
+        // Given
+        runTests.configure(task -> task.setAppFilePath("explicit/app.apk"));
+
+        // When
+        AndroidApkOutputs.wireVariant(variant, uploadApp, uploadTestSuite, runTests);
+
+        // Then
+        LambdaTestTask task = runTests.get();
+        assertThat(task.getAppFile().get().getAsFile())
+                .isEqualTo(new File(project.getProjectDir(), "explicit/app.apk"));
+        assertThat(task.getUploadIdsFiles().getFiles()).isEmpty();
+        assertThat(task.getTaskDependencies().getDependencies(task))
+                .doesNotContain(uploadApp.get());
+    }
+
+    @Test
+    void wireVariant_ShouldKeepExplicitAppId() {
+        // Given
+        runTests.configure(task -> task.setAppId("lt://APP1"));
+
+        // When
+        AndroidApkOutputs.wireVariant(variant, uploadApp, uploadTestSuite, runTests);
+
+        // Then
+        LambdaTestTask task = runTests.get();
+        assertThat(task.getUploadIdsFiles().getFiles()).isEmpty();
+        assertThat(task.getTaskDependencies().getDependencies(task))
+                .doesNotContain(uploadApp.get());
+    }
+
+    @Test
+    void selectApk_ShouldReturnOnlyApk() {
+        // Given
+        BuiltArtifacts artifacts =
+                artifacts(apk("app-debug.apk", VariantOutputConfiguration.OutputType.SINGLE));
+
+        // When / Then
+        assertThat(AndroidApkOutputs.selectApk(artifacts, new File("apk")))
+                .isEqualTo("app-debug.apk");
+    }
+
+    @Test
+    void selectApk_ShouldReturnUniversalApkAmongSplits() {
+        // Given
+        BuiltArtifacts artifacts =
+                artifacts(
+                        apk(
+                                "app-arm64-v8a-debug.apk",
+                                VariantOutputConfiguration.OutputType.ONE_OF_MANY,
+                                abi("arm64-v8a")),
+                        apk(
+                                "app-universal-debug.apk",
+                                VariantOutputConfiguration.OutputType.UNIVERSAL),
+                        apk(
+                                "app-x86_64-debug.apk",
+                                VariantOutputConfiguration.OutputType.ONE_OF_MANY,
+                                abi("x86_64")));
+
+        // When / Then
+        assertThat(AndroidApkOutputs.selectApk(artifacts, new File("apk")))
+                .isEqualTo("app-universal-debug.apk");
+    }
+
+    @Test
+    void selectApk_ShouldNameSplitsWithoutUniversalApk() {
+        // Given
+        BuiltArtifacts artifacts =
+                artifacts(
+                        apk(
+                                "app-arm64-v8a-debug.apk",
+                                VariantOutputConfiguration.OutputType.ONE_OF_MANY,
+                                abi("arm64-v8a")),
+                        apk(
+                                "app-x86_64-debug.apk",
+                                VariantOutputConfiguration.OutputType.ONE_OF_MANY,
+                                abi("x86_64")));
+
+        // When / Then
+        assertThatThrownBy(() -> AndroidApkOutputs.selectApk(artifacts, new File("apk")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ABI=arm64-v8a")
+                .hasMessageContaining("universalApk");
+    }
+
+    @Test
+    void selectApk_ShouldFailWithoutMetadata() {
+        // When / Then
+        assertThatThrownBy(() -> AndroidApkOutputs.selectApk(null, new File("apk")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("apk");
+    }
+
+    private static BuiltArtifacts artifacts(BuiltArtifact... elements) {
+        BuiltArtifacts artifacts = mock(BuiltArtifacts.class);
+        when(artifacts.getVariantName()).thenReturn("debug");
+        when(artifacts.getElements()).thenReturn(Arrays.asList(elements));
+        return artifacts;
+    }
+
+    private static BuiltArtifact apk(
+            String outputFile,
+            VariantOutputConfiguration.OutputType outputType,
+            FilterConfiguration... filters) {
+        BuiltArtifact apk = mock(BuiltArtifact.class);
+        when(apk.getOutputFile()).thenReturn(outputFile);
+        when(apk.getOutputType()).thenReturn(outputType);
+        when(apk.getFilters()).thenReturn(Arrays.asList(filters));
+        return apk;
+    }
+
+    private static FilterConfiguration abi(String identifier) {
+        FilterConfiguration filter = mock(FilterConfiguration.class);
+        when(filter.getFilterType()).thenReturn(FilterConfiguration.FilterType.ABI);
+        when(filter.getIdentifier()).thenReturn(identifier);
+        return filter;
+    }
+}
@@ -0,0 +1,292 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ApkValidator} class. */
+class ApkValidatorTest {
+
+    @TempDir File tempDir;
+
+    @Test
+    void validate_ShouldReadApkWithSigningBlock() throws IOException {
+        // Given
+        File apk =
+                signed(
+                        zip(
+                                "app.apk",
+                                manifest("com.example.app", null, false),
+                                "classes.dex",
+                                "classes2.dex"));
+
+        // When
+        ApkValidator.Apk result = ApkValidator.validate(apk);
+
+        // Then
+        assertThat(result.getPackageName()).isEqualTo("com.example.app");
+        assertThat(result.getInstrumentationTarget()).isNull();
+        assertThat(result.getEntryCount()).isEqualTo(3);
+        assertThat(result.getDexCount()).isEqualTo(2);
+        assertThat(result.hasSigningBlock()).isTrue();
+    }
+
+    @Test
+    void validate_ShouldAcceptJarSignature() throws IOException {
+        // Given
+        File apk =
+                zip(
+                        "app.apk",
+                        manifest("com.example.app", null, true),
+                        "classes.dex",
+                        "META-INF/MANIFEST.MF",
+                        "META-INF/CERT.RSA");
+
+        // When
+        ApkValidator.Apk result = ApkValidator.validate(apk);
+
+        // Then
+        assertThat(result.getPackageName()).isEqualTo("com.example.app");
+        assertThat(result.hasSigningBlock()).isFalse();
+    }
+
+    @Test
+    void validate_ShouldRejectTruncatedApk() throws IOException {
+        // Given
+        File apk = signed(zip("app.apk", manifest("com.example.app", null, false), "classes.dex"));
+        byte[] content = Files.readAllBytes(apk.toPath());
+        Files.write(apk.toPath(), Arrays.copyOf(content, content.length / 2));
+
+        // When / Then
+        assertThatThrownBy(() -> ApkValidator.validate(apk))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Invalid APK " + apk)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    void validate_ShouldRejectApkWithoutManifest() throws IOException {
+        // Given
+        File apk = signed(zip("app.apk", null, "classes.dex"));
+
+        // When / Then
+        assertThatThrownBy(() -> ApkValidator.validate(apk))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("does not contain AndroidManifest.xml");
+    }
+
+    @Test
+    void validate_ShouldRejectApkWithoutDex() throws IOException {
+        // Given
+        File apk = signed(zip("app.apk", manifest("com.example.app", null, false)));
+
+        // When / Then
+        assertThatThrownBy(() -> ApkValidator.validate(apk))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("does not contain any classes.dex");
+    }
+
+    @Test
+    void validate_ShouldRejectUnsignedApk() throws IOException {
+        // Given
+        File apk = zip("app.apk", manifest("com.example.app", null, false), "classes.dex");
+
+        // When / Then
+        assertThatThrownBy(() -> ApkValidator.validate(apk))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("is not signed");
+    }
+
+    @Test
+    void validate_ShouldRejectFileThatIsNotZip() throws IOException {
+        // Given
+        File apk = new File(tempDir, "app.apk");
+        Files.write(apk.toPath(), new byte[1024]);
+
+        // When / Then
+        assertThatThrownBy(() -> ApkValidator.validate(apk))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("not a ZIP archive");
+    }
+
+    @Test
+    void validate_ShouldAcceptTestSuiteInstrumentingApp() throws IOException {
+        // Given
+        File app = signed(zip("app.apk", manifest("com.example.app", null, false), "classes.dex"));
+        File testSuite =
+                signed(
+                        zip(
+                                "test-suite.apk",
+                                manifest("com.example.app.test", "com.example.app", true),
+                                "classes.dex"));
+
+        // When
+        ApkValidator.validate(app, testSuite);
+
+        // Then
+        assertThat(ApkValidator.validate(testSuite).getInstrumentationTarget())
+                .isEqualTo("com.example.app");
+    }
+
+    @Test
+    void validate_ShouldRejectTestSuiteInstrumentingOtherPackage() throws IOException {
+        // Given
+        File app = signed(zip("app.apk", manifest("com.example.app", null, false), "classes.dex"));
+        File testSuite =
+                signed(
+                        zip(
+                                "test-suite.apk",
+                                manifest("com.example.other.test", "com.example.other", false),
+                                "classes.dex"));
+
+        // When / Then
+        assertThatThrownBy(() -> ApkValidator.validate(app, testSuite))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("instruments package com.example.other")
+                .hasMessageContaining("has package com.example.app");
+    }
+
+    @Test
+    void validate_ShouldRejectTestSuiteWithoutInstrumentation() throws IOException {
+        // Given
+        File testSuite =
+                signed(
+                        zip(
+                                "test-suite.apk",
+                                manifest("com.example.app.test", null, false),
+                                "classes.dex"));
+
+        // When / Then
+        assertThatThrownBy(() -> ApkValidator.validate(null, testSuite))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("declares no <instrumentation>");
+    }
+
+    /**
+     * Writes an APK holding the given manifest, unless null, and empty entries with the given
+     * names.
+     */
+    private File zip(String fileName, byte[] manifest, String... entries) throws IOException {
+        File apk = new File(tempDir, fileName);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(apk))) {
+            if (manifest != null) {
+                zip.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+                zip.write(manifest);
+            }
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry));
+                zip.write(new byte[] {1, 2, 3});
+            }
+        }
+        return apk;
+    }
+
+    /** Inserts an APK Signing Block without any signature before the central directory. */
+    private static File signed(File apk) throws IOException {
+        byte[] zip = Files.readAllBytes(apk.toPath());
+        ByteBuffer eocd = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        int eocdOffset = zip.length - 22;
+        int cdOffset = eocd.getInt(eocdOffset + 16);
+
+        ByteBuffer block = ByteBuffer.allocate(8 + 24).order(ByteOrder.LITTLE_ENDIAN);
+        block.putLong(24);
+        block.putLong(24);
+        block.put("APK Sig Block 42".getBytes(StandardCharsets.US_ASCII));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(zip, 0, cdOffset);
+        out.write(block.array());
+        out.write(zip, cdOffset, zip.length - cdOffset);
+        byte[] result = out.toByteArray();
+        ByteBuffer.wrap(result)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(eocdOffset + block.capacity() + 16, cdOffset + block.capacity());
+        Files.write(apk.toPath(), result);
+        return apk;
+    }
+
+    /**
+     * Builds a compiled AndroidManifest.xml declaring a package and, if given, an instrumentation
+     * of the target package.
+     */
+    private static byte[] manifest(String packageName, String targetPackage, boolean utf8) {
+        String[] strings = {
+            "manifest", "package", packageName, "instrumentation", "targetPackage", targetPackage
+        };
+        byte[] pool = stringPool(strings, targetPackage != null ? 6 : 4, utf8);
+        byte[] manifestElement = startElement(0, 1, 2);
+        byte[] instrumentationElement = targetPackage != null ? startElement(3, 4, 5) : new byte[0];
+
+        int size = 8 + pool.length + manifestElement.length + instrumentationElement.length;
+        ByteBuffer xml = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        xml.putShort((short) 0x0003).putShort((short) 8).putInt(size);
+        xml.put(pool).put(manifestElement).put(instrumentationElement);
+        return xml.array();
+    }
+
+    private static byte[] stringPool(String[] strings, int count, boolean utf8) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = data.size();
+            if (utf8) {
+                byte[] bytes = strings[i].getBytes(StandardCharsets.UTF_8);
+                data.write(strings[i].length());
+                data.write(bytes.length);
+                data.write(bytes, 0, bytes.length);
+                data.write(0);
+            } else {
+                data.write(strings[i].length());
+                data.write(0);
+                for (char c : strings[i].toCharArray()) {
+                    data.write(c);
+                    data.write(c >> 8);
+                }
+                data.write(0);
+                data.write(0);
+            }
+        }
+        while (data.size() % 4 != 0) {
+            data.write(0);
+        }
+
+        int headerSize = 28;
+        int size = headerSize + count * 4 + data.size();
+        ByteBuffer pool = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        pool.putShort((short) 0x0001).putShort((short) headerSize).putInt(size);
+        pool.putInt(count).putInt(0).putInt(utf8 ? 1 << 8 : 0);
+        pool.putInt(headerSize + count * 4).putInt(0);
+        for (int offset : offsets) {
+            pool.putInt(offset);
+        }
+        pool.put(data.toByteArray());
+        return pool.array();
+    }
+
+    /** Builds a start element with one string attribute, all given as string pool indexes. */
+    private static byte[] startElement(int name, int attributeName, int attributeValue) {
+        int size = 16 + 20 + 20;
+        ByteBuffer element = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        element.putShort((short) 0x0102).putShort((short) 16).putInt(size);
+        element.putInt(1).putInt(-1);
+        element.putInt(-1).putInt(name);
+        element.putShort((short) 20).putShort((short) 20).putShort((short) 1);
+        element.putShort((short) 0).putShort((short) 0).putShort((short) 0);
+        element.putInt(-1).putInt(attributeName).putInt(attributeValue);
+        element.putShort((short) 8).put((byte) 0).put((byte) 0x03).putInt(attributeValue);
+        return element.array();
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link BuildStatusWatcher} class. */
+class BuildStatusWatcherTest {
+
+    private static final Duration QUEUED = Duration.ofSeconds(2);
+    private static final Duration MAX = Duration.ofSeconds(30);
+
+    @Test
+    void status_ShouldMapLambdaTestStatuses() {
+        assertThat(BuildStatusWatcher.Status.of("initiated"))
+                .isEqualTo(BuildStatusWatcher.Status.QUEUED);
+        assertThat(BuildStatusWatcher.Status.of("Running"))
+                .isEqualTo(BuildStatusWatcher.Status.RUNNING);
+        assertThat(BuildStatusWatcher.Status.of("completed"))
+                .isEqualTo(BuildStatusWatcher.Status.PASSED);
+        assertThat(BuildStatusWatcher.Status.of("lambda error"))
+                .isEqualTo(BuildStatusWatcher.Status.FAILED);
+        assertThat(BuildStatusWatcher.Status.of(null)).isEqualTo(BuildStatusWatcher.Status.UNKNOWN);
+        assertThat(BuildStatusWatcher.Status.of("completed").isTerminal()).isTrue();
+        assertThat(BuildStatusWatcher.Status.of("whatever").isTerminal()).isFalse();
+    }
+
+    @Test
+    void nextDelay_ShouldStayShort_WhileQueued() {
+        Duration delay =
+                BuildStatusWatcher.nextDelay(
+                        BuildStatusWatcher.Status.QUEUED, Duration.ofSeconds(16), QUEUED, MAX);
+
+        assertThat(delay).isEqualTo(QUEUED);
+    }
+
+    @Test
+    void nextDelay_ShouldGrowUpToMax_WhileRunning() {
+        // Given
+        Duration delay = Duration.ZERO;
+
+        // When
+        StringBuilder delays = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            delay =
+                    BuildStatusWatcher.nextDelay(
+                            BuildStatusWatcher.Status.RUNNING, delay, QUEUED, MAX);
+            delays.append(delay.getSeconds()).append(' ');
+        }
+
+        // Then
+        assertThat(delays.toString().trim()).isEqualTo("4 8 16 30 30 30");
+    }
+
+    @Test
+    void nextDelay_ShouldBeZero_OnTerminalStatus() {
+        Duration delay =
+                BuildStatusWatcher.nextDelay(BuildStatusWatcher.Status.FAILED, MAX, QUEUED, MAX);
+
+        assertThat(delay).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void extractStatus_ShouldReadNestedAndTopLevelStatus() {
+        assertThat(BuildStatusWatcher.extractStatus("{\"data\":{\"status_ind\":\"running\"}}"))
+                .isEqualTo("running");
+        assertThat(BuildStatusWatcher.extractStatus("{\"status\":\"completed\"}"))
+                .isEqualTo("completed");
+        assertThat(BuildStatusWatcher.extractStatus("not json")).isNull();
+    }
+}
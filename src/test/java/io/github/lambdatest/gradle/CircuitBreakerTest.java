@@ -0,0 +1,91 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link CircuitBreaker} class. */
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(10), now::get);
+
+    @Test
+    void allowRequest_ShouldRefuse_AfterConsecutiveFailures() {
+        // When
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        // Then - The success reset the count
+        assertThat(breaker.allowRequest()).isTrue();
+
+        // When
+        breaker.recordFailure();
+
+        // Then
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void allowRequest_ShouldLetOneTrialThrough_AfterOpenDuration() {
+        // Given
+        openBreaker();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Then
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+
+        // When
+        breaker.recordSuccess();
+
+        // Then
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void recordFailure_ShouldReopen_WhenTrialFails() {
+        // Given
+        openBreaker();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(breaker.allowRequest()).isTrue();
+
+        // When
+        breaker.recordFailure();
+
+        // Then
+        assertThat(breaker.allowRequest()).isFalse();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void recordInconclusive_ShouldLetNextTrialThrough_WithoutClosing() {
+        // Given
+        openBreaker();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(breaker.allowRequest()).isTrue();
+
+        // When
+        breaker.recordInconclusive();
+
+        // Then
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        assertThat(breaker.isOpen()).isTrue();
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link DeltaUploader} class. */
+class DeltaUploaderTest {
+
+    @TempDir File tempDir;
+
+    @Test
+    void recipe_ShouldCopyUnchangedEntriesFromBase() {
+        // Given
+        List<DeltaBase.Entry> base =
+                Arrays.asList(entry("classes.dex", 1, 100, 40), entry("lib.so", 2, 500, 200));
+        List<DeltaBase.Entry> current =
+                Arrays.asList(entry("classes.dex", 3, 120, 40), entry("lib.so", 2, 500, 220));
+
+        // When
+        List<DeltaUploader.Range> recipe = DeltaUploader.recipe(base, current, 1000);
+
+        // Then
+        assertThat(recipe).hasSize(3);
+        assertRange(recipe.get(0), DeltaUploader.Range.DATA, 0, 220);
+        assertRange(recipe.get(1), DeltaUploader.Range.BASE, 200, 500);
+        assertRange(recipe.get(2), DeltaUploader.Range.DATA, 220, 280);
+        assertThat(recipe.get(2).fileOffset).isEqualTo(720);
+        assertThat(DeltaUploader.dataSize(recipe)).isEqualTo(500);
+    }
+
+    @Test
+    void recipe_ShouldSendEverythingWithoutMatchingEntries() {
+        // Given
+        List<DeltaBase.Entry> base = Arrays.asList(entry("classes.dex", 1, 100, 40));
+        List<DeltaBase.Entry> current = Arrays.asList(entry("classes2.dex", 1, 100, 40));
+
+        // When
+        List<DeltaUploader.Range> recipe = DeltaUploader.recipe(base, current, 300);
+
+        // Then
+        assertThat(recipe).hasSize(1);
+        assertRange(recipe.get(0), DeltaUploader.Range.DATA, 0, 300);
+    }
+
+    @Test
+    void readEntries_ShouldReturnEntriesByDataOffset() throws IOException {
+        // Given
+        File apk = new File(tempDir, "app.apk");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(apk))) {
+            zip.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+            zip.write(new byte[] {1, 2, 3});
+            zip.putNextEntry(new ZipEntry("classes.dex"));
+            zip.write(new byte[100]);
+        }
+
+        // When
+        List<DeltaBase.Entry> entries = DeltaUploader.readEntries(apk);
+
+        // Then
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).name).isEqualTo("AndroidManifest.xml");
+        assertThat(entries.get(0).dataOffset).isEqualTo(30 + "AndroidManifest.xml".length());
+        assertThat(entries.get(1).name).isEqualTo("classes.dex");
+        assertThat(entries.get(1).uncompressedSize).isEqualTo(100);
+    }
+
+    @Test
+    void readEntries_ShouldReturnNullForFileThatIsNotZip() throws IOException {
+        // Given
+        File apk = new File(tempDir, "app.apk");
+        Files.write(apk.toPath(), new byte[] {1, 2});
+
+        // When / Then
+        assertThat(DeltaUploader.readEntries(apk)).isNull();
+    }
+
+    @Test
+    void remember_ShouldRecordBaseForNextUpload() throws IOException {
+        // Given
+        File apk = new File(tempDir, "app.apk");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(apk))) {
+            zip.putNextEntry(new ZipEntry("classes.dex"));
+            zip.write(new byte[100]);
+        }
+        UploadOptions options =
+                UploadOptions.builder().deltaBaseDir(new File(tempDir, "bases")).build();
+        DeltaUploader uploader =
+                new DeltaUploader("user", "key", apk.getAbsolutePath(), options, null);
+
+        // When
+        uploader.remember("lt://APP1", null);
+
+        // Then
+        DeltaBase base =
+                DeltaBase.load(
+                        new File(tempDir, "bases"),
+                        "user",
+                        options.getEndpoints().getApiUrl(),
+                        apk);
+        assertThat(base.getAppId()).isEqualTo("lt://APP1");
+        assertThat(base.getDigest()).isEqualTo(FileDigest.digest(apk));
+        assertThat(base.getEntries()).hasSize(1);
+        assertThat(DeltaBase.load(new File(tempDir, "bases"), "other", "url", apk).getAppId())
+                .isNull();
+    }
+
+    private static DeltaBase.Entry entry(String name, long crc, long size, long dataOffset) {
+        return new DeltaBase.Entry(name, 8, crc, size, size * 2, dataOffset);
+    }
+
+    private static void assertRange(
+            DeltaUploader.Range range, String source, long offset, long length) {
+        assertThat(range.source).isEqualTo(source);
+        assertThat(range.offset).isEqualTo(offset);
+        assertThat(range.length).isEqualTo(length);
+    }
+}
@@ -0,0 +1,263 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link DexTestClassScanner} class. */
+class DexTestClassScannerTest {
+
+    private static final String TEST = "Lorg/junit/Test;";
+    private static final String RUN_WITH = "Lorg/junit/runner/RunWith;";
+    private static final int PUBLIC = 0x1;
+    private static final int ABSTRACT = 0x401;
+
+    @TempDir File tempDir;
+
+    @Test
+    void findTestClasses_ShouldListConcreteTopLevelTestClasses() throws IOException {
+        // Given
+        byte[] dex =
+                dex(
+                        testClass("Lcom/example/LoginTest;", PUBLIC),
+                        testClass("Lcom/example/LoginTest$1;", PUBLIC),
+                        testClass("Lcom/example/BaseTest;", ABSTRACT),
+                        testClass("Lcom/example/MainActivity;", PUBLIC),
+                        testClass("Lcom/example/CheckoutTests;", PUBLIC));
+
+        // When
+        List<String> classes = DexTestClassScanner.findTestClasses(dex);
+
+        // Then
+        assertThat(classes).containsExactly("com.example.LoginTest", "com.example.CheckoutTests");
+    }
+
+    @Test
+    void findTestClasses_ShouldSkipClassesJUnitDoesNotRun() throws IOException {
+        // Given
+        byte[] dex =
+                dex(
+                        new DexClass("Lcom/example/LoginPageTest;", PUBLIC),
+                        testClass("Lcom/example/LoginTest;", PUBLIC),
+                        new DexClass("Lcom/example/SuiteTest;", PUBLIC).classAnnotation(RUN_WITH),
+                        new DexClass("Lcom/example/ReportTestCase;", PUBLIC)
+                                .superclass("Ljunit/framework/TestCase;"));
+
+        // When
+        List<String> classes = DexTestClassScanner.findTestClasses(dex);
+
+        // Then
+        assertThat(classes)
+                .containsExactly(
+                        "com.example.LoginTest",
+                        "com.example.SuiteTest",
+                        "com.example.ReportTestCase");
+    }
+
+    @Test
+    void findTestClasses_ShouldListSubclassesOfAbstractTestClasses() throws IOException {
+        // Given
+        byte[] dex =
+                dex(
+                        testClass("Lcom/example/BaseTest;", ABSTRACT),
+                        new DexClass("Lcom/example/PhoneTest;", PUBLIC)
+                                .superclass("Lcom/example/BaseTest;"),
+                        new DexClass("Lcom/example/TabletTest;", PUBLIC)
+                                .superclass("Lcom/example/Helper;"));
+
+        // When
+        List<String> classes = DexTestClassScanner.findTestClasses(dex);
+
+        // Then
+        assertThat(classes).containsExactly("com.example.PhoneTest");
+    }
+
+    @Test
+    void findTestClasses_ShouldReadAllDexFilesOfApk() throws IOException {
+        // Given
+        File apk = new File(tempDir, "test-suite.apk");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(apk))) {
+            zip.putNextEntry(new ZipEntry("classes.dex"));
+            zip.write(dex(testClass("Lcom/example/BTest;", PUBLIC)));
+            zip.putNextEntry(new ZipEntry("classes2.dex"));
+            zip.write(dex(testClass("Lcom/example/ATest;", PUBLIC)));
+            zip.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+            zip.write(new byte[] {1, 2, 3});
+        }
+
+        // When
+        List<String> classes = DexTestClassScanner.findTestClasses(apk);
+
+        // Then
+        assertThat(classes).containsExactly("com.example.ATest", "com.example.BTest");
+    }
+
+    @Test
+    void findTestClasses_ShouldRejectNonDexContent() {
+        assertThatThrownBy(() -> DexTestClassScanner.findTestClasses(new byte[200]))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Not a DEX file");
+    }
+
+    /** Returns a class with a method annotated with {@code @Test}. */
+    private static DexClass testClass(String descriptor, int accessFlags) {
+        return new DexClass(descriptor, accessFlags).methodAnnotation(TEST);
+    }
+
+    /** A class definition of a generated DEX file. */
+    private static final class DexClass {
+        final String descriptor;
+        final int accessFlags;
+        String superclass;
+        String classAnnotation;
+        String methodAnnotation;
+
+        DexClass(String descriptor, int accessFlags) {
+            this.descriptor = descriptor;
+            this.accessFlags = accessFlags;
+        }
+
+        DexClass superclass(String superclass) {
+            this.superclass = superclass;
+            return this;
+        }
+
+        DexClass classAnnotation(String classAnnotation) {
+            this.classAnnotation = classAnnotation;
+            return this;
+        }
+
+        DexClass methodAnnotation(String methodAnnotation) {
+            this.methodAnnotation = methodAnnotation;
+            return this;
+        }
+    }
+
+    /**
+     * Builds a DEX file holding only the tables the scanner reads: one string and one type per
+     * descriptor, and a class definition per class with its access flags, superclass and an
+     * annotations directory holding its class or method annotation.
+     */
+    private static byte[] dex(DexClass... classes) {
+        Map<String, Integer> types = new LinkedHashMap<>();
+        for (DexClass dexClass : classes) {
+            for (String descriptor :
+                    new String[] {
+                        dexClass.descriptor,
+                        dexClass.superclass,
+                        dexClass.classAnnotation,
+                        dexClass.methodAnnotation
+                    }) {
+                if (descriptor != null) {
+                    types.putIfAbsent(descriptor, types.size());
+                }
+            }
+        }
+        int count = types.size();
+        int stringIdsOff = 0x70;
+        int typeIdsOff = stringIdsOff + count * 4;
+        int classDefsOff = typeIdsOff + count * 4;
+        int dataOff = classDefsOff + classes.length * 32;
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        List<Integer> stringOffsets = new ArrayList<>();
+        for (String descriptor : types.keySet()) {
+            stringOffsets.add(dataOff + data.size());
+            byte[] bytes = descriptor.getBytes(StandardCharsets.UTF_8);
+            data.write(bytes.length);
+            data.write(bytes, 0, bytes.length);
+            data.write(0);
+        }
+        int[] annotationsOffsets = new int[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            DexClass dexClass = classes[i];
+            int classSetOff = annotationSet(data, dataOff, types.get(dexClass.classAnnotation));
+            int methodSetOff = annotationSet(data, dataOff, types.get(dexClass.methodAnnotation));
+            if (classSetOff == 0 && methodSetOff == 0) {
+                continue;
+            }
+            align(data);
+            annotationsOffsets[i] = dataOff + data.size();
+            writeInt(data, classSetOff);
+            writeInt(data, 0);
+            writeInt(data, methodSetOff != 0 ? 1 : 0);
+            writeInt(data, 0);
+            if (methodSetOff != 0) {
+                writeInt(data, 0);
+                writeInt(data, methodSetOff);
+            }
+        }
+
+        ByteBuffer buffer =
+                ByteBuffer.allocate(dataOff + data.size()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("dex\n035\0".getBytes(StandardCharsets.US_ASCII));
+        buffer.putInt(0x38, count).putInt(0x3C, stringIdsOff);
+        buffer.putInt(0x40, count).putInt(0x44, typeIdsOff);
+        buffer.putInt(0x60, classes.length).putInt(0x64, classDefsOff);
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(stringIdsOff + i * 4, stringOffsets.get(i));
+            buffer.putInt(typeIdsOff + i * 4, i);
+        }
+        for (int i = 0; i < classes.length; i++) {
+            DexClass dexClass = classes[i];
+            int classDef = classDefsOff + i * 32;
+            buffer.putInt(classDef, types.get(dexClass.descriptor));
+            buffer.putInt(classDef + 4, dexClass.accessFlags);
+            buffer.putInt(
+                    classDef + 8,
+                    dexClass.superclass != null ? types.get(dexClass.superclass) : -1);
+            buffer.putInt(classDef + 20, annotationsOffsets[i]);
+        }
+        buffer.position(dataOff);
+        buffer.put(data.toByteArray());
+        return buffer.array();
+    }
+
+    /**
+     * Writes an {@code annotation_item} of the given type and an {@code annotation_set_item}
+     * holding it.
+     *
+     * @return The offset of the set, or 0 if there is no annotation
+     */
+    private static int annotationSet(ByteArrayOutputStream data, int dataOff, Integer typeIdx) {
+        if (typeIdx == null) {
+            return 0;
+        }
+        int annotationOff = dataOff + data.size();
+        data.write(1);
+        data.write(typeIdx);
+        data.write(0);
+        align(data);
+        int setOff = dataOff + data.size();
+        writeInt(data, 1);
+        writeInt(data, annotationOff);
+        return setOff;
+    }
+
+    private static void align(ByteArrayOutputStream data) {
+        while (data.size() % 4 != 0) {
+            data.write(0);
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream data, int value) {
+        for (int i = 0; i < 4; i++) {
+            data.write(value >>> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link DigestingRequestBody} class. */
+class DigestingRequestBodyTest {
+
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    @TempDir File tempDir;
+
+    @Test
+    void writeTo_ShouldDigestContentWhileWritingIt() throws IOException {
+        // Given
+        byte[] content = new byte[FileDigest.CHUNK_SIZE + 12_345];
+        new Random(42).nextBytes(content);
+        File apk = new File(tempDir, "app.apk");
+        Files.write(apk.toPath(), content);
+        DigestingRequestBody body =
+                new DigestingRequestBody(RequestBody.create(apk, OCTET_STREAM));
+        Buffer sink = new Buffer();
+
+        // When
+        body.writeTo(sink);
+
+        // Then
+        assertThat(sink.readByteArray()).isEqualTo(content);
+        assertThat(body.getDigest()).isEqualTo(FileDigest.digest(apk));
+    }
+
+    @Test
+    void trailer_ShouldWriteDigestOfLastWrite() throws IOException {
+        // Given
+        DigestingRequestBody body =
+                new DigestingRequestBody(RequestBody.create(new byte[100], OCTET_STREAM));
+        body.writeTo(new Buffer());
+        Buffer sink = new Buffer();
+
+        // When
+        body.trailer().writeTo(sink);
+
+        // Then
+        assertThat(sink.readUtf8()).isEqualTo(body.getDigest()).hasSize(64);
+        assertThat(body.trailer().contentLength()).isEqualTo(64);
+    }
+
+    @Test
+    void trailer_ShouldFailBeforeBodyIsWritten() {
+        // Given
+        DigestingRequestBody body =
+                new DigestingRequestBody(RequestBody.create(new byte[100], OCTET_STREAM));
+
+        // When / Then
+        assertThatThrownBy(() -> body.trailer().writeTo(new Buffer()))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void verify_ShouldRejectDifferentEcho() throws IOException {
+        // Given
+        DigestingRequestBody body =
+                new DigestingRequestBody(RequestBody.create(new byte[100], OCTET_STREAM));
+        body.writeTo(new Buffer());
+
+        // When / Then
+        body.verify(body.getDigest(), "app.apk");
+        body.verify(null, "app.apk");
+        assertThatThrownBy(() -> body.verify("0".repeat(64), "app.apk"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Upload of app.apk was corrupted");
+    }
+}
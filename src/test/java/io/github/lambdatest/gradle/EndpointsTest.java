@@ -0,0 +1,54 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link Endpoints} class. */
+class EndpointsTest {
+
+    @AfterEach
+    void tearDown() {
+        Constants.resetUrls();
+    }
+
+    @Test
+    void builder_ShouldDefaultToProductionEndpoints() {
+        // When
+        Endpoints endpoints = Endpoints.builder().apiUrl("http://localhost/upload").build();
+
+        // Then
+        assertThat(endpoints.getApiUrl()).isEqualTo("http://localhost/upload");
+        assertThat(endpoints.getBuildUrl()).isEqualTo(Endpoints.defaults().getBuildUrl());
+        assertThat(endpoints.getChunkedUploadUrl())
+                .isEqualTo(Endpoints.defaults().getChunkedUploadUrl());
+    }
+
+    @Test
+    void endpoints_ShouldNotChangeOnceCaptured() {
+        // Given
+        Endpoints captured = Constants.endpoints();
+
+        // When
+        Constants.setTestChunkedUploadUrl("http://localhost/chunked");
+
+        // Then
+        assertThat(captured.getChunkedUploadUrl())
+                .isEqualTo(Endpoints.defaults().getChunkedUploadUrl());
+        assertThat(Constants.getChunkedUploadUrl()).isEqualTo("http://localhost/chunked");
+        assertThat(Constants.endpoints().getApiUrl()).isEqualTo(Endpoints.defaults().getApiUrl());
+    }
+
+    @Test
+    void resetUrls_ShouldRestoreDefaults() {
+        // Given
+        Constants.setTestUrls("http://localhost/upload", null, null);
+
+        // When
+        Constants.resetUrls();
+
+        // Then
+        assertThat(Constants.endpoints()).isSameAs(Endpoints.defaults());
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import okhttp3.MediaType;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link FileChannelRequestBody} class. */
+class FileChannelRequestBodyTest {
+
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    @TempDir File tempDir;
+
+    @Test
+    void writeTo_ShouldWriteWholeFileAcrossBuffers() throws IOException {
+        // Given
+        byte[] content = write(2 * FileChannelRequestBody.BUFFER_SIZE + 12_345);
+        FileChannelRequestBody body =
+                new FileChannelRequestBody(new File(tempDir, "app.apk"), OCTET_STREAM, null);
+        Buffer sink = new Buffer();
+
+        // When
+        body.writeTo(sink);
+
+        // Then
+        assertThat(body.contentLength()).isEqualTo(content.length);
+        assertThat(sink.readByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void writeTo_ShouldWriteOnlyRange() throws IOException {
+        // Given
+        byte[] content = write(100_000);
+        FileChannelRequestBody body =
+                new FileChannelRequestBody(
+                        new File(tempDir, "app.apk"), 1_000, 50_000, OCTET_STREAM, null);
+        Buffer sink = new Buffer();
+
+        // When
+        body.writeTo(sink);
+
+        // Then
+        assertThat(sink.readByteArray()).isEqualTo(Arrays.copyOfRange(content, 1_000, 51_000));
+    }
+
+    @Test
+    void writeTo_ShouldReturnPooledBufferAcrossBodies() throws IOException {
+        // Given
+        byte[] content = write(2 * FileChannelRequestBody.BUFFER_SIZE);
+        File file = new File(tempDir, "app.apk");
+        Buffer wholeSink = new Buffer();
+        Buffer rangeSink = new Buffer();
+        ByteBuffer pooled = FileChannelRequestBody.borrowBuffer();
+        FileChannelRequestBody.releaseBuffer(pooled);
+
+        // When
+        new FileChannelRequestBody(file, OCTET_STREAM, null).writeTo(wholeSink);
+        new FileChannelRequestBody(file, 10, 100, OCTET_STREAM, null).writeTo(rangeSink);
+
+        // Then - both bodies borrowed the pooled buffer and returned it
+        ByteBuffer borrowed = FileChannelRequestBody.borrowBuffer();
+        FileChannelRequestBody.releaseBuffer(borrowed);
+        assertThat(borrowed).isSameAs(pooled);
+        assertThat(wholeSink.readByteArray()).isEqualTo(content);
+        assertThat(rangeSink.readByteArray()).isEqualTo(Arrays.copyOfRange(content, 10, 110));
+    }
+
+    @Test
+    void writeTo_ShouldAddEveryReadToCounter() throws IOException {
+        // Given
+        write(3 * FileChannelRequestBody.BUFFER_SIZE);
+        ProgressCounter counter = new ProgressCounter("App");
+        FileChannelRequestBody body =
+                new FileChannelRequestBody(new File(tempDir, "app.apk"), OCTET_STREAM, counter);
+
+        // When
+        body.writeTo(new Buffer());
+        body.writeTo(new Buffer());
+
+        // Then
+        assertThat(counter.getBytesWritten()).isEqualTo(3 * FileChannelRequestBody.BUFFER_SIZE);
+        assertThat(counter.getTotalBytes()).isEqualTo(3 * FileChannelRequestBody.BUFFER_SIZE);
+    }
+
+    @Test
+    void writeTo_ShouldReportCompletionToOtherCallbacks() throws IOException {
+        // Given
+        write(100_000);
+        List<Float> percentages = new ArrayList<>();
+        FileChannelRequestBody body =
+                new FileChannelRequestBody(
+                        new File(tempDir, "app.apk"),
+                        OCTET_STREAM,
+                        (bytesWritten, totalBytes, percentage) -> percentages.add(percentage));
+
+        // When
+        body.writeTo(new Buffer());
+
+        // Then
+        assertThat(percentages).isNotEmpty();
+        assertThat(percentages.get(percentages.size() - 1)).isEqualTo(100f);
+    }
+
+    @Test
+    void writeTo_ShouldFailWhenFileIsShorterThanRange() throws IOException {
+        // Given
+        write(1_000);
+        FileChannelRequestBody body =
+                new FileChannelRequestBody(
+                        new File(tempDir, "app.apk"), 500, 1_000, OCTET_STREAM, null);
+
+        // When / Then
+        assertThatThrownBy(() -> body.writeTo(new Buffer()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unexpected end of file");
+    }
+
+    @Test
+    void releaseBuffer_ShouldKeepAtMostMaxPooledBuffers() {
+        // Given
+        List<ByteBuffer> borrowed = new ArrayList<>();
+        for (int i = 0; i <= FileChannelRequestBody.MAX_POOLED_BUFFERS; i++) {
+            borrowed.add(FileChannelRequestBody.borrowBuffer());
+        }
+
+        // When
+        borrowed.forEach(FileChannelRequestBody::releaseBuffer);
+
+        // Then - the last buffer was dropped, so the pool hands out a new one after the others
+        for (int i = 0; i < FileChannelRequestBody.MAX_POOLED_BUFFERS; i++) {
+            assertThat(FileChannelRequestBody.borrowBuffer()).isSameAs(borrowed.get(i));
+        }
+        ByteBuffer allocated = FileChannelRequestBody.borrowBuffer();
+        assertThat(borrowed.stream().anyMatch(buffer -> buffer == allocated)).isFalse();
+    }
+
+    @Test
+    void constructor_ShouldRejectNegativeRange() {
+        // When / Then
+        assertThatThrownBy(
+                        () ->
+                                new FileChannelRequestBody(
+                                        new File(tempDir, "app.apk"), -1, 10, OCTET_STREAM, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private byte[] write(int size) throws IOException {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        Files.write(new File(tempDir, "app.apk").toPath(), content);
+        return content;
+    }
+}
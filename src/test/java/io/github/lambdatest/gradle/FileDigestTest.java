@@ -0,0 +1,85 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link FileDigest} class. */
+class FileDigestTest {
+
+    @TempDir File tempDir;
+
+    private File writeFile(String name, byte[] content) throws IOException {
+        File file = new File(tempDir, name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    @Test
+    void digest_ShouldBeStable_ForIdenticalContent() throws IOException {
+        // Given - content spanning several chunks so it is hashed in parallel
+        byte[] content = new byte[FileDigest.CHUNK_SIZE * 3 + 17];
+        new Random(42).nextBytes(content);
+        File first = writeFile("first.apk", content);
+        File second = writeFile("second.apk", content);
+
+        // When/Then
+        assertThat(FileDigest.digest(first))
+                .isEqualTo(FileDigest.digest(second))
+                .hasSize(64);
+    }
+
+    @Test
+    void digest_ShouldDiffer_WhenContentChanges() throws IOException {
+        // Given
+        byte[] content = new byte[FileDigest.CHUNK_SIZE + 1];
+        new Random(42).nextBytes(content);
+        File original = writeFile("original.apk", content);
+        content[content.length - 1] ^= 1;
+        File modified = writeFile("modified.apk", content);
+
+        // When/Then
+        assertThat(FileDigest.digest(original)).isNotEqualTo(FileDigest.digest(modified));
+    }
+
+    @Test
+    void streaming_ShouldMatchDigestOfFile() throws IOException {
+        // Given - content ending exactly on a chunk boundary, fed in uneven pieces
+        byte[] content = new byte[FileDigest.CHUNK_SIZE * 2];
+        new Random(42).nextBytes(content);
+        File file = writeFile("streamed.apk", content);
+        FileDigest.Streaming streaming = new FileDigest.Streaming();
+
+        // When
+        for (int offset = 0; offset < content.length; offset += 100_003) {
+            streaming.update(content, offset, Math.min(100_003, content.length - offset));
+        }
+
+        // Then
+        assertThat(streaming.size()).isEqualTo(content.length);
+        assertThat(streaming.finish()).isEqualTo(FileDigest.digest(file));
+    }
+
+    @Test
+    void streaming_ShouldMatchDigestOfEmptyFile() throws IOException {
+        // Given
+        File empty = writeFile("empty.apk", new byte[0]);
+
+        // When/Then
+        assertThat(new FileDigest.Streaming().finish()).isEqualTo(FileDigest.digest(empty));
+    }
+
+    @Test
+    void digest_ShouldHandleEmptyFile() throws IOException {
+        // Given
+        File empty = writeFile("empty.apk", new byte[0]);
+
+        // When/Then
+        assertThat(FileDigest.digest(empty)).hasSize(64);
+    }
+}
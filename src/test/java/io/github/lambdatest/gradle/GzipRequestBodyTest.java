@@ -0,0 +1,109 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link GzipRequestBody} class. */
+class GzipRequestBodyTest {
+
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    @Test
+    void writeTo_ShouldWriteGzipOfDelegate() throws IOException {
+        // Given
+        byte[] content = compressibleContent(200_000);
+        GzipRequestBody body =
+                new GzipRequestBody(RequestBody.create(content, OCTET_STREAM), 6);
+        Buffer sink = new Buffer();
+
+        // When
+        body.writeTo(sink);
+
+        // Then
+        assertThat(gunzip(sink)).isEqualTo(content);
+        assertThat(body.getUncompressedBytes()).isEqualTo(200_000);
+        assertThat(body.getCompressedBytes()).isEqualTo(sink.size());
+        assertThat(body.getCompressedBytes()).isLessThan(100_000);
+    }
+
+    @Test
+    void writeTo_ShouldCountEachAttemptAfresh() throws IOException {
+        // Given
+        byte[] content = compressibleContent(50_000);
+        GzipRequestBody body =
+                new GzipRequestBody(RequestBody.create(content, OCTET_STREAM), 1);
+
+        // When
+        body.writeTo(new Buffer());
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+
+        // Then
+        assertThat(gunzip(sink)).isEqualTo(content);
+        assertThat(body.getUncompressedBytes()).isEqualTo(50_000);
+        assertThat(body.getCompressedBytes()).isEqualTo(sink.size());
+    }
+
+    @Test
+    void contentLength_ShouldBeUnknown() {
+        // Given
+        GzipRequestBody body =
+                new GzipRequestBody(RequestBody.create(new byte[10], OCTET_STREAM), 1);
+
+        // Then
+        assertThat(body.contentLength()).isEqualTo(-1);
+        assertThat(body.summary()).isNull();
+    }
+
+    @Test
+    void summary_ShouldDescribeSavings() throws IOException {
+        // Given
+        GzipRequestBody body =
+                new GzipRequestBody(RequestBody.create(new byte[1024 * 1024], OCTET_STREAM), 9);
+
+        // When
+        body.writeTo(new Buffer());
+
+        // Then
+        assertThat(body.summary()).startsWith("compressed 1.0 MB to ");
+    }
+
+    @Test
+    void constructor_ShouldRejectInvalidLevel() {
+        RequestBody delegate = RequestBody.create(new byte[10], OCTET_STREAM);
+        assertThatThrownBy(() -> new GzipRequestBody(delegate, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Compression level must be between 1 and 9");
+        assertThatThrownBy(() -> new GzipRequestBody(delegate, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Alternates random runs with runs of zeros, like compressed and stored APK entries. */
+    private static byte[] compressibleContent(int size) {
+        byte[] content = new byte[size];
+        Random random = new Random(42);
+        for (int offset = 0; offset < size; offset += 8192) {
+            if ((offset / 8192) % 4 == 0) {
+                byte[] run = new byte[Math.min(8192, size - offset)];
+                random.nextBytes(run);
+                System.arraycopy(run, 0, content, offset, run.length);
+            }
+        }
+        return content;
+    }
+
+    private static byte[] gunzip(Buffer compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(compressed.inputStream())) {
+            return in.readAllBytes();
+        }
+    }
+}
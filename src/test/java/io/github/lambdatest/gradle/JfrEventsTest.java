@@ -0,0 +1,107 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link JfrEvents} class. */
+class JfrEventsTest {
+
+    @TempDir File tempDir;
+
+    @Test
+    void upload_ShouldRecordSizeAndId() throws Exception {
+        // Given
+        File apk = new File(tempDir, "app.apk");
+        Files.write(apk.toPath(), new byte[4096]);
+
+        // When
+        List<RecordedEvent> events =
+                record(
+                        "io.github.lambdatest.Upload",
+                        () -> {
+                            JfrEvents.Upload event = new JfrEvents.Upload();
+                            event.start();
+                            event.finish(apk, "App", false, "lt://APP123");
+                        });
+
+        // Then
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getLong("size")).isEqualTo(4096);
+        assertThat(events.get(0).getString("kind")).isEqualTo("App");
+        assertThat(events.get(0).getString("uploadId")).isEqualTo("lt://APP123");
+    }
+
+    @Test
+    void recordingCallback_ShouldRecordProgressAndPassItOn() throws Exception {
+        // Given
+        long[] passedOn = new long[1];
+        ProgressRequestBody.ProgressCallback callback =
+                ProgressRequestBody.createRecordingCallback(
+                        "Test Suite",
+                        (bytesWritten, totalBytes, percentage) -> passedOn[0] = bytesWritten);
+
+        // When
+        List<RecordedEvent> events =
+                record(
+                        "io.github.lambdatest.UploadProgress",
+                        () -> callback.onProgress(512, 1024, 50f));
+
+        // Then
+        assertThat(passedOn[0]).isEqualTo(512);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getDouble("progress")).isEqualTo(0.5);
+    }
+
+    @Test
+    void buildStatus_ShouldRecordTransition() throws Exception {
+        // When
+        List<RecordedEvent> events =
+                record(
+                        "io.github.lambdatest.BuildStatus",
+                        () ->
+                                JfrEvents.BuildStatus.record(
+                                        "BUILD1",
+                                        BuildStatusWatcher.Status.QUEUED,
+                                        "running",
+                                        true));
+
+        // Then
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("previous")).isEqualTo("QUEUED");
+        assertThat(events.get(0).getString("status")).isEqualTo("running");
+        assertThat(events.get(0).getBoolean("pushed")).isTrue();
+    }
+
+    @Test
+    void buildStatus_ShouldNotBeRecordedWhenDisabled() throws Exception {
+        // When
+        List<RecordedEvent> events =
+                record(
+                        "io.github.lambdatest.Upload",
+                        () -> JfrEvents.BuildStatus.record("BUILD1", null, "running", false));
+
+        // Then
+        assertThat(events).isEmpty();
+    }
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws Exception {
+        Path dump = new File(tempDir, "recording.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump);
+    }
+}
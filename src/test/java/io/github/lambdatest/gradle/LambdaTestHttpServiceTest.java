@@ -0,0 +1,91 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link LambdaTestHttpService} class. */
+class LambdaTestHttpServiceTest {
+
+    @Test
+    void createClient_ShouldApplySettings() {
+        // When
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(
+                        8, 60, 30, 0, 0, Arrays.asList("h2", "http/1.1"));
+
+        // Then
+        assertThat(client.connectTimeoutMillis()).isEqualTo(30_000);
+        assertThat(client.readTimeoutMillis()).isZero();
+        assertThat(client.writeTimeoutMillis()).isZero();
+        assertThat(client.protocols()).containsExactly(Protocol.HTTP_2, Protocol.HTTP_1_1);
+    }
+
+    @Test
+    void createClient_ShouldRejectUnknownProtocol() {
+        assertThatThrownBy(
+                        () ->
+                                LambdaTestHttpService.createClient(
+                                        5, 300, 60, 0, 0, Collections.singletonList("spdy/42")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown HTTP protocol: spdy/42");
+    }
+
+    @Test
+    void createClient_ShouldNegotiateHttp2WithFallback() {
+        // When
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(
+                        5, 300, 60, 0, 0, Collections.emptyList(), "true");
+
+        // Then
+        assertThat(client.protocols()).containsExactly(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        assertThat(client.interceptors()).hasSize(1);
+        assertThat(client.networkInterceptors()).hasSize(1);
+    }
+
+    @Test
+    void createClient_ShouldSpeakCleartextHttp2WithPriorKnowledge() {
+        // When
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(5, 300, 60, 0, 0, null, "h2c");
+
+        // Then
+        assertThat(client.protocols()).containsExactly(Protocol.H2_PRIOR_KNOWLEDGE);
+    }
+
+    @Test
+    void createClient_ShouldRestrictToHttp1WhenHttp2Disabled() {
+        // When
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(5, 300, 60, 0, 0, null, "false");
+
+        // Then
+        assertThat(client.protocols()).containsExactly(Protocol.HTTP_1_1);
+        assertThat(client.interceptors()).isEmpty();
+    }
+
+    @Test
+    void createClient_ShouldPreferExplicitProtocolsOverHttp2Mode() {
+        // When
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(
+                        5, 300, 60, 0, 0, Collections.singletonList("http/1.1"), "true");
+
+        // Then
+        assertThat(client.protocols()).containsExactly(Protocol.HTTP_1_1);
+    }
+
+    @Test
+    void createClient_ShouldRejectUnknownHttp2Mode() {
+        assertThatThrownBy(
+                        () -> LambdaTestHttpService.createClient(5, 300, 60, 0, 0, null, "yes"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown HTTP/2 mode: yes, expected true, false or h2c");
+    }
+}
@@ -2,6 +2,7 @@ package io.github.lambdatest.gradle;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import org.gradle.api.Project;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +35,24 @@ class LambdaTestPluginTest {
                 .isInstanceOf(LambdaUploaderTask.class);
     }
 
+    @Test
+    void apply_ShouldRegisterSeparateAppAndTestSuiteUploads() {
+        // When
+        plugin.apply(project);
+
+        // Then
+        LambdaUploaderTask uploadApp =
+                (LambdaUploaderTask) project.getTasks().findByName("uploadAppToLambdaTest");
+        LambdaUploaderTask uploadTestSuite =
+                (LambdaUploaderTask) project.getTasks().findByName("uploadTestSuiteToLambdaTest");
+        assertThat(uploadApp).isNotNull();
+        assertThat(uploadTestSuite).isNotNull();
+        assertThat(uploadApp.getUploadIdsFile().get().getAsFile())
+                .isNotEqualTo(uploadTestSuite.getUploadIdsFile().get().getAsFile());
+        assertThat(project.getExtensions().getByType(LambdaTestExtension.class).getVariant().get())
+                .isEqualTo("debug");
+    }
+
     @Test
     void apply_ShouldAllowTaskConfiguration() {
         // Given
@@ -51,4 +70,65 @@ class LambdaTestPluginTest {
         assertThat(runTask).isNotNull();
         assertThat(uploadTask).isNotNull();
     }
+
+    @Test
+    void apply_ShouldShareHttpServiceBetweenTasks() {
+        // Given
+        plugin.apply(project);
+
+        // When
+        LambdaTestTask runTask = (LambdaTestTask) project.getTasks().findByName("runLambdaTest");
+        LambdaUploaderTask uploadTask =
+                (LambdaUploaderTask) project.getTasks().findByName("uploadApkToLambdaTest");
+
+        // Then
+        assertThat(runTask.getHttpService().isPresent()).isTrue();
+        assertThat(runTask.getHttpService().get()).isSameAs(uploadTask.getHttpService().get());
+        assertThat(runTask.getHttpService().get().getClient())
+                .isSameAs(uploadTask.getHttpService().get().getClient());
+    }
+
+    @Test
+    void apply_ShouldRegisterTasksLazily() {
+        // Given
+        AtomicInteger realized = new AtomicInteger();
+        project.getTasks()
+                .withType(LambdaTestTask.class)
+                .configureEach(task -> realized.incrementAndGet());
+        project.getTasks()
+                .withType(LambdaUploaderTask.class)
+                .configureEach(task -> realized.incrementAndGet());
+
+        // When
+        plugin.apply(project);
+
+        // Then
+        assertThat(project.getTasks().getNames())
+                .contains("runLambdaTest", "uploadApkToLambdaTest");
+        assertThat(realized.get()).isZero();
+    }
+
+    @Test
+    void apply_ShouldUseExtensionValuesAsTaskConventions() {
+        // Given
+        plugin.apply(project);
+        LambdaTestExtension extension =
+                project.getExtensions().getByType(LambdaTestExtension.class);
+        extension.getUsername().set("sharedUser");
+        extension.getAccessKey().set("sharedKey");
+        extension.getUploadCache().set(true);
+
+        // When
+        LambdaTestTask runTask = (LambdaTestTask) project.getTasks().findByName("runLambdaTest");
+        LambdaUploaderTask uploadTask =
+                (LambdaUploaderTask) project.getTasks().findByName("uploadApkToLambdaTest");
+        uploadTask.setUsername("taskUser");
+
+        // Then
+        assertThat(runTask.getUsername().get()).isEqualTo("sharedUser");
+        assertThat(runTask.getAccessKey().get()).isEqualTo("sharedKey");
+        assertThat(runTask.getUploadCache().get()).isTrue();
+        assertThat(uploadTask.getUsername().get()).isEqualTo("taskUser");
+        assertThat(uploadTask.getAccessKey().get()).isEqualTo("sharedKey");
+    }
 }
@@ -1,6 +1,7 @@
 package io.github.lambdatest.gradle;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.File;
 import java.io.IOException;
@@ -81,4 +82,69 @@ class LambdaUploaderTaskTest {
         task.uploadApkToLambdaTest(); // Should not throw
         assertThat(task).isNotNull();
     }
+
+    @Test
+    void task_ShouldDeclareApksAsInputs_AndUploadIdsAsOutput() {
+        // Given
+        task.setUsername(TEST_USERNAME);
+        task.setAccessKey(TEST_ACCESS_KEY);
+        task.setAppFilePath(validAppPath);
+        task.setTestSuiteFilePath(validTestPath);
+
+        // Then
+        File idsFile = task.getUploadIdsFile().get().getAsFile();
+        assertThat(task.getInputs().getFiles().getFiles())
+                .contains(new File(validAppPath), new File(validTestPath));
+        assertThat(task.getOutputs().getFiles().getFiles()).contains(idsFile);
+        assertThat(idsFile.getParentFile().getName()).isEqualTo("testUploadApk");
+    }
+
+    @Test
+    void getUploadUrl_ShouldFollowEndpoints() {
+        // Given
+        String defaultUrl = task.getUploadUrl();
+
+        try {
+            // When
+            Constants.setTestUrls(
+                    "http://localhost/upload",
+                    "http://localhost/build",
+                    "http://localhost/flutter");
+
+            // Then - IDs uploaded to another environment are not restored from the build cache
+            assertThat(defaultUrl).isEqualTo(Endpoints.DEFAULT_API_URL);
+            assertThat(task.getUploadUrl()).isEqualTo("http://localhost/upload");
+        } finally {
+            Constants.resetUrls();
+        }
+    }
+
+    @Test
+    void uploadApkToLambdaTest_ShouldWriteEmptyIds_WhenNoFiles() throws IOException {
+        // Given
+        File idsFile = new File(tempDir, "ids.json");
+        task.setUploadIdsFile(idsFile);
+
+        // When
+        task.uploadApkToLambdaTest();
+
+        // Then
+        UploadIds ids = UploadIds.read(idsFile);
+        assertThat(ids.getAppId()).isNull();
+        assertThat(ids.getTestSuiteId()).isNull();
+    }
+
+    @Test
+    void uploadApkToLambdaTest_ShouldFailBeforeUpload_WhenValidatedApkIsInvalid() {
+        // Given
+        task.setUsername(TEST_USERNAME);
+        task.setAccessKey(TEST_ACCESS_KEY);
+        task.setAppFilePath(validAppPath);
+        task.setValidateApk(true);
+
+        // When / Then
+        assertThatThrownBy(() -> task.uploadApkToLambdaTest())
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Invalid APK " + validAppPath);
+    }
 }
@@ -0,0 +1,54 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link PlainProgressRenderer} class. */
+class PlainProgressRendererTest {
+
+    private long now;
+
+    @Test
+    void isDue_ShouldLimitLinesPerUpload() {
+        // Given
+        PlainProgressRenderer renderer = new PlainProgressRenderer(() -> now);
+
+        // When
+        boolean first = renderer.isDue("App", 100, 1_000);
+        now += TimeUnit.SECONDS.toNanos(1);
+        boolean tooSoon = renderer.isDue("App", 200, 1_000);
+        boolean otherUpload = renderer.isDue("Test Suite", 100, 1_000);
+        now += PlainProgressRenderer.LOG_INTERVAL_NANOS;
+        boolean afterInterval = renderer.isDue("App", 300, 1_000);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(tooSoon).isFalse();
+        assertThat(otherUpload).isTrue();
+        assertThat(afterInterval).isTrue();
+    }
+
+    @Test
+    void isDue_ShouldAlwaysLogCompletion() {
+        // Given
+        PlainProgressRenderer renderer = new PlainProgressRenderer(() -> now);
+        renderer.isDue("App", 100, 1_000);
+
+        // When
+        boolean completed = renderer.isDue("App", 1_000, 1_000);
+
+        // Then
+        assertThat(completed).isTrue();
+    }
+
+    @Test
+    void format_ShouldWriteLineWithoutEscapeCodes() {
+        // When
+        String line = PlainProgressRenderer.format("App", 50f, 512, 1_024, "1.0 KB/s, 1s left");
+
+        // Then
+        assertThat(line).isEqualTo("Uploading App: 50.0% (512 B / 1.0 KB), 1.0 KB/s, 1s left");
+    }
+}
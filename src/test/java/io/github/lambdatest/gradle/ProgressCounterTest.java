@@ -0,0 +1,160 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ProgressCounter} class. */
+class ProgressCounterTest {
+
+    private static final long MIB = 1024 * 1024;
+
+    private long now;
+
+    private ProgressCounter newCounter() {
+        return new ProgressCounter("App", () -> now);
+    }
+
+    private void advanceSeconds(double seconds) {
+        now += (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void sample_ShouldTrackSteadyThroughputAndEta() {
+        // Given
+        ProgressCounter counter = newCounter();
+        counter.restart(100 * MIB);
+
+        // When - 1 MiB every 250 ms for 10 seconds
+        for (int i = 0; i < 40; i++) {
+            advanceSeconds(0.25);
+            counter.add(MIB);
+            counter.sample();
+        }
+
+        // Then
+        assertThat(counter.getBytesPerSecond()).isCloseTo(4.0 * MIB, within(1.0));
+        assertThat(counter.getEtaSeconds()).isEqualTo(15);
+        assertThat(counter.getStalledSeconds()).isZero();
+        assertThat(counter.status()).isEqualTo("4.0 MB/s, 15s left");
+    }
+
+    @Test
+    void sample_ShouldWeighSamplesByElapsedTime() {
+        // Given
+        ProgressCounter counter = newCounter();
+        counter.restart(100 * MIB);
+        advanceSeconds(1);
+        counter.add(4 * MIB);
+        counter.sample();
+
+        // When - nothing sent for one time constant
+        advanceSeconds(3);
+        counter.sample();
+
+        // Then
+        assertThat(counter.getBytesPerSecond()).isCloseTo(4.0 * MIB * Math.exp(-1), within(1.0));
+        assertThat(counter.getPeakBytesPerSecond()).isCloseTo(4.0 * MIB, within(1.0));
+    }
+
+    @Test
+    void sample_ShouldNotCountRestartAsNegativeThroughput() {
+        // Given
+        ProgressCounter counter = newCounter();
+        counter.restart(10 * MIB);
+        advanceSeconds(1);
+        counter.add(5 * MIB);
+        counter.sample();
+
+        // When
+        counter.restart(10 * MIB);
+        advanceSeconds(1);
+        counter.sample();
+
+        // Then
+        assertThat(counter.getBytesPerSecond())
+                .isCloseTo(5.0 * MIB * Math.exp(-1.0 / 3), within(1.0));
+        assertThat(counter.getEtaSeconds()).isGreaterThan(0);
+    }
+
+    @Test
+    void getStalledSeconds_ShouldReportUploadWithoutProgress() {
+        // Given
+        ProgressCounter counter = newCounter();
+        counter.restart(10 * MIB);
+        advanceSeconds(1);
+        counter.add(MIB);
+        counter.sample();
+
+        // When
+        advanceSeconds(5);
+        counter.sample();
+        long beforeWarning = counter.getStalledSeconds();
+        advanceSeconds(7);
+        counter.sample();
+
+        // Then
+        assertThat(beforeWarning).isZero();
+        assertThat(counter.getStalledSeconds()).isEqualTo(12);
+        assertThat(counter.status()).isEqualTo("stalled for 12s");
+    }
+
+    @Test
+    void getEtaSeconds_ShouldBeUnknownBeforeAnyByteIsSent() {
+        // Given
+        ProgressCounter counter = newCounter();
+        counter.restart(10 * MIB);
+
+        // When
+        advanceSeconds(1);
+        counter.sample();
+
+        // Then
+        assertThat(counter.getEtaSeconds()).isEqualTo(-1);
+        assertThat(counter.status()).isEqualTo("0 B/s");
+    }
+
+    @Test
+    void summary_ShouldReportAverageAndPeakThroughput() {
+        // Given
+        ProgressCounter counter = newCounter();
+        counter.restart(10 * MIB);
+        advanceSeconds(1);
+        counter.add(4 * MIB);
+        counter.sample();
+
+        // When
+        advanceSeconds(3);
+        counter.add(6 * MIB);
+        String summary = counter.summary();
+
+        // Then
+        assertThat(summary)
+                .isEqualTo("Uploaded App: 10.0 MB in 4s, average 2.5 MB/s, peak 4.0 MB/s");
+    }
+
+    @Test
+    void summary_ShouldBeNullForIncompleteUpload() {
+        // Given
+        ProgressCounter counter = newCounter();
+        counter.restart(10 * MIB);
+        counter.add(MIB);
+
+        // When
+        advanceSeconds(1);
+        String summary = counter.summary();
+
+        // Then
+        assertThat(summary).isNull();
+    }
+
+    @Test
+    void formatDuration_ShouldUseLargestUnits() {
+        // When/Then
+        assertThat(ProgressCounter.formatDuration(42)).isEqualTo("42s");
+        assertThat(ProgressCounter.formatDuration(185)).isEqualTo("3m 05s");
+        assertThat(ProgressCounter.formatDuration(3720)).isEqualTo("1h 02m");
+    }
+}
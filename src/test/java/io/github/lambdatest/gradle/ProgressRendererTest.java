@@ -0,0 +1,100 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.configuration.ConsoleOutput;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ProgressRenderer} class. */
+class ProgressRendererTest {
+
+    @Test
+    void select_ShouldRedrawLinesOnInteractiveConsole() {
+        // When
+        ProgressRenderer.Style style =
+                ProgressRenderer.select(ConsoleOutput.Auto, LogLevel.LIFECYCLE, false, null, null);
+
+        // Then
+        assertThat(style).isEqualTo(ProgressRenderer.Style.RICH);
+    }
+
+    @Test
+    void select_ShouldLogPlainLinesOnCi() {
+        // When
+        ProgressRenderer.Style style =
+                ProgressRenderer.select(
+                        ConsoleOutput.Auto, LogLevel.LIFECYCLE, false, "true", "xterm");
+
+        // Then
+        assertThat(style).isEqualTo(ProgressRenderer.Style.PLAIN);
+    }
+
+    @Test
+    void select_ShouldLogPlainLinesOnDumbTerminal() {
+        // When
+        ProgressRenderer.Style style =
+                ProgressRenderer.select(
+                        ConsoleOutput.Auto, LogLevel.LIFECYCLE, false, null, "dumb");
+
+        // Then
+        assertThat(style).isEqualTo(ProgressRenderer.Style.PLAIN);
+    }
+
+    @Test
+    void select_ShouldLogPlainLinesForParallelBuild() {
+        // When
+        ProgressRenderer.Style style =
+                ProgressRenderer.select(ConsoleOutput.Auto, LogLevel.LIFECYCLE, true, null, null);
+
+        // Then
+        assertThat(style).isEqualTo(ProgressRenderer.Style.PLAIN);
+    }
+
+    @Test
+    void select_ShouldFollowExplicitConsoleOutput() {
+        // When/Then
+        assertThat(
+                        ProgressRenderer.select(
+                                ConsoleOutput.Plain, LogLevel.LIFECYCLE, false, null, null))
+                .isEqualTo(ProgressRenderer.Style.PLAIN);
+        assertThat(
+                        ProgressRenderer.select(
+                                ConsoleOutput.Rich, LogLevel.LIFECYCLE, false, "true", null))
+                .isEqualTo(ProgressRenderer.Style.RICH);
+    }
+
+    @Test
+    void select_ShouldLogPlainLinesForParallelBuild_OnRichConsole() {
+        // When/Then - parallel tasks would redraw over each other's lines
+        assertThat(
+                        ProgressRenderer.select(
+                                ConsoleOutput.Rich, LogLevel.LIFECYCLE, true, null, null))
+                .isEqualTo(ProgressRenderer.Style.PLAIN);
+        assertThat(
+                        ProgressRenderer.select(
+                                ConsoleOutput.Verbose, LogLevel.LIFECYCLE, true, null, null))
+                .isEqualTo(ProgressRenderer.Style.PLAIN);
+    }
+
+    @Test
+    void select_ShouldStaySilentForQuietBuild() {
+        // When
+        ProgressRenderer.Style style =
+                ProgressRenderer.select(ConsoleOutput.Rich, LogLevel.QUIET, false, null, null);
+
+        // Then
+        assertThat(style).isEqualTo(ProgressRenderer.Style.SILENT);
+    }
+
+    @Test
+    void create_ShouldReturnRendererOfStyle() {
+        // When/Then
+        assertThat(ProgressRenderer.create(ProgressRenderer.Style.RICH))
+                .isInstanceOf(AnsiProgressRenderer.class);
+        assertThat(ProgressRenderer.create(ProgressRenderer.Style.PLAIN))
+                .isInstanceOf(PlainProgressRenderer.class);
+        assertThat(ProgressRenderer.create(ProgressRenderer.Style.SILENT))
+                .isSameAs(ProgressRenderer.SILENT);
+    }
+}
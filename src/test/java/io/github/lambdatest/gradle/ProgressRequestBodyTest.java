@@ -0,0 +1,78 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ProgressRequestBody} class. */
+class ProgressRequestBodyTest {
+
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    @Test
+    void writeTo_ShouldAddEveryWriteToCounter() throws Exception {
+        // Given
+        ProgressCounter counter = new ProgressCounter("App");
+        RequestBody body =
+                new ProgressRequestBody(
+                        RequestBody.create(new byte[100_000], OCTET_STREAM), counter);
+
+        // When
+        body.writeTo(new Buffer());
+
+        // Then
+        assertThat(counter.getBytesWritten()).isEqualTo(100_000);
+        assertThat(counter.getTotalBytes()).isEqualTo(100_000);
+    }
+
+    @Test
+    void writeTo_ShouldRestartCounterForEveryAttempt() throws Exception {
+        // Given
+        ProgressCounter counter = new ProgressCounter("App");
+        RequestBody body =
+                new ProgressRequestBody(RequestBody.create(new byte[1_000], OCTET_STREAM), counter);
+
+        // When
+        body.writeTo(new Buffer());
+        body.writeTo(new Buffer());
+
+        // Then
+        assertThat(counter.getBytesWritten()).isEqualTo(1_000);
+    }
+
+    @Test
+    void writeTo_ShouldReportCompletionToOtherCallbacks() throws Exception {
+        // Given
+        List<Float> percentages = new ArrayList<>();
+        RequestBody body =
+                new ProgressRequestBody(
+                        RequestBody.create(new byte[100_000], OCTET_STREAM),
+                        (bytesWritten, totalBytes, percentage) -> percentages.add(percentage));
+
+        // When
+        body.writeTo(new Buffer());
+
+        // Then
+        assertThat(percentages).isNotEmpty();
+        assertThat(percentages.get(percentages.size() - 1)).isEqualTo(100f);
+    }
+
+    @Test
+    void onProgress_ShouldReplaceCounters() {
+        // Given
+        ProgressCounter counter = new ProgressCounter("Test Suite");
+
+        // When
+        counter.onProgress(300, 1_000, 30f);
+        counter.onProgress(200, 1_000, 20f);
+
+        // Then
+        assertThat(counter.getBytesWritten()).isEqualTo(200);
+        assertThat(counter.getTotalBytes()).isEqualTo(1_000);
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ProgressTracker} class. */
+class ProgressTrackerTest {
+
+    /** Renderer remembering what it was asked to draw. */
+    private static final class RecordingRenderer implements ProgressRenderer {
+        final List<String> updates = new ArrayList<>();
+        final List<String> summaries = new ArrayList<>();
+
+        @Override
+        public void update(
+                String uploadId,
+                float percentage,
+                long bytesWritten,
+                long totalBytes,
+                String status) {
+            updates.add(uploadId + " " + bytesWritten + "/" + totalBytes);
+        }
+
+        @Override
+        public void finish(List<String> summaries) {
+            this.summaries.addAll(summaries);
+        }
+    }
+
+    @Test
+    void render_ShouldDrawRegisteredUploadsWithTrackerRenderer() {
+        // Given
+        RecordingRenderer renderer = new RecordingRenderer();
+        ProgressTracker tracker = new ProgressTracker(renderer);
+        ProgressCounter counter = tracker.register("App");
+        counter.restart(1_000);
+        counter.add(400);
+
+        // When
+        tracker.render();
+        tracker.finish();
+
+        // Then
+        assertThat(renderer.updates).containsExactly("App 400/1000");
+        assertThat(renderer.summaries).isEmpty();
+    }
+
+    @Test
+    void finish_ShouldLeaveOtherTrackersRunning() {
+        // Given
+        RecordingRenderer first = new RecordingRenderer();
+        RecordingRenderer second = new RecordingRenderer();
+        ProgressTracker firstTracker = new ProgressTracker(first);
+        ProgressTracker secondTracker = new ProgressTracker(second);
+        ProgressCounter firstCounter = firstTracker.register("App");
+        ProgressCounter secondCounter = secondTracker.register("App");
+        firstCounter.restart(1_000);
+        firstCounter.add(1_000);
+        secondCounter.restart(2_000);
+
+        // When
+        firstTracker.finish();
+        secondCounter.add(500);
+        secondTracker.render();
+        secondTracker.finish();
+
+        // Then
+        assertThat(first.summaries).hasSize(1);
+        assertThat(second.updates).containsExactly("App 500/2000");
+        assertThat(second.summaries).isEmpty();
+    }
+}
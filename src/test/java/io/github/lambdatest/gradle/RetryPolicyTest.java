@@ -0,0 +1,73 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link RetryPolicy} class. */
+class RetryPolicyTest {
+
+    @Test
+    void backoffMillis_ShouldStayWithinExponentialCeiling() {
+        // Given
+        RetryPolicy policy =
+                RetryPolicy.builder()
+                        .initialBackoff(Duration.ofMillis(100))
+                        .maxBackoff(Duration.ofMillis(1000))
+                        .build();
+
+        // Then
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.backoffMillis(1)).isBetween(0L, 100L);
+            assertThat(policy.backoffMillis(3)).isBetween(0L, 400L);
+            assertThat(policy.backoffMillis(10)).isBetween(0L, 1000L);
+            assertThat(policy.backoffMillis(64)).isBetween(0L, 1000L);
+        }
+    }
+
+    @Test
+    void parseRetryAfter_ShouldAcceptSecondsAndHttpDates() {
+        // Given
+        Instant now = Instant.parse("2024-05-01T10:00:00Z");
+
+        // Then
+        assertThat(RetryPolicy.parseRetryAfter("120", now)).isEqualTo(Duration.ofSeconds(120));
+        assertThat(RetryPolicy.parseRetryAfter("Wed, 01 May 2024 10:00:30 GMT", now))
+                .isEqualTo(Duration.ofSeconds(30));
+        assertThat(RetryPolicy.parseRetryAfter("Wed, 01 May 2024 09:00:00 GMT", now))
+                .isEqualTo(Duration.ZERO);
+        assertThat(RetryPolicy.parseRetryAfter(null, now)).isNull();
+        assertThat(RetryPolicy.parseRetryAfter("soon", now)).isNull();
+        assertThat(RetryPolicy.parseRetryAfter("-5", now)).isNull();
+    }
+
+    @Test
+    void isRejectedUnprocessed_ShouldOnlyCoverCodesWithoutSideEffects() {
+        assertThat(RetryPolicy.isTransient(502)).isTrue();
+        assertThat(RetryPolicy.isRejectedUnprocessed(502)).isFalse();
+        assertThat(RetryPolicy.isRejectedUnprocessed(429)).isTrue();
+        assertThat(RetryPolicy.isRejectedUnprocessed(503)).isTrue();
+        assertThat(RetryPolicy.isTransient(401)).isFalse();
+        assertThat(RetryPolicy.isTransient(400)).isFalse();
+    }
+
+    @Test
+    void isConnectFailure_ShouldNotCoverFailuresAfterSending() {
+        assertThat(RetryPolicy.isConnectFailure(new ConnectException("refused"))).isTrue();
+        assertThat(RetryPolicy.isConnectFailure(new SocketTimeoutException("read"))).isFalse();
+        assertThat(RetryPolicy.isConnectFailure(new IOException("reset"))).isFalse();
+    }
+
+    @Test
+    void builder_ShouldValidateMaxAttempts() {
+        assertThatThrownBy(() -> RetryPolicy.builder().maxAttempts(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Maximum attempts must be positive");
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ShardedBuildRunner} class. */
+class ShardedBuildRunnerTest {
+
+    private static final List<String> DEVICES =
+            Arrays.asList(
+                    "Pixel 3-9", "Pixel 5-11", "Galaxy S21-11", "Galaxy S22-12", "Pixel 7-13");
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void plan_ShouldSplitDevicesIntoBalancedShards() {
+        // When
+        List<ShardedBuildRunner.Shard> shards = ShardedBuildRunner.plan(DEVICES, 2, null);
+
+        // Then
+        assertThat(shards).hasSize(2);
+        assertThat(shards.get(0).getDevices())
+                .containsExactly("Pixel 3-9", "Pixel 5-11", "Galaxy S21-11");
+        assertThat(shards.get(1).getDevices()).containsExactly("Galaxy S22-12", "Pixel 7-13");
+    }
+
+    @Test
+    void plan_ShouldCapShardsAtDeviceCount() {
+        assertThat(ShardedBuildRunner.plan(DEVICES, 30, null)).hasSize(DEVICES.size());
+    }
+
+    @Test
+    void plan_ShouldMultiplyShardsByVariants() {
+        // Given
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("geoLocation", Arrays.asList("FR", "US"));
+        variants.put("network", Arrays.asList("true", "false"));
+
+        // When
+        List<ShardedBuildRunner.Shard> shards = ShardedBuildRunner.plan(DEVICES, 2, variants);
+
+        // Then
+        assertThat(shards).hasSize(8);
+        assertThat(shards.get(0).getCapabilities())
+                .containsEntry("geoLocation", "FR")
+                .containsEntry("network", "true");
+        assertThat(shards.get(7).getCapabilities())
+                .containsEntry("geoLocation", "US")
+                .containsEntry("network", "false");
+    }
+
+    @Test
+    void plan_ShouldPairDeviceGroupsWithTestClassGroups() {
+        // Given
+        List<List<String>> testClassGroups =
+                Arrays.asList(
+                        Arrays.asList("com.example.ATest"),
+                        Arrays.asList("com.example.BTest", "com.example.CTest"));
+
+        // When
+        List<ShardedBuildRunner.Shard> shards =
+                ShardedBuildRunner.plan(DEVICES, 2, null, testClassGroups);
+
+        // Then
+        assertThat(shards.get(0).getTestClasses()).containsExactly("com.example.ATest");
+        assertThat(shards.get(1).getTestClasses())
+                .containsExactly("com.example.BTest", "com.example.CTest");
+        assertThatThrownBy(() -> ShardedBuildRunner.plan(DEVICES, 3, null, testClassGroups))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void applyTo_ShouldOverrideCapabilitiesAndNameBuild() {
+        // Given
+        Map<String, List<String>> variants = new HashMap<>();
+        variants.put("geoLocation", Arrays.asList("FR"));
+        ShardedBuildRunner.Shard shard = ShardedBuildRunner.plan(DEVICES, 1, variants).get(0);
+        Map<String, String> params = new HashMap<>();
+        params.put("build", "Nightly");
+        params.put("geoLocation", "US");
+
+        // When
+        Map<String, String> applied = shard.applyTo(params);
+
+        // Then
+        assertThat(applied)
+                .containsEntry("geoLocation", "FR")
+                .containsEntry("build", "Nightly [shard 1/1]");
+    }
+
+    @Test
+    void run_ShouldRespectConcurrencyCap_AndAggregateOutcomes() {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ShardedBuildRunner runner =
+                new ShardedBuildRunner(
+                        shard -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            try {
+                                Thread.sleep(20);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            } finally {
+                                running.decrementAndGet();
+                            }
+                            if (shard.getIndex() == 3) {
+                                throw new IOException("Build request failed");
+                            }
+                            return shard.getIndex() == 1 ? null : "BUILD" + shard.getIndex();
+                        },
+                        null,
+                        null,
+                        2,
+                        executor);
+
+        // When
+        List<ShardedBuildRunner.Outcome> outcomes =
+                runner.run(ShardedBuildRunner.plan(DEVICES, 5, null)).join();
+
+        // Then
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        assertThat(outcomes).hasSize(5);
+        assertThat(outcomes.get(0).isSuccessful()).isTrue();
+        assertThat(outcomes.get(0).getBuildId()).isEqualTo("BUILD0");
+        assertThat(outcomes.get(1).isSuccessful()).isFalse();
+        assertThat(outcomes.get(3).isSuccessful()).isFalse();
+        assertThat(outcomes.get(4).isSuccessful()).isTrue();
+    }
+
+    @Test
+    void constructor_ShouldValidateMaxConcurrentBuilds() {
+        assertThatThrownBy(() -> new ShardedBuildRunner(shard -> null, null, null, 0, executor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Maximum concurrent builds must be positive");
+    }
+}
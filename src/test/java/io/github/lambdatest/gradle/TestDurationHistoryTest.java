@@ -0,0 +1,83 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link TestDurationHistory} class. */
+class TestDurationHistoryTest {
+
+    @TempDir File tempDir;
+
+    @Test
+    void estimate_ShouldUseDefault_WithoutHistory() {
+        TestDurationHistory history = new TestDurationHistory(new File(tempDir, "durations.json"));
+
+        assertThat(history.estimateMillis("com.example.NewTest"))
+                .isEqualTo(TestDurationHistory.DEFAULT_ESTIMATE.toMillis());
+    }
+
+    @Test
+    void record_ShouldSplitRunningTimeAndPersist() {
+        // Given
+        File file = new File(tempDir, "durations.json");
+        TestDurationHistory history = new TestDurationHistory(file);
+
+        // When
+        history.record(
+                Arrays.asList("com.example.ATest", "com.example.BTest"), Duration.ofSeconds(40));
+        history.save();
+
+        // Then
+        TestDurationHistory reloaded = new TestDurationHistory(file);
+        assertThat(reloaded.size()).isEqualTo(2);
+        assertThat(reloaded.estimateMillis("com.example.ATest")).isEqualTo(20_000L);
+        assertThat(reloaded.estimateMillis("com.example.NewTest")).isEqualTo(20_000L);
+    }
+
+    @Test
+    void partition_ShouldBalanceRecordedDurations() {
+        // Given
+        TestDurationHistory history = new TestDurationHistory(new File(tempDir, "durations.json"));
+        history.record(Arrays.asList("com.example.SlowTest"), Duration.ofSeconds(60));
+        history.record(Arrays.asList("com.example.MediumTest"), Duration.ofSeconds(30));
+        history.record(Arrays.asList("com.example.FastTest"), Duration.ofSeconds(20));
+        history.record(Arrays.asList("com.example.QuickTest"), Duration.ofSeconds(10));
+
+        // When
+        List<List<String>> groups =
+                history.partition(
+                        Arrays.asList(
+                                "com.example.FastTest",
+                                "com.example.MediumTest",
+                                "com.example.QuickTest",
+                                "com.example.SlowTest"),
+                        2);
+
+        // Then - 60s in one group, 30s + 20s + 10s in the other
+        assertThat(groups).hasSize(2);
+        assertThat(groups.get(0)).containsExactly("com.example.SlowTest");
+        assertThat(groups.get(1))
+                .containsExactly(
+                        "com.example.FastTest", "com.example.MediumTest", "com.example.QuickTest");
+    }
+
+    @Test
+    void load_ShouldIgnoreCorruptFile() throws Exception {
+        // Given
+        File file = new File(tempDir, "durations.json");
+        Files.writeString(file.toPath(), "{not json");
+
+        // When
+        TestDurationHistory history = new TestDurationHistory(file);
+
+        // Then
+        assertThat(history.size()).isZero();
+    }
+}
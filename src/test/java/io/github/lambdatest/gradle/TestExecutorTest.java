@@ -103,4 +103,41 @@ class TestExecutorTest {
         assertThat(executor).isNotNull();
         // We don't call executeTests() here to avoid making real network calls
     }
+
+    @Test
+    void namesId_ShouldMatchQuotedIdOrFieldName() {
+        // When/Then
+        assertThat(TestExecutor.namesId("{\"error\":\"Invalid app ID\"}", TEST_APP_ID, "appid"))
+                .isTrue();
+        assertThat(
+                        TestExecutor.namesId(
+                                "{\"error\":\"" + TEST_APP_ID + " not found\"}",
+                                TEST_APP_ID,
+                                "appid"))
+                .isTrue();
+        assertThat(
+                        TestExecutor.namesId(
+                                "{\"testSuite\":\"not found\"}",
+                                TEST_TEST_SUITE_ID,
+                                "testsuiteid",
+                                "testsuite"))
+                .isTrue();
+    }
+
+    @Test
+    void namesId_ShouldNotMatchRejectionAboutOtherFields() {
+        // When/Then
+        assertThat(
+                        TestExecutor.namesId(
+                                "{\"error\":\"Invalid device Pixel 99\"}", TEST_APP_ID, "appid"))
+                .isFalse();
+        assertThat(
+                        TestExecutor.namesId(
+                                "{\"error\":\"Invalid app ID\"}",
+                                TEST_TEST_SUITE_ID,
+                                "testsuiteid",
+                                "testsuite"))
+                .isFalse();
+        assertThat(TestExecutor.namesId(null, TEST_APP_ID, "appid")).isFalse();
+    }
 }
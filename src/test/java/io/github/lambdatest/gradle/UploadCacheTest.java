@@ -0,0 +1,190 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link UploadCache} class. */
+class UploadCacheTest {
+
+    private static final String TEST_USERNAME = "testuser";
+    private static final String TEST_ENDPOINT =
+            "https://manual-api.lambdatest.com/app/uploadFramework";
+
+    @TempDir File tempDir;
+
+    private UploadCache newCache(int maxEntries) {
+        return new UploadCache(
+                new File(tempDir, "upload-cache.json"), Duration.ofDays(1), maxEntries);
+    }
+
+    @Test
+    void lookup_ShouldReturnStoredId_AcrossInstances() {
+        // Given
+        newCache(10).put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 42L, "lt://APP1");
+
+        // When
+        UploadCache reloaded = newCache(10);
+
+        // Then
+        assertThat(reloaded.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isEqualTo("lt://APP1");
+        assertThat(reloaded.lookup("otheruser", TEST_ENDPOINT, "digest1")).isNull();
+        assertThat(reloaded.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest2")).isNull();
+    }
+
+    @Test
+    void lookup_ShouldScopeIdsToEndpoint() {
+        // Given
+        UploadCache cache = newCache(10);
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 42L, "lt://APP1");
+
+        // When/Then
+        assertThat(cache.lookup(TEST_USERNAME, "http://localhost:8080/upload", "digest1")).isNull();
+        assertThat(cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isEqualTo("lt://APP1");
+    }
+
+    @Test
+    void lookup_ShouldNotRewriteFileForRecentlyUsedEntry() throws Exception {
+        // Given
+        UploadCache cache = newCache(10);
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 42L, "lt://APP1");
+        Files.delete(new File(tempDir, "upload-cache.json").toPath());
+
+        // When
+        String id = cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1");
+
+        // Then
+        assertThat(id).isEqualTo("lt://APP1");
+        assertThat(new File(tempDir, "upload-cache.json")).doesNotExist();
+    }
+
+    @Test
+    void put_ShouldKeepEntriesOfConcurrentInstances() {
+        // Given
+        UploadCache first = newCache(10);
+        UploadCache second = newCache(10);
+
+        // When
+        first.put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 1L, "lt://APP1");
+        second.put(TEST_USERNAME, TEST_ENDPOINT, "digest2", 1L, "lt://APP2");
+
+        // Then
+        UploadCache reloaded = newCache(10);
+        assertThat(reloaded.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isEqualTo("lt://APP1");
+        assertThat(reloaded.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest2")).isEqualTo("lt://APP2");
+        assertThat(second.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isEqualTo("lt://APP1");
+    }
+
+    @Test
+    void put_ShouldNotRestoreEntryInvalidatedByOtherInstance() {
+        // Given
+        newCache(10).put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 1L, "lt://APP1");
+        UploadCache first = newCache(10);
+        UploadCache second = newCache(10);
+        first.invalidate("lt://APP1");
+
+        // When
+        second.put(TEST_USERNAME, TEST_ENDPOINT, "digest2", 1L, "lt://APP2");
+
+        // Then
+        UploadCache reloaded = newCache(10);
+        assertThat(reloaded.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isNull();
+        assertThat(reloaded.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest2")).isEqualTo("lt://APP2");
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsed_WhenFull() throws InterruptedException {
+        // Given
+        UploadCache cache = newCache(2);
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 1L, "lt://APP1");
+        Thread.sleep(5);
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest2", 1L, "lt://APP2");
+        Thread.sleep(5);
+        cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1");
+        Thread.sleep(5);
+
+        // When
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest3", 1L, "lt://APP3");
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isEqualTo("lt://APP1");
+        assertThat(cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest2")).isNull();
+        assertThat(cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest3")).isEqualTo("lt://APP3");
+    }
+
+    @Test
+    void lookup_ShouldIgnoreExpiredEntries() throws InterruptedException {
+        // Given
+        UploadCache cache =
+                new UploadCache(new File(tempDir, "upload-cache.json"), Duration.ofMillis(1), 10);
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 1L, "lt://APP1");
+        Thread.sleep(10);
+
+        // When/Then
+        assertThat(cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidate_ShouldRemoveEntriesForRejectedId() {
+        // Given
+        UploadCache cache = newCache(10);
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 1L, "lt://APP1");
+
+        // When
+        boolean removed = cache.invalidate("lt://APP1");
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(newCache(10).lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1")).isNull();
+        assertThat(cache.invalidate("lt://UNKNOWN")).isFalse();
+    }
+
+    @Test
+    void isServed_ShouldOnlyReportIdsReturnedByLookup() {
+        // Given
+        UploadCache cache = newCache(10);
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest1", 1L, "lt://APP1");
+        cache.put(TEST_USERNAME, TEST_ENDPOINT, "digest2", 1L, "lt://APP2");
+
+        // When
+        cache.lookup(TEST_USERNAME, TEST_ENDPOINT, "digest1");
+
+        // Then
+        assertThat(cache.isServed("lt://APP1")).isTrue();
+        assertThat(cache.isServed("lt://APP2")).isFalse();
+        assertThat(cache.isServed(null)).isFalse();
+    }
+
+    @Test
+    void constructor_ShouldIgnoreCorruptCacheFile() throws Exception {
+        // Given
+        Files.writeString(new File(tempDir, "upload-cache.json").toPath(), "{not json");
+
+        // When/Then
+        assertThat(newCache(10).size()).isZero();
+    }
+
+    @Test
+    void constructor_ShouldValidateSettings() {
+        File cacheFile = new File(tempDir, "upload-cache.json");
+
+        assertThatThrownBy(() -> new UploadCache(null, Duration.ofDays(1), 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cache file cannot be null");
+
+        assertThatThrownBy(() -> new UploadCache(cacheFile, Duration.ZERO, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cache TTL must be positive");
+
+        assertThatThrownBy(() -> new UploadCache(cacheFile, Duration.ofDays(1), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cache size must be positive");
+    }
+}
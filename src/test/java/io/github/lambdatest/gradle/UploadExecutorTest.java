@@ -0,0 +1,79 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link UploadExecutor} class. */
+class UploadExecutorTest {
+
+    @Test
+    void execute_ShouldBoundConcurrency_WithPlatformThreads() {
+        try (UploadExecutor executor = new UploadExecutor(2, false)) {
+            assertThat(executor.usesVirtualThreads()).isFalse();
+            assertThat(runConcurrently(executor, 8)).isLessThanOrEqualTo(2);
+        }
+    }
+
+    @Test
+    void execute_ShouldBoundConcurrency_WithPreferredThreads() {
+        try (UploadExecutor executor = new UploadExecutor(3)) {
+            assertThat(runConcurrently(executor, 12)).isLessThanOrEqualTo(3);
+        }
+    }
+
+    @Test
+    void execute_ShouldNotUseCommonPoolThreads() throws Exception {
+        try (UploadExecutor executor = new UploadExecutor(1, false)) {
+            String threadName =
+                    CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor)
+                            .get();
+            assertThat(threadName).startsWith("lambdatest-upload-");
+        }
+    }
+
+    @Test
+    void execute_ShouldRejectTasks_WhenClosed() {
+        UploadExecutor executor = new UploadExecutor(1);
+        executor.close();
+
+        assertThatThrownBy(() -> executor.execute(() -> {}))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void constructor_ShouldValidateMaxConcurrentUploads() {
+        assertThatThrownBy(() -> new UploadExecutor(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Maximum concurrent uploads must be positive");
+    }
+
+    private static int runConcurrently(UploadExecutor executor, int tasks) {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            futures.add(
+                    CompletableFuture.runAsync(
+                            () -> {
+                                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                                try {
+                                    Thread.sleep(20);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                } finally {
+                                    running.decrementAndGet();
+                                }
+                            },
+                            executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return maxRunning.get();
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link UploadIds} class. */
+class UploadIdsTest {
+
+    @TempDir File tempDir;
+
+    @Test
+    void write_ShouldRoundTripIds() throws IOException {
+        // Given
+        File file = new File(tempDir, "nested/upload-ids.json");
+
+        // When
+        new UploadIds("lt://APP123", "lt://TEST123").write(file);
+        UploadIds ids = UploadIds.read(file);
+
+        // Then
+        assertThat(ids.getAppId()).isEqualTo("lt://APP123");
+        assertThat(ids.getTestSuiteId()).isEqualTo("lt://TEST123");
+    }
+
+    @Test
+    void read_ShouldRejectMalformedFile() throws IOException {
+        // Given
+        File file = new File(tempDir, "upload-ids.json");
+        Files.writeString(file.toPath(), "{not json");
+
+        // When/Then
+        assertThatThrownBy(() -> UploadIds.read(file)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link UploadJournal} class. */
+class UploadJournalTest {
+
+    private static final long FILE_SIZE = 1000L;
+    private static final long CHUNK_SIZE = 100L;
+
+    @TempDir File tempDir;
+
+    @Test
+    void load_ShouldRestoreAcknowledgedChunks() throws IOException {
+        // Given
+        File journalFile = new File(tempDir, "journal.json");
+        UploadJournal journal = UploadJournal.load(journalFile, "digest", FILE_SIZE, CHUNK_SIZE);
+        journal.start("UPLOAD1");
+        journal.acknowledge(0);
+        journal.acknowledge(3);
+
+        // When
+        UploadJournal reloaded = UploadJournal.load(journalFile, "digest", FILE_SIZE, CHUNK_SIZE);
+
+        // Then
+        assertThat(reloaded.getUploadId()).isEqualTo("UPLOAD1");
+        assertThat(reloaded.isAcknowledged(0)).isTrue();
+        assertThat(reloaded.isAcknowledged(3)).isTrue();
+        assertThat(reloaded.isAcknowledged(1)).isFalse();
+    }
+
+    @Test
+    void load_ShouldStartFresh_WhenFileOrChunkSizeChanged() throws IOException {
+        // Given
+        File journalFile = new File(tempDir, "journal.json");
+        UploadJournal journal = UploadJournal.load(journalFile, "digest", FILE_SIZE, CHUNK_SIZE);
+        journal.start("UPLOAD1");
+        journal.acknowledge(0);
+
+        // When/Then
+        assertThat(UploadJournal.load(journalFile, "other", FILE_SIZE, CHUNK_SIZE).getUploadId())
+                .isNull();
+        assertThat(UploadJournal.load(journalFile, "digest", FILE_SIZE, 200L).getUploadId())
+                .isNull();
+    }
+
+    @Test
+    void reset_ShouldDeleteJournal() throws IOException {
+        // Given
+        File journalFile = new File(tempDir, "journal.json");
+        UploadJournal journal = UploadJournal.load(journalFile, "digest", FILE_SIZE, CHUNK_SIZE);
+        journal.start("UPLOAD1");
+
+        // When
+        journal.reset();
+
+        // Then
+        assertThat(journalFile).doesNotExist();
+        assertThat(journal.getUploadId()).isNull();
+    }
+}
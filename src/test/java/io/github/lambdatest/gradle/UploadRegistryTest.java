@@ -0,0 +1,148 @@
+package io.github.lambdatest.gradle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link UploadRegistry} class. */
+class UploadRegistryTest {
+
+    private static final String KEY = UploadRegistry.key("user", "https://upload", "abc123");
+
+    private final UploadRegistry registry = new UploadRegistry();
+
+    @TempDir File tempDir;
+
+    @Test
+    void upload_ShouldAttachConcurrentRequestToUploadInFlight() throws Exception {
+        // Given
+        AtomicInteger uploads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        CompletableFuture<String> first =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return registry.upload(
+                                        KEY,
+                                        "suite.apk",
+                                        () -> {
+                                            uploads.incrementAndGet();
+                                            started.countDown();
+                                            release.join();
+                                            return "lt://APP1";
+                                        });
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<String> second =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return registry.upload(
+                                        KEY,
+                                        "suite.apk",
+                                        () -> {
+                                            uploads.incrementAndGet();
+                                            return "lt://APP2";
+                                        });
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+        release.complete(null);
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("lt://APP1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("lt://APP1");
+        assertThat(uploads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void upload_ShouldReuseCompletedUpload() throws Exception {
+        // Given
+        registry.upload(KEY, "suite.apk", () -> "lt://APP1");
+
+        // When
+        String id = registry.upload(KEY, "suite.apk", () -> "lt://APP2");
+
+        // Then
+        assertThat(id).isEqualTo("lt://APP1");
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void upload_ShouldForgetFailedUpload() throws Exception {
+        // Given
+        assertThatThrownBy(
+                        () ->
+                                registry.upload(
+                                        KEY,
+                                        "suite.apk",
+                                        () -> {
+                                            throw new IOException("Unexpected code 500");
+                                        }))
+                .isInstanceOf(IOException.class);
+
+        // When
+        String id = registry.upload(KEY, "suite.apk", () -> "lt://APP2");
+
+        // Then
+        assertThat(id).isEqualTo("lt://APP2");
+    }
+
+    @Test
+    void upload_ShouldKeepAccountsApart() throws Exception {
+        // Given
+        registry.upload(KEY, "suite.apk", () -> "lt://APP1");
+
+        // When
+        String id =
+                registry.upload(
+                        UploadRegistry.key("other", "https://upload", "abc123"),
+                        "suite.apk",
+                        () -> "lt://APP2");
+
+        // Then
+        assertThat(id).isEqualTo("lt://APP2");
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void identity_ShouldMatchSameFileThroughOtherPath() throws IOException {
+        // Given
+        File apk = new File(tempDir, "app.apk");
+        Files.write(apk.toPath(), new byte[] {1, 2, 3});
+        File otherPath = new File(new File(tempDir, "outputs"), "../app.apk");
+
+        // When / Then
+        assertThat(UploadRegistry.identity(otherPath)).isEqualTo(UploadRegistry.identity(apk));
+    }
+
+    @Test
+    void identity_ShouldChangeWhenFileIsRebuilt() throws IOException {
+        // Given
+        File apk = new File(tempDir, "app.apk");
+        Files.write(apk.toPath(), new byte[] {1, 2, 3});
+        String before = UploadRegistry.identity(apk);
+
+        // When
+        Files.write(apk.toPath(), new byte[] {1, 2, 3, 4});
+
+        // Then
+        assertThat(UploadRegistry.identity(apk)).isNotEqualTo(before);
+    }
+}
@@ -1,7 +1,9 @@
 package io.github.lambdatest.gradle;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import okhttp3.OkHttpClient;
 import org.junit.jupiter.api.Test;
 
 /** Minimal unit tests for {@link UploaderUtil} class. */
@@ -19,4 +21,35 @@ class UploaderUtilTest {
                         })
                 .hasCauseInstanceOf(UnsupportedOperationException.class);
     }
+
+    @Test
+    void forUpload_ShouldLiftReadTimeoutAndBoundWrites() {
+        // Given
+        OkHttpClient shared =
+                LambdaTestHttpService.createClient(
+                        5,
+                        300,
+                        60,
+                        LambdaTestHttpService.DEFAULT_READ_TIMEOUT_SECONDS,
+                        LambdaTestHttpService.DEFAULT_WRITE_TIMEOUT_SECONDS,
+                        null);
+
+        // When
+        OkHttpClient upload = UploaderUtil.forUpload(shared, 30);
+
+        // Then
+        assertThat(shared.readTimeoutMillis()).isEqualTo(60_000);
+        assertThat(upload.readTimeoutMillis()).isZero();
+        assertThat(upload.writeTimeoutMillis()).isEqualTo(30_000);
+        assertThat(upload.connectionPool()).isSameAs(shared.connectionPool());
+    }
+
+    @Test
+    void forUpload_ShouldReturnClient_WhenAlreadySuitable() {
+        // Given
+        OkHttpClient client = LambdaTestHttpService.createClient(5, 300, 60, 0, 10, null);
+
+        // When / Then
+        assertThat(UploaderUtil.forUpload(client, 30)).isSameAs(client);
+    }
 }
@@ -0,0 +1,139 @@
+package io.github.lambdatest.gradle.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.lambdatest.gradle.BuildStatusWatcher;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BuildStatusIntegrationTest {
+    private MockLambdaTestServer mockServer;
+    private ScheduledExecutorService scheduler;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockServer = new MockLambdaTestServer();
+        mockServer.start();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        client = new OkHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        scheduler.shutdownNow();
+        mockServer.stop();
+    }
+
+    @Test
+    void testPollingFollowsBuildToCompletion() throws Exception {
+        // Arrange
+        mockServer.enableBuildStatus(
+                Arrays.asList("queued", "running", "running", "completed"), null);
+
+        // Act
+        BuildStatusWatcher.Result result =
+                watcher(false).watch("BUILD123", null).get(5, TimeUnit.SECONDS);
+
+        // Assert - No request is sent after the terminal status
+        assertTrue(result.isPassed());
+        assertEquals("completed", result.getRawStatus());
+        assertEquals(4, mockServer.getStatusRequestCount());
+    }
+
+    @Test
+    void testFailedBuildIsReported() throws Exception {
+        // Arrange
+        mockServer.enableBuildStatus(Arrays.asList("running", "failed"), null);
+
+        // Act
+        BuildStatusWatcher.Result result =
+                watcher(false).watch("BUILD123", null).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(result.isPassed());
+        assertEquals(BuildStatusWatcher.Status.FAILED, result.getStatus());
+    }
+
+    @Test
+    void testOneSchedulerThreadWatchesManyBuilds() throws Exception {
+        // Arrange
+        mockServer.enableBuildStatus(List.of("queued", "running", "completed"), null);
+        BuildStatusWatcher watcher = watcher(false);
+
+        // Act
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[20];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = watcher.watch("BUILD" + i, null);
+        }
+
+        // Assert
+        CompletableFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<?> future : futures) {
+            assertTrue(((BuildStatusWatcher.Result) future.get()).isPassed());
+        }
+    }
+
+    @Test
+    void testPushChannelDeliversFinalStatus() throws Exception {
+        // Arrange
+        mockServer.enableBuildStatus(List.of("running"), List.of("running", "completed"));
+
+        // Act
+        BuildStatusWatcher.Result result =
+                watcher(true).watch("BUILD123", null).get(5, TimeUnit.SECONDS);
+
+        // Assert - The result arrived without polling
+        assertTrue(result.isPassed());
+        assertEquals(0, mockServer.getStatusRequestCount());
+    }
+
+    @Test
+    void testPushFallsBackToPolling() throws Exception {
+        // Arrange - The stream endpoint answers 404
+        mockServer.enableBuildStatus(List.of("running", "completed"), null);
+
+        // Act
+        BuildStatusWatcher.Result result =
+                watcher(true).watch("BUILD123", null).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(result.isPassed());
+        assertEquals(2, mockServer.getStatusRequestCount());
+    }
+
+    @Test
+    void testWatchTimesOut() {
+        // Arrange
+        mockServer.enableBuildStatus(List.of("running"), null);
+
+        // Act
+        CompletableFuture<BuildStatusWatcher.Result> future =
+                watcher(false).watch("BUILD123", Duration.ofMillis(200));
+
+        // Assert
+        ExecutionException e =
+                assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+    }
+
+    private BuildStatusWatcher watcher(boolean push) {
+        return BuildStatusWatcher.builder(client, scheduler, "testuser", "testkey")
+                .push(push)
+                .queuedInterval(Duration.ofMillis(10))
+                .maxInterval(Duration.ofMillis(40))
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package io.github.lambdatest.gradle.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+
+import io.github.lambdatest.gradle.ChunkedUploader;
+import io.github.lambdatest.gradle.FileDigest;
+import io.github.lambdatest.gradle.RetryPolicy;
+import io.github.lambdatest.gradle.UploadCache;
+import io.github.lambdatest.gradle.UploadExecutor;
+import io.github.lambdatest.gradle.UploadOptions;
+import io.github.lambdatest.gradle.UploaderUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+class ChunkedUploadIntegrationTest {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final String APP_ID = "lt://CHUNKED123456789";
+
+    private MockLambdaTestServer mockServer;
+    private File apk;
+    private byte[] content;
+    private RetryPolicy retryPolicy;
+    private UploadOptions options;
+
+    @TempDir File tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockServer = new MockLambdaTestServer();
+        mockServer.start();
+        mockServer.enableChunkedUploads(APP_ID);
+
+        content = new byte[CHUNK_SIZE * 10 + 123];
+        new Random(7).nextBytes(content);
+        apk = new File(tempDir, "large-app.apk");
+        Files.write(apk.toPath(), content);
+
+        retryPolicy = RetryPolicy.builder().initialBackoff(Duration.ZERO).build();
+        options =
+                UploadOptions.builder()
+                        .chunkedUpload(true)
+                        .chunkSize(CHUNK_SIZE)
+                        .chunkParallelism(4)
+                        .chunkJournalDir(new File(tempDir, "journal"))
+                        .retryPolicy(retryPolicy)
+                        .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockServer.stop();
+    }
+
+    @Test
+    void testChunkedUploadReassemblesFile() throws Exception {
+        // Arrange
+        AtomicLong lastReported = new AtomicLong();
+        ChunkedUploader uploader =
+                new ChunkedUploader(
+                        "testuser",
+                        "testkey",
+                        apk,
+                        options,
+                        (bytesWritten, totalBytes, percentage) ->
+                                lastReported.accumulateAndGet(bytesWritten, Math::max));
+
+        // Act
+        String appId = uploader.upload();
+
+        // Assert
+        assertEquals(APP_ID, appId);
+        assertArrayEquals(content, mockServer.getCompletedUpload());
+        assertEquals(11, mockServer.getChunkRequestCount());
+        assertEquals(content.length, lastReported.get());
+    }
+
+    @Test
+    void testChunkedUploadRetriesTransientChunkFailure() throws Exception {
+        // Arrange
+        mockServer.failChunk(3, 1);
+
+        // Act
+        String appId = new ChunkedUploader("testuser", "testkey", apk, options, null).upload();
+
+        // Assert
+        assertEquals(APP_ID, appId);
+        assertArrayEquals(content, mockServer.getCompletedUpload());
+        assertEquals(12, mockServer.getChunkRequestCount());
+    }
+
+    @Test
+    void testChunkedUploadResumesMissingChunksOnly() throws Exception {
+        // Arrange - chunk 5 keeps failing during the first run
+        mockServer.failChunk(5, retryPolicy.getMaxAttempts());
+        ChunkedUploader uploader = new ChunkedUploader("testuser", "testkey", apk, options, null);
+        assertThrows(IOException.class, uploader::upload);
+        int firstRunRequests = mockServer.getChunkRequestCount();
+
+        // Act
+        String appId = uploader.upload();
+
+        // Assert - only the failed chunk is sent again
+        assertEquals(APP_ID, appId);
+        assertArrayEquals(content, mockServer.getCompletedUpload());
+        assertEquals(1, mockServer.getChunkRequestCount() - firstRunRequests);
+    }
+
+    @Test
+    void testChunkedUploadRestartsWhenServerForgotUpload() throws Exception {
+        // Arrange
+        mockServer.failChunk(5, retryPolicy.getMaxAttempts());
+        ChunkedUploader uploader = new ChunkedUploader("testuser", "testkey", apk, options, null);
+        assertThrows(IOException.class, uploader::upload);
+        mockServer.forgetChunkedUploads();
+
+        // Act
+        String appId = uploader.upload();
+
+        // Assert
+        assertEquals(APP_ID, appId);
+        assertArrayEquals(content, mockServer.getCompletedUpload());
+    }
+
+    @Test
+    void testCachedChunkedUploadDigestsFileOnce() throws Exception {
+        // Arrange
+        UploadCache cache =
+                new UploadCache(new File(tempDir, "cache.json"), Duration.ofDays(1), 10);
+        UploadOptions cachedOptions =
+                UploadOptions.builder()
+                        .chunkedUpload(true)
+                        .chunkSize(CHUNK_SIZE)
+                        .chunkParallelism(4)
+                        .chunkJournalDir(new File(tempDir, "journal"))
+                        .uploadCache(cache)
+                        .build();
+
+        try (MockedStatic<FileDigest> digests = mockStatic(FileDigest.class, CALLS_REAL_METHODS)) {
+            // Act
+            String appId =
+                    UploaderUtil.uploadAndGetId(
+                            "testuser", "testkey", apk.getAbsolutePath(), "App", cachedOptions);
+
+            // Assert - the digest looked up in the cache also drives the chunked upload
+            assertEquals(APP_ID, appId);
+            assertArrayEquals(content, mockServer.getCompletedUpload());
+            digests.verify(() -> FileDigest.digest(any(File.class)), times(1));
+        }
+    }
+
+    @Test
+    void testChunkedUploadCompletesWhenUploadExecutorIsFull() throws Exception {
+        // Arrange - the upload itself takes the only slot of the executor
+        try (UploadExecutor executor = new UploadExecutor(1)) {
+            UploadOptions boundedOptions =
+                    UploadOptions.builder()
+                            .chunkedUpload(true)
+                            .chunkSize(CHUNK_SIZE)
+                            .chunkParallelism(4)
+                            .chunkJournalDir(new File(tempDir, "journal"))
+                            .retryPolicy(retryPolicy)
+                            .executor(executor)
+                            .build();
+            ChunkedUploader uploader =
+                    new ChunkedUploader("testuser", "testkey", apk, boundedOptions, null);
+
+            // Act
+            CompletableFuture<String> upload =
+                    CompletableFuture.supplyAsync(
+                            () -> {
+                                try {
+                                    return uploader.upload();
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            },
+                            executor);
+
+            // Assert
+            assertEquals(APP_ID, upload.get(30, TimeUnit.SECONDS));
+            assertArrayEquals(content, mockServer.getCompletedUpload());
+        }
+    }
+}
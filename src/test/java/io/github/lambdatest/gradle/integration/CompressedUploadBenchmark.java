@@ -0,0 +1,135 @@
+package io.github.lambdatest.gradle.integration;
+
+import io.github.lambdatest.gradle.AppUploader;
+import io.github.lambdatest.gradle.GzipRequestBody;
+import io.github.lambdatest.gradle.UploadOptions;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Measures what compressing uploads with {@link GzipRequestBody} gains, against {@link
+ * MockLambdaTestServer} decoding and verifying every upload. Run it with {@code ./gradlew
+ * compressedUploadBenchmark}; the optional arguments are the path of an APK to upload, by default
+ * a generated file of 32 MiB, and the number of measured rounds.
+ *
+ * <p>For each level it prints the compression ratio, how fast the APK is compressed, the time of
+ * an upload over the loopback interface and, as the loopback interface is never the bottleneck,
+ * the estimated upload time on slower links. Compression runs while the body is sent, so a
+ * compressed upload takes as long as the slower of compressing the APK and sending the compressed
+ * bytes: it only pays off on links slower than the compression.
+ */
+public final class CompressedUploadBenchmark {
+
+    private static final int[] LEVELS = {0, 1, 6, 9};
+    private static final int[] LINK_MBIT_PER_SECOND = {20, 100, 1000};
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private CompressedUploadBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        File apk = args.length > 0 ? new File(args[0]) : generatedApk(32);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        byte[] content = Files.readAllBytes(apk.toPath());
+
+        System.out.printf(
+                "%-6s %7s %11s %12s", "level", "ratio", "gzip MiB/s", "loopback ms");
+        for (int link : LINK_MBIT_PER_SECOND) {
+            System.out.printf(" %14s", link + " Mbit/s ms");
+        }
+        System.out.println();
+
+        MockLambdaTestServer server = new MockLambdaTestServer();
+        server.start();
+        server.enableDecodedUploads("lt://APP123456789");
+        try {
+            for (int level : LEVELS) {
+                run(server, apk, content, level, rounds);
+            }
+        } finally {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(
+            MockLambdaTestServer server, File apk, byte[] content, int level, int rounds)
+            throws Exception {
+        UploadOptions.Builder options = UploadOptions.builder();
+        if (level > 0) {
+            options.compressedUpload(true).compressionLevel(level);
+        }
+        AppUploader uploader =
+                new AppUploader("benchmark", "benchmark", apk.getAbsolutePath(), options.build());
+
+        // Warm up the connection and the JIT before measuring
+        uploader.uploadAppAsync().join();
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            uploader.uploadAppAsync().join();
+        }
+        double uploadSeconds = (System.nanoTime() - start) / 1e9 / rounds;
+        if (!Arrays.equals(content, server.getDecodedUpload())) {
+            throw new IllegalStateException("The server received different content");
+        }
+        long sent = server.getEncodedUploadSize();
+
+        // Compression speed alone, without any network
+        double compressSeconds = 0;
+        if (level > 0) {
+            compress(apk, level);
+            start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                compress(apk, level);
+            }
+            compressSeconds = (System.nanoTime() - start) / 1e9 / rounds;
+        }
+
+        System.out.printf(
+                "%-6s %7.3f %11s %12.0f",
+                level > 0 ? Integer.toString(level) : "none",
+                sent / (double) content.length,
+                level > 0 ? String.format("%.1f", content.length / compressSeconds / 1048576) : "-",
+                uploadSeconds * 1000);
+        for (int link : LINK_MBIT_PER_SECOND) {
+            double sendSeconds = sent * 8.0 / (link * 1_000_000.0);
+            System.out.printf(" %14.0f", Math.max(sendSeconds, compressSeconds) * 1000);
+        }
+        System.out.println();
+    }
+
+    private static void compress(File apk, int level) throws Exception {
+        GzipRequestBody body = new GzipRequestBody(RequestBody.create(apk, OCTET_STREAM), level);
+        try (BufferedSink sink = Okio.buffer(Okio.blackhole())) {
+            body.writeTo(sink);
+        }
+    }
+
+    /**
+     * Generates an APK-like file in which a quarter of the content is random, like compressed DEX
+     * files and images, and the rest is repetitive, like stored native libraries.
+     */
+    private static File generatedApk(int sizeMb) throws Exception {
+        File apk = File.createTempFile("benchmark", ".apk");
+        apk.deleteOnExit();
+        byte[] content = new byte[sizeMb * 1024 * 1024];
+        Random random = new Random(42);
+        byte[] block = new byte[4096];
+        for (int offset = 0; offset < content.length; offset += block.length) {
+            if ((offset / block.length) % 4 == 0) {
+                random.nextBytes(block);
+            } else {
+                Arrays.fill(block, (byte) (offset >> 12));
+                block[random.nextInt(block.length)] = (byte) random.nextInt();
+            }
+            System.arraycopy(block, 0, content, offset, block.length);
+        }
+        Files.write(apk.toPath(), content);
+        return apk;
+    }
+}
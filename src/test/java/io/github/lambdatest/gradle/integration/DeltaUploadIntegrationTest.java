@@ -0,0 +1,149 @@
+package io.github.lambdatest.gradle.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.lambdatest.gradle.UploadOptions;
+import io.github.lambdatest.gradle.UploaderUtil;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DeltaUploadIntegrationTest {
+
+    private MockLambdaTestServer mockServer;
+    private UploadOptions options;
+    private File apk;
+
+    @TempDir File tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockServer = new MockLambdaTestServer();
+        mockServer.start();
+        mockServer.enableDeltaUploads();
+
+        options =
+                UploadOptions.builder()
+                        .deltaUpload(true)
+                        .deltaBaseDir(new File(tempDir, "delta-bases"))
+                        .build();
+        apk = new File(tempDir, "app-debug.apk");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockServer.stop();
+    }
+
+    @Test
+    void testSecondUploadSendsOnlyChangedEntries() throws Exception {
+        // Arrange
+        byte[] first = writeApk(1);
+        String firstId = upload();
+        byte[] second = writeApk(2);
+
+        // Act
+        String secondId = upload();
+
+        // Assert
+        assertNotEquals(firstId, secondId);
+        assertArrayEquals(first, mockServer.getStoredUpload(firstId));
+        assertArrayEquals(second, mockServer.getStoredUpload(secondId));
+        assertEquals(1, mockServer.getDeltaUploadCount());
+        assertTrue(
+                mockServer.getDeltaDataSize() < second.length / 4,
+                "Delta sent " + mockServer.getDeltaDataSize() + " of " + second.length + " bytes");
+    }
+
+    @Test
+    void testRejectedBaseFallsBackToFullUpload() throws Exception {
+        // Arrange
+        writeApk(1);
+        upload();
+        mockServer.forgetStoredUploads();
+        byte[] second = writeApk(2);
+
+        // Act
+        String secondId = upload();
+
+        // Assert
+        assertArrayEquals(second, mockServer.getStoredUpload(secondId));
+        assertEquals(0, mockServer.getDeltaUploadCount());
+
+        // The full upload becomes the base of the next delta
+        byte[] third = writeApk(3);
+        String thirdId = upload();
+        assertArrayEquals(third, mockServer.getStoredUpload(thirdId));
+        assertEquals(1, mockServer.getDeltaUploadCount());
+    }
+
+    @Test
+    void testMostlyChangedApkIsUploadedInFull() throws Exception {
+        // Arrange
+        writeApk(1);
+        upload();
+        byte[] rebuilt = writeApk(2, 2);
+
+        // Act
+        String id = upload();
+
+        // Assert
+        assertArrayEquals(rebuilt, mockServer.getStoredUpload(id));
+        assertEquals(0, mockServer.getDeltaUploadCount());
+    }
+
+    private String upload() throws IOException {
+        return UploaderUtil.uploadAndGetId(
+                "testuser", "testkey", apk.getAbsolutePath(), "App", options);
+    }
+
+    private byte[] writeApk(int dexVersion) throws IOException {
+        return writeApk(dexVersion, 1);
+    }
+
+    /**
+     * Writes an APK whose DEX file depends on the DEX version and whose stored native library and
+     * deflated resources depend on the resource version.
+     */
+    private byte[] writeApk(int dexVersion, int resourceVersion) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(apk))) {
+            zip.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+            zip.write(random(2_000, 1));
+            zip.putNextEntry(new ZipEntry("classes.dex"));
+            zip.write(random(20_000, 100 + dexVersion));
+            zip.putNextEntry(stored("lib/arm64-v8a/libapp.so", random(300_000, resourceVersion)));
+            zip.write(random(300_000, resourceVersion));
+            for (int i = 0; i < 20; i++) {
+                zip.putNextEntry(new ZipEntry("res/drawable/image" + i + ".png"));
+                zip.write(random(5_000, 1000 * resourceVersion + i));
+            }
+        }
+        return Files.readAllBytes(apk.toPath());
+    }
+
+    private static ZipEntry stored(String name, byte[] content) {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        return entry;
+    }
+
+    private static byte[] random(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
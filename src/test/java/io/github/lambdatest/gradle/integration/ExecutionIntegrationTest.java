@@ -2,19 +2,30 @@ package io.github.lambdatest.gradle.integration;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.github.lambdatest.gradle.ExecutionOptions;
+import io.github.lambdatest.gradle.LambdaTestTask;
 import io.github.lambdatest.gradle.TestExecutor;
+import io.github.lambdatest.gradle.UploadCache;
+import io.github.lambdatest.gradle.UploadIds;
+import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import okhttp3.mockwebserver.RecordedRequest;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ExecutionIntegrationTest {
     private MockLambdaTestServer mockServer;
 
+    @TempDir File tempDir;
+
     @BeforeEach
     void setUp() throws IOException {
         mockServer = new MockLambdaTestServer();
@@ -80,6 +91,27 @@ class ExecutionIntegrationTest {
         assertTrue(request.getPath().contains("flutter/build"));
     }
 
+    @Test
+    void testExecutionReturnsBuildId() throws Exception {
+        // Arrange
+        mockServer.enqueueBuildResponse("BUILD123456789");
+
+        TestExecutor executor =
+                new TestExecutor(
+                        "testuser",
+                        "testkey",
+                        "lt://APP123",
+                        "lt://TEST123",
+                        Arrays.asList("Pixel 3-9"),
+                        false);
+
+        // Act
+        String buildId = executor.submitBuild(new HashMap<>());
+
+        // Assert
+        assertEquals("BUILD123456789", buildId);
+    }
+
     @Test
     void testExecutionWithInvalidCredentials() throws Exception {
         // Arrange
@@ -95,11 +127,109 @@ class ExecutionIntegrationTest {
                         false);
 
         // Act
-        executor.executeTests(new HashMap<>());
+        RuntimeException e =
+                assertThrows(RuntimeException.class, () -> executor.executeTests(new HashMap<>()));
 
-        // Assert - Verify request was made even with invalid credentials
+        // Assert - The rejected build fails instead of being logged only
+        assertTrue(e.getMessage().contains("401"));
         RecordedRequest request = mockServer.takeRequest();
         assertEquals("POST", request.getMethod());
         assertTrue(request.getPath().contains("espresso/build"));
     }
+
+    @Test
+    void testRunTaskUsesIdsOfSeparateUploadTasks() throws Exception {
+        // Arrange
+        mockServer.enqueueBuildResponse("BUILD123456789");
+        File appIds = new File(tempDir, "app-ids.json");
+        File testSuiteIds = new File(tempDir, "test-suite-ids.json");
+        new UploadIds("lt://APP123", null).write(appIds);
+        new UploadIds(null, "lt://TEST123").write(testSuiteIds);
+
+        Project project = ProjectBuilder.builder().withProjectDir(tempDir).build();
+        LambdaTestTask task = project.getTasks().create("runTests", LambdaTestTask.class);
+        task.setUsername("testuser");
+        task.setAccessKey("testkey");
+        task.setDevice(Arrays.asList("Pixel 3-9"));
+        task.getUploadIdsFiles().from(appIds, testSuiteIds);
+
+        // Act
+        task.runLambdaTest();
+
+        // Assert - Only the build is requested, with the IDs of both files
+        assertEquals(1, mockServer.getRequestCount());
+        String body = mockServer.takeRequest().getBody().readUtf8();
+        assertTrue(body.contains("lt://APP123"));
+        assertTrue(body.contains("lt://TEST123"));
+    }
+
+    @Test
+    void testRunTaskFailsWhenBuildIsRejected() {
+        // Arrange
+        mockServer.enqueueErrorResponse(400, "Invalid app ID");
+
+        Project project = ProjectBuilder.builder().withProjectDir(tempDir).build();
+        LambdaTestTask task = project.getTasks().create("runTests", LambdaTestTask.class);
+        task.setUsername("testuser");
+        task.setAccessKey("testkey");
+        task.setAppId("lt://APP123");
+        task.setTestSuiteId("lt://TEST123");
+        task.setDevice(Arrays.asList("Pixel 3-9"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, task::runLambdaTest);
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testRejectedBuildInvalidatesOnlyNamedCachedId() {
+        // Arrange - both IDs are taken from the cache, the rejection names the app
+        mockServer.enqueueErrorResponse(400, "Invalid app ID");
+        File cacheFile = new File(tempDir, "upload-cache.json");
+        UploadCache cache = new UploadCache(cacheFile, Duration.ofDays(1), 10);
+        cache.put("testuser", "endpoint", "app", 1L, "lt://APP123");
+        cache.put("testuser", "endpoint", "suite", 1L, "lt://TEST123");
+        TestExecutor executor =
+                new TestExecutor(
+                        "testuser",
+                        "testkey",
+                        cache.lookup("testuser", "endpoint", "app"),
+                        cache.lookup("testuser", "endpoint", "suite"),
+                        Arrays.asList("Pixel 3-9"),
+                        false,
+                        ExecutionOptions.builder().uploadCache(cache).build());
+
+        // Act
+        assertThrows(RuntimeException.class, () -> executor.executeTests(new HashMap<>()));
+
+        // Assert
+        UploadCache reloaded = new UploadCache(cacheFile, Duration.ofDays(1), 10);
+        assertNull(reloaded.lookup("testuser", "endpoint", "app"));
+        assertEquals("lt://TEST123", reloaded.lookup("testuser", "endpoint", "suite"));
+    }
+
+    @Test
+    void testRejectedBuildKeepsCachedIdGivenExplicitly() {
+        // Arrange - the app ID is cached but was passed explicitly instead of looked up
+        mockServer.enqueueErrorResponse(400, "Invalid app ID");
+        File cacheFile = new File(tempDir, "upload-cache.json");
+        UploadCache cache = new UploadCache(cacheFile, Duration.ofDays(1), 10);
+        cache.put("testuser", "endpoint", "app", 1L, "lt://APP123");
+        TestExecutor executor =
+                new TestExecutor(
+                        "testuser",
+                        "testkey",
+                        "lt://APP123",
+                        "lt://TEST123",
+                        Arrays.asList("Pixel 3-9"),
+                        false,
+                        ExecutionOptions.builder().uploadCache(cache).build());
+
+        // Act
+        assertThrows(RuntimeException.class, () -> executor.executeTests(new HashMap<>()));
+
+        // Assert
+        UploadCache reloaded = new UploadCache(cacheFile, Duration.ofDays(1), 10);
+        assertEquals("lt://APP123", reloaded.lookup("testuser", "endpoint", "app"));
+    }
 }
@@ -0,0 +1,90 @@
+package io.github.lambdatest.gradle.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.lambdatest.gradle.AppUploader;
+import io.github.lambdatest.gradle.LambdaTestHttpService;
+import io.github.lambdatest.gradle.TestSuiteUploader;
+import io.github.lambdatest.gradle.UploadExecutor;
+import io.github.lambdatest.gradle.UploadOptions;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class Http2IntegrationTest {
+    private MockLambdaTestServer mockServer;
+    private UploadExecutor executor;
+    private String testAppPath;
+    private String testSuitePath;
+
+    @BeforeEach
+    void setUp() {
+        mockServer = new MockLambdaTestServer();
+        executor = new UploadExecutor(2);
+        testAppPath = getClass().getClassLoader().getResource("test-app.apk").getPath();
+        testSuitePath = getClass().getClassLoader().getResource("test-suite.apk").getPath();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.close();
+        mockServer.stop();
+    }
+
+    @Test
+    void testConcurrentUploadsShareOneHttp2Connection() throws Exception {
+        // Arrange
+        mockServer.start(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        mockServer.enableUploads("lt://APP123456789");
+        UploadOptions options = optionsFor(LambdaTestHttpService.HTTP2_CLEARTEXT);
+
+        // Act
+        uploadBoth(options);
+
+        // Assert - Both uploads were streams of the same connection
+        List<Integer> sequenceNumbers =
+                Arrays.asList(
+                        mockServer.takeRequest().getSequenceNumber(),
+                        mockServer.takeRequest().getSequenceNumber());
+        Collections.sort(sequenceNumbers);
+        assertEquals(Arrays.asList(0, 1), sequenceNumbers);
+    }
+
+    @Test
+    void testConcurrentUploadsFallBackToHttp1() throws Exception {
+        // Arrange - A server without HTTP/2 support
+        mockServer.start();
+        mockServer.enableUploads("lt://APP123456789");
+        UploadOptions options = optionsFor(LambdaTestHttpService.HTTP2_ENABLED);
+
+        // Act
+        uploadBoth(options);
+
+        // Assert
+        assertEquals(2, mockServer.getRequestCount());
+    }
+
+    private void uploadBoth(UploadOptions options) {
+        CompletableFuture<String> app =
+                new AppUploader("testuser", "testkey", testAppPath, options).uploadAppAsync();
+        CompletableFuture<String> testSuite =
+                new TestSuiteUploader("testuser", "testkey", testSuitePath, options)
+                        .uploadTestSuiteAsync();
+        assertEquals(
+                Arrays.asList("lt://APP123456789", "lt://APP123456789"),
+                Arrays.asList(app.join(), testSuite.join()));
+    }
+
+    private UploadOptions optionsFor(String http2) {
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(5, 300, 10, 0, 0, null, http2);
+        return UploadOptions.builder().httpClient(client).executor(executor).build();
+    }
+}
@@ -1,18 +1,76 @@
 package io.github.lambdatest.gradle.integration;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import io.github.lambdatest.gradle.Constants;
+import io.github.lambdatest.gradle.FileDigest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import okhttp3.MediaType;
+import okhttp3.MultipartReader;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 
 /** Utility class for setting up MockWebServer to simulate LambdaTest API responses. */
 public class MockLambdaTestServer {
+    private static final Pattern CHUNK_PATH = Pattern.compile(".*/chunked/([^/]+)/chunks/(\\d+)$");
+    private static final Pattern COMPLETE_PATH = Pattern.compile(".*/chunked/([^/]+)/complete$");
+    private static final Pattern STATUS_PATH = Pattern.compile(".*/builds/([^/]+)$");
+    private static final Pattern STREAM_PATH = Pattern.compile(".*/builds/([^/]+)/stream$");
+    private static final Pattern PART_NAME = Pattern.compile("name=\"([^\"]*)\"");
+
     private MockWebServer server;
     private String baseUrl;
 
+    private final Map<String, Map<Integer, byte[]>> chunkedUploads = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> chunkFailures = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadCounter = new AtomicInteger();
+    private final AtomicInteger chunkRequestCount = new AtomicInteger();
+    private volatile byte[] completedUpload;
+    private volatile byte[] decodedUpload;
+    private volatile long encodedUploadSize;
+    private volatile String uploadEncoding;
+    private volatile String uploadDigestTrailer;
+    private volatile String echoedDigest;
+    private final AtomicInteger statusRequestCount = new AtomicInteger();
+    private final Map<String, byte[]> storedUploads = new ConcurrentHashMap<>();
+    private final AtomicInteger deltaUploadCount = new AtomicInteger();
+    private volatile long deltaDataSize;
+
     public void start() throws IOException {
+        start(null);
+    }
+
+    /**
+     * Starts the server speaking the given protocols, for example {@link
+     * Protocol#H2_PRIOR_KNOWLEDGE} to accept cleartext HTTP/2.
+     */
+    public void start(List<Protocol> protocols) throws IOException {
         server = new MockWebServer();
+        if (protocols != null) {
+            server.setProtocols(protocols);
+        }
         server.start();
         baseUrl = server.url("/").toString();
 
@@ -21,6 +79,9 @@ public class MockLambdaTestServer {
                 baseUrl + "app/uploadFramework",
                 baseUrl + "framework/v1/espresso/build",
                 baseUrl + "framework/v1/flutter/build");
+        Constants.setTestChunkedUploadUrl(baseUrl + "app/upload/chunked");
+        Constants.setTestDeltaUploadUrl(baseUrl + "app/upload/delta");
+        Constants.setTestBuildStatusUrl(baseUrl + "mobile-automation/api/v1/builds");
     }
 
     public void stop() throws IOException {
@@ -49,10 +110,365 @@ public class MockLambdaTestServer {
                         .setBody("{\"error\":\"" + message + "\"}"));
     }
 
+    public void enqueueThrottledResponse(int code, String retryAfter) {
+        server.enqueue(
+                new MockResponse()
+                        .setResponseCode(code)
+                        .setHeader("Retry-After", retryAfter)
+                        .setBody("{\"error\":\"Too many requests\"}"));
+    }
+
+    /**
+     * Serves the chunked upload protocol instead of queued responses. Uploaded chunks are kept in
+     * memory and reassembled when the upload is completed.
+     */
+    public void enableChunkedUploads(String appId) {
+        server.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        return dispatchChunked(request, appId);
+                    }
+                });
+    }
+
+    /**
+     * Answers every request with a successful upload instead of queued responses. Request bodies
+     * are read but not kept, so that large uploads can be served repeatedly.
+     */
+    public void enableUploads(String appId) {
+        server.setBodyLimit(0);
+        server.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        return json(200, "{\"app_id\":\"" + appId + "\"}");
+                    }
+                });
+    }
+
+    /**
+     * Answers every upload with success after decoding its APK part according to the part's
+     * {@code Content-Encoding}, so that tests can compare what arrived with what was sent. A part
+     * that cannot be decoded is answered with a 400, an unknown encoding with a 415. The response
+     * echoes the {@link io.github.lambdatest.gradle.FileDigest} of the decoded APK.
+     */
+    public void enableDecodedUploads(String appId) {
+        server.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        return dispatchDecoded(request, appId);
+                    }
+                });
+    }
+
+    /**
+     * Serves full and delta uploads instead of queued responses. Every upload is kept under a new
+     * ID. A delta is rebuilt from the upload it names as its base, after checking that the base
+     * has the given digest, and is rejected with a 400 unless the rebuilt APK has the digest the
+     * client announced. A delta against an unknown base is answered with a 404.
+     */
+    public void enableDeltaUploads() {
+        server.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        return dispatchDelta(request);
+                    }
+                });
+    }
+
+    /** Makes the next {@code times} uploads of the given chunk fail with a 503. */
+    public void failChunk(int index, int times) {
+        chunkFailures.put(index, new AtomicInteger(times));
+    }
+
+    /** Drops all chunked uploads in progress, as if they had expired on the server. */
+    public void forgetChunkedUploads() {
+        chunkedUploads.clear();
+    }
+
+    public int getChunkRequestCount() {
+        return chunkRequestCount.get();
+    }
+
+    public byte[] getCompletedUpload() {
+        return completedUpload;
+    }
+
+    /** Returns the decoded APK of the last upload served by {@link #enableDecodedUploads}. */
+    public byte[] getDecodedUpload() {
+        return decodedUpload;
+    }
+
+    /** Returns the size of the APK part of the last decoded upload, as it was sent. */
+    public long getEncodedUploadSize() {
+        return encodedUploadSize;
+    }
+
+    /** Returns the APK stored under an ID by {@link #enableDeltaUploads}, rebuilt if a delta. */
+    public byte[] getStoredUpload(String appId) {
+        return storedUploads.get(appId);
+    }
+
+    /** Drops all stored uploads, as if they had expired on the server. */
+    public void forgetStoredUploads() {
+        storedUploads.clear();
+    }
+
+    public int getDeltaUploadCount() {
+        return deltaUploadCount.get();
+    }
+
+    /** Returns the size of the data part of the last delta upload. */
+    public long getDeltaDataSize() {
+        return deltaDataSize;
+    }
+
+    /** Returns the digest part sent after the APK of the last decoded upload, null if none. */
+    public String getUploadDigestTrailer() {
+        return uploadDigestTrailer;
+    }
+
+    /**
+     * Makes decoded uploads echo the given digest instead of the digest of what was received, as
+     * if uploads were altered in transit.
+     */
+    public void echoDigest(String digest) {
+        echoedDigest = digest;
+    }
+
+    /** Returns the {@code Content-Encoding} of the last decoded upload, null if not encoded. */
+    public String getUploadEncoding() {
+        return uploadEncoding;
+    }
+
+    /**
+     * Serves build status requests instead of queued responses. Each poll returns the next of the
+     * given statuses, repeating the last one. When push statuses are given, the stream endpoint
+     * accepts a WebSocket and sends them as messages, otherwise it answers 404.
+     */
+    public void enableBuildStatus(List<String> polledStatuses, List<String> pushedStatuses) {
+        List<String> remaining = new ArrayList<>(polledStatuses);
+        server.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        String path = request.getPath();
+                        if (STREAM_PATH.matcher(path).matches()) {
+                            return pushedStatuses == null
+                                    ? json(404, "{\"error\":\"not found\"}")
+                                    : new MockResponse().withWebSocketUpgrade(push(pushedStatuses));
+                        }
+                        if (STATUS_PATH.matcher(path).matches()) {
+                            statusRequestCount.incrementAndGet();
+                            String status;
+                            synchronized (remaining) {
+                                status =
+                                        remaining.size() > 1
+                                                ? remaining.remove(0)
+                                                : remaining.get(0);
+                            }
+                            return json(200, "{\"data\":{\"status_ind\":\"" + status + "\"}}");
+                        }
+                        return json(404, "{\"error\":\"not found\"}");
+                    }
+                });
+    }
+
+    public int getStatusRequestCount() {
+        return statusRequestCount.get();
+    }
+
+    private static WebSocketListener push(List<String> statuses) {
+        return new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                for (String status : statuses) {
+                    webSocket.send("{\"status\":\"" + status + "\"}");
+                }
+            }
+        };
+    }
+
+    private MockResponse dispatchChunked(RecordedRequest request, String appId) {
+        String path = request.getPath();
+        if (path.endsWith("/chunked/init")) {
+            String uploadId = "UPLOAD" + uploadCounter.incrementAndGet();
+            chunkedUploads.put(uploadId, new ConcurrentHashMap<>());
+            return json(200, "{\"upload_id\":\"" + uploadId + "\"}");
+        }
+
+        Matcher chunk = CHUNK_PATH.matcher(path);
+        if (chunk.matches()) {
+            Map<Integer, byte[]> chunks = chunkedUploads.get(chunk.group(1));
+            if (chunks == null) {
+                return json(404, "{\"error\":\"unknown upload\"}");
+            }
+            int index = Integer.parseInt(chunk.group(2));
+            chunkRequestCount.incrementAndGet();
+            AtomicInteger failures = chunkFailures.get(index);
+            if (failures != null && failures.getAndDecrement() > 0) {
+                return json(503, "{\"error\":\"unavailable\"}");
+            }
+            chunks.put(index, request.getBody().readByteArray());
+            return json(200, "{\"received\":" + index + "}");
+        }
+
+        Matcher complete = COMPLETE_PATH.matcher(path);
+        if (complete.matches()) {
+            Map<Integer, byte[]> chunks = chunkedUploads.remove(complete.group(1));
+            if (chunks == null) {
+                return json(404, "{\"error\":\"unknown upload\"}");
+            }
+            ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+            for (int i = 0; i < chunks.size(); i++) {
+                byte[] bytes = chunks.get(i);
+                if (bytes == null) {
+                    return json(400, "{\"error\":\"missing chunk " + i + "\"}");
+                }
+                assembled.write(bytes, 0, bytes.length);
+            }
+            completedUpload = assembled.toByteArray();
+            return json(200, "{\"app_id\":\"" + appId + "\"}");
+        }
+
+        return json(404, "{\"error\":\"not found\"}");
+    }
+
+    private MockResponse dispatchDecoded(RecordedRequest request, String appId) {
+        String boundary = MediaType.parse(request.getHeader("Content-Type")).parameter("boundary");
+        byte[] decoded = null;
+        String trailer = null;
+        try (MultipartReader reader = new MultipartReader(request.getBody(), boundary)) {
+            MultipartReader.Part part;
+            while ((part = reader.nextPart()) != null) {
+                String disposition = part.headers().get("Content-Disposition");
+                if (disposition != null && disposition.contains("name=\"digest\"")) {
+                    trailer = part.body().readUtf8();
+                }
+                if (disposition == null || !disposition.contains("name=\"appFile\"")) {
+                    continue;
+                }
+                byte[] encoded = part.body().readByteArray();
+                String encoding = part.headers().get("Content-Encoding");
+                if (encoding != null && !"gzip".equals(encoding)) {
+                    return json(415, "{\"error\":\"unsupported encoding " + encoding + "\"}");
+                }
+                decoded = encoding != null ? gunzip(encoded) : encoded;
+                encodedUploadSize = encoded.length;
+                uploadEncoding = encoding;
+            }
+            if (decoded == null) {
+                return json(400, "{\"error\":\"missing appFile\"}");
+            }
+            decodedUpload = decoded;
+            uploadDigestTrailer = trailer;
+            String echoed = echoedDigest != null ? echoedDigest : digest(decoded);
+            return json(200, "{\"app_id\":\"" + appId + "\",\"digest\":\"" + echoed + "\"}");
+        } catch (IOException e) {
+            return json(400, "{\"error\":\"corrupt upload\"}");
+        }
+    }
+
+    private MockResponse dispatchDelta(RecordedRequest request) {
+        try {
+            Map<String, byte[]> parts = parts(request);
+            if (!request.getPath().endsWith("/app/upload/delta")) {
+                byte[] apk = parts.get("appFile");
+                if (apk == null) {
+                    return json(400, "{\"error\":\"missing appFile\"}");
+                }
+                return json(200, "{\"app_id\":\"" + store(apk) + "\"}");
+            }
+
+            byte[] base = storedUploads.get(string(parts.get("base")));
+            if (base == null) {
+                return json(404, "{\"error\":\"unknown base\"}");
+            }
+            if (!digest(base).equals(string(parts.get("baseDigest")))) {
+                return json(409, "{\"error\":\"base digest mismatch\"}");
+            }
+            byte[] data = parts.get("data");
+            ByteArrayOutputStream rebuilt = new ByteArrayOutputStream();
+            for (JsonElement element : JsonParser.parseString(string(parts.get("recipe")))
+                    .getAsJsonArray()) {
+                JsonObject range = element.getAsJsonObject();
+                byte[] source = "base".equals(range.get("source").getAsString()) ? base : data;
+                int offset = range.get("offset").getAsInt();
+                int length = range.get("length").getAsInt();
+                if (offset < 0 || length < 0 || offset + length > source.length) {
+                    return json(400, "{\"error\":\"range out of bounds\"}");
+                }
+                rebuilt.write(source, offset, length);
+            }
+            byte[] apk = rebuilt.toByteArray();
+            if (!digest(apk).equals(string(parts.get("digest")))) {
+                return json(400, "{\"error\":\"digest mismatch\"}");
+            }
+            deltaUploadCount.incrementAndGet();
+            deltaDataSize = data.length;
+            return json(200, "{\"app_id\":\"" + store(apk) + "\"}");
+        } catch (IOException | RuntimeException e) {
+            return json(400, "{\"error\":\"corrupt upload\"}");
+        }
+    }
+
+    private String store(byte[] apk) {
+        String appId = "lt://APP" + uploadCounter.incrementAndGet();
+        storedUploads.put(appId, apk);
+        return appId;
+    }
+
+    /** Reads the parts of a multipart request by name. */
+    private static Map<String, byte[]> parts(RecordedRequest request) throws IOException {
+        String boundary = MediaType.parse(request.getHeader("Content-Type")).parameter("boundary");
+        Map<String, byte[]> parts = new HashMap<>();
+        try (MultipartReader reader = new MultipartReader(request.getBody(), boundary)) {
+            MultipartReader.Part part;
+            while ((part = reader.nextPart()) != null) {
+                Matcher name = PART_NAME.matcher(part.headers().get("Content-Disposition"));
+                if (name.find()) {
+                    parts.put(name.group(1), part.body().readByteArray());
+                }
+            }
+        }
+        return parts;
+    }
+
+    private static String string(byte[] bytes) {
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static String digest(byte[] content) throws IOException {
+        File file = File.createTempFile("mock-upload", ".apk");
+        try {
+            Files.write(file.toPath(), content);
+            return FileDigest.digest(file);
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    private static byte[] gunzip(byte[] encoded) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static MockResponse json(int code, String body) {
+        return new MockResponse().setResponseCode(code).setBody(body);
+    }
+
     public RecordedRequest takeRequest() throws InterruptedException {
         return server.takeRequest();
     }
 
+    public int getRequestCount() {
+        return server.getRequestCount();
+    }
+
     public String getBaseUrl() {
         return baseUrl;
     }
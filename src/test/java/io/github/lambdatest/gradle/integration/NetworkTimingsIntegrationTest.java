@@ -0,0 +1,102 @@
+package io.github.lambdatest.gradle.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.lambdatest.gradle.AppUploader;
+import io.github.lambdatest.gradle.LambdaTestHttpService;
+import io.github.lambdatest.gradle.NetworkTimings;
+import io.github.lambdatest.gradle.RetryPolicy;
+import io.github.lambdatest.gradle.UploadOptions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NetworkTimingsIntegrationTest {
+    private MockLambdaTestServer mockServer;
+    private NetworkTimings timings;
+    private UploadOptions options;
+    private String testAppPath;
+
+    @TempDir File tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockServer = new MockLambdaTestServer();
+        mockServer.start();
+        testAppPath = getClass().getClassLoader().getResource("test-app.apk").getPath();
+
+        timings = new NetworkTimings();
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(5, 300, 10, 0, 0, null)
+                        .newBuilder()
+                        .eventListenerFactory(timings)
+                        .build();
+        RetryPolicy retryPolicy =
+                RetryPolicy.builder().maxAttempts(2).initialBackoff(Duration.ZERO).build();
+        options = UploadOptions.builder().httpClient(client).retryPolicy(retryPolicy).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockServer.stop();
+    }
+
+    @Test
+    void testReportContainsPhaseTimingsOfUpload() throws Exception {
+        // Arrange
+        mockServer.enqueueUploadResponse("lt://APP123456789");
+        File report = new File(tempDir, "reports/network-timings.json");
+
+        // Act
+        new AppUploader("testuser", "testkey", testAppPath, options).uploadAppAsync().get();
+        timings.writeReport(report);
+
+        // Assert
+        JsonObject json = readJson(report);
+        assertEquals(1, json.get("calls").getAsInt());
+        assertEquals(0, json.get("failedCalls").getAsInt());
+        assertEquals(1, json.get("connectionsOpened").getAsInt());
+        JsonObject call = json.getAsJsonArray("timings").get(0).getAsJsonObject();
+        assertEquals("POST", call.get("method").getAsString());
+        assertEquals("/app/uploadFramework", call.get("path").getAsString());
+        assertEquals(200, call.get("status").getAsInt());
+        assertFalse(call.get("connectionReused").getAsBoolean());
+        assertTrue(call.has("connectMs"));
+        assertTrue(call.has("requestBodyMs"));
+        assertTrue(call.has("timeToFirstByteMs"));
+        assertTrue(call.has("uploadBytesPerSecond"));
+        assertTrue(call.get("bytesSent").getAsLong() > new File(testAppPath).length());
+    }
+
+    @Test
+    void testEachAttemptIsRecorded() throws Exception {
+        // Arrange
+        mockServer.enqueueErrorResponse(503, "Service unavailable");
+        mockServer.enqueueUploadResponse("lt://APP123456789");
+
+        // Act
+        new AppUploader("testuser", "testkey", testAppPath, options).uploadAppAsync().get();
+
+        // Assert
+        assertEquals(2, timings.getCalls().size());
+        assertEquals(503, timings.getCalls().get(0).getStatus());
+        assertEquals(200, timings.getCalls().get(1).getStatus());
+        assertEquals(
+                timings.getCalls().get(0).getBytesSent(), timings.getCalls().get(1).getBytesSent());
+    }
+
+    private static JsonObject readJson(File file) throws IOException {
+        return JsonParser.parseString(
+                        new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+    }
+}
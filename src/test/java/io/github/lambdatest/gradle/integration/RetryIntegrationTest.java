@@ -0,0 +1,196 @@
+package io.github.lambdatest.gradle.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.lambdatest.gradle.AppUploader;
+import io.github.lambdatest.gradle.CircuitBreaker;
+import io.github.lambdatest.gradle.Constants;
+import io.github.lambdatest.gradle.ExecutionOptions;
+import io.github.lambdatest.gradle.FileChannelRequestBody;
+import io.github.lambdatest.gradle.RetryPolicy;
+import io.github.lambdatest.gradle.TestExecutor;
+import io.github.lambdatest.gradle.UploadOptions;
+import io.github.lambdatest.gradle.UploadSourceException;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RetryIntegrationTest {
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private MockLambdaTestServer mockServer;
+    private String testAppPath;
+    private RetryPolicy retryPolicy;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockServer = new MockLambdaTestServer();
+        mockServer.start();
+        testAppPath = getClass().getClassLoader().getResource("test-app.apk").getPath();
+        retryPolicy = RetryPolicy.builder().initialBackoff(Duration.ZERO).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockServer.stop();
+    }
+
+    @Test
+    void testUploadIsRetriedWithSameIdempotencyKey() throws Exception {
+        // Arrange
+        mockServer.enqueueErrorResponse(503, "Service unavailable");
+        mockServer.enqueueErrorResponse(502, "Bad gateway");
+        mockServer.enqueueUploadResponse("lt://APP123456789");
+        UploadOptions options = UploadOptions.builder().retryPolicy(retryPolicy).build();
+
+        // Act
+        String appId =
+                new AppUploader("testuser", "testkey", testAppPath, options)
+                        .uploadAppAsync()
+                        .get();
+
+        // Assert
+        assertEquals("lt://APP123456789", appId);
+        assertEquals(3, mockServer.getRequestCount());
+        String key = mockServer.takeRequest().getHeader(RetryPolicy.IDEMPOTENCY_KEY_HEADER);
+        assertNotNull(key);
+        assertEquals(key, mockServer.takeRequest().getHeader(RetryPolicy.IDEMPOTENCY_KEY_HEADER));
+        assertEquals(key, mockServer.takeRequest().getHeader(RetryPolicy.IDEMPOTENCY_KEY_HEADER));
+    }
+
+    @Test
+    void testThrottledBuildSubmissionIsRetriedAfterRetryAfter() throws Exception {
+        // Arrange
+        mockServer.enqueueThrottledResponse(429, "0");
+        mockServer.enqueueBuildResponse("BUILD123456789");
+
+        // Act
+        String buildId = createExecutor().submitBuild(new HashMap<>());
+
+        // Assert
+        assertEquals("BUILD123456789", buildId);
+        assertEquals(2, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testBuildSubmissionIsNotResentAfterAmbiguousFailure() throws Exception {
+        // Arrange - A 502 does not tell whether the build was started
+        mockServer.enqueueErrorResponse(502, "Bad gateway");
+        mockServer.enqueueBuildResponse("BUILD123456789");
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> createExecutor().submitBuild(new HashMap<>()));
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testOpenCircuitBreakerFailsFast() {
+        // Arrange
+        RetryPolicy policy =
+                RetryPolicy.builder()
+                        .maxAttempts(2)
+                        .initialBackoff(Duration.ZERO)
+                        .circuitBreaker(new CircuitBreaker(2, Duration.ofMinutes(1)))
+                        .build();
+        UploadOptions options = UploadOptions.builder().retryPolicy(policy).build();
+        mockServer.enqueueErrorResponse(500, "Internal error");
+        mockServer.enqueueErrorResponse(500, "Internal error");
+        mockServer.enqueueUploadResponse("lt://APP123456789");
+
+        // Act
+        AppUploader uploader = new AppUploader("testuser", "testkey", testAppPath, options);
+        assertThrows(Exception.class, () -> uploader.uploadAppAsync().get());
+        assertThrows(Exception.class, () -> uploader.uploadAppAsync().get());
+
+        // Assert - The second upload was refused without reaching the server
+        assertTrue(policy.getCircuitBreaker().isOpen());
+        assertEquals(2, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testUnreadableUploadDoesNotOpenCircuitBreaker() {
+        // Arrange - The body claims more bytes than the file holds, as if it was truncated
+        RetryPolicy policy =
+                RetryPolicy.builder()
+                        .initialBackoff(Duration.ZERO)
+                        .circuitBreaker(new CircuitBreaker(1, Duration.ofMinutes(1)))
+                        .build();
+        File file = new File(testAppPath);
+        RequestBody body =
+                new FileChannelRequestBody(file, 0, file.length() + 100, OCTET_STREAM, null);
+
+        // Act
+        assertThrows(
+                UploadSourceException.class,
+                () -> policy.execute(new OkHttpClient(), upload(body), true));
+
+        // Assert - The local failure was neither retried nor blamed on LambdaTest
+        assertFalse(policy.getCircuitBreaker().isOpen());
+    }
+
+    @Test
+    void testTrialRequestEndingInExceptionReleasesCircuitBreaker() throws Exception {
+        // Arrange - Open the breaker, so that the next request is the trial
+        RetryPolicy policy =
+                RetryPolicy.builder()
+                        .maxAttempts(1)
+                        .circuitBreaker(new CircuitBreaker(1, Duration.ZERO))
+                        .build();
+        OkHttpClient client = new OkHttpClient();
+        mockServer.enqueueErrorResponse(500, "Internal error");
+        policy.execute(client, upload(RequestBody.create("app", OCTET_STREAM)), true).close();
+        assertTrue(policy.getCircuitBreaker().isOpen());
+        RequestBody failingBody =
+                new RequestBody() {
+                    @Override
+                    public MediaType contentType() {
+                        return OCTET_STREAM;
+                    }
+
+                    @Override
+                    public void writeTo(@NotNull BufferedSink sink) {
+                        throw new IllegalStateException("Body failed");
+                    }
+                };
+
+        // Act
+        assertThrows(
+                IllegalStateException.class,
+                () -> policy.execute(client, upload(failingBody), true));
+        mockServer.enqueueUploadResponse("lt://APP123456789");
+
+        // Assert - The next request is let through as the new trial and closes the breaker
+        try (Response response =
+                policy.execute(client, upload(RequestBody.create("app", OCTET_STREAM)), true)) {
+            assertTrue(response.isSuccessful());
+        }
+        assertFalse(policy.getCircuitBreaker().isOpen());
+    }
+
+    private static Request upload(RequestBody body) {
+        return new Request.Builder().url(Constants.getApiUrl()).post(body).build();
+    }
+
+    private TestExecutor createExecutor() {
+        return new TestExecutor(
+                "testuser",
+                "testkey",
+                "lt://APP123",
+                "lt://TEST123",
+                Arrays.asList("Pixel 3-9"),
+                false,
+                ExecutionOptions.builder().retryPolicy(retryPolicy).build());
+    }
+}
@@ -3,19 +3,36 @@ package io.github.lambdatest.gradle.integration;
 import static org.junit.jupiter.api.Assertions.*;
 
 import io.github.lambdatest.gradle.AppUploader;
+import io.github.lambdatest.gradle.FileDigest;
+import io.github.lambdatest.gradle.LambdaUploaderTask;
 import io.github.lambdatest.gradle.TestSuiteUploader;
+import io.github.lambdatest.gradle.UploadCache;
+import io.github.lambdatest.gradle.UploadIds;
+import io.github.lambdatest.gradle.UploadOptions;
+import io.github.lambdatest.gradle.UploadRegistry;
+import io.github.lambdatest.gradle.UploaderUtil;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import okhttp3.mockwebserver.RecordedRequest;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class UploadIntegrationTest {
     private MockLambdaTestServer mockServer;
     private String testAppPath;
     private String testSuitePath;
 
+    @TempDir File tempDir;
+
     @BeforeEach
     void setUp() throws IOException {
         mockServer = new MockLambdaTestServer();
@@ -82,4 +99,162 @@ class UploadIntegrationTest {
         CompletableFuture<String> result = uploader.uploadAppAsync();
         assertThrows(Exception.class, result::get);
     }
+
+    @Test
+    void testChunkedUploadFallsBackToSingleRequestWhenUnsupported() throws Exception {
+        // Arrange
+        String expectedAppId = "lt://APP123456789";
+        mockServer.enqueueErrorResponse(404, "Not found");
+        mockServer.enqueueUploadResponse(expectedAppId);
+        UploadOptions options =
+                UploadOptions.builder()
+                        .chunkedUpload(true)
+                        .chunkJournalDir(new File(tempDir, "journal"))
+                        .build();
+
+        // Act
+        String appId =
+                UploaderUtil.uploadAndGetId("testuser", "testkey", testAppPath, "App", options);
+
+        // Assert
+        assertEquals(expectedAppId, appId);
+        assertTrue(mockServer.takeRequest().getPath().endsWith("/chunked/init"));
+        assertTrue(mockServer.takeRequest().getPath().contains("uploadFramework"));
+    }
+
+    @Test
+    void testCachedUploadSkipsNetwork() throws Exception {
+        // Arrange
+        String expectedAppId = "lt://APP123456789";
+        mockServer.enqueueUploadResponse(expectedAppId);
+        UploadCache cache =
+                new UploadCache(new File(tempDir, "upload-cache.json"), Duration.ofDays(1), 10);
+
+        // Act
+        UploadOptions options = UploadOptions.builder().uploadCache(cache).build();
+        String firstId =
+                new AppUploader("testuser", "testkey", testAppPath, options)
+                        .uploadAppAsync()
+                        .get();
+        String secondId =
+                new TestSuiteUploader("testuser", "testkey", testAppPath, options)
+                        .uploadTestSuiteAsync()
+                        .get();
+
+        // Assert - Identical content is only uploaded once
+        assertEquals(expectedAppId, firstId);
+        assertEquals(expectedAppId, secondId);
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testConcurrentUploadsOfSameContentAreCoalesced() throws Exception {
+        // Arrange
+        String expectedId = "lt://TEST123456789";
+        mockServer.enqueueUploadResponse(expectedId);
+        UploadRegistry registry = new UploadRegistry();
+        UploadOptions options = UploadOptions.builder().uploadRegistry(registry).build();
+
+        // Act
+        CompletableFuture<String> first =
+                new TestSuiteUploader("testuser", "testkey", testSuitePath, options)
+                        .uploadTestSuiteAsync();
+        CompletableFuture<String> second =
+                new TestSuiteUploader("testuser", "testkey", testSuitePath, options)
+                        .uploadTestSuiteAsync();
+
+        // Assert - Both tasks share the single upload
+        assertEquals(expectedId, first.get());
+        assertEquals(expectedId, second.get());
+        assertEquals(1, mockServer.getRequestCount());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void testCompressedUploadIsDecodedByServer() throws Exception {
+        // Arrange
+        String expectedAppId = "lt://APP123456789";
+        mockServer.enableDecodedUploads(expectedAppId);
+        byte[] content = new byte[256 * 1024];
+        new Random(42).nextBytes(content);
+        // Half of the APK stored uncompressed, as native libraries are
+        Arrays.fill(content, content.length / 2, content.length, (byte) 0x7f);
+        File apk = new File(tempDir, "compressible.apk");
+        Files.write(apk.toPath(), content);
+        UploadOptions options =
+                UploadOptions.builder().compressedUpload(true).compressionLevel(6).build();
+
+        // Act
+        String appId =
+                new AppUploader("testuser", "testkey", apk.getAbsolutePath(), options)
+                        .uploadAppAsync()
+                        .get();
+
+        // Assert
+        assertEquals(expectedAppId, appId);
+        assertEquals("gzip", mockServer.getUploadEncoding());
+        assertArrayEquals(content, mockServer.getDecodedUpload());
+        assertTrue(mockServer.getEncodedUploadSize() < content.length * 0.6);
+        assertEquals(FileDigest.digest(apk), mockServer.getUploadDigestTrailer());
+    }
+
+    @Test
+    void testUploadSendsDigestOfStreamedContent() throws Exception {
+        // Arrange
+        mockServer.enableDecodedUploads("lt://APP123456789");
+        UploadCache cache =
+                new UploadCache(new File(tempDir, "cache.json"), Duration.ofDays(1), 10);
+        UploadOptions options = UploadOptions.builder().uploadCache(cache).build();
+
+        // Act
+        String appId =
+                UploaderUtil.uploadAndGetId("testuser", "testkey", testAppPath, "App", options);
+
+        // Assert
+        String digest = FileDigest.digest(new File(testAppPath));
+        assertEquals(digest, mockServer.getUploadDigestTrailer());
+        assertEquals(
+                appId, cache.lookup("testuser", options.getEndpoints().getApiUrl(), digest));
+    }
+
+    @Test
+    void testUploadFailsWhenServerEchoesOtherDigest() {
+        // Arrange
+        mockServer.enableDecodedUploads("lt://APP123456789");
+        mockServer.echoDigest("0".repeat(64));
+        UploadOptions options = UploadOptions.builder().build();
+
+        // Act
+        IOException e =
+                assertThrows(
+                        IOException.class,
+                        () ->
+                                UploaderUtil.uploadAndGetId(
+                                        "testuser", "testkey", testAppPath, "App", options));
+
+        // Assert
+        assertTrue(e.getMessage().contains("was corrupted"), e.getMessage());
+    }
+
+    @Test
+    void testUploaderTaskWritesUploadIds() throws Exception {
+        // Arrange
+        mockServer.enqueueUploadResponse("lt://APP123456789");
+        Project project = ProjectBuilder.builder().withProjectDir(tempDir).build();
+        LambdaUploaderTask task =
+                project.getTasks().create("uploadApk", LambdaUploaderTask.class);
+        task.setUsername("testuser");
+        task.setAccessKey("testkey");
+        task.setAppFilePath(testAppPath);
+
+        // Act
+        task.uploadApkToLambdaTest();
+
+        // Assert
+        File idsFile = task.getUploadIdsFile().get().getAsFile();
+        UploadIds ids = UploadIds.read(idsFile);
+        assertEquals("lt://APP123456789", ids.getAppId());
+        assertNull(ids.getTestSuiteId());
+        assertTrue(task.getOutputs().getFiles().contains(idsFile));
+    }
 }
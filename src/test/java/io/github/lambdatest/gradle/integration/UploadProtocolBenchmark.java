@@ -0,0 +1,112 @@
+package io.github.lambdatest.gradle.integration;
+
+import io.github.lambdatest.gradle.AppUploader;
+import io.github.lambdatest.gradle.LambdaTestHttpService;
+import io.github.lambdatest.gradle.UploadExecutor;
+import io.github.lambdatest.gradle.UploadOptions;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Compares upload throughput over HTTP/1.1 and cleartext HTTP/2 against {@link
+ * MockLambdaTestServer} for 1, 2 and 8 concurrent uploads. Run it with {@code ./gradlew
+ * uploadProtocolBenchmark}; the optional arguments are the upload size in MiB and the number of
+ * measured rounds.
+ *
+ * <p>The mock server runs on the loopback interface without TLS, so the numbers show the cost of
+ * multiplexing the uploads over one connection rather than the saved handshakes, which only show
+ * against a remote server.
+ */
+public final class UploadProtocolBenchmark {
+
+    private static final int[] CONCURRENCY = {1, 2, 8};
+
+    private UploadProtocolBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        File apk = File.createTempFile("benchmark", ".apk");
+        apk.deleteOnExit();
+        try (RandomAccessFile file = new RandomAccessFile(apk, "rw")) {
+            file.setLength(sizeMb * 1024L * 1024L);
+        }
+
+        System.out.printf(
+                "%-10s %11s %11s %11s%n", "protocol", "concurrent", "MiB/s", "connections");
+        for (int concurrency : CONCURRENCY) {
+            run(LambdaTestHttpService.HTTP2_DISABLED, null, apk, concurrency, rounds);
+            run(
+                    LambdaTestHttpService.HTTP2_CLEARTEXT,
+                    Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE),
+                    apk,
+                    concurrency,
+                    rounds);
+        }
+        System.exit(0);
+    }
+
+    private static void run(
+            String http2, List<Protocol> serverProtocols, File apk, int concurrency, int rounds)
+            throws Exception {
+        MockLambdaTestServer server = new MockLambdaTestServer();
+        server.start(serverProtocols);
+        server.enableUploads("lt://APP123456789");
+        OkHttpClient client =
+                LambdaTestHttpService.createClient(
+                        concurrency, 300, 60, 0, 0, Collections.emptyList(), http2);
+        try (UploadExecutor executor = new UploadExecutor(concurrency)) {
+            UploadOptions options =
+                    UploadOptions.builder().httpClient(client).executor(executor).build();
+            // Warm up the connections and the JIT before measuring
+            uploadConcurrently(apk, concurrency, options);
+
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                uploadConcurrently(apk, concurrency, options);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double mebibytes = apk.length() * (double) concurrency * rounds / (1024 * 1024);
+            System.out.printf(
+                    "%-10s %11d %11.1f %11d%n",
+                    LambdaTestHttpService.HTTP2_CLEARTEXT.equals(http2) ? "HTTP/2" : "HTTP/1.1",
+                    concurrency,
+                    mebibytes / seconds,
+                    countConnections(server));
+        } finally {
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+            server.stop();
+        }
+    }
+
+    private static void uploadConcurrently(File apk, int concurrency, UploadOptions options) {
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            uploads.add(
+                    new AppUploader("benchmark", "benchmark", apk.getAbsolutePath(), options)
+                            .uploadAppAsync());
+        }
+        uploads.forEach(CompletableFuture::join);
+    }
+
+    /** Counts the connections opened, as the requests that were the first on theirs. */
+    private static int countConnections(MockLambdaTestServer server)
+            throws InterruptedException {
+        int connections = 0;
+        for (int i = server.getRequestCount(); i > 0; i--) {
+            RecordedRequest request = server.takeRequest();
+            if (request.getSequenceNumber() == 0) {
+                connections++;
+            }
+        }
+        return connections;
+    }
+}